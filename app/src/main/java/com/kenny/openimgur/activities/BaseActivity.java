@@ -22,6 +22,7 @@ import android.view.MenuItem;
 import android.widget.Toast;
 
 import com.kenny.openimgur.R;
+import com.kenny.openimgur.api.CallManager;
 import com.kenny.openimgur.classes.ImgurTheme;
 import com.kenny.openimgur.classes.ImgurUser;
 import com.kenny.openimgur.classes.OpengurApp;
@@ -29,6 +30,8 @@ import com.kenny.openimgur.util.LogUtil;
 import com.kennyc.bottomsheet.BottomSheet;
 
 import butterknife.ButterKnife;
+import retrofit2.Call;
+import retrofit2.Callback;
 
 /**
  * Created by kcampagna on 6/21/14.
@@ -46,6 +49,8 @@ abstract public class BaseActivity extends AppCompatActivity {
 
     private boolean mIsTablet = false;
 
+    private final CallManager mCallManager = new CallManager();
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         LogUtil.v(TAG, "onCreate");
@@ -106,9 +111,20 @@ abstract public class BaseActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         LogUtil.v(TAG, "onDestroy");
+        mCallManager.cancelAll();
         super.onDestroy();
     }
 
+    /**
+     * Enqueues a call that will be cancelled when the activity is destroyed. Cancelled calls do not reach the callback
+     *
+     * @param call     The call to enqueue
+     * @param callback The callback for the call
+     */
+    protected <T> void enqueue(@NonNull Call<T> call, @NonNull Callback<T> callback) {
+        mCallManager.enqueue(call, callback);
+    }
+
     /**
      * Returns if the current activity is in landscape orientation
      *
@@ -34,7 +34,7 @@ import com.kenny.openimgur.api.responses.AlbumResponse;
 import com.kenny.openimgur.classes.ImgurAlbum;
 import com.kenny.openimgur.classes.ImgurBaseObject;
 import com.kenny.openimgur.classes.ImgurPhoto;
-import com.kenny.openimgur.collections.SetUniqueList;
+import com.kenny.openimgur.collections.IdUniqueList;
 import com.kenny.openimgur.fragments.FullScreenPhotoFragment;
 import com.kenny.openimgur.services.DownloaderService;
 import com.kenny.openimgur.ui.ViewPager;
@@ -330,7 +330,7 @@ public class FullScreenPhotoActivity extends BaseActivity implements View.OnClic
 
         // Should be the case
         if (obj instanceof ImgurAlbum) {
-            ApiClient.getService().getAlbumImages(obj.getId()).enqueue(new Callback<AlbumResponse>() {
+            enqueue(ApiClient.getService().getAlbumImages(obj.getId()), new Callback<AlbumResponse>() {
                 @Override
                 public void onResponse(Call<AlbumResponse> call, Response<AlbumResponse> response) {
                     if (response != null && response.body() != null && response.body().hasData()) {
@@ -390,7 +390,7 @@ public class FullScreenPhotoActivity extends BaseActivity implements View.OnClic
             ViewUtils.setRecyclerViewGridDefaults(this, mGrid);
             List<ImgurBaseObject> adapterList = new ArrayList<>(photos.size());
             adapterList.addAll(photos);
-            mGrid.setAdapter(new GalleryAdapter(this, SetUniqueList.decorate(adapterList), this, false));
+            mGrid.setAdapter(new GalleryAdapter(this, new IdUniqueList<>(adapterList), this, false));
             mBottomSheetBehavior.setBottomSheetCallback(new BottomSheetBehavior.BottomSheetCallback() {
                 @Override
                 public void onStateChanged(@NonNull View bottomSheet, int newState) {
@@ -233,7 +233,7 @@ public class MemeActivity extends BaseActivity {
             ActivityCompat.postponeEnterTransition(this);
         }
 
-        ImageUtil.getImageLoader(this).displayImage(mObject.getLink(), mImage, new SimpleImageLoadingListener() {
+        ImageUtil.displayImage(ImageUtil.getImageLoader(this), mObject.getLink(), mImage, null, new SimpleImageLoadingListener() {
             @Override
             public void onLoadingComplete(String imageUri, View view, Bitmap loadedImage) {
                 super.onLoadingComplete(imageUri, view, loadedImage);
@@ -259,7 +259,7 @@ public class MemeActivity extends BaseActivity {
                 super.onLoadingStarted(imageUri, view);
                 mMultiStateView.setViewState(MultiStateView.VIEW_STATE_LOADING);
             }
-        });
+        }, null);
     }
 
     void onMemeCreated(@Nullable final File file) {
@@ -331,6 +331,7 @@ public class MemeActivity extends BaseActivity {
 
     @Override
     protected void onDestroy() {
+        ImageUtil.cancelDisplayTask(ImageUtil.getImageLoader(this), mImage);
         super.onDestroy();
         ViewUtils.fixTransitionLeak(this);
     }
@@ -224,7 +224,7 @@ public class NotificationActivity extends BaseActivity implements View.OnClickLi
     }
 
     private void fetchNotifications() {
-        ApiClient.getService().getNotifications().enqueue(new Callback<NotificationResponse>() {
+        enqueue(ApiClient.getService().getNotifications(), new Callback<NotificationResponse>() {
             @Override
             public void onResponse(Call<NotificationResponse> call, Response<NotificationResponse> response) {
                 if (response == null || response.body() == null) {
@@ -286,7 +286,7 @@ public class ProfileActivity extends BaseActivity {
     }
 
     void fetchProfile(final String username) {
-        ApiClient.getService().getProfile(username).enqueue(new Callback<UserResponse>() {
+        enqueue(ApiClient.getService().getProfile(username), new Callback<UserResponse>() {
             @Override
             public void onResponse(Call<UserResponse> call, Response<UserResponse> response) {
                 if (isDestroyed() || isFinishing()) return;
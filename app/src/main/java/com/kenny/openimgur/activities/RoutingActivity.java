@@ -43,12 +43,12 @@ public class RoutingActivity extends BaseActivity {
 
         String link = intent.getData().toString();
         LogUtil.v(TAG, "Received link " + link);
-        LinkUtils.LinkMatch match = LinkUtils.findImgurLinkMatch(link);
+        LinkUtils.ImgurLink imgurLink = LinkUtils.parseImgurLink(link);
         Intent routingIntent = null;
 
-        switch (match) {
+        switch (imgurLink.getMatch()) {
             case USER:
-                String username = LinkUtils.getUsername(link);
+                String username = imgurLink.getId();
 
                 if (!TextUtils.isEmpty(username)) {
                     routingIntent = ProfileActivity.createIntent(getApplicationContext(), username);
@@ -56,7 +56,7 @@ public class RoutingActivity extends BaseActivity {
                 break;
 
             case GALLERY:
-                String galleryId = LinkUtils.getGalleryId(link);
+                String galleryId = imgurLink.getId();
 
                 if (!TextUtils.isEmpty(galleryId)) {
                     routingIntent = ViewActivity.createGalleryIntent(getApplicationContext(), galleryId);
@@ -64,7 +64,7 @@ public class RoutingActivity extends BaseActivity {
                 break;
 
             case IMAGE:
-                String id = LinkUtils.getId(link);
+                String id = imgurLink.getId();
 
                 if (!TextUtils.isEmpty(id)) {
                     fetchImageDetails(id);
@@ -73,12 +73,12 @@ public class RoutingActivity extends BaseActivity {
                 break;
 
             case ALBUM:
-                String albumId = LinkUtils.getAlbumId(link);
+                String albumId = imgurLink.getId();
                 routingIntent = ViewActivity.createAlbumIntent(getApplicationContext(), albumId);
                 break;
 
             case TOPIC:
-                String topicId = LinkUtils.getTopicGalleryId(link);
+                String topicId = imgurLink.getId();
                 routingIntent = ViewActivity.createGalleryIntent(getApplicationContext(), topicId);
                 break;
 
@@ -25,8 +25,6 @@ public class SettingsActivity extends BaseActivity {
 
     public static final String KEY_CONFIRM_EXIT = "confirmExit";
 
-    public static final String KEY_THREAD_SIZE = "threadSize";
-
     public static final String NSFW_KEY = "allowNSFW";
 
     public static final String KEY_THEME_NEW ="color";
@@ -49,6 +47,8 @@ public class SettingsActivity extends BaseActivity {
 
     public static final String KEY_IMMERSIVE_MODE = "immersiveMode";
 
+    public static final String KEY_PREFETCH_THUMBNAILS = "prefetchThumbnails";
+
     // Values
     public static final String CACHE_SIZE_UNLIMITED = "unlimited";
 
@@ -64,14 +64,6 @@ public class SettingsActivity extends BaseActivity {
 
     public static final String CACHE_LOC_EXTERNAL = "external";
 
-    public static final String THREAD_SIZE_5 = "5";
-
-    public static final String THREAD_SIZE_7 = "7";
-
-    public static final String THREAD_SIZE_10 = "10";
-
-    public static final String THREAD_SIZE_12 = "12";
-
     public static final String NOTIFICATION_TIME_15 = "15";
 
     public static final String NOTIFICATION_TIME_30 = "30";
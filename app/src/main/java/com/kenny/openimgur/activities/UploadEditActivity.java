@@ -70,7 +70,7 @@ public class UploadEditActivity extends BaseActivity {
         getSupportActionBar().setBackgroundDrawable(new ColorDrawable(Color.parseColor("#33000000")));
         mUpload = getIntent().getParcelableExtra(KEY_UPLOAD);
         String url = mUpload.isLink() ? mUpload.getLocation() : "file://" + mUpload.getLocation();
-        ImageUtil.getImageLoader(this).displayImage(url, mImage, ImageUtil.getDisplayOptionsForPhotoPicker().build());
+        ImageUtil.displayImage(ImageUtil.getImageLoader(this), url, mImage, ImageUtil.getDisplayOptionsForPhotoPicker().build());
         mTitle.setText(mUpload.getTitle());
         mDescription.setText(mUpload.getDescription());
 
@@ -202,6 +202,7 @@ public class UploadEditActivity extends BaseActivity {
 
     @Override
     protected void onDestroy() {
+        ImageUtil.cancelDisplayTask(ImageUtil.getImageLoader(this), mImage);
         super.onDestroy();
         ViewUtils.fixTransitionLeak(this);
     }
@@ -16,6 +16,7 @@ import android.os.Bundle;
 import android.preference.PreferenceManager;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.annotation.StringRes;
 import android.support.design.widget.BottomSheetBehavior;
 import android.support.design.widget.CoordinatorLayout;
 import android.support.design.widget.FloatingActionButton;
@@ -37,16 +38,20 @@ import android.widget.ProgressBar;
 
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.api.CommentLoader;
 import com.kenny.openimgur.api.responses.AlbumResponse;
 import com.kenny.openimgur.api.responses.BasicObjectResponse;
 import com.kenny.openimgur.api.responses.BasicResponse;
 import com.kenny.openimgur.api.responses.CommentPostResponse;
-import com.kenny.openimgur.api.responses.CommentResponse;
+import com.kenny.openimgur.classes.CommentCache;
 import com.kenny.openimgur.classes.CustomLinkMovement;
+import com.kenny.openimgur.classes.GallerySession;
+import com.kenny.openimgur.classes.GallerySessionRepository;
 import com.kenny.openimgur.classes.ImgurAlbum;
 import com.kenny.openimgur.classes.ImgurBaseObject;
 import com.kenny.openimgur.classes.ImgurComment;
 import com.kenny.openimgur.classes.ImgurListener;
+import com.kenny.openimgur.classes.InstanceStateStore;
 import com.kenny.openimgur.classes.OpengurApp;
 import com.kenny.openimgur.fragments.CommentPopupFragment;
 import com.kenny.openimgur.fragments.ImgurViewFragment;
@@ -139,11 +144,14 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
 
     private static final String KEY_VIEW_FOR_ALBUM = "view_link_for_album";
 
-    private static final String KEY_COMMENT = "comments";
+    private static final String KEY_COMMENT_HANDLE = "commentsHandle";
 
     private static final String KEY_POSITION = "position";
 
-    private static final String KEY_OBJECTS = "objects";
+    private static final String KEY_SESSION = "session";
+
+    // How close to the end of the session the next page is requested
+    private static final int LOAD_MORE_THRESHOLD = 5;
 
     private static final String KEY_SORT = "commentSort";
 
@@ -196,10 +204,36 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
 
     BottomSheetBehavior mBottomSheetBehavior;
 
+    // Listener for the comments of the current page, replaced when the user pages away
+    @Nullable
+    private CommentLoader.CommentListener mCommentListener;
+
+    @Nullable
+    GallerySession mSession;
+
+    // Handle of the comments saved in the InstanceStateStore
+    @Nullable
+    private String mCommentStateHandle;
+
+    private final GallerySession.SessionListener mSessionListener = new GallerySession.SessionListener() {
+        @Override
+        public void onItemsAdded(GallerySession session, int start, int count) {
+            if (mPagerAdapter != null) mPagerAdapter.notifyDataSetChanged();
+
+            if (mSideGalleryFragment != null) {
+                mSideGalleryFragment.appendGalleryItems(session.getItems().subList(start, start + count));
+            }
+        }
+    };
+
     public static Intent createIntent(Context context, ArrayList<ImgurBaseObject> objects, int position) {
+        return createIntent(context, GallerySessionRepository.getInstance().createSession(objects, null), position);
+    }
+
+    public static Intent createIntent(Context context, GallerySession session, int position) {
         Intent intent = new Intent(context, ViewActivity.class);
         intent.putExtra(KEY_POSITION, position);
-        intent.putExtra(KEY_OBJECTS, objects);
+        intent.putExtra(KEY_SESSION, session.getId());
         return intent;
     }
 
@@ -241,6 +275,11 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
                     fetchComments();
                     invalidateOptionsMenu();
 
+                    // Load the next page before the user reaches the end
+                    if (mSession != null && position >= mSession.size() - LOAD_MORE_THRESHOLD) {
+                        mSession.requestMore();
+                    }
+
                     if (mSideGalleryFragment != null) {
                         mSideGalleryFragment.onPositionChanged(position);
                     }
@@ -299,7 +338,7 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
      * @param savedInstanceState Bundle if restoring
      */
     private void handleIntent(Intent intent, Bundle savedInstanceState) {
-        if (savedInstanceState != null && savedInstanceState.containsKey(KEY_OBJECTS)) {
+        if (savedInstanceState != null && savedInstanceState.containsKey(KEY_SESSION)) {
             LogUtil.v(TAG, "Bundle present, will restore in onPostCreate");
             return;
         }
@@ -307,17 +346,33 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
         if (Intent.ACTION_VIEW.equals(intent.getAction())) {
             LogUtil.v(TAG, "Received Gallery via ACTION_VIEW");
             mGalleryId = intent.getData().getPathSegments().get(1);
-        } else if (!intent.hasExtra(KEY_OBJECTS) || !intent.hasExtra(KEY_POSITION)) {
-            Snackbar.make(mViewPager, R.string.error_generic, Snackbar.LENGTH_LONG).show();
-            finish();
         } else {
-            mCurrentPosition = intent.getIntExtra(KEY_POSITION, 0);
-            ArrayList<ImgurBaseObject> objects = intent.getParcelableArrayListExtra(KEY_OBJECTS);
-            mPagerAdapter = new BrowsingAdapter(getApplicationContext(), getFragmentManager(), objects);
+            GallerySession session = GallerySessionRepository.getInstance().getSession(intent.getStringExtra(KEY_SESSION));
 
-            if (mSideGalleryFragment != null) {
-                mSideGalleryFragment.addGalleryItems(objects);
+            if (session == null || !intent.hasExtra(KEY_POSITION)) {
+                Snackbar.make(mViewPager, R.string.error_generic, Snackbar.LENGTH_LONG).show();
+                finish();
+                return;
             }
+
+            mCurrentPosition = intent.getIntExtra(KEY_POSITION, 0);
+            setSession(session);
+        }
+    }
+
+    /**
+     * Sets the session being browsed and creates the pager adapter for it
+     *
+     * @param session
+     */
+    void setSession(@NonNull GallerySession session) {
+        if (mSession != null) mSession.removeListener(mSessionListener);
+        mSession = session;
+        session.addListener(mSessionListener);
+        mPagerAdapter = new BrowsingAdapter(getApplicationContext(), getFragmentManager(), session.getItems());
+
+        if (mSideGalleryFragment != null) {
+            mSideGalleryFragment.addGalleryItems(session.getItems());
         }
     }
 
@@ -397,20 +452,28 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
             mLoadComments = savedInstanceState.getBoolean(KEY_LOAD_COMMENTS, true);
             mIsResuming = true;
             mCurrentPosition = savedInstanceState.getInt(KEY_POSITION, 0);
-            ArrayList<ImgurBaseObject> objects = savedInstanceState.getParcelableArrayList(KEY_OBJECTS);
-            mPagerAdapter = new BrowsingAdapter(getApplicationContext(), getFragmentManager(), objects);
-            mViewPager.setAdapter(mPagerAdapter);
-            mViewPager.setCurrentItem(mCurrentPosition);
 
-            if (mSideGalleryFragment != null) {
-                mSideGalleryFragment.addGalleryItems(objects);
-            }
+            // The session will only need to be read from disk if the process was killed
+            GallerySessionRepository.getInstance().restoreSession(savedInstanceState.getString(KEY_SESSION), new GallerySessionRepository.SessionRestoreListener() {
+                @Override
+                public void onSessionRestored(@Nullable GallerySession session) {
+                    if (isFinishing()) return;
+
+                    if (session == null) {
+                        Snackbar.make(mViewPager, R.string.error_generic, Snackbar.LENGTH_LONG).show();
+                        finish();
+                        return;
+                    }
 
-            List<ImgurComment> comments = savedInstanceState.getParcelableArrayList(KEY_COMMENT);
+                    setSession(session);
+                    mViewPager.setAdapter(mPagerAdapter);
+                    mViewPager.setCurrentItem(mCurrentPosition);
+                }
+            });
 
-            if (comments != null) {
-                mCommentAdapter = new CommentAdapter(this, comments, this);
-                mCommentList.setAdapter(mCommentAdapter);
+            if (savedInstanceState.containsKey(KEY_COMMENT_HANDLE)) {
+                mCommentStateHandle = savedInstanceState.getString(KEY_COMMENT_HANDLE);
+                restoreComments();
             }
 
             if (mLoadComments) {
@@ -443,17 +506,25 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
     @Override
     protected void onDestroy() {
         dismissDialogFragment("comment");
+        detachComments();
 
         if (mCommentAdapter != null) {
             mCommentAdapter.onDestroy();
             mCommentAdapter = null;
         }
 
-        if (mPagerAdapter != null) {
-            mPagerAdapter.clear();
-            mPagerAdapter = null;
+        if (mSession != null) {
+            mSession.removeListener(mSessionListener);
+            if (isFinishing()) GallerySessionRepository.getInstance().removeSession(mSession.getId());
+            mSession = null;
+        }
+
+        if (isFinishing()) {
+            InstanceStateStore.getInstance().remove(mCommentStateHandle);
+            CommentCache.getInstance().cancelPrefetches(null);
         }
 
+        mPagerAdapter = null;
         super.onDestroy();
     }
 
@@ -547,11 +618,11 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
     @Override
     public void onLinkTap(View view, String url) {
         if (!TextUtils.isEmpty(url) && canDoFragmentTransaction()) {
-            LinkUtils.LinkMatch match = LinkUtils.findImgurLinkMatch(url);
+            LinkUtils.ImgurLink imgurLink = LinkUtils.parseImgurLink(url);
 
-            switch (match) {
+            switch (imgurLink.getMatch()) {
                 case GALLERY:
-                    String id = LinkUtils.getGalleryId(url);
+                    String id = imgurLink.getId();
 
                     if (!TextUtils.isEmpty(id)) {
                         startActivity(ViewActivity.createGalleryIntent(getApplicationContext(), id).setFlags(Intent.FLAG_ACTIVITY_NEW_TASK));
@@ -559,7 +630,7 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
                     break;
 
                 case ALBUM:
-                    String albumId = LinkUtils.getAlbumId(url);
+                    String albumId = imgurLink.getId();
                     Intent intent = ViewActivity.createAlbumIntent(getApplicationContext(), albumId).setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
                     startActivity(intent);
                     break;
@@ -584,8 +655,7 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
                     break;
 
                 case IMAGE:
-                    String[] split = url.split("\\/");
-                    getFragmentManager().beginTransaction().add(PopupImageDialogFragment.getInstance(split[split.length - 1], false, false, false), "popup").commitAllowingStateLoss();
+                    getFragmentManager().beginTransaction().add(PopupImageDialogFragment.getInstance(imgurLink.getId(), false, false, false), "popup").commitAllowingStateLoss();
                     break;
 
                 case USER_CALLOUT:
@@ -605,7 +675,7 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
                     break;
 
                 case USER:
-                    String username = LinkUtils.getUsername(url);
+                    String username = imgurLink.getId();
 
                     if (!TextUtils.isEmpty(username)) {
                         startActivity(ProfileActivity.createIntent(getApplicationContext(), username));
@@ -613,7 +683,7 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
                     break;
 
                 case TOPIC:
-                    String topicId = LinkUtils.getTopicGalleryId(url);
+                    String topicId = imgurLink.getId();
                     startActivity(ViewActivity.createGalleryIntent(getApplicationContext(), topicId));
                     break;
 
@@ -664,15 +734,17 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
         super.onSaveInstanceState(outState);
 
         if (mCommentAdapter != null && !mCommentAdapter.isEmpty()) {
-            outState.putParcelableArrayList(KEY_COMMENT, mCommentAdapter.retainItems());
+            mCommentStateHandle = InstanceStateStore.getInstance().save(mCommentStateHandle, mCommentAdapter.getComments(), ImgurComment.class);
+            outState.putString(KEY_COMMENT_HANDLE, mCommentStateHandle);
         }
 
         outState.putBoolean(KEY_LOAD_COMMENTS, mLoadComments);
         outState.putString(KEY_SORT, mCommentSort.name());
 
-        if (mPagerAdapter != null && !mPagerAdapter.isEmpty()) {
+        if (mSession != null && mSession.size() > 0) {
             outState.putInt(KEY_POSITION, mViewPager.getCurrentItem());
-            outState.putParcelableArrayList(KEY_OBJECTS, mPagerAdapter.retainItems());
+            outState.putString(KEY_SESSION, mSession.getId());
+            GallerySessionRepository.getInstance().saveSession(mSession);
         }
 
         if (mBottomSheetBehavior != null) {
@@ -755,6 +827,8 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
     }
 
     public void fetchComments() {
+        detachComments();
+
         if (mLoadComments && mPagerAdapter != null) {
             ImgurBaseObject imgurBaseObject = mPagerAdapter.getImgurItem(mCurrentPosition);
 
@@ -765,69 +839,66 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
 
             if (imgurBaseObject.isListed()) {
                 mMultiView.setViewState(MultiStateView.VIEW_STATE_LOADING);
-                ApiClient.getService().getComments(imgurBaseObject.getId(), mCommentSort.getApiValue()).enqueue(new Callback<CommentResponse>() {
-                    @Override
-                    public void onResponse(Call<CommentResponse> call, Response<CommentResponse> response) {
-                        if (mPagerAdapter == null || mPagerAdapter.getImgurItem(mCurrentPosition) == null) {
-                            return;
-                        }
-
-                        if (response == null || response.body() == null) {
-                            ViewUtils.setErrorText(mMultiView, R.id.errorMessage, response != null ? ApiClient.getErrorCode(response.code()) : R.string.error_generic);
-                            mMultiView.setViewState(MultiStateView.VIEW_STATE_ERROR);
-                            return;
-                        }
+                final String id = imgurBaseObject.getId();
+                final String account = imgurBaseObject.getAccount();
 
-                        CommentResponse commentResponse = response.body();
+                mCommentListener = new CommentLoader.CommentListener() {
+                    // If the comments belong to the gallery item being shown
+                    private boolean mIsCurrent = false;
 
-                        if (commentResponse.hasComments()) {
-                            ImgurBaseObject imgurBaseObject = mPagerAdapter.getImgurItem(mCurrentPosition);
-                            String imageId = commentResponse.data.get(0).getImageId();
+                    @Override
+                    public void onCommentsLoaded(@NonNull List<ImgurComment> comments, boolean isFirst) {
+                        if (isFirst) {
+                            String imageId = comments.get(0).getImageId();
 
-                            if (TextUtils.isEmpty(imageId) || imgurBaseObject == null) {
+                            if (TextUtils.isEmpty(imageId)) {
                                 ViewUtils.setErrorText(mMultiView, R.id.errorMessage, R.string.error_generic);
                                 mMultiView.setViewState(MultiStateView.VIEW_STATE_ERROR);
                                 return;
                             }
 
-                            if (imageId.equals(imgurBaseObject.getId())) {
-                                // Reverse the list for worst sorting as it will be loading the Top comments
-                                if (mCommentSort == CommentSort.WORST)
-                                    Collections.reverse(commentResponse.data);
-
-                                // We only show the comments for the correct gallery item
-                                if (mCommentAdapter == null) {
-                                    mCommentAdapter = new CommentAdapter(ViewActivity.this, commentResponse.data, ViewActivity.this);
-                                    mCommentList.setAdapter(mCommentAdapter);
-                                } else {
-                                    mCommentAdapter.clear();
-                                    mCommentAdapter.clearExpansionInfo();
-                                    mCommentAdapter.addItems(commentResponse.data);
-                                }
-
-                                mCommentAdapter.setOP(imgurBaseObject.getAccount());
-                                mCommentAdapter.clearExpansionInfo();
-                                mMultiView.setViewState(MultiStateView.VIEW_STATE_CONTENT);
+                            // We only show the comments for the correct gallery item
+                            mIsCurrent = imageId.equals(id);
+                            if (!mIsCurrent) return;
 
-                                mMultiView.post(new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        if (mCommentList != null) mCommentList.scrollToPosition(0);
-                                    }
-                                });
+                            if (mCommentAdapter == null) {
+                                mCommentAdapter = new CommentAdapter(ViewActivity.this, comments, ViewActivity.this);
+                                mCommentList.setAdapter(mCommentAdapter);
+                            } else {
+                                mCommentAdapter.setComments(comments);
                             }
-                        } else {
-                            mMultiView.setViewState(MultiStateView.VIEW_STATE_EMPTY);
+
+                            mCommentAdapter.setOP(account);
+                            mMultiView.setViewState(MultiStateView.VIEW_STATE_CONTENT);
+
+                            mMultiView.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    if (mCommentList != null) mCommentList.scrollToPosition(0);
+                                }
+                            });
+                        } else if (mIsCurrent && mCommentAdapter != null) {
+                            mCommentAdapter.appendComments(comments);
                         }
                     }
 
                     @Override
-                    public void onFailure(Call<CommentResponse> call, Throwable t) {
-                        LogUtil.e(TAG, "Error fetching comments", t);
-                        ViewUtils.setErrorText(mMultiView, R.id.errorMessage, ApiClient.getErrorCode(t));
+                    public void onLoadFinished(int count) {
+                        if (count == 0) mMultiView.setViewState(MultiStateView.VIEW_STATE_EMPTY);
+                    }
+
+                    @Override
+                    public void onLoadFailed(@StringRes int errorString) {
+                        // Keep whatever was already shown if the stream broke part way through
+                        if (mIsCurrent) return;
+                        ViewUtils.setErrorText(mMultiView, R.id.errorMessage, errorString);
                         mMultiView.setViewState(MultiStateView.VIEW_STATE_ERROR);
                     }
-                });
+                };
+
+                // Worst sorting loads the Top comments, so they are delivered reversed
+                CommentCache.getInstance().load(id, mCommentSort.getApiValue(), mCommentSort == CommentSort.WORST, mCommentListener);
+                prefetchComments();
             } else {
                 mMultiView.setViewState(MultiStateView.VIEW_STATE_EMPTY);
                 ViewUtils.setEmptyText(mMultiView, R.id.emptyMessage, R.string.comments_unlisted);
@@ -838,9 +909,60 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
         }
     }
 
+    private void detachComments() {
+        if (mCommentListener != null) {
+            CommentCache.getInstance().detach(mCommentListener);
+            mCommentListener = null;
+        }
+    }
+
+    /**
+     * Loads the comments of the pages on either side of the current one so they are ready when the user swipes to them
+     */
+    private void prefetchComments() {
+        if (mPagerAdapter == null) return;
+        List<String> ids = new ArrayList<>(2);
+
+        for (int position : new int[]{mCurrentPosition + 1, mCurrentPosition - 1}) {
+            if (position < 0 || position >= mPagerAdapter.getCount()) continue;
+            ImgurBaseObject item = mPagerAdapter.getImgurItem(position);
+            if (item != null && item.isListed()) ids.add(item.getId());
+        }
+
+        CommentCache.getInstance().prefetch(ids, mCommentSort.getApiValue(), mCommentSort == CommentSort.WORST);
+    }
+
+    /**
+     * Restores the saved comments, adding them to the list as they are read
+     */
+    private void restoreComments() {
+        InstanceStateStore.getInstance().restore(mCommentStateHandle, ImgurComment.class, new InstanceStateStore.RestoreListener<ImgurComment>() {
+            private CommentAdapter mRestoringAdapter;
+
+            @Override
+            public void onItemsRestored(@NonNull List<ImgurComment> items) {
+                if (isFinishing()) return;
+
+                if (mRestoringAdapter == null) {
+                    // Comments for another item were loaded in the meantime
+                    if (mCommentAdapter != null) return;
+                    mRestoringAdapter = mCommentAdapter = new CommentAdapter(ViewActivity.this, items, ViewActivity.this);
+                    mCommentList.setAdapter(mCommentAdapter);
+                } else if (mRestoringAdapter == mCommentAdapter) {
+                    mCommentAdapter.appendComments(items);
+                }
+            }
+
+            @Override
+            public void onRestoreFinished(boolean success) {
+                if (!success && !isFinishing() && mCommentAdapter == null && mLoadComments) fetchComments();
+            }
+        });
+    }
+
     private void fetchItemDetails(final String id, final boolean isAlbum) {
         if (isAlbum) {
-            ApiClient.getService().getAlbumImages(id).enqueue(new Callback<AlbumResponse>() {
+            enqueue(ApiClient.getService().getAlbumImages(id), new Callback<AlbumResponse>() {
                 @Override
                 public void onResponse(Call<AlbumResponse> call, Response<AlbumResponse> response) {
                     if (response == null || response.body() == null) {
@@ -853,9 +975,7 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
                     ImgurAlbum album = new ImgurAlbum(mGalleryId, null, getIntent().getData().toString());
                     mGalleryId = null;
                     album.addPhotosToAlbum(albumResponse.data);
-                    final ArrayList<ImgurBaseObject> objects = new ArrayList<>(1);
-                    objects.add(album);
-                    mPagerAdapter = new BrowsingAdapter(getApplicationContext(), getFragmentManager(), objects);
+                    setSession(GallerySessionRepository.getInstance().createSession(Collections.singletonList(album), null));
                     mViewPager.setAdapter(mPagerAdapter);
                     invalidateOptionsMenu();
                     fetchComments();
@@ -869,13 +989,11 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
                 }
             });
         } else {
-            ApiClient.getService().getGalleryDetails(id).enqueue(new Callback<BasicObjectResponse>() {
+            enqueue(ApiClient.getService().getGalleryDetails(id), new Callback<BasicObjectResponse>() {
                 @Override
                 public void onResponse(Call<BasicObjectResponse> call, Response<BasicObjectResponse> response) {
                     if (response != null && response.body() != null && response.body().data != null) {
-                        final ArrayList<ImgurBaseObject> objects = new ArrayList<>(1);
-                        objects.add(response.body().data);
-                        mPagerAdapter = new BrowsingAdapter(getApplicationContext(), getFragmentManager(), objects);
+                        setSession(GallerySessionRepository.getInstance().createSession(Collections.singletonList(response.body().data), null));
                         mViewPager.setAdapter(mPagerAdapter);
                         invalidateOptionsMenu();
                         fetchComments();
@@ -938,7 +1056,7 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
     }
 
     @Override
-    public void onPostComment(String comment, String galleryId, String parentId) {
+    public void onPostComment(String comment, final String galleryId, String parentId) {
         final @MultiStateView.ViewState int viewState = mMultiView.getViewState();
         mMultiView.setViewState(MultiStateView.VIEW_STATE_LOADING);
         Call<CommentPostResponse> call;
@@ -954,6 +1072,7 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
             public void onResponse(Call<CommentPostResponse> call, Response<CommentPostResponse> response) {
                 if (response != null && response.body() != null && response.body().data != null && !TextUtils.isEmpty(response.body().data.id)) {
                     Snackbar.make(mViewPager, R.string.comment_post_successful, Snackbar.LENGTH_LONG).show();
+                    CommentCache.getInstance().remove(galleryId);
                     fetchComments();
                 } else {
                     Snackbar.make(mViewPager, R.string.comment_post_unsuccessful, Snackbar.LENGTH_LONG).show();
@@ -1020,11 +1139,11 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
     }
 
     private static class BrowsingAdapter extends FragmentStatePagerAdapter {
-        private ArrayList<ImgurBaseObject> objects;
+        private List<ImgurBaseObject> objects;
 
         private boolean mDisplayTags;
 
-        public BrowsingAdapter(Context context, FragmentManager fm, ArrayList<ImgurBaseObject> objects) {
+        public BrowsingAdapter(Context context, FragmentManager fm, List<ImgurBaseObject> objects) {
             super(fm);
             this.objects = objects;
             mDisplayTags = OpengurApp.getInstance(context).getPreferences().getBoolean(SettingsActivity.KEY_TAGS, true);
@@ -1046,19 +1165,9 @@ public class ViewActivity extends BaseActivity implements View.OnClickListener,
             return objects.get(position);
         }
 
-        public void clear() {
-            if (objects != null) {
-                objects.clear();
-            }
-        }
-
         public boolean isEmpty() {
             return objects == null || objects.isEmpty();
         }
-
-        public ArrayList<ImgurBaseObject> retainItems() {
-            return new ArrayList<>(objects);
-        }
     }
 
     @Override
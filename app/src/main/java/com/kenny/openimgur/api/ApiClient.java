@@ -10,10 +10,9 @@ import com.kenny.openimgur.BuildConfig;
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.classes.ImgurBaseObject;
 import com.kenny.openimgur.classes.ImgurUser;
+import com.kenny.openimgur.classes.MediaCache;
 import com.kenny.openimgur.classes.OpengurApp;
-import com.kenny.openimgur.util.FileUtil;
 
-import java.io.File;
 import java.net.HttpURLConnection;
 import java.net.UnknownHostException;
 import java.util.concurrent.TimeUnit;
@@ -35,34 +34,47 @@ public class ApiClient {
 
     private static final String API_URL = "https://api.imgur.com";
 
-    private static Retrofit sRestAdapter;
+    private static OkHttpClient[] sLanes;
 
-    private static ImgurService sService;
-
-    // 10MB
-    private static final long CACHE_SIZE = 10 * 1024 * 1024;
+    private static final ImgurService[] sServices = new ImgurService[RequestPriority.values().length];
 
     public static final String CLIENT_ID = BuildConfig.API_CLIENT_ID;
 
     public static final String CLIENT_SECRET = BuildConfig.API_CLIENT_SECRET;
 
     /**
-     * Returns the service used for API requests
+     * Returns the service used for API requests. Requests are dispatched as {@link RequestPriority#INTERACTIVE}
      *
      * @return
      */
     public static ImgurService getService() {
-        if (sRestAdapter == null || sService == null) {
-            sRestAdapter = new Retrofit.Builder()
+        return getService(RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * Returns the service used for API requests made with the given priority
+     *
+     * @param priority The lane requests from the service will be dispatched on
+     * @return
+     */
+    public static synchronized ImgurService getService(RequestPriority priority) {
+        ImgurService service = sServices[priority.ordinal()];
+
+        if (service == null) {
+            if (sLanes == null) sLanes = PriorityCallFactory.createLanes(getClient());
+
+            Retrofit restAdapter = new Retrofit.Builder()
                     .baseUrl(API_URL)
-                    .client(getClient())
+                    .callFactory(new PriorityCallFactory(sLanes, priority))
                     .addConverterFactory(getConverter())
+                    .addCallAdapterFactory(new CoalescingCallAdapterFactory(priority))
                     .build();
 
-            sService = sRestAdapter.create(ImgurService.class);
+            service = restAdapter.create(ImgurService.class);
+            sServices[priority.ordinal()] = service;
         }
 
-        return sService;
+        return service;
     }
 
     private static OkHttpClient getClient() {
@@ -71,25 +83,32 @@ public class ApiClient {
 
         OkHttpClient.Builder builder = new OkHttpClient.Builder()
                 .connectTimeout(20, TimeUnit.SECONDS)
-                .addInterceptor(new OAuthInterceptor(user != null ? user.getAccessToken() : null));
+                .addInterceptor(new MetricsInterceptor())
+                .addInterceptor(new OAuthInterceptor(user != null ? user.getAccessToken() : null))
+                .addNetworkInterceptor(new RateLimitInterceptor())
+                .addNetworkInterceptor(new MetricsInterceptor.NetworkInterceptor());
 
-        File cacheDir = app.getCacheDir();
-
-        if (FileUtil.isFileValid(cacheDir)) {
-            File cache = new File(cacheDir, "http_cache");
-            builder.cache(new Cache(cache, CACHE_SIZE));
-        }
+        // Shares its budget with the image and video caches
+        Cache cache = MediaCache.getInstance().getHttpCache();
+        if (cache != null) builder.cache(cache);
 
         return builder.build();
     }
 
     private static GsonConverterFactory getConverter() {
-        Gson gson = new GsonBuilder()
+        return GsonConverterFactory.create(getGson());
+    }
+
+    /**
+     * Returns a {@link Gson} instance configured the same way as the one used for API responses
+     *
+     * @return
+     */
+    public static Gson getGson() {
+        return new GsonBuilder()
                 .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
                 .registerTypeAdapter(ImgurBaseObject.class, new ImgurSerializer())
                 .create();
-
-        return GsonConverterFactory.create(gson);
     }
 
     /**
@@ -0,0 +1,155 @@
+package com.kenny.openimgur.api;
+
+import android.support.annotation.NonNull;
+import android.text.TextUtils;
+
+import com.kenny.openimgur.util.LogUtil;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Keeps track of the calls made on behalf of a screen so they can be cancelled once the screen is gone. Calls that are
+ * cancelled by {@link #cancelAll()} never reach their callbacks, so callers do not need to check if their views still
+ * exist when a cancelled call fails.
+ * <p>
+ * Only requests that fetch data should be tracked, anything the user has asked to change (votes, favorites, comments)
+ * should be allowed to finish. All methods must be called from the main thread.
+ */
+public class CallManager {
+    private static final String TAG = CallManager.class.getSimpleName();
+
+    private static final String HEADER_CONTENT_LENGTH = "Content-Length";
+
+    private static final Object sLock = new Object();
+
+    // All of the below are guarded by sLock
+    private static int sCancelled = 0;
+
+    private static long sBytesSaved = 0;
+
+    private static long sResponseBytes = 0;
+
+    private static int sSizedResponses = 0;
+
+    private final Set<Call<?>> mCalls = new HashSet<>();
+
+    /**
+     * Enqueues the call and tracks it until it completes
+     *
+     * @param call     The call to enqueue
+     * @param callback The callback for the call
+     */
+    public <T> void enqueue(@NonNull final Call<T> call, @NonNull final Callback<T> callback) {
+        mCalls.add(call);
+
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> c, Response<T> response) {
+                mCalls.remove(call);
+                recordResponseSize(response);
+                callback.onResponse(c, response);
+            }
+
+            @Override
+            public void onFailure(Call<T> c, Throwable t) {
+                boolean tracked = mCalls.remove(call);
+
+                // Cancelled by cancelAll, whoever made the call is gone
+                if (!tracked && call.isCanceled()) return;
+                callback.onFailure(c, t);
+            }
+        });
+    }
+
+    /**
+     * Cancels all of the calls that have not completed yet
+     */
+    public void cancelAll() {
+        if (mCalls.isEmpty()) return;
+
+        List<Call<?>> calls = new ArrayList<>(mCalls);
+        mCalls.clear();
+        long saved;
+
+        synchronized (sLock) {
+            saved = getAverageResponseSize() * calls.size();
+            sCancelled += calls.size();
+            sBytesSaved += saved;
+        }
+
+        for (Call<?> call : calls) {
+            call.cancel();
+        }
+
+        LogUtil.v(TAG, "Cancelled " + calls.size() + " calls, saving about " + saved + " bytes");
+    }
+
+    /**
+     * Returns the number of calls that are still running
+     *
+     * @return
+     */
+    public int getActiveCount() {
+        return mCalls.size();
+    }
+
+    /**
+     * Returns the total number of calls that have been cancelled before they completed
+     *
+     * @return
+     */
+    public static int getCancelledCount() {
+        synchronized (sLock) {
+            return sCancelled;
+        }
+    }
+
+    /**
+     * Returns the estimated number of bytes that were not downloaded because their calls were cancelled. This is based
+     * on the average size of the responses that have completed
+     *
+     * @return
+     */
+    public static long getBytesSaved() {
+        synchronized (sLock) {
+            return sBytesSaved;
+        }
+    }
+
+    private static long getAverageResponseSize() {
+        return sSizedResponses > 0 ? sResponseBytes / sSizedResponses : 0;
+    }
+
+    private static void recordResponseSize(Response<?> response) {
+        okhttp3.Response raw = response.raw();
+        long size = -1;
+
+        // The network response has the size that came over the wire before it was decompressed
+        if (raw.networkResponse() != null) {
+            String length = raw.networkResponse().header(HEADER_CONTENT_LENGTH);
+
+            if (!TextUtils.isEmpty(length)) {
+                try {
+                    size = Long.parseLong(length);
+                } catch (NumberFormatException ex) {
+                    LogUtil.w(TAG, "Invalid content length " + length);
+                }
+            }
+        }
+
+        if (size < 0 && raw.body() != null) size = raw.body().contentLength();
+        if (size < 0) return;
+
+        synchronized (sLock) {
+            sResponseBytes += size;
+            sSizedResponses++;
+        }
+    }
+}
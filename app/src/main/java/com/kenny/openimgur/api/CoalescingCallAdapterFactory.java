@@ -0,0 +1,381 @@
+package com.kenny.openimgur.api;
+
+import android.support.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.kenny.openimgur.util.LogUtil;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+/**
+ * {@link CallAdapter.Factory} that coalesces identical GET requests that are in flight at the same time. The first
+ * call to be enqueued for a URL goes over the network, any others enqueued before it completes are attached to it and
+ * receive the same {@link Response}. Only {@link Call#enqueue(Callback)} is coalesced, synchronous calls are passed
+ * through untouched. Calls are only coalesced within their {@link RequestPriority} lane, so a call never waits in the
+ * queue of a lower priority one.
+ * <p>
+ * Every attached {@link Callback} gets its own copy of the response body, so callers are free to modify it. The copies
+ * are made by writing the body back out with {@link ApiClient#getGson()} and reading it again, so response types must
+ * survive a round trip through it.
+ */
+public class CoalescingCallAdapterFactory extends CallAdapter.Factory {
+    private static final String TAG = CoalescingCallAdapterFactory.class.getSimpleName();
+
+    private static final Object sLock = new Object();
+
+    private static final Map<String, InFlight<?>> sInFlight = new HashMap<>();
+
+    private static final Map<String, int[]> sStats = new HashMap<>();
+
+    private static final int STAT_REQUESTS = 0;
+
+    private static final int STAT_SAVED = 1;
+
+    private static Gson sGson;
+
+    private final RequestPriority mPriority;
+
+    /**
+     * @param priority The lane calls from the service are dispatched on when their method doesn't specify one
+     */
+    public CoalescingCallAdapterFactory(@NonNull RequestPriority priority) {
+        mPriority = priority;
+    }
+
+    @Override
+    public CallAdapter<?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class) return null;
+        String endpoint = null;
+
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof GET) {
+                endpoint = ((GET) annotation).value();
+                break;
+            }
+        }
+
+        if (endpoint == null) return null;
+        final String finalEndpoint = endpoint;
+        final CallAdapter<?> delegate = retrofit.nextCallAdapter(this, returnType, annotations);
+
+        return new CallAdapter<Call<?>>() {
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public <R> Call<?> adapt(Call<R> call) {
+                return new CoalescingCall<>(finalEndpoint, mPriority, delegate.responseType(), (Call<R>) delegate.adapt(call));
+            }
+        };
+    }
+
+    /**
+     * Returns the number of network calls saved for each endpoint
+     *
+     * @return
+     */
+    public static Map<String, Integer> getSavedCalls() {
+        synchronized (sLock) {
+            Map<String, Integer> saved = new HashMap<>(sStats.size());
+
+            for (Map.Entry<String, int[]> entry : sStats.entrySet()) {
+                saved.put(entry.getKey(), entry.getValue()[STAT_SAVED]);
+            }
+
+            return saved;
+        }
+    }
+
+    /**
+     * Returns the number of calls that were enqueued for each endpoint, including the ones that were coalesced
+     *
+     * @return
+     */
+    public static Map<String, Integer> getRequestedCalls() {
+        synchronized (sLock) {
+            Map<String, Integer> requested = new HashMap<>(sStats.size());
+
+            for (Map.Entry<String, int[]> entry : sStats.entrySet()) {
+                requested.put(entry.getKey(), entry.getValue()[STAT_REQUESTS]);
+            }
+
+            return requested;
+        }
+    }
+
+    /**
+     * Returns a plain text summary of the calls that were coalesced
+     *
+     * @return
+     */
+    @NonNull
+    public static String getSnapshot() {
+        StringBuilder sb = new StringBuilder();
+        int requested = 0;
+        int saved = 0;
+
+        synchronized (sLock) {
+            for (Map.Entry<String, int[]> entry : new TreeMap<>(sStats).entrySet()) {
+                int[] stats = entry.getValue();
+                requested += stats[STAT_REQUESTS];
+                saved += stats[STAT_SAVED];
+                if (stats[STAT_SAVED] > 0) sb.append("  ").append(entry.getKey()).append(" requested=").append(stats[STAT_REQUESTS])
+                        .append(" saved=").append(stats[STAT_SAVED]).append("\n");
+            }
+        }
+
+        return "Coalesced calls requested=" + requested + " saved=" + saved + "\n" + sb;
+    }
+
+    private static synchronized Gson getGson() {
+        if (sGson == null) sGson = ApiClient.getGson();
+        return sGson;
+    }
+
+    private static void recordCall(String endpoint, boolean saved) {
+        int[] stats = sStats.get(endpoint);
+
+        if (stats == null) {
+            stats = new int[2];
+            sStats.put(endpoint, stats);
+        }
+
+        stats[STAT_REQUESTS]++;
+        if (saved) stats[STAT_SAVED]++;
+    }
+
+    /**
+     * A network call that is currently running along with every call waiting on its result
+     */
+    private static class InFlight<T> {
+        final Call<T> networkCall;
+
+        final List<CoalescingCall<T>> participants = new ArrayList<>();
+
+        InFlight(Call<T> networkCall) {
+            this.networkCall = networkCall;
+        }
+    }
+
+    private static class CoalescingCall<T> implements Call<T> {
+        private final String mEndpoint;
+
+        private final RequestPriority mPriority;
+
+        private final Type mResponseType;
+
+        private final Call<T> mDelegate;
+
+        private Callback<T> mCallback;
+
+        // Set once the call is enqueued, cancel() can be called from any thread
+        private volatile String mKey;
+
+        private boolean mExecuted = false;
+
+        private volatile boolean mCanceled = false;
+
+        CoalescingCall(String endpoint, RequestPriority priority, Type responseType, Call<T> delegate) {
+            mEndpoint = endpoint;
+            mPriority = priority;
+            mResponseType = responseType;
+            mDelegate = delegate;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            synchronized (this) {
+                if (mExecuted) throw new IllegalStateException("Already executed.");
+                mExecuted = true;
+            }
+
+            return mDelegate.execute();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void enqueue(@NonNull Callback<T> callback) {
+            synchronized (this) {
+                if (mExecuted) throw new IllegalStateException("Already executed.");
+                mExecuted = true;
+            }
+
+            mCallback = callback;
+            Request request = mDelegate.request();
+            RequestPriority priority = RequestPriority.fromHeader(request.header(RequestPriority.HEADER), mPriority);
+            String key = priority.value + " " + request.url();
+            InFlight<T> inFlight;
+            boolean isNew = false;
+
+            synchronized (sLock) {
+                mKey = key;
+                inFlight = (InFlight<T>) sInFlight.get(key);
+
+                if (inFlight == null) {
+                    inFlight = new InFlight<>(mDelegate);
+                    sInFlight.put(key, inFlight);
+                    isNew = true;
+                } else {
+                    LogUtil.v(TAG, "Coalescing request to " + key);
+                }
+
+                inFlight.participants.add(this);
+                recordCall(mEndpoint, !isNew);
+            }
+
+            if (!isNew) return;
+            final InFlight<T> networkRequest = inFlight;
+
+            mDelegate.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    List<CoalescingCall<T>> participants = detach(networkRequest);
+
+                    for (int i = 0; i < participants.size(); i++) {
+                        CoalescingCall<T> participant = participants.get(i);
+
+                        // The original goes to the last participant so the copies are made before anyone can modify it
+                        if (i == participants.size() - 1) {
+                            participant.mCallback.onResponse(participant, response);
+                            continue;
+                        }
+
+                        Response<T> copy;
+
+                        try {
+                            copy = copy(response);
+                        } catch (Exception ex) {
+                            LogUtil.e(TAG, "Unable to copy response for " + mKey, ex);
+                            participant.mCallback.onFailure(participant, ex);
+                            continue;
+                        }
+
+                        participant.mCallback.onResponse(participant, copy);
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    for (CoalescingCall<T> participant : detach(networkRequest)) {
+                        participant.mCallback.onFailure(participant, t);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Returns a copy of the response whose body can be modified without affecting the original
+         *
+         * @param response
+         * @return
+         * @throws IOException If the error body could not be read
+         */
+        private Response<T> copy(Response<T> response) throws IOException {
+            if (!response.isSuccessful()) {
+                ResponseBody errorBody = response.errorBody();
+                if (errorBody == null) return response;
+
+                // Retrofit buffers error bodies, copy the buffer without consuming it
+                BufferedSource source = errorBody.source();
+                source.request(Long.MAX_VALUE);
+                Buffer buffer = source.buffer().clone();
+                return Response.error(ResponseBody.create(errorBody.contentType(), buffer.size(), buffer), response.raw());
+            }
+
+            T body = response.body();
+            if (body == null) return response;
+
+            // Written out as a string, the comment replies adapter can't write to a tree
+            Gson gson = getGson();
+            T copy = gson.fromJson(gson.toJson(body, mResponseType), mResponseType);
+            return Response.success(copy, response.raw());
+        }
+
+        /**
+         * Removes the request from the in flight requests and returns the participants that are still waiting on it
+         */
+        private List<CoalescingCall<T>> detach(InFlight<T> request) {
+            synchronized (sLock) {
+                if (sInFlight.get(mKey) == request) sInFlight.remove(mKey);
+                List<CoalescingCall<T>> participants = new ArrayList<>(request.participants.size());
+
+                for (CoalescingCall<T> participant : request.participants) {
+                    if (!participant.mCanceled) participants.add(participant);
+                }
+
+                request.participants.clear();
+                return participants;
+            }
+        }
+
+        @Override
+        public boolean isExecuted() {
+            synchronized (this) {
+                return mExecuted;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void cancel() {
+            mCanceled = true;
+            Call<T> toCancel = null;
+
+            synchronized (sLock) {
+                String key = mKey;
+
+                if (key == null) {
+                    // Never enqueued, or executed synchronously
+                    toCancel = mDelegate;
+                } else {
+                    InFlight<T> inFlight = (InFlight<T>) sInFlight.get(key);
+
+                    if (inFlight != null && inFlight.participants.remove(this) && inFlight.participants.isEmpty()) {
+                        // Nobody is waiting on the response anymore
+                        sInFlight.remove(key);
+                        toCancel = inFlight.networkCall;
+                    }
+                }
+            }
+
+            if (toCancel != null) toCancel.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return mCanceled;
+        }
+
+        @SuppressWarnings("CloneDoesntCallSuperClone")
+        @Override
+        public Call<T> clone() {
+            return new CoalescingCall<>(mEndpoint, mPriority, mResponseType, mDelegate.clone());
+        }
+
+        @Override
+        public Request request() {
+            return mDelegate.request();
+        }
+    }
+}
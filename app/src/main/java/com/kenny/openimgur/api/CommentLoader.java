@@ -0,0 +1,262 @@
+package com.kenny.openimgur.api;
+
+import android.os.AsyncTask;
+import android.os.Process;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.StringRes;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.kenny.openimgur.classes.ImgurComment;
+import com.kenny.openimgur.util.FileUtil;
+import com.kenny.openimgur.util.LogUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Streams the comments of a gallery item from the response body, handing the top level comments back in chunks as they
+ * are parsed so the first screen can be shown before the rest of the response has arrived. Replies are not parsed,
+ * see {@link com.kenny.openimgur.classes.CommentReplies}.
+ * <p>
+ * Only one load runs at a time, starting a new one cancels the last. All methods must be called from the main thread.
+ * <p>
+ * Prefetches run on their own low priority threads, so they never queue ahead of the comments being looked at or the
+ * other work on {@link AsyncTask#THREAD_POOL_EXECUTOR}.
+ */
+public class CommentLoader {
+    private static final String TAG = CommentLoader.class.getSimpleName();
+
+    // Enough comments to fill the screen
+    private static final int FIRST_CHUNK_SIZE = 15;
+
+    private static final int CHUNK_SIZE = 50;
+
+    // Enough for the gallery items on either side
+    private static final int PREFETCH_THREADS = 2;
+
+    private static final long PREFETCH_KEEP_ALIVE = 30 * 1000;
+
+    private static TypeAdapter<ImgurComment> sAdapter;
+
+    private static ThreadPoolExecutor sPrefetchExecutor;
+
+    @Nullable
+    private LoadTask mTask;
+
+    /**
+     * Starts loading the comments
+     *
+     * @param call     The streaming call for the comments
+     * @param reverse  If the comments should be delivered in reverse order. They can only be delivered once they have
+     *                 all been read
+     * @param listener Listener to receive the comments on the main thread
+     */
+    public void load(@NonNull Call<ResponseBody> call, boolean reverse, @NonNull CommentListener listener) {
+        cancel();
+        mTask = new LoadTask(call, reverse, false, listener);
+        mTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * Starts loading comments no one is waiting on yet, see {@link #load(Call, boolean, CommentListener)}
+     *
+     * @param call
+     * @param reverse
+     * @param listener
+     */
+    public void prefetch(@NonNull Call<ResponseBody> call, boolean reverse, @NonNull CommentListener listener) {
+        cancel();
+        mTask = new LoadTask(call, reverse, true, listener);
+        mTask.executeOnExecutor(getPrefetchExecutor());
+    }
+
+    /**
+     * Returns if the load is still waiting for a thread to run on
+     *
+     * @return
+     */
+    public boolean isWaiting() {
+        return mTask != null && !mTask.mStarted;
+    }
+
+    /**
+     * Cancels the current load, its listener will not be called again
+     */
+    public void cancel() {
+        if (mTask != null) {
+            mTask.cancelLoad();
+            mTask = null;
+        }
+    }
+
+    private static synchronized Executor getPrefetchExecutor() {
+        if (sPrefetchExecutor == null) {
+            sPrefetchExecutor = new ThreadPoolExecutor(PREFETCH_THREADS, PREFETCH_THREADS, PREFETCH_KEEP_ALIVE, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<Runnable>());
+            sPrefetchExecutor.allowCoreThreadTimeOut(true);
+        }
+
+        return sPrefetchExecutor;
+    }
+
+    private static synchronized TypeAdapter<ImgurComment> getAdapter() {
+        if (sAdapter == null) sAdapter = ApiClient.getGson().getAdapter(ImgurComment.class);
+        return sAdapter;
+    }
+
+    public interface CommentListener {
+        /**
+         * Called with the next chunk of top level comments
+         *
+         * @param comments The comments
+         * @param isFirst  If this is the first chunk
+         */
+        void onCommentsLoaded(@NonNull List<ImgurComment> comments, boolean isFirst);
+
+        /**
+         * Called once all of the comments have been loaded
+         *
+         * @param count The number of top level comments
+         */
+        void onLoadFinished(int count);
+
+        /**
+         * Called when the comments could not be loaded. Any comments already delivered are still valid
+         *
+         * @param errorString The error to display
+         */
+        void onLoadFailed(@StringRes int errorString);
+    }
+
+    private static class LoadTask extends AsyncTask<Void, List<ImgurComment>, Integer> {
+        private final Call<ResponseBody> mCall;
+
+        private final boolean mReverse;
+
+        private final boolean mPrefetch;
+
+        private CommentListener mListener;
+
+        volatile boolean mStarted = false;
+
+        private boolean mDeliveredFirst = false;
+
+        @StringRes
+        private int mError = 0;
+
+        LoadTask(Call<ResponseBody> call, boolean reverse, boolean prefetch, CommentListener listener) {
+            mCall = call;
+            mReverse = reverse;
+            mPrefetch = prefetch;
+            mListener = listener;
+        }
+
+        void cancelLoad() {
+            mListener = null;
+            mCall.cancel();
+            cancel(false);
+        }
+
+        @Override
+        protected Integer doInBackground(Void... params) {
+            mStarted = true;
+            // AsyncTask runs every task at background priority, prefetches go below that
+            if (mPrefetch) Process.setThreadPriority(Process.THREAD_PRIORITY_LOWEST);
+            ResponseBody body = null;
+            JsonReader reader = null;
+            int count = 0;
+
+            try {
+                Response<ResponseBody> response = mCall.execute();
+                body = response.body();
+
+                if (!response.isSuccessful() || body == null) {
+                    mError = ApiClient.getErrorCode(response.code());
+                    return 0;
+                }
+
+                TypeAdapter<ImgurComment> adapter = getAdapter();
+                reader = new JsonReader(body.charStream());
+                List<ImgurComment> chunk = new ArrayList<>(FIRST_CHUNK_SIZE);
+                int chunkSize = FIRST_CHUNK_SIZE;
+                reader.beginObject();
+
+                while (reader.hasNext() && !isCancelled()) {
+                    if (!"data".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                        reader.skipValue();
+                        continue;
+                    }
+
+                    reader.beginArray();
+
+                    while (reader.hasNext() && !isCancelled()) {
+                        ImgurComment comment = adapter.read(reader);
+                        if (comment == null) continue;
+                        chunk.add(comment);
+                        count++;
+
+                        if (!mReverse && chunk.size() >= chunkSize) {
+                            //noinspection unchecked
+                            publishProgress(chunk);
+                            chunkSize = CHUNK_SIZE;
+                            chunk = new ArrayList<>(chunkSize);
+                        }
+                    }
+
+                    if (isCancelled()) return count;
+                    reader.endArray();
+                }
+
+                if (!chunk.isEmpty()) {
+                    // Worst sorting loads the top comments in reverse, so they all need to be read first
+                    if (mReverse) Collections.reverse(chunk);
+                    //noinspection unchecked
+                    publishProgress(chunk);
+                }
+            } catch (Exception ex) {
+                if (!isCancelled()) {
+                    LogUtil.e(TAG, "Error loading comments", ex);
+                    mError = ApiClient.getErrorCode(ex);
+                }
+            } finally {
+                FileUtil.closeStream(reader);
+                FileUtil.closeStream(body);
+            }
+
+            return count;
+        }
+
+        @SafeVarargs
+        @Override
+        protected final void onProgressUpdate(List<ImgurComment>... values) {
+            if (mListener == null) return;
+            mListener.onCommentsLoaded(values[0], !mDeliveredFirst);
+            mDeliveredFirst = true;
+        }
+
+        @Override
+        protected void onPostExecute(Integer count) {
+            if (mListener == null) return;
+
+            if (mError != 0) {
+                mListener.onLoadFailed(mError);
+            } else {
+                mListener.onLoadFinished(count);
+            }
+
+            mListener = null;
+        }
+    }
+}
@@ -1,37 +1,311 @@
 package com.kenny.openimgur.api;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.kenny.openimgur.classes.ImgurAlbum;
 import com.kenny.openimgur.classes.ImgurBaseObject;
 import com.kenny.openimgur.classes.ImgurPhoto;
+import com.kenny.openimgur.classes.ImgurTag;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Created by kcampagna on 7/11/15.
+ * <p>
+ * Streams {@link ImgurBaseObject}s directly from the {@link JsonReader}. Each field is read once into a local and the
+ * correct subclass is only created at the end of the object, avoiding building a JsonElement tree and running a second
+ * reflective pass over it.
  */
-public class ImgurSerializer implements JsonDeserializer<ImgurBaseObject> {
-    private final Gson gson = new GsonBuilder().create();
+public class ImgurSerializer extends TypeAdapter<ImgurBaseObject> {
+    // Keys the API never sends, only written when the app saves items for itself so they can be restored as they were
+    private static final String KEY_ALBUM = "openimgur_album";
+
+    private static final String KEY_ALBUM_PHOTOS = "openimgur_album_photos";
+
+    private static final String KEY_TAGS = "openimgur_tags";
 
     @Override
-    public ImgurBaseObject deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-        JsonObject object = json.getAsJsonObject();
-        boolean isAlbum = object.has("images_count") && object.get("images_count").getAsInt() > 0;
-        ImgurBaseObject obj = gson.fromJson(json, isAlbum ? ImgurAlbum.class : ImgurPhoto.class);
-
-        // Need to manually check if the up/down votes are set to null as GSON will initialize it to 0
-        if (object.has("in_gallery")) {
-            obj.setIsListed(object.get("in_gallery").getAsBoolean());
-        } else if (object.has("ups") && object.has("downs")) {
-            boolean hasUpVotes = !object.get("ups").isJsonNull();
-            boolean hasDownVotes = !object.get("downs").isJsonNull();
-            obj.setIsListed(hasUpVotes && hasDownVotes);
+    public void write(JsonWriter out, ImgurBaseObject value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+
+        // Written in the same format the API returns so it can be read back with read(JsonReader)
+        out.beginObject();
+        out.name("id").value(value.getId());
+        out.name("title").value(value.getTitle());
+        out.name("description").value(value.getDescription());
+        out.name("account_url").value(value.getAccount());
+        out.name("link").value(value.getLink());
+        out.name("reddit_comments").value(value.getRedditLink());
+        out.name("vote").value(value.getVote());
+        out.name("deletehash").value(value.getDeleteHash());
+        out.name("topic").value(value.getTopic());
+        out.name("datetime").value(value.getDate());
+        out.name("ups").value(value.getUpVotes());
+        out.name("downs").value(value.getDownVotes());
+        out.name("favorite").value(value.isFavorited());
+        out.name("nsfw").value(value.isNSFW());
+        out.name("in_gallery").value(value.isListed());
+
+        if (value.getTags() != null) {
+            out.name(KEY_TAGS);
+            writeTags(out, value.getTags());
+        }
+
+        if (value instanceof ImgurAlbum) {
+            // An album's image count can be 0 when it was built from its images, so the type is written explicitly
+            ImgurAlbum album = (ImgurAlbum) value;
+            out.name(KEY_ALBUM).value(true);
+            out.name("cover").value(album.getCoverId());
+            out.name("images_count").value(album.getAlbumImageCount());
+
+            if (album.getAlbumPhotos() != null) {
+                out.name(KEY_ALBUM_PHOTOS).beginArray();
+
+                for (ImgurPhoto photo : album.getAlbumPhotos()) {
+                    write(out, photo);
+                }
+
+                out.endArray();
+            }
+        } else if (value instanceof ImgurPhoto) {
+            ImgurPhoto photo = (ImgurPhoto) value;
+            out.name("type").value(photo.getType());
+            out.name("mp4").value(photo.getMP4Link());
+            out.name("webm").value(photo.getWebMLink());
+            out.name("width").value(photo.getWidth());
+            out.name("height").value(photo.getHeight());
+            out.name("animated").value(photo.isAnimated());
+            out.name("size").value(photo.getSize());
+            out.name("mp4_size").value(photo.getMP4Size());
+            out.name("webm_size").value(photo.getWebMSize());
+        }
+
+        out.endObject();
+    }
+
+    @Override
+    public ImgurBaseObject read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        // Shared fields
+        String id = null;
+        String title = null;
+        String description = null;
+        String account = null;
+        String link = null;
+        String redditLink = null;
+        String vote = null;
+        String deleteHash = null;
+        String topic = null;
+        long date = 0;
+        int ups = 0;
+        int downs = 0;
+        boolean hasUps = false;
+        boolean hasDowns = false;
+        boolean upsNull = false;
+        boolean downsNull = false;
+        boolean favorite = false;
+        boolean nsfw = false;
+        boolean hasInGallery = false;
+        boolean inGallery = false;
+        List<ImgurTag> tags = null;
+
+        // Album fields
+        boolean isAlbum = false;
+        String cover = null;
+        int imageCount = 0;
+        List<ImgurPhoto> albumPhotos = null;
+
+        // Photo fields
+        String type = null;
+        String mp4 = null;
+        String webm = null;
+        int width = 0;
+        int height = 0;
+        boolean animated = false;
+        long size = 0;
+        long mp4Size = 0;
+        long webmSize = 0;
+
+        in.beginObject();
+
+        while (in.hasNext()) {
+            String name = in.nextName();
+
+            switch (name) {
+                case "id":
+                    id = nextString(in);
+                    break;
+
+                case "title":
+                    title = nextString(in);
+                    break;
+
+                case "description":
+                    description = nextString(in);
+                    break;
+
+                case "account_url":
+                    account = nextString(in);
+                    break;
+
+                case "link":
+                    link = nextString(in);
+                    break;
+
+                case "reddit_comments":
+                    redditLink = nextString(in);
+                    break;
+
+                case "vote":
+                    vote = nextString(in);
+                    break;
+
+                case "deletehash":
+                    deleteHash = nextString(in);
+                    break;
+
+                case "topic":
+                    topic = nextString(in);
+                    break;
+
+                case "datetime":
+                    date = nextLong(in);
+                    break;
+
+                case "ups":
+                    hasUps = true;
+                    upsNull = in.peek() == JsonToken.NULL;
+                    ups = (int) nextLong(in);
+                    break;
+
+                case "downs":
+                    hasDowns = true;
+                    downsNull = in.peek() == JsonToken.NULL;
+                    downs = (int) nextLong(in);
+                    break;
+
+                case "favorite":
+                    favorite = nextBoolean(in);
+                    break;
+
+                case "nsfw":
+                    nsfw = nextBoolean(in);
+                    break;
+
+                case "in_gallery":
+                    hasInGallery = true;
+                    inGallery = nextBoolean(in);
+                    break;
+
+                case "cover":
+                    cover = nextString(in);
+                    break;
+
+                case "images_count":
+                    imageCount = (int) nextLong(in);
+                    break;
+
+                case KEY_ALBUM:
+                    isAlbum = nextBoolean(in);
+                    break;
+
+                case KEY_ALBUM_PHOTOS:
+                    albumPhotos = readPhotos(in);
+                    break;
+
+                case KEY_TAGS:
+                    tags = readTags(in);
+                    break;
+
+                case "type":
+                    type = nextString(in);
+                    break;
+
+                case "mp4":
+                    mp4 = nextString(in);
+                    break;
+
+                case "webm":
+                    webm = nextString(in);
+                    break;
+
+                case "width":
+                    width = (int) nextLong(in);
+                    break;
+
+                case "height":
+                    height = (int) nextLong(in);
+                    break;
+
+                case "animated":
+                    animated = nextBoolean(in);
+                    break;
+
+                case "size":
+                    size = nextLong(in);
+                    break;
+
+                case "mp4_size":
+                    mp4Size = nextLong(in);
+                    break;
+
+                case "webm_size":
+                    webmSize = nextLong(in);
+                    break;
+
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+
+        in.endObject();
+        ImgurBaseObject obj;
+
+        if (isAlbum || imageCount > 0) {
+            ImgurAlbum album = new ImgurAlbum(id, title, link, deleteHash);
+            album.setCoverId(cover);
+            album.setAlbumImageCount(imageCount);
+            if (albumPhotos != null) album.addPhotosToAlbum(albumPhotos);
+            obj = album;
+        } else {
+            ImgurPhoto photo = new ImgurPhoto(id, title, link, deleteHash);
+            photo.setType(type);
+            photo.setDimensions(width, height);
+            photo.setIsAnimated(animated);
+            photo.setSize(size);
+            photo.setVideoLinks(mp4, mp4Size, webm, webmSize);
+            obj = photo;
+        }
+
+        obj.setDescription(description);
+        obj.setAccount(account);
+        obj.setRedditLink(redditLink);
+        obj.setApiVote(vote);
+        obj.setTopic(topic);
+        obj.setDate(date);
+        obj.setUpVotes(ups);
+        obj.setDownVotes(downs);
+        obj.setIsFavorite(favorite);
+        obj.setIsNSFW(nsfw);
+        if (tags != null) obj.setTags(tags);
+
+        // Need to manually check if the up/down votes are set to null as they would otherwise be treated as 0
+        if (hasInGallery) {
+            obj.setIsListed(inGallery);
+        } else if (hasUps && hasDowns) {
+            obj.setIsListed(!upsNull && !downsNull);
         } else {
             obj.setIsListed(false);
         }
@@ -39,4 +313,125 @@ public class ImgurSerializer implements JsonDeserializer<ImgurBaseObject> {
         obj.toHttps();
         return obj;
     }
-}
\ No newline at end of file
+
+    private List<ImgurPhoto> readPhotos(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return null;
+        }
+
+        List<ImgurPhoto> photos = new ArrayList<>();
+        in.beginArray();
+
+        while (in.hasNext()) {
+            ImgurBaseObject obj = read(in);
+            if (obj instanceof ImgurPhoto) photos.add((ImgurPhoto) obj);
+        }
+
+        in.endArray();
+        return photos;
+    }
+
+    private static void writeTags(JsonWriter out, List<ImgurTag> tags) throws IOException {
+        out.beginArray();
+
+        for (ImgurTag tag : tags) {
+            out.beginObject();
+            out.name("name").value(tag.getName());
+            out.name("author").value(tag.getAuthor());
+            out.name("ups").value(tag.getUpVotes());
+            out.name("downs").value(tag.getDownVotes());
+            out.endObject();
+        }
+
+        out.endArray();
+    }
+
+    private static List<ImgurTag> readTags(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return null;
+        }
+
+        List<ImgurTag> tags = new ArrayList<>();
+        in.beginArray();
+
+        while (in.hasNext()) {
+            String name = null;
+            String author = null;
+            int ups = 0;
+            int downs = 0;
+            in.beginObject();
+
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        name = nextString(in);
+                        break;
+
+                    case "author":
+                        author = nextString(in);
+                        break;
+
+                    case "ups":
+                        ups = (int) nextLong(in);
+                        break;
+
+                    case "downs":
+                        downs = (int) nextLong(in);
+                        break;
+
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+
+            in.endObject();
+            tags.add(new ImgurTag(name, author, ups, downs));
+        }
+
+        in.endArray();
+        return tags;
+    }
+
+    private static String nextString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        } else if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        } else if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return null;
+        }
+
+        return in.nextString();
+    }
+
+    private static long nextLong(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            return in.nextLong();
+        }
+
+        in.skipValue();
+        return 0;
+    }
+
+    private static boolean nextBoolean(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+
+        if (token == JsonToken.BOOLEAN) {
+            return in.nextBoolean();
+        } else if (token == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+
+        in.skipValue();
+        return false;
+    }
+}
@@ -15,16 +15,19 @@ import com.kenny.openimgur.api.responses.TrophyResponse;
 import com.kenny.openimgur.api.responses.UserResponse;
 
 import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.DELETE;
 import retrofit2.http.Field;
 import retrofit2.http.FormUrlEncoded;
 import retrofit2.http.GET;
+import retrofit2.http.Headers;
 import retrofit2.http.Multipart;
 import retrofit2.http.POST;
 import retrofit2.http.Part;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 /**
  * Created by kcampagna on 7/10/15.
@@ -47,8 +50,10 @@ public interface ImgurService {
     @GET("/3/gallery/{id}/images")
     Call<AlbumResponse> getAlbumImages(@Path("id") String albumId);
 
+    // Streamed so comments can be shown as they are parsed, see CommentLoader
+    @Streaming
     @GET("/3/gallery/{id}/comments/{sort}")
-    Call<CommentResponse> getComments(@Path("id") String itemId, @Path("sort") String commentSort);
+    Call<ResponseBody> getComments(@Path("id") String itemId, @Path("sort") String commentSort);
 
     @GET("/3/account/{user}")
     Call<UserResponse> getProfile(@Path("user") String username);
@@ -117,10 +122,12 @@ public interface ImgurService {
     @POST("/3/album/{id}/favorite")
     Call<BasicResponse> favoriteAlbum(@Path("id") String albumId, @Field("id") String id);
 
+    @Headers(RequestPriority.HEADER_BACKGROUND)
     @Multipart
     @POST("/3/upload")
     Call<PhotoResponse> uploadPhoto(@Part("image") RequestBody file, @Part("title") RequestBody title, @Part("description") RequestBody description, @Part("type") RequestBody type);
 
+    @Headers(RequestPriority.HEADER_BACKGROUND)
     @FormUrlEncoded
     @POST("/3/upload")
     Call<PhotoResponse> uploadLink(@Field("image") String link, @Field("title") String title, @Field("description") String description, @Field("type") String type);
@@ -129,6 +136,7 @@ public interface ImgurService {
     @POST("/3/gallery/{id}")
     Call<BasicResponse> submitToGallery(@Path("id") String id, @Field("title") String title, @Field("topic") int topicId, @Field("terms") String terms);
 
+    @Headers(RequestPriority.HEADER_BACKGROUND)
     @FormUrlEncoded
     @POST("/3/album")
     Call<BasicObjectResponse> createAlbum(@Field("ids") String ids, @Field("cover") String coverId, @Field("title") String title, @Field("description") String description);
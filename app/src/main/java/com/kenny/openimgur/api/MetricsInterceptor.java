@@ -0,0 +1,130 @@
+package com.kenny.openimgur.api;
+
+import android.os.SystemClock;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Application interceptor that records the latency, cache usage and errors of every API request in
+ * {@link NetworkMetrics}. It must be the first interceptor so the time spent waiting on token refreshes is included.
+ * {@link NetworkInterceptor} must also be added as a network interceptor to count retries and bytes transferred.
+ */
+public class MetricsInterceptor implements Interceptor {
+    // OkHttp runs the whole interceptor chain of a call on one thread, so network attempts can be counted per thread
+    private static final ThreadLocal<int[]> sAttempts = new ThreadLocal<>();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        int[] attempts = new int[1];
+        sAttempts.set(attempts);
+        long start = SystemClock.elapsedRealtime();
+
+        try {
+            Response response = chain.proceed(request);
+            NetworkMetrics.onCall(request, SystemClock.elapsedRealtime() - start, response, null, attempts[0]);
+            return response;
+        } catch (IOException | RuntimeException ex) {
+            NetworkMetrics.onCall(request, SystemClock.elapsedRealtime() - start, null, ex, attempts[0]);
+            throw ex;
+        } finally {
+            sAttempts.remove();
+        }
+    }
+
+    /**
+     * Network interceptor that counts each trip to the network and the bytes sent and received
+     */
+    public static class NetworkInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            int[] attempts = sAttempts.get();
+            if (attempts != null) attempts[0]++;
+
+            Response response = chain.proceed(request);
+            long bytesOut = request.body() != null ? request.body().contentLength() : 0;
+            NetworkMetrics.onNetworkExchange(request, bytesOut, -1);
+            ResponseBody body = response.body();
+            if (body == null) return response;
+
+            // Content-Length is missing for chunked responses, so count the bytes as they are read instead
+            return response.newBuilder()
+                    .body(new CountingResponseBody(request, body))
+                    .build();
+        }
+    }
+
+    /**
+     * Response body that reports the bytes read from it to {@link NetworkMetrics} once it is exhausted or closed.
+     * Network interceptors see the body before it is decompressed, so this is the size over the wire
+     */
+    private static class CountingResponseBody extends ResponseBody {
+        private final Request mRequest;
+
+        private final ResponseBody mDelegate;
+
+        private final BufferedSource mSource;
+
+        private long mBytesRead = 0;
+
+        private boolean mReported = false;
+
+        CountingResponseBody(Request request, ResponseBody delegate) {
+            mRequest = request;
+            mDelegate = delegate;
+
+            mSource = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+
+                    if (read == -1) {
+                        report();
+                    } else {
+                        mBytesRead += read;
+                    }
+
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    report();
+                    super.close();
+                }
+            });
+        }
+
+        private void report() {
+            if (mReported) return;
+            mReported = true;
+            NetworkMetrics.onNetworkExchange(mRequest, 0, mBytesRead);
+        }
+
+        @Override
+        public MediaType contentType() {
+            return mDelegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return mDelegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return mSource;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.kenny.openimgur.api;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.kenny.openimgur.classes.BitmapPool;
+import com.kenny.openimgur.classes.CommentCache;
+import com.kenny.openimgur.classes.GalleryPageCache;
+import com.kenny.openimgur.classes.ImageFetchController;
+import com.kenny.openimgur.classes.ImageMemoryCache;
+import com.kenny.openimgur.classes.ImagePipeline;
+import com.kenny.openimgur.classes.MediaCache;
+import com.kenny.openimgur.classes.PagePrefetcher;
+import com.kenny.openimgur.classes.ProgressiveImageLoader;
+import com.kenny.openimgur.classes.ThumbnailPrefetcher;
+import com.kenny.openimgur.util.ImageUtil;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.Request;
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+
+/**
+ * Collects per endpoint statistics for the requests made to the Imgur API. Requests are grouped by the path template
+ * declared in {@link ImgurService} so that requests for different ids are counted together. Data is fed in by
+ * {@link MetricsInterceptor} and can be exported with {@link #getSnapshot()}.
+ */
+public class NetworkMetrics {
+    // Upper bounds of the latency buckets in milliseconds
+    private static final long[] BUCKETS = {10, 25, 50, 75, 100, 150, 200, 300, 400, 500, 750, 1000, 1500, 2000, 3000,
+            5000, 7500, 10000, 20000, 30000, Long.MAX_VALUE};
+
+    private static final Pattern PARAM_PATTERN = Pattern.compile("\\{[^}]+\\}");
+
+    private static final Object sLock = new Object();
+
+    // Guarded by sLock
+    private static final Map<String, EndpointStats> sStats = new TreeMap<>();
+
+    private static long sStartTime = System.currentTimeMillis();
+
+    private static List<Endpoint> sEndpoints;
+
+    /**
+     * Records the outcome of a request as seen by the application
+     *
+     * @param request  The request that was made
+     * @param tookMs   How long the request took, including any retries
+     * @param response The response, null if the request failed
+     * @param error    The error thrown by the request, null if it succeeded
+     * @param attempts The number of times the request went to the network
+     */
+    static void onCall(@NonNull Request request, long tookMs, @Nullable okhttp3.Response response, @Nullable Throwable error, int attempts) {
+        String endpoint = getEndpoint(request);
+
+        synchronized (sLock) {
+            EndpointStats stats = getStats(endpoint);
+            stats.calls++;
+            stats.latency[getBucket(tookMs)]++;
+            stats.totalLatency += tookMs;
+            stats.maxLatency = Math.max(stats.maxLatency, tookMs);
+            if (attempts > 1) stats.retries += attempts - 1;
+
+            if (response != null) {
+                if (response.cacheResponse() != null) {
+                    if (response.networkResponse() == null) {
+                        stats.cacheHits++;
+                    } else {
+                        stats.conditionalHits++;
+                    }
+                } else {
+                    stats.cacheMisses++;
+                }
+
+                if (!response.isSuccessful()) stats.addError("HTTP " + response.code());
+            } else if (error != null) {
+                stats.addError(error.getClass().getSimpleName());
+            }
+        }
+    }
+
+    /**
+     * Records the bytes sent or received by a single request over the network
+     *
+     * @param request  The request sent over the network
+     * @param bytesOut The size of the request body
+     * @param bytesIn  The bytes of the response body read off the wire, -1 if unknown
+     */
+    static void onNetworkExchange(@NonNull Request request, long bytesOut, long bytesIn) {
+        String endpoint = getEndpoint(request);
+
+        synchronized (sLock) {
+            EndpointStats stats = getStats(endpoint);
+            if (bytesOut > 0) stats.bytesOut += bytesOut;
+            if (bytesIn > 0) stats.bytesIn += bytesIn;
+        }
+    }
+
+    /**
+     * Clears all of the recorded metrics
+     */
+    public static void reset() {
+        synchronized (sLock) {
+            sStats.clear();
+            sStartTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Returns a plain text report of the metrics recorded since the app started or {@link #reset()} was called
+     *
+     * @return
+     */
+    @NonNull
+    public static String getSnapshot() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+        StringBuilder sb = new StringBuilder();
+
+        synchronized (sLock) {
+            sb.append("Network metrics from ").append(format.format(new Date(sStartTime)))
+                    .append(" to ").append(format.format(new Date())).append("\n");
+
+            for (Map.Entry<String, EndpointStats> entry : sStats.entrySet()) {
+                EndpointStats stats = entry.getValue();
+                sb.append("\n").append(entry.getKey()).append("\n");
+                if (stats.calls == 0) continue;
+
+                sb.append("  calls=").append(stats.calls)
+                        .append(" retries=").append(stats.retries).append("\n")
+                        .append("  latency ms p50=").append(stats.getPercentile(0.5f))
+                        .append(" p95=").append(stats.getPercentile(0.95f))
+                        .append(" p99=").append(stats.getPercentile(0.99f))
+                        .append(" mean=").append(stats.totalLatency / stats.calls)
+                        .append(" max=").append(stats.maxLatency).append("\n")
+                        .append("  bytes in=").append(stats.bytesIn)
+                        .append(" out=").append(stats.bytesOut).append("\n")
+                        .append("  cache hit=").append(stats.cacheHits)
+                        .append(" conditional=").append(stats.conditionalHits)
+                        .append(" miss=").append(stats.cacheMisses).append("\n");
+
+                if (!stats.errors.isEmpty()) sb.append("  errors ").append(stats.errors).append("\n");
+            }
+        }
+
+        sb.append("\nRate limit remaining=").append(RateLimiter.getRemaining())
+                .append(" deferred=").append(RateLimiter.getDeferredCount())
+                .append(" limited=").append(RateLimiter.getRateLimitedCount()).append("\n")
+                .append("Cancelled calls=").append(CallManager.getCancelledCount())
+                .append(" bytes saved=").append(CallManager.getBytesSaved()).append("\n")
+                .append(CoalescingCallAdapterFactory.getSnapshot())
+                .append(CommentCache.getInstance().getSnapshot())
+                .append(GalleryPageCache.getInstance().getSnapshot())
+                .append(PagePrefetcher.getSnapshot());
+
+        ImageMemoryCache memoryCache = ImageUtil.getMemoryCache();
+        if (memoryCache != null) sb.append(memoryCache.getSnapshot());
+        sb.append(BitmapPool.getInstance().getSnapshot())
+                .append(ImageFetchController.getInstance().getSnapshot())
+                .append(ImagePipeline.getInstance().getSnapshot())
+                .append(ThumbnailPrefetcher.getSnapshot())
+                .append(ProgressiveImageLoader.getSnapshot())
+                .append(MediaCache.getInstance().getSnapshot());
+
+        return sb.toString();
+    }
+
+    private static EndpointStats getStats(String endpoint) {
+        EndpointStats stats = sStats.get(endpoint);
+
+        if (stats == null) {
+            stats = new EndpointStats();
+            sStats.put(endpoint, stats);
+        }
+
+        return stats;
+    }
+
+    private static int getBucket(long tookMs) {
+        for (int i = 0; i < BUCKETS.length; i++) {
+            if (tookMs <= BUCKETS[i]) return i;
+        }
+
+        return BUCKETS.length - 1;
+    }
+
+    /**
+     * Returns the endpoint declared in {@link ImgurService} the request was made to, or its path if none match
+     *
+     * @param request
+     * @return
+     */
+    private static String getEndpoint(Request request) {
+        String method = request.method();
+        String path = request.url().encodedPath();
+        Endpoint best = null;
+
+        for (Endpoint endpoint : getEndpoints()) {
+            if (!endpoint.method.equals(method) || !endpoint.pattern.matcher(path).matches()) continue;
+
+            // Prefer the template with the most fixed text, /gallery/search/{sort} over /gallery/{section}/{sort}
+            if (best == null || endpoint.specificity > best.specificity) best = endpoint;
+        }
+
+        return best != null ? best.key : method + " " + path;
+    }
+
+    private static List<Endpoint> getEndpoints() {
+        synchronized (sLock) {
+            if (sEndpoints == null) {
+                sEndpoints = new ArrayList<>();
+
+                for (Method method : ImgurService.class.getMethods()) {
+                    for (Annotation annotation : method.getAnnotations()) {
+                        if (annotation instanceof GET) {
+                            addEndpoint("GET", ((GET) annotation).value());
+                        } else if (annotation instanceof POST) {
+                            addEndpoint("POST", ((POST) annotation).value());
+                        } else if (annotation instanceof DELETE) {
+                            addEndpoint("DELETE", ((DELETE) annotation).value());
+                        }
+                    }
+                }
+            }
+
+            return sEndpoints;
+        }
+    }
+
+    private static void addEndpoint(String method, String template) {
+        int query = template.indexOf('?');
+        if (query >= 0) template = template.substring(0, query);
+
+        StringBuilder regex = new StringBuilder();
+        Matcher matcher = PARAM_PATTERN.matcher(template);
+        int last = 0;
+        int specificity = 0;
+
+        while (matcher.find()) {
+            regex.append(Pattern.quote(template.substring(last, matcher.start()))).append("[^/]+");
+            specificity += matcher.start() - last;
+            last = matcher.end();
+        }
+
+        regex.append(Pattern.quote(template.substring(last)));
+        specificity += template.length() - last;
+        sEndpoints.add(new Endpoint(method, template, Pattern.compile(regex.toString()), specificity));
+    }
+
+    private static class Endpoint {
+        final String method;
+
+        final String key;
+
+        final Pattern pattern;
+
+        final int specificity;
+
+        Endpoint(String method, String template, Pattern pattern, int specificity) {
+            this.method = method;
+            this.key = method + " " + template;
+            this.pattern = pattern;
+            this.specificity = specificity;
+        }
+    }
+
+    private static class EndpointStats {
+        final long[] latency = new long[BUCKETS.length];
+
+        final Map<String, Integer> errors = new TreeMap<>();
+
+        long calls;
+
+        long totalLatency;
+
+        long maxLatency;
+
+        long retries;
+
+        long bytesIn;
+
+        long bytesOut;
+
+        long cacheHits;
+
+        long conditionalHits;
+
+        long cacheMisses;
+
+        void addError(String error) {
+            Integer count = errors.get(error);
+            errors.put(error, count != null ? count + 1 : 1);
+        }
+
+        /**
+         * Returns the upper bound of the bucket the given percentile falls in
+         */
+        long getPercentile(float percentile) {
+            long rank = (long) Math.ceil(calls * percentile);
+            long seen = 0;
+
+            for (int i = 0; i < latency.length; i++) {
+                seen += latency[i];
+                if (seen >= rank) return Math.min(BUCKETS[i], maxLatency);
+            }
+
+            return maxLatency;
+        }
+    }
+}
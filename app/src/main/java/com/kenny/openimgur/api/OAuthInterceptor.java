@@ -5,12 +5,21 @@ import android.text.TextUtils;
 import android.text.format.DateUtils;
 
 import com.kenny.openimgur.api.responses.OAuthResponse;
+import com.kenny.openimgur.classes.ImgurUser;
 import com.kenny.openimgur.classes.OpengurApp;
 import com.kenny.openimgur.util.LogUtil;
 import com.kenny.openimgur.util.SqlHelper;
 
 import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import okhttp3.Interceptor;
 import okhttp3.Request;
@@ -19,6 +28,10 @@ import retrofit2.Call;
 
 /**
  * Created by kcampagna on 7/15/15.
+ * <p>
+ * Tokens are refreshed shortly before they expire on a background thread. Requests that come in while a refresh is
+ * running wait on the shared refresh instead of going out with a token that is about to be replaced. A 401/403 from the
+ * API still triggers a refresh as a fallback.
  */
 public class OAuthInterceptor implements Interceptor {
     private static final String TAG = OAuthInterceptor.class.getSimpleName();
@@ -27,65 +40,71 @@ public class OAuthInterceptor implements Interceptor {
 
     private static final String AUTHORIZATION_HEADER = "Authorization";
 
+    private static final String TOKEN_PATH = "/oauth2/token";
+
+    // How long before the token expires that it will be refreshed
+    private static final long REFRESH_WINDOW = 5 * DateUtils.MINUTE_IN_MILLIS;
+
+    // Maximum amount of time a request will wait for a refresh to complete
+    private static final long REFRESH_TIMEOUT = 30 * DateUtils.SECOND_IN_MILLIS;
+
+    private static final int MAX_REFRESH_ATTEMPTS = 5;
+
+    private static final ScheduledExecutorService sRefreshExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    @Nullable
+    private static volatile String sAccessToken = null;
+
+    // Guarded by sLock
     @Nullable
-    private static String sAccessToken = null;
+    private static Future<String> sRefreshFuture;
 
-    private int mRetryAttempts = 0;
+    // Guarded by sLock
+    @Nullable
+    private static ScheduledFuture<?> sScheduledRefresh;
 
     public OAuthInterceptor(@Nullable String token) {
-        sAccessToken = token;
+        setAccessToken(token);
     }
 
     @Override
     public Response intercept(Chain chain) throws IOException {
         Request original = chain.request();
+        boolean isTokenRequest = TOKEN_PATH.equals(original.url().encodedPath());
+
+        // The refresh request itself can not wait on the refresh
+        if (!isTokenRequest) awaitFreshToken();
+
+        String token = sAccessToken;
         Request.Builder builder = original.newBuilder();
-        builder.addHeader(AUTHORIZATION_HEADER, getAuthorizationHeader());
+        builder.addHeader(AUTHORIZATION_HEADER, getAuthorizationHeader(token));
         Request request = builder.method(original.method(), original.body()).build();
         Response response = chain.proceed(request);
         LogUtil.v(TAG, "Response to " + request.url().toString() + " - " + response.code());
 
-        if (response.code() == HttpURLConnection.HTTP_UNAUTHORIZED || response.code() == HttpURLConnection.HTTP_FORBIDDEN) {
-            String token = sAccessToken;
-
+        if (!isTokenRequest && (response.code() == HttpURLConnection.HTTP_UNAUTHORIZED || response.code() == HttpURLConnection.HTTP_FORBIDDEN)) {
             if (!TextUtils.isEmpty(token)) {
                 LogUtil.v(TAG, "Token is no longer valid");
+                String newToken;
 
-                synchronized (sLock) {
-                    String currentToken = sAccessToken;
-
-                    // Check if our current token has been updated, if it hasn't fetch a new one.
-                    if (!TextUtils.isEmpty(currentToken) && currentToken.equals(token)) {
-                        // Try 5 times to get a refresh token
-                        while (mRetryAttempts < 5) {
-                            sAccessToken = refreshToken(OpengurApp.getInstance());
-
-                            if (!TextUtils.isEmpty(sAccessToken)) {
-                                break;
-                            }
-
-                            mRetryAttempts++;
-
-                            try {
-                                // Delay the next request by several seconds so we aren't bombarding the API
-                                Thread.sleep(DateUtils.SECOND_IN_MILLIS * mRetryAttempts);
-                            } catch (Exception ex) {
-                                LogUtil.v(TAG, "Sleeping thread failed", ex);
-                            }
-                        }
-                    }
+                try {
+                    newToken = await(refresh(token));
+                } catch (TimeoutException ex) {
+                    // The refresh is still retrying and may yet succeed, a slow network is no reason to log out
+                    LogUtil.w(TAG, "Token refresh did not finish in time, returning the unauthorized response");
+                    return response;
                 }
 
-                mRetryAttempts = 0;
-
-                if (!TextUtils.isEmpty(sAccessToken)) {
+                if (!TextUtils.isEmpty(newToken)) {
                     Request newRequest = request.newBuilder()
                             .removeHeader(AUTHORIZATION_HEADER)
-                            .addHeader(AUTHORIZATION_HEADER, "Bearer " + sAccessToken)
+                            .addHeader(AUTHORIZATION_HEADER, "Bearer " + newToken)
                             .build();
 
+                    response.body().close();
                     return chain.proceed(newRequest);
-                } else {
+                } else if (token.equals(sAccessToken)) {
+                    // Only log out the session the request was made with, the user may have logged out or in again
                     OpengurApp.getInstance().onLogout();
                 }
             } else {
@@ -96,37 +115,177 @@ public class OAuthInterceptor implements Interceptor {
         return response;
     }
 
+    /**
+     * Blocks the calling thread while a token refresh is running, or starts one if the token is about to expire.
+     * The scheduled refresh will normally have already run, this catches the cases where it could not, like the device
+     * having been asleep.
+     */
+    private static void awaitFreshToken() {
+        if (TextUtils.isEmpty(sAccessToken)) return;
+        Future<String> pending;
+
+        synchronized (sLock) {
+            pending = sRefreshFuture != null && !sRefreshFuture.isDone() ? sRefreshFuture : null;
+        }
+
+        if (pending == null) {
+            ImgurUser user = OpengurApp.getInstance().getUser();
+            if (user == null || System.currentTimeMillis() < user.getAccessTokenExpiration() - REFRESH_WINDOW) return;
+            LogUtil.v(TAG, "Token is about to expire, refreshing before proceeding");
+            pending = refresh(sAccessToken);
+        }
+
+        try {
+            await(pending);
+        } catch (TimeoutException ex) {
+            LogUtil.w(TAG, "Token refresh did not finish in time, proceeding with the current token");
+        }
+    }
+
+    /**
+     * Returns the shared refresh, starting one if needed
+     *
+     * @param staleToken The token that needs to be replaced. If the current token no longer matches it, it has already
+     *                   been refreshed and no new refresh is started
+     * @return
+     */
+    private static Future<String> refresh(@Nullable final String staleToken) {
+        synchronized (sLock) {
+            if (sRefreshFuture != null && !sRefreshFuture.isDone()) return sRefreshFuture;
+            final String currentToken = sAccessToken;
+
+            if (!TextUtils.isEmpty(currentToken) && !currentToken.equals(staleToken)) {
+                FutureTask<String> refreshed = new FutureTask<>(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return currentToken;
+                    }
+                });
+
+                refreshed.run();
+                return refreshed;
+            }
+
+            sRefreshFuture = sRefreshExecutor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return refreshToken(OpengurApp.getInstance());
+                }
+            });
+
+            return sRefreshFuture;
+        }
+    }
+
+    /**
+     * Waits up to {@link #REFRESH_TIMEOUT} for the refresh
+     *
+     * @param future
+     * @return The new access token, null if the refresh failed
+     * @throws TimeoutException If the refresh did not finish while waiting for it. It may still be running
+     */
     @Nullable
-    private String refreshToken(OpengurApp app) {
+    private static String await(Future<String> future) throws TimeoutException {
         try {
-            Call<OAuthResponse> call = ApiClient.getService().refreshToken(ApiClient.CLIENT_ID, ApiClient.CLIENT_SECRET, app.getUser().getRefreshToken(), "refresh_token");
-            retrofit2.Response<OAuthResponse> response = call.execute();
+            return future.get(REFRESH_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw ex;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting for token refresh");
+        } catch (Exception ex) {
+            LogUtil.e(TAG, "Unable to wait for token refresh", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Refreshes the token, retrying several times before giving up. Only ever runs on the refresh executor
+     *
+     * @param app
+     * @return The new access token, null if it could not be refreshed
+     */
+    @Nullable
+    private static String refreshToken(OpengurApp app) {
+        for (int attempt = 1; attempt <= MAX_REFRESH_ATTEMPTS; attempt++) {
+            ImgurUser user = app.getUser();
+            if (user == null) return null;
+
+            try {
+                Call<OAuthResponse> call = ApiClient.getService().refreshToken(ApiClient.CLIENT_ID, ApiClient.CLIENT_SECRET, user.getRefreshToken(), "refresh_token");
+                retrofit2.Response<OAuthResponse> response = call.execute();
+
+                if (response != null && response.body() != null) {
+                    OAuthResponse oAuthResponse = response.body();
+
+                    // Logging out sets the token under the same lock, so it can't interleave with publishing the new one
+                    synchronized (sLock) {
+                        if (app.getUser() != user) {
+                            LogUtil.w(TAG, "User logged out while the token was refreshing, dropping the new token");
+                            return null;
+                        }
+
+                        if (!TextUtils.isEmpty(oAuthResponse.access_token) && !TextUtils.isEmpty(oAuthResponse.refresh_token)) {
+                            long expiration = System.currentTimeMillis() + (oAuthResponse.expires_in * DateUtils.SECOND_IN_MILLIS);
+                            user.setTokens(oAuthResponse.access_token, oAuthResponse.refresh_token, expiration);
+                            SqlHelper.getInstance(app).updateUserTokens(oAuthResponse.access_token, oAuthResponse.refresh_token, expiration);
+                            sAccessToken = oAuthResponse.access_token;
+                            scheduleRefresh(expiration);
+                            LogUtil.v(TAG, "Token refreshed");
+                            return oAuthResponse.access_token;
+                        }
+                    }
+
+                    app.onLogout();
+                    return null;
+                }
 
-            if (response == null || response.body() == null) {
                 LogUtil.e(TAG, "Response came back as null");
+            } catch (Throwable error) {
+                LogUtil.e(TAG, "Error while refreshing token", error);
+            }
+
+            try {
+                // Delay the next request by several seconds so we aren't bombarding the API
+                Thread.sleep(DateUtils.SECOND_IN_MILLIS * attempt);
+            } catch (InterruptedException ex) {
+                LogUtil.v(TAG, "Sleeping thread failed", ex);
                 return null;
             }
+        }
 
-            OAuthResponse oAuthResponse = response.body();
+        return null;
+    }
 
-            if (!TextUtils.isEmpty(oAuthResponse.access_token) && !TextUtils.isEmpty(oAuthResponse.refresh_token)) {
-                app.getUser().setTokens(oAuthResponse.access_token, oAuthResponse.refresh_token, oAuthResponse.expires_in);
-                SqlHelper.getInstance(app).updateUserTokens(oAuthResponse.access_token, oAuthResponse.refresh_token, oAuthResponse.expires_in);
-                return oAuthResponse.access_token;
+    /**
+     * Schedules the token to be refreshed shortly before it expires, replacing any previously scheduled refresh
+     *
+     * @param expiration The time in milliseconds the token expires, 0 to only cancel the current schedule
+     */
+    private static void scheduleRefresh(long expiration) {
+        synchronized (sLock) {
+            if (sScheduledRefresh != null) {
+                sScheduledRefresh.cancel(false);
+                sScheduledRefresh = null;
             }
 
-            app.onLogout();
-        } catch (Throwable error) {
-            LogUtil.e(TAG, "Error while refreshing token, logging out user", error);
-        }
+            if (expiration <= 0) return;
+            long delay = Math.max(0, expiration - REFRESH_WINDOW - System.currentTimeMillis());
+            LogUtil.v(TAG, "Scheduling token refresh in " + delay + "ms");
 
-        return null;
+            sScheduledRefresh = sRefreshExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    refresh(sAccessToken);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
     }
 
-    private String getAuthorizationHeader() {
-        if (!TextUtils.isEmpty(sAccessToken)) {
+    private static String getAuthorizationHeader(@Nullable String token) {
+        if (!TextUtils.isEmpty(token)) {
             LogUtil.v(TAG, "Access Token present");
-            return "Bearer " + sAccessToken;
+            return "Bearer " + token;
         } else {
             LogUtil.v(TAG, "No access token present, using Client-ID");
             return "Client-ID " + ApiClient.CLIENT_ID;
@@ -134,6 +293,11 @@ public class OAuthInterceptor implements Interceptor {
     }
 
     public static void setAccessToken(@Nullable String token) {
-        sAccessToken = token;
+        ImgurUser user = OpengurApp.getInstance().getUser();
+
+        synchronized (sLock) {
+            sAccessToken = token;
+            scheduleRefresh(!TextUtils.isEmpty(token) && user != null ? user.getAccessTokenExpiration() : 0);
+        }
     }
 }
@@ -0,0 +1,189 @@
+package com.kenny.openimgur.api;
+
+import android.support.annotation.NonNull;
+import android.text.format.DateUtils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * {@link Call.Factory} that routes each request to the {@link OkHttpClient} of its {@link RequestPriority} lane. Every
+ * lane shares the connection pool, cache and interceptors of the base client but has its own {@link Dispatcher}.
+ * <p>
+ * A {@link Dispatcher} only limits calls that are enqueued, so calls on the throttled lanes that are executed
+ * synchronously are enqueued on their lane and waited for. Interactive calls run as they are, the token refresh is
+ * executed while interactive calls wait on it and must never queue behind them.
+ */
+class PriorityCallFactory implements Call.Factory {
+    // Longest a synchronous call waits for its lane, including the time spent queued behind other calls
+    private static final long EXECUTE_TIMEOUT = 2 * DateUtils.MINUTE_IN_MILLIS;
+
+    private final OkHttpClient[] mLanes;
+
+    private final RequestPriority mDefaultPriority;
+
+    /**
+     * @param lanes           The clients for each lane, indexed by {@link RequestPriority#ordinal()}
+     * @param defaultPriority The lane used when a request doesn't specify one
+     */
+    PriorityCallFactory(@NonNull OkHttpClient[] lanes, @NonNull RequestPriority defaultPriority) {
+        mLanes = lanes;
+        mDefaultPriority = defaultPriority;
+    }
+
+    @Override
+    public Call newCall(Request request) {
+        RequestPriority priority = mDefaultPriority;
+        String header = request.header(RequestPriority.HEADER);
+
+        if (header != null) {
+            priority = RequestPriority.fromHeader(header, mDefaultPriority);
+            request = request.newBuilder().removeHeader(RequestPriority.HEADER).build();
+        }
+
+        Call call = mLanes[priority.ordinal()].newCall(request);
+        return priority == RequestPriority.INTERACTIVE ? call : new LaneCall(call);
+    }
+
+    /**
+     * Creates a client for each {@link RequestPriority} from the given base client
+     *
+     * @param base
+     * @return
+     */
+    static OkHttpClient[] createLanes(@NonNull OkHttpClient base) {
+        RequestPriority[] priorities = RequestPriority.values();
+        OkHttpClient[] lanes = new OkHttpClient[priorities.length];
+
+        for (RequestPriority priority : priorities) {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(priority.maxRequests);
+            dispatcher.setMaxRequestsPerHost(priority.maxRequestsPerHost);
+            OkHttpClient.Builder builder = base.newBuilder().dispatcher(dispatcher);
+
+            // LaneCall waits on the callbacks, which are never called when an interceptor throws anything but an IOException
+            if (priority != RequestPriority.INTERACTIVE) builder.interceptors().add(0, new RuntimeExceptionInterceptor());
+            lanes[priority.ordinal()] = builder.build();
+        }
+
+        return lanes;
+    }
+
+    /**
+     * {@link Call} that runs {@link #execute()} through its lane's {@link Dispatcher} so it counts towards the lane's caps
+     */
+    private static class LaneCall implements Call {
+        private final Call mDelegate;
+
+        LaneCall(Call delegate) {
+            mDelegate = delegate;
+        }
+
+        @Override
+        public Request request() {
+            return mDelegate.request();
+        }
+
+        @Override
+        public Response execute() throws IOException {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final Response[] response = new Response[1];
+            final IOException[] error = new IOException[1];
+            final boolean[] abandoned = new boolean[1];
+
+            mDelegate.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    error[0] = e;
+                    latch.countDown();
+                }
+
+                @Override
+                public void onResponse(Call call, Response r) throws IOException {
+                    synchronized (abandoned) {
+                        // Nobody is left to close it
+                        if (abandoned[0]) {
+                            r.body().close();
+                            return;
+                        }
+
+                        response[0] = r;
+                    }
+
+                    latch.countDown();
+                }
+            });
+
+            try {
+                if (!latch.await(EXECUTE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    abandon(abandoned, response);
+                    throw new InterruptedIOException("Timed out waiting for " + request().url());
+                }
+            } catch (InterruptedException e) {
+                abandon(abandoned, response);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for " + request().url());
+            }
+
+            if (error[0] != null) throw error[0];
+            return response[0];
+        }
+
+        /**
+         * Cancels the call once execute() stops waiting on it, closing a response that arrived in the meantime
+         */
+        private void abandon(boolean[] abandoned, Response[] response) {
+            synchronized (abandoned) {
+                abandoned[0] = true;
+                if (response[0] != null) response[0].body().close();
+            }
+
+            mDelegate.cancel();
+        }
+
+        @Override
+        public void enqueue(Callback responseCallback) {
+            mDelegate.enqueue(responseCallback);
+        }
+
+        @Override
+        public void cancel() {
+            mDelegate.cancel();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return mDelegate.isExecuted();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return mDelegate.isCanceled();
+        }
+    }
+
+    /**
+     * Rethrows runtime exceptions from the rest of the chain as an {@link IOException} so the call fails through
+     * {@link Callback#onFailure(Call, IOException)} instead of killing the dispatcher thread without a callback
+     */
+    private static class RuntimeExceptionInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            try {
+                return chain.proceed(chain.request());
+            } catch (RuntimeException e) {
+                throw new IOException("Request to " + chain.request().url() + " failed", e);
+            }
+        }
+    }
+}
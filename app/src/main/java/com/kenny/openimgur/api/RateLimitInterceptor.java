@@ -0,0 +1,21 @@
+package com.kenny.openimgur.api;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Network interceptor that feeds every request and response that hits the network into the {@link RateLimiter}.
+ * Responses served from the cache don't count against the budget so they never reach this interceptor.
+ */
+public class RateLimitInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        RateLimiter.onRequest();
+        Response response = chain.proceed(chain.request());
+        RateLimiter.onResponse(response.code(), response.headers());
+        return response;
+    }
+}
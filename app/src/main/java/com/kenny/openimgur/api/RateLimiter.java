@@ -0,0 +1,228 @@
+package com.kenny.openimgur.api;
+
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+import android.text.format.DateUtils;
+
+import com.kenny.openimgur.util.LogUtil;
+
+import okhttp3.Headers;
+
+/**
+ * Keeps track of the remaining Imgur API budget using a local token bucket that is kept in sync with the
+ * X-RateLimit headers returned by the API. User visible requests are never held back, low priority work
+ * (background refreshes, prefetching) should check {@link #shouldDefer()} before making any requests so the
+ * remaining budget is saved for the user.
+ */
+public class RateLimiter {
+    private static final String TAG = RateLimiter.class.getSimpleName();
+
+    private static final String HEADER_USER_LIMIT = "X-RateLimit-UserLimit";
+
+    private static final String HEADER_USER_REMAINING = "X-RateLimit-UserRemaining";
+
+    private static final String HEADER_USER_RESET = "X-RateLimit-UserReset";
+
+    private static final String HEADER_CLIENT_LIMIT = "X-RateLimit-ClientLimit";
+
+    private static final String HEADER_CLIENT_REMAINING = "X-RateLimit-ClientRemaining";
+
+    private static final String HEADER_RETRY_AFTER = "Retry-After";
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    // The user budget is replenished hourly
+    private static final long USER_WINDOW = DateUtils.HOUR_IN_MILLIS;
+
+    // Low priority work is deferred once the budget falls below this fraction of the limit
+    private static final float LOW_BUDGET_FRACTION = 0.1f;
+
+    private static final int MIN_LOW_BUDGET = 25;
+
+    // How long to back off after a 429 when the API doesn't say
+    private static final long DEFAULT_BACKOFF = DateUtils.MINUTE_IN_MILLIS;
+
+    private static final Object sLock = new Object();
+
+    // All of the below are guarded by sLock, -1 meaning the API hasn't told us yet
+    private static int sUserLimit = -1;
+
+    private static int sClientLimit = -1;
+
+    private static int sClientRemaining = -1;
+
+    private static long sUserReset = 0;
+
+    private static long sBlockedUntil = 0;
+
+    private static double sTokens = -1;
+
+    private static long sLastRefill = 0;
+
+    private static int sDeferred = 0;
+
+    private static int sRateLimited = 0;
+
+    /**
+     * Called when a request is about to hit the network
+     */
+    static void onRequest() {
+        synchronized (sLock) {
+            refill(System.currentTimeMillis());
+            if (sTokens > 0) sTokens--;
+        }
+    }
+
+    /**
+     * Called with every network response so the local budget matches what the API reports
+     *
+     * @param code    The HTTP status of the response
+     * @param headers The headers of the response
+     */
+    static void onResponse(int code, Headers headers) {
+        long now = System.currentTimeMillis();
+
+        synchronized (sLock) {
+            int userLimit = parseInt(headers.get(HEADER_USER_LIMIT));
+            int userRemaining = parseInt(headers.get(HEADER_USER_REMAINING));
+            int clientLimit = parseInt(headers.get(HEADER_CLIENT_LIMIT));
+            int clientRemaining = parseInt(headers.get(HEADER_CLIENT_REMAINING));
+            long userReset = parseInt(headers.get(HEADER_USER_RESET));
+
+            if (userLimit > 0) sUserLimit = userLimit;
+            if (clientLimit > 0) sClientLimit = clientLimit;
+            if (clientRemaining >= 0) sClientRemaining = clientRemaining;
+            if (userReset > 0) sUserReset = userReset * DateUtils.SECOND_IN_MILLIS;
+
+            if (userRemaining >= 0) {
+                sTokens = userRemaining;
+                sLastRefill = now;
+            }
+
+            if (code == HTTP_TOO_MANY_REQUESTS) {
+                sRateLimited++;
+                sTokens = 0;
+                sLastRefill = now;
+                long retryAfter = parseInt(headers.get(HEADER_RETRY_AFTER));
+                sBlockedUntil = now + (retryAfter > 0 ? retryAfter * DateUtils.SECOND_IN_MILLIS : DEFAULT_BACKOFF);
+                LogUtil.w(TAG, "Rate limited by API, blocking low priority requests until " + sBlockedUntil);
+            }
+        }
+    }
+
+    /**
+     * Returns if low priority work should be deferred to preserve the remaining budget. User visible requests should
+     * not call this.
+     *
+     * @return
+     */
+    public static boolean shouldDefer() {
+        synchronized (sLock) {
+            long now = System.currentTimeMillis();
+            refill(now);
+            boolean defer = now < sBlockedUntil || isBudgetLow();
+            if (defer) sDeferred++;
+            return defer;
+        }
+    }
+
+    /**
+     * Returns how long low priority work should wait before trying again
+     *
+     * @return
+     */
+    public static long getDeferDelay() {
+        synchronized (sLock) {
+            long now = System.currentTimeMillis();
+            refill(now);
+            if (now < sBlockedUntil) return sBlockedUntil - now;
+            if (!isBudgetLow()) return 0;
+
+            // The client budget is daily and can only be waited out
+            if (isClientBudgetLow()) return DateUtils.HOUR_IN_MILLIS;
+
+            double needed = getLowWatermark(sUserLimit) - sTokens;
+            long refillTime = (long) (needed / getRefillRate());
+            return sUserReset > now ? Math.min(refillTime, sUserReset - now) : refillTime;
+        }
+    }
+
+    /**
+     * Returns the estimated number of requests remaining for the user, -1 if unknown
+     *
+     * @return
+     */
+    public static int getRemaining() {
+        synchronized (sLock) {
+            refill(System.currentTimeMillis());
+            return (int) sTokens;
+        }
+    }
+
+    /**
+     * Returns the number of times low priority work was deferred
+     *
+     * @return
+     */
+    public static int getDeferredCount() {
+        synchronized (sLock) {
+            return sDeferred;
+        }
+    }
+
+    /**
+     * Returns the number of 429 responses received from the API
+     *
+     * @return
+     */
+    public static int getRateLimitedCount() {
+        synchronized (sLock) {
+            return sRateLimited;
+        }
+    }
+
+    private static boolean isBudgetLow() {
+        if (isClientBudgetLow()) return true;
+        return sTokens >= 0 && sUserLimit > 0 && sTokens < getLowWatermark(sUserLimit);
+    }
+
+    private static boolean isClientBudgetLow() {
+        return sClientRemaining >= 0 && sClientLimit > 0 && sClientRemaining < getLowWatermark(sClientLimit);
+    }
+
+    private static int getLowWatermark(int limit) {
+        return Math.max(MIN_LOW_BUDGET, (int) (limit * LOW_BUDGET_FRACTION));
+    }
+
+    /**
+     * Returns the number of tokens replenished per millisecond
+     */
+    private static double getRefillRate() {
+        return (double) sUserLimit / USER_WINDOW;
+    }
+
+    private static void refill(long now) {
+        if (sTokens < 0 || sUserLimit <= 0) return;
+
+        if (sUserReset > 0 && now >= sUserReset) {
+            // The API window has reset, the budget is full again
+            sTokens = sUserLimit;
+            sUserReset = 0;
+        } else if (now > sLastRefill) {
+            sTokens = Math.min(sUserLimit, sTokens + (now - sLastRefill) * getRefillRate());
+        }
+
+        sLastRefill = now;
+    }
+
+    private static int parseInt(@Nullable String value) {
+        if (TextUtils.isEmpty(value)) return -1;
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            LogUtil.w(TAG, "Unable to parse rate limit header " + value);
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.kenny.openimgur.api;
+
+/**
+ * Lanes API requests are dispatched on. Each lane has its own concurrency caps so user visible requests never wait
+ * behind prefetching or background work.
+ * <p>
+ * A lane is picked either by the call site with {@link ApiClient#getService(RequestPriority)}, or by annotating an
+ * {@link ImgurService} method with one of the header constants, e.g. {@code @Headers(RequestPriority.HEADER_BACKGROUND)}.
+ * An annotated method always uses its annotated lane.
+ */
+public enum RequestPriority {
+    INTERACTIVE("interactive", 16, 6),
+    PREFETCH("prefetch", 4, 2),
+    BACKGROUND("background", 2, 1);
+
+    static final String HEADER = "X-Opengur-Priority";
+
+    public static final String HEADER_INTERACTIVE = HEADER + ": interactive";
+
+    public static final String HEADER_PREFETCH = HEADER + ": prefetch";
+
+    public static final String HEADER_BACKGROUND = HEADER + ": background";
+
+    final String value;
+
+    final int maxRequests;
+
+    final int maxRequestsPerHost;
+
+    RequestPriority(String value, int maxRequests, int maxRequestsPerHost) {
+        this.value = value;
+        this.maxRequests = maxRequests;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+    }
+
+    static RequestPriority fromHeader(String value, RequestPriority fallback) {
+        for (RequestPriority priority : values()) {
+            if (priority.value.equals(value)) return priority;
+        }
+
+        return fallback;
+    }
+}
@@ -0,0 +1,339 @@
+package com.kenny.openimgur.classes;
+
+import android.annotation.TargetApi;
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import com.kenny.openimgur.util.FileUtil;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Pool of gallery thumbnail bitmaps that are no longer used, so new thumbnails can be decoded into them instead of
+ * allocating a new bitmap for each. Bitmaps are bucketed by their allocation size and a request is served by the
+ * smallest bucket that fits, as long as it doesn't waste too much memory.
+ * <p>
+ * Only bitmaps decoded by {@link PooledImageDecoder} are pooled. They are tracked while they are in the memory cache,
+ * while the image loader has yet to display them after caching them, and while they are shown in a view. They only go
+ * into the pool once they are none of these. Views report what they show through {@link #onDisplay(View, Bitmap)} and
+ * {@link #onViewRecycled(View)}.
+ * <p>
+ * Decoding into an existing bitmap of a different size requires KitKat, the pool is disabled below it.
+ */
+public class BitmapPool {
+    private static final String TAG = "BitmapPool";
+
+    // Upper bound of the pool, smaller heaps get 1/16 of the heap
+    private static final int MAX_SIZE = 8 * 1024 * 1024;
+
+    // A pooled bitmap can be at most this many times larger than the bitmap it is used for
+    private static final int MAX_WASTE = 2;
+
+    private static BitmapPool sInstance;
+
+    private final boolean mEnabled = Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT;
+
+    private final int mMaxSize;
+
+    private int mSize = 0;
+
+    // Free bitmaps keyed by their allocation size
+    private final TreeMap<Integer, ArrayDeque<Bitmap>> mBuckets = new TreeMap<>();
+
+    // Bitmaps that can return to the pool and how they are being used
+    private final WeakHashMap<Bitmap, Usage> mTracked = new WeakHashMap<>();
+
+    // The tracked bitmap each view is showing
+    private final WeakHashMap<View, Bitmap> mDisplayed = new WeakHashMap<>();
+
+    // Tracked bitmaps put in the memory cache whose display task has not run yet, by their memory cache key
+    private final Map<String, ArrayDeque<WeakReference<Bitmap>>> mAwaitingDisplay = new HashMap<>();
+
+    private int mHits = 0;
+
+    private int mMisses = 0;
+
+    private int mReturned = 0;
+
+    private int mEvictions = 0;
+
+    public static synchronized BitmapPool getInstance() {
+        if (sInstance == null) {
+            sInstance = new BitmapPool();
+        }
+
+        return sInstance;
+    }
+
+    private BitmapPool() {
+        mMaxSize = (int) Math.min(MAX_SIZE, Runtime.getRuntime().maxMemory() / 16);
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * Removes a bitmap from the pool that can be decoded into
+     *
+     * @param size The number of bytes the decoded bitmap needs
+     * @return A mutable bitmap with at least the number of bytes, null if the pool has none
+     */
+    @Nullable
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    public synchronized Bitmap get(int size) {
+        if (!mEnabled || size <= 0) return null;
+        Map.Entry<Integer, ArrayDeque<Bitmap>> entry = mBuckets.ceilingEntry(size);
+
+        if (entry == null || entry.getKey() > (long) size * MAX_WASTE) {
+            mMisses++;
+            return null;
+        }
+
+        ArrayDeque<Bitmap> bucket = entry.getValue();
+        Bitmap bitmap = bucket.poll();
+        if (bucket.isEmpty()) mBuckets.remove(entry.getKey());
+        mSize -= entry.getKey();
+        mHits++;
+        return bitmap;
+    }
+
+    /**
+     * Puts a bitmap straight into the pool. Only for bitmaps that nothing else has a reference to
+     *
+     * @param bitmap
+     */
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    public synchronized void put(@NonNull Bitmap bitmap) {
+        if (!mEnabled || bitmap.isRecycled() || !bitmap.isMutable()) return;
+        mTracked.remove(bitmap);
+        int size = bitmap.getAllocationByteCount();
+        if (size > mMaxSize / 2) return;
+
+        ArrayDeque<Bitmap> bucket = mBuckets.get(size);
+
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            mBuckets.put(size, bucket);
+        }
+
+        bucket.push(bitmap);
+        mSize += size;
+        mReturned++;
+        trimToSize(mMaxSize);
+    }
+
+    /**
+     * Marks a freshly decoded bitmap as one that can return to the pool once it is no longer used
+     *
+     * @param bitmap
+     */
+    public synchronized void track(@NonNull Bitmap bitmap) {
+        if (mEnabled && bitmap.isMutable()) mTracked.put(bitmap, new Usage());
+    }
+
+    /**
+     * Returns if the bitmap can return to the pool. Such bitmaps must only be shown by views that report to the pool
+     *
+     * @param bitmap
+     * @return
+     */
+    public synchronized boolean isTracked(@NonNull Bitmap bitmap) {
+        return mTracked.containsKey(bitmap);
+    }
+
+    /**
+     * Called when the memory cache starts holding the bitmap. The image loader displays the bitmap after caching it, so
+     * it is also held until {@link #onDisplayTaskFinished(String, Bitmap)} is called for the key
+     *
+     * @param key    The memory cache key of the bitmap
+     * @param bitmap
+     */
+    public synchronized void onCached(@NonNull String key, @NonNull Bitmap bitmap) {
+        Usage usage = mTracked.get(bitmap);
+        if (usage == null) return;
+        usage.cached = true;
+        usage.awaitingDisplay++;
+        ArrayDeque<WeakReference<Bitmap>> awaiting = mAwaitingDisplay.get(key);
+
+        if (awaiting == null) {
+            awaiting = new ArrayDeque<>(1);
+            mAwaitingDisplay.put(key, awaiting);
+        }
+
+        awaiting.add(new WeakReference<>(bitmap));
+    }
+
+    /**
+     * Called once the image loader has displayed or cancelled displaying an image it loaded for the key
+     *
+     * @param key    The memory cache key of the image
+     * @param bitmap The bitmap that was displayed, null if it was cancelled
+     */
+    public synchronized void onDisplayTaskFinished(@NonNull String key, @Nullable Bitmap bitmap) {
+        ArrayDeque<WeakReference<Bitmap>> awaiting = mAwaitingDisplay.get(key);
+        if (awaiting == null) return;
+        Bitmap finished = null;
+        Iterator<WeakReference<Bitmap>> iterator = awaiting.iterator();
+
+        while (iterator.hasNext()) {
+            Bitmap candidate = iterator.next().get();
+
+            if (candidate == null) {
+                iterator.remove();
+            } else if (bitmap == null || candidate == bitmap) {
+                iterator.remove();
+                finished = candidate;
+                break;
+            }
+        }
+
+        if (awaiting.isEmpty()) mAwaitingDisplay.remove(key);
+        Usage usage = finished != null ? mTracked.get(finished) : null;
+        if (usage == null) return;
+        usage.awaitingDisplay--;
+        release(finished, usage);
+    }
+
+    /**
+     * Called when the memory cache no longer holds the bitmap
+     *
+     * @param bitmap
+     */
+    public synchronized void onUncached(@NonNull Bitmap bitmap) {
+        Usage usage = mTracked.get(bitmap);
+        if (usage == null) return;
+        usage.cached = false;
+        release(bitmap, usage);
+    }
+
+    /**
+     * Called when a view starts showing a bitmap. Whatever the view showed before is no longer in use by it
+     *
+     * @param view
+     * @param bitmap
+     */
+    public synchronized void onDisplay(@NonNull View view, @Nullable Bitmap bitmap) {
+        Bitmap previous = mDisplayed.get(view);
+        if (previous == bitmap) return;
+        mDisplayed.remove(view);
+        Usage usage = bitmap != null ? mTracked.get(bitmap) : null;
+
+        if (usage != null) {
+            usage.displays++;
+            mDisplayed.put(view, bitmap);
+        }
+
+        if (previous != null) onReleased(previous);
+    }
+
+    /**
+     * Called when a view will no longer show its bitmap, such as when a list item is recycled. The view must not draw
+     * its current bitmap after this
+     *
+     * @param view
+     */
+    public synchronized void onViewRecycled(@NonNull View view) {
+        Bitmap previous = mDisplayed.remove(view);
+        if (previous != null) onReleased(previous);
+    }
+
+    private void onReleased(Bitmap bitmap) {
+        Usage usage = mTracked.get(bitmap);
+        if (usage == null) return;
+        usage.displays--;
+        release(bitmap, usage);
+    }
+
+    private void release(Bitmap bitmap, Usage usage) {
+        if (usage.displays > 0 || usage.awaitingDisplay > 0 || usage.cached) return;
+        put(bitmap);
+    }
+
+    /**
+     * Gives memory back in response to {@link ComponentCallbacks2#onTrimMemory(int)}
+     *
+     * @param level
+     */
+    public synchronized void onTrimMemory(int level) {
+        // The pool only helps while scrolling, anything more than light pressure empties it. UI_HIDDEN and BACKGROUND
+        // are above the running levels but only mean the app left the screen
+        boolean runningLow = level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW && level < ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN;
+        trimToSize(runningLow || level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE ? 0 : mMaxSize / 2);
+    }
+
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    /**
+     * Evicts the largest bitmaps until the pool is at or under the size. Large bitmaps fit the fewest requests
+     */
+    private void trimToSize(int size) {
+        while (mSize > size && !mBuckets.isEmpty()) {
+            Map.Entry<Integer, ArrayDeque<Bitmap>> entry = mBuckets.lastEntry();
+            ArrayDeque<Bitmap> bucket = entry.getValue();
+            bucket.poll();
+            if (bucket.isEmpty()) mBuckets.remove(entry.getKey());
+            mSize -= entry.getKey();
+            mEvictions++;
+        }
+    }
+
+    /**
+     * Returns the fraction of decodes that were able to reuse a bitmap
+     *
+     * @return
+     */
+    public synchronized float getHitRate() {
+        int total = mHits + mMisses;
+        return total > 0 ? (float) mHits / total : 0;
+    }
+
+    /**
+     * Returns a plain text summary of the pool
+     *
+     * @return
+     */
+    @NonNull
+    public synchronized String getSnapshot() {
+        if (!mEnabled) return "Bitmap pool disabled\n";
+
+        int count = 0;
+
+        for (ArrayDeque<Bitmap> bucket : mBuckets.values()) {
+            count += bucket.size();
+        }
+
+        return "Bitmap pool size=" + FileUtil.humanReadableByteCount(mSize, false)
+                + " max=" + FileUtil.humanReadableByteCount(mMaxSize, false)
+                + " bitmaps=" + count
+                + " buckets=" + mBuckets.size()
+                + " tracked=" + mTracked.size()
+                + " hit=" + mHits
+                + " miss=" + mMisses
+                + " returned=" + mReturned
+                + " evicted=" + mEvictions
+                + " hit rate=" + Math.round(getHitRate() * 100) + "%\n";
+    }
+
+    private static class Usage {
+        // Number of views showing the bitmap
+        int displays = 0;
+
+        // Number of times the bitmap was cached by the image loader without its display task having run yet
+        int awaitingDisplay = 0;
+
+        boolean cached = false;
+    }
+}
@@ -0,0 +1,346 @@
+package com.kenny.openimgur.classes;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.StringRes;
+import android.util.LruCache;
+
+import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.api.CommentLoader;
+import com.kenny.openimgur.api.RequestPriority;
+import com.kenny.openimgur.util.LogUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+
+/**
+ * In memory cache of the top level comments of gallery items, keyed by the item and the sort they were loaded with.
+ * Entries are evicted least recently used first once their estimated size passes the memory budget.
+ * <p>
+ * Comments are loaded through the cache with {@link #load(String, String, boolean, CommentLoader.CommentListener)}, which
+ * serves them from memory when possible and otherwise joins any load already running for them. The comments of the
+ * items next to the one being viewed can be loaded ahead of time with {@link #prefetch(Collection, String, boolean)}.
+ * <p>
+ * All methods must be called from the main thread.
+ */
+public class CommentCache {
+    private static final String TAG = "CommentCache";
+
+    // Upper bound of the memory budget, smaller heaps get 1/32 of the heap
+    private static final int MAX_SIZE = 4 * 1024 * 1024;
+
+    // Rough cost of a comment object and its fields, not counting its text
+    private static final int COMMENT_OVERHEAD = 160;
+
+    private static CommentCache sInstance;
+
+    private final LruCache<String, List<ImgurComment>> mCache;
+
+    // Loads that are still running, keyed the same as the cache
+    private final Map<String, Load> mLoads = new HashMap<>();
+
+    private int mHits = 0;
+
+    private int mMisses = 0;
+
+    private int mPrefetched = 0;
+
+    // Loads that were already running from a prefetch when they were needed
+    private int mPrefetchHits = 0;
+
+    private int mEvictions = 0;
+
+    public static synchronized CommentCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new CommentCache();
+        }
+
+        return sInstance;
+    }
+
+    private CommentCache() {
+        int size = (int) Math.min(MAX_SIZE, Runtime.getRuntime().maxMemory() / 32);
+
+        mCache = new LruCache<String, List<ImgurComment>>(size) {
+            @Override
+            protected int sizeOf(String key, List<ImgurComment> comments) {
+                return estimateSize(comments);
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, List<ImgurComment> oldValue, List<ImgurComment> newValue) {
+                if (evicted) mEvictions++;
+            }
+        };
+    }
+
+    /**
+     * Loads the comments of a gallery item. Cached comments are delivered to the listener before this method returns
+     *
+     * @param id       The id of the gallery item
+     * @param sort     The sort to request the comments with
+     * @param reverse  If the comments should be reversed
+     * @param listener Listener to receive the comments, see {@link #detach(CommentLoader.CommentListener)}
+     */
+    public void load(@NonNull String id, @NonNull String sort, boolean reverse, @NonNull CommentLoader.CommentListener listener) {
+        detach(listener);
+        String key = getKey(id, sort, reverse);
+        List<ImgurComment> comments = mCache.get(key);
+
+        if (comments != null) {
+            mHits++;
+            if (!comments.isEmpty()) listener.onCommentsLoaded(new ArrayList<>(comments), true);
+            listener.onLoadFinished(comments.size());
+            return;
+        }
+
+        Load load = mLoads.get(key);
+
+        if (load != null && load.mPrefetch && load.mLoader.isWaiting()) {
+            // Still queued behind other prefetches, load it now instead
+            load.mLoader.cancel();
+            mLoads.remove(key);
+            load = null;
+        }
+
+        if (load != null) {
+            if (load.mPrefetch) mPrefetchHits++;
+            load.mPrefetch = false;
+        } else {
+            mMisses++;
+            load = new Load(key, false);
+            mLoads.put(key, load);
+            load.start(ApiClient.getService().getComments(id, sort), reverse);
+        }
+
+        load.attach(listener);
+    }
+
+    /**
+     * Stops delivering comments to the listener. Its load keeps running to fill the cache until it is no longer wanted by
+     * {@link #prefetch(Collection, String, boolean)}
+     *
+     * @param listener
+     */
+    public void detach(@NonNull CommentLoader.CommentListener listener) {
+        for (Load load : mLoads.values()) {
+            if (load.mListener == listener) load.mListener = null;
+        }
+    }
+
+    /**
+     * Loads the comments of the gallery items into the cache on the prefetch lane. Prefetches for any other items that
+     * no one is waiting on are cancelled
+     *
+     * @param ids     The ids of the gallery items
+     * @param sort    The sort to request the comments with
+     * @param reverse If the comments should be reversed
+     */
+    public void prefetch(@NonNull Collection<String> ids, @NonNull String sort, boolean reverse) {
+        List<String> keys = new ArrayList<>(ids.size());
+
+        for (String id : ids) {
+            keys.add(getKey(id, sort, reverse));
+        }
+
+        cancelPrefetches(keys);
+
+        for (String id : ids) {
+            String key = getKey(id, sort, reverse);
+            if (mCache.get(key) != null || mLoads.containsKey(key)) continue;
+            LogUtil.v(TAG, "Prefetching comments for " + id);
+            mPrefetched++;
+            Load load = new Load(key, true);
+            mLoads.put(key, load);
+            load.mLoader.prefetch(ApiClient.getService(RequestPriority.PREFETCH).getComments(id, sort), reverse, load);
+        }
+    }
+
+    /**
+     * Removes every cached sort of the gallery item's comments, for when they are known to have changed
+     *
+     * @param id
+     */
+    public void remove(@NonNull String id) {
+        String prefix = id + "/";
+
+        for (String key : mCache.snapshot().keySet()) {
+            if (key.startsWith(prefix)) mCache.remove(key);
+        }
+
+        Iterator<Load> iterator = mLoads.values().iterator();
+
+        while (iterator.hasNext()) {
+            Load load = iterator.next();
+
+            if (load.mKey.startsWith(prefix) && load.mListener == null) {
+                load.mLoader.cancel();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Cancels all prefetches and empties the cache
+     */
+    public void clear() {
+        cancelPrefetches(null);
+        mCache.evictAll();
+    }
+
+    /**
+     * Cancels the loads no one is waiting on
+     *
+     * @param keep Keys of the loads to leave running
+     */
+    public void cancelPrefetches(@Nullable List<String> keep) {
+        Iterator<Load> iterator = mLoads.values().iterator();
+
+        while (iterator.hasNext()) {
+            Load load = iterator.next();
+
+            if (load.mListener == null && (keep == null || !keep.contains(load.mKey))) {
+                load.mLoader.cancel();
+                iterator.remove();
+            }
+        }
+    }
+
+    public int getHitCount() {
+        return mHits;
+    }
+
+    public int getMissCount() {
+        return mMisses;
+    }
+
+    public int getPrefetchCount() {
+        return mPrefetched;
+    }
+
+    public int getPrefetchHitCount() {
+        return mPrefetchHits;
+    }
+
+    public int getEvictionCount() {
+        return mEvictions;
+    }
+
+    /**
+     * Returns the fraction of loads that did not have to wait on a new request, either because they were cached or were
+     * already being prefetched
+     *
+     * @return
+     */
+    public float getHitRate() {
+        int total = mHits + mPrefetchHits + mMisses;
+        return total > 0 ? (float) (mHits + mPrefetchHits) / total : 0;
+    }
+
+    /**
+     * Returns a plain text summary of the cache
+     *
+     * @return
+     */
+    @NonNull
+    public String getSnapshot() {
+        return "Comment cache size=" + mCache.size() + "/" + mCache.maxSize()
+                + " hit=" + mHits
+                + " prefetch hit=" + mPrefetchHits
+                + " miss=" + mMisses
+                + " prefetched=" + mPrefetched
+                + " evicted=" + mEvictions
+                + " hit rate=" + Math.round(getHitRate() * 100) + "%\n";
+    }
+
+    private static String getKey(String id, String sort, boolean reverse) {
+        return id + "/" + sort + (reverse ? "/reverse" : "");
+    }
+
+    /**
+     * Estimates how much memory the comments take up. The estimate of a comment never changes, even once its replies
+     * are materialized, as {@link LruCache} requires
+     *
+     * @param comments
+     * @return
+     */
+    static int estimateSize(@Nullable List<ImgurComment> comments) {
+        if (comments == null) return 0;
+        int size = COMMENT_OVERHEAD;
+
+        for (ImgurComment comment : comments) {
+            size += COMMENT_OVERHEAD;
+            if (comment.getComment() != null) size += comment.getComment().length() * 2;
+            if (comment.getAuthor() != null) size += comment.getAuthor().length() * 2;
+            CommentReplies replies = comment.getCommentReplies();
+            if (replies != null) size += replies.getEstimatedSize();
+        }
+
+        return size;
+    }
+
+    /**
+     * A load of one item's comments. The comments are collected so a listener attaching part way through can be caught
+     * up, and are cached once the load finishes
+     */
+    private class Load implements CommentLoader.CommentListener {
+        final String mKey;
+
+        final CommentLoader mLoader = new CommentLoader();
+
+        final List<ImgurComment> mComments = new ArrayList<>();
+
+        boolean mPrefetch;
+
+        @Nullable
+        CommentLoader.CommentListener mListener;
+
+        // If the listener has received its first chunk
+        boolean mDelivered = false;
+
+        Load(String key, boolean prefetch) {
+            mKey = key;
+            mPrefetch = prefetch;
+        }
+
+        void start(Call<ResponseBody> call, boolean reverse) {
+            mLoader.load(call, reverse, this);
+        }
+
+        void attach(CommentLoader.CommentListener listener) {
+            mListener = listener;
+            mDelivered = !mComments.isEmpty();
+            if (mDelivered) listener.onCommentsLoaded(new ArrayList<>(mComments), true);
+        }
+
+        @Override
+        public void onCommentsLoaded(@NonNull List<ImgurComment> comments, boolean isFirst) {
+            mComments.addAll(comments);
+
+            if (mListener != null) {
+                mListener.onCommentsLoaded(comments, !mDelivered);
+                mDelivered = true;
+            }
+        }
+
+        @Override
+        public void onLoadFinished(int count) {
+            mLoads.remove(mKey);
+            mCache.put(mKey, mComments);
+            if (mListener != null) mListener.onLoadFinished(count);
+        }
+
+        @Override
+        public void onLoadFailed(@StringRes int errorString) {
+            mLoads.remove(mKey);
+            if (mListener != null) mListener.onLoadFailed(errorString);
+        }
+    }
+}
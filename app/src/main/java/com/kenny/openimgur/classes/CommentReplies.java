@@ -0,0 +1,208 @@
+package com.kenny.openimgur.classes;
+
+import android.support.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.util.LogUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The replies to an {@link ImgurComment}. Replies are kept as the raw UTF-8 JSON they came from the API in and are only
+ * turned into {@link ImgurComment}s the first time they are needed, which is usually when their thread is expanded.
+ * Each reply keeps its own replies raw in turn, so expanding a thread only materializes one level of it.
+ */
+public class CommentReplies {
+    private static final String TAG = "CommentReplies";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Type LIST_TYPE = new TypeToken<List<ImgurComment>>() {
+    }.getType();
+
+    private static Gson sGson;
+
+    private final int mCount;
+
+    private final int mEstimatedSize;
+
+    private byte[] mRaw;
+
+    private List<ImgurComment> mReplies;
+
+    CommentReplies(@NonNull byte[] raw, int count) {
+        mRaw = raw;
+        mCount = count;
+        mEstimatedSize = raw.length;
+    }
+
+    CommentReplies(@NonNull List<ImgurComment> replies) {
+        mReplies = replies;
+        mCount = replies.size();
+        mEstimatedSize = CommentCache.estimateSize(replies);
+    }
+
+    public int size() {
+        return mCount;
+    }
+
+    /**
+     * Returns roughly how much memory the replies took up when they were created, see
+     * {@link CommentCache#estimateSize(List)}
+     *
+     * @return
+     */
+    int getEstimatedSize() {
+        return mEstimatedSize;
+    }
+
+    /**
+     * Returns if the replies have been turned into {@link ImgurComment}s
+     *
+     * @return
+     */
+    public synchronized boolean isMaterialized() {
+        return mReplies != null;
+    }
+
+    /**
+     * Returns the replies, parsing them if this is the first time they are needed
+     *
+     * @return
+     */
+    @NonNull
+    public synchronized List<ImgurComment> get() {
+        if (mReplies == null) {
+            try {
+                mReplies = getGson().fromJson(new InputStreamReader(new ByteArrayInputStream(mRaw), UTF_8), LIST_TYPE);
+            } catch (Exception ex) {
+                LogUtil.e(TAG, "Unable to parse replies", ex);
+            }
+
+            if (mReplies == null) mReplies = new ArrayList<>(0);
+            mRaw = null;
+        }
+
+        return mReplies;
+    }
+
+    /**
+     * Returns the raw JSON of the replies, null if they have already been materialized
+     *
+     * @return
+     */
+    synchronized byte[] getRaw() {
+        return mRaw;
+    }
+
+    private static synchronized Gson getGson() {
+        if (sGson == null) sGson = ApiClient.getGson();
+        return sGson;
+    }
+
+    /**
+     * Reads the children array of a comment without creating any objects for it, copying it token by token
+     */
+    public static class Adapter extends TypeAdapter<CommentReplies> {
+        @Override
+        public void write(JsonWriter out, CommentReplies value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            byte[] raw = value.getRaw();
+
+            if (raw != null) {
+                out.jsonValue(new String(raw, UTF_8));
+            } else {
+                getGson().toJson(value.get(), LIST_TYPE, out);
+            }
+        }
+
+        @Override
+        public CommentReplies read(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.BEGIN_ARRAY) {
+                in.skipValue();
+                return null;
+            }
+
+            StringWriter sw = new StringWriter();
+            JsonWriter writer = new JsonWriter(sw);
+            int count = 0;
+
+            in.beginArray();
+            writer.beginArray();
+
+            while (in.hasNext()) {
+                copy(in, writer);
+                count++;
+            }
+
+            in.endArray();
+            writer.endArray();
+            writer.close();
+            return count > 0 ? new CommentReplies(sw.toString().getBytes(UTF_8), count) : null;
+        }
+
+        private static void copy(JsonReader in, JsonWriter out) throws IOException {
+            switch (in.peek()) {
+                case BEGIN_ARRAY:
+                    in.beginArray();
+                    out.beginArray();
+                    while (in.hasNext()) copy(in, out);
+                    in.endArray();
+                    out.endArray();
+                    break;
+
+                case BEGIN_OBJECT:
+                    in.beginObject();
+                    out.beginObject();
+
+                    while (in.hasNext()) {
+                        out.name(in.nextName());
+                        copy(in, out);
+                    }
+
+                    in.endObject();
+                    out.endObject();
+                    break;
+
+                case STRING:
+                    out.value(in.nextString());
+                    break;
+
+                case NUMBER:
+                    // Written as is so no precision is lost
+                    out.jsonValue(in.nextString());
+                    break;
+
+                case BOOLEAN:
+                    out.value(in.nextBoolean());
+                    break;
+
+                case NULL:
+                    in.nextNull();
+                    out.nullValue();
+                    break;
+
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.kenny.openimgur.classes;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+
+import com.nostra13.universalimageloader.cache.disc.DiskCache;
+import com.nostra13.universalimageloader.utils.IoUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Disk cache that finishes the downloads of cancelled loads instead of throwing away what was already downloaded. The
+ * image loader abandons a download when its load is cancelled, unless most of it has been read. Here the download
+ * carries on if the rest of it is small, so the image is on disk if it is needed again. The image loader still skips
+ * decoding it.
+ */
+public class CompletingDiskCache implements DiskCache {
+    // Most bytes left to download for a cancelled download to be finished
+    private static final int MAX_REMAINING = 512 * 1024;
+
+    private final DiskCache mDiskCache;
+
+    public CompletingDiskCache(@NonNull DiskCache diskCache) {
+        mDiskCache = diskCache;
+    }
+
+    @Override
+    public File getDirectory() {
+        return mDiskCache.getDirectory();
+    }
+
+    @Override
+    public File get(String imageUri) {
+        return mDiskCache.get(imageUri);
+    }
+
+    @Override
+    public boolean save(String imageUri, InputStream imageStream, IoUtils.CopyListener listener) throws IOException {
+        return mDiskCache.save(imageUri, imageStream, listener != null ? new CompletingListener(listener) : null);
+    }
+
+    @Override
+    public boolean save(String imageUri, Bitmap bitmap) throws IOException {
+        return mDiskCache.save(imageUri, bitmap);
+    }
+
+    @Override
+    public boolean remove(String imageUri) {
+        return mDiskCache.remove(imageUri);
+    }
+
+    @Override
+    public void close() {
+        mDiskCache.close();
+    }
+
+    @Override
+    public void clear() {
+        mDiskCache.clear();
+    }
+
+    private static class CompletingListener implements IoUtils.CopyListener {
+        private final IoUtils.CopyListener mListener;
+
+        private boolean mCompleting = false;
+
+        CompletingListener(IoUtils.CopyListener listener) {
+            mListener = listener;
+        }
+
+        @Override
+        public boolean onBytesCopied(int current, int total) {
+            // The load no longer wants progress once it was cancelled
+            if (mCompleting) return true;
+            if (mListener.onBytesCopied(current, total)) return true;
+
+            if (total > 0 && total - current <= MAX_REMAINING) {
+                mCompleting = true;
+                ImagePipeline.getInstance().onCancelledDownloadFinished();
+                return true;
+            }
+
+            return false;
+        }
+    }
+}
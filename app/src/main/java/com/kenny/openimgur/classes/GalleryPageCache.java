@@ -0,0 +1,276 @@
+package com.kenny.openimgur.classes;
+
+import android.os.AsyncTask;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.format.DateUtils;
+
+import com.google.gson.Gson;
+import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.api.responses.GalleryResponse;
+import com.kenny.openimgur.util.FileUtil;
+import com.kenny.openimgur.util.LogUtil;
+import com.nostra13.universalimageloader.cache.disc.naming.Md5FileNameGenerator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Persistent store of gallery pages so grids can be shown immediately while the network request to refresh them is
+ * made. Pages are stored as JSON keyed by the filters that produced them and their page number. Pages older than
+ * {@link #MAX_AGE} are evicted, as are the least recently written pages once the store grows past {@link #MAX_SIZE}.
+ */
+public class GalleryPageCache {
+    private static final String TAG = "GalleryPageCache";
+
+    // 5MB
+    private static final long MAX_SIZE = 5 * 1024 * 1024;
+
+    private static final long MAX_AGE = 2 * DateUtils.DAY_IN_MILLIS;
+
+    private static GalleryPageCache sInstance;
+
+    private final File mCacheDir;
+
+    private final Gson mGson = ApiClient.getGson();
+
+    private final Md5FileNameGenerator mKeyGenerator = new Md5FileNameGenerator();
+
+    private int mHits = 0;
+
+    private int mMisses = 0;
+
+    private int mEvictions = 0;
+
+    public static synchronized GalleryPageCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new GalleryPageCache();
+        }
+
+        return sInstance;
+    }
+
+    private GalleryPageCache() {
+        mCacheDir = new File(OpengurApp.getInstance().getCacheDir(), "page_cache");
+        mCacheDir.mkdirs();
+    }
+
+    /**
+     * Loads the cached page on a background thread
+     *
+     * @param key      The key for the filters of the page
+     * @param page     The page number
+     * @param listener Listener to receive the page on the main thread
+     */
+    public void getPage(@NonNull String key, int page, @NonNull PageCacheListener listener) {
+        new LoadPageTask(key, page, listener).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * Writes the page to the cache on a background thread. The items are copied so the response can continue to be
+     * modified by the caller
+     *
+     * @param key      The key for the filters of the page
+     * @param page     The page number
+     * @param response The response to cache
+     */
+    public void putPage(@NonNull String key, int page, @NonNull GalleryResponse response) {
+        GalleryResponse copy = new GalleryResponse();
+        copy.success = response.success;
+        copy.status = response.status;
+        copy.data = new ArrayList<>(response.data);
+        new SavePageTask(key, page, copy).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    @Nullable
+    private GalleryResponse read(String key, int page) {
+        File file = getFile(key, page);
+
+        if (!FileUtil.isFileValid(file) || System.currentTimeMillis() - file.lastModified() > MAX_AGE) {
+            synchronized (this) {
+                mMisses++;
+            }
+
+            return null;
+        }
+
+        BufferedReader reader = null;
+
+        try {
+            reader = new BufferedReader(new FileReader(file));
+            GalleryResponse response = mGson.fromJson(reader, GalleryResponse.class);
+
+            synchronized (this) {
+                if (response != null) {
+                    mHits++;
+                } else {
+                    mMisses++;
+                }
+            }
+
+            return response;
+        } catch (Exception ex) {
+            LogUtil.e(TAG, "Unable to read cached page " + key + " " + page, ex);
+            file.delete();
+
+            synchronized (this) {
+                mMisses++;
+            }
+        } finally {
+            FileUtil.closeStream(reader);
+        }
+
+        return null;
+    }
+
+    private synchronized void write(String key, int page, GalleryResponse response) {
+        File file = getFile(key, page);
+        File temp = new File(file.getPath() + ".tmp");
+        BufferedWriter writer = null;
+        boolean success = false;
+
+        try {
+            writer = new BufferedWriter(new FileWriter(temp));
+            mGson.toJson(response, GalleryResponse.class, writer);
+            writer.flush();
+            success = true;
+        } catch (Exception ex) {
+            LogUtil.e(TAG, "Unable to cache page " + key + " " + page, ex);
+        } finally {
+            FileUtil.closeStream(writer);
+        }
+
+        // Only replace the previous page once the new one is complete so a crash never leaves a truncated page
+        if (!success || !temp.renameTo(file)) {
+            temp.delete();
+        }
+
+        trim();
+    }
+
+    /**
+     * Removes expired pages and the oldest pages until the cache is under its size limit
+     */
+    private synchronized void trim() {
+        File[] files = mCacheDir.listFiles();
+        if (files == null || files.length == 0) return;
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long diff = rhs.lastModified() - lhs.lastModified();
+                return diff > 0 ? 1 : diff < 0 ? -1 : 0;
+            }
+        });
+
+        long now = System.currentTimeMillis();
+        long total = 0;
+
+        // Newest first, anything past the size or age limit gets removed
+        for (File file : files) {
+            total += file.length();
+
+            if (total > MAX_SIZE || now - file.lastModified() > MAX_AGE) {
+                total -= file.length();
+                if (file.delete()) mEvictions++;
+            }
+        }
+    }
+
+    private File getFile(String key, int page) {
+        return new File(mCacheDir, mKeyGenerator.generate(key + "_" + page));
+    }
+
+    public void deleteCache() {
+        FileUtil.deleteDirectory(mCacheDir);
+        mCacheDir.mkdirs();
+    }
+
+    public long getCacheSize() {
+        return FileUtil.getDirectorySize(mCacheDir);
+    }
+
+    public synchronized int getHitCount() {
+        return mHits;
+    }
+
+    public synchronized int getMissCount() {
+        return mMisses;
+    }
+
+    public synchronized int getEvictionCount() {
+        return mEvictions;
+    }
+
+    /**
+     * Returns a plain text summary of the page cache
+     *
+     * @return
+     */
+    @NonNull
+    public synchronized String getSnapshot() {
+        return "Gallery page cache hits=" + mHits + " misses=" + mMisses + " evictions=" + mEvictions + "\n";
+    }
+
+    public interface PageCacheListener {
+        /**
+         * Called when a cached page has been loaded
+         *
+         * @param key      The key of the page
+         * @param page     The page number
+         * @param response The cached page, null if it was not found or has expired
+         */
+        void onPageLoaded(String key, int page, @Nullable GalleryResponse response);
+    }
+
+    private static class LoadPageTask extends AsyncTask<Void, Void, GalleryResponse> {
+        private final String mKey;
+
+        private final int mPage;
+
+        private PageCacheListener mListener;
+
+        LoadPageTask(String key, int page, PageCacheListener listener) {
+            mKey = key;
+            mPage = page;
+            mListener = listener;
+        }
+
+        @Override
+        protected GalleryResponse doInBackground(Void... params) {
+            return getInstance().read(mKey, mPage);
+        }
+
+        @Override
+        protected void onPostExecute(GalleryResponse response) {
+            mListener.onPageLoaded(mKey, mPage, response);
+            mListener = null;
+        }
+    }
+
+    private static class SavePageTask extends AsyncTask<Void, Void, Void> {
+        private final String mKey;
+
+        private final int mPage;
+
+        private final GalleryResponse mResponse;
+
+        SavePageTask(String key, int page, GalleryResponse response) {
+            mKey = key;
+            mPage = page;
+            mResponse = response;
+        }
+
+        @Override
+        protected Void doInBackground(Void... params) {
+            getInstance().write(mKey, mPage, mResponse);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.kenny.openimgur.classes;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.kenny.openimgur.collections.IdUniqueList;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A list of gallery items being browsed that is shared in process between the grid it came from and
+ * {@link com.kenny.openimgur.activities.ViewActivity}, instead of copying the items into an Intent. The grid appends
+ * each page it loads to the session and can be asked to load more through its {@link PageLoader}.
+ * <p>
+ * Sessions are created and looked up through {@link GallerySessionRepository}. All methods must be called from the
+ * main thread.
+ */
+public class GallerySession {
+    private final String mId;
+
+    private final IdUniqueList<ImgurBaseObject> mItems;
+
+    private final List<SessionListener> mListeners = new ArrayList<>();
+
+    @Nullable
+    private WeakReference<PageLoader> mLoader;
+
+    GallerySession(@NonNull String id, @NonNull Collection<? extends ImgurBaseObject> items, @Nullable PageLoader loader) {
+        mId = id;
+        mItems = new IdUniqueList<>(items);
+        setPageLoader(loader);
+    }
+
+    @NonNull
+    public String getId() {
+        return mId;
+    }
+
+    /**
+     * Returns the items of the session. The list should not be modified, use {@link #addItems(Collection)} instead
+     *
+     * @return
+     */
+    @NonNull
+    public List<ImgurBaseObject> getItems() {
+        return mItems;
+    }
+
+    public int size() {
+        return mItems.size();
+    }
+
+    @Nullable
+    public ImgurBaseObject getItem(int position) {
+        return position >= 0 && position < mItems.size() ? mItems.get(position) : null;
+    }
+
+    /**
+     * Appends the items to the end of the session, skipping any already in it
+     *
+     * @param items
+     */
+    public void addItems(@NonNull Collection<? extends ImgurBaseObject> items) {
+        int start = mItems.size();
+        mItems.addAll(items);
+        int added = mItems.size() - start;
+        if (added <= 0) return;
+
+        for (SessionListener listener : new ArrayList<>(mListeners)) {
+            listener.onItemsAdded(this, start, added);
+        }
+    }
+
+    /**
+     * Replaces the item with the same id, such as after it has been voted on
+     *
+     * @param item
+     */
+    public void updateItem(@NonNull ImgurBaseObject item) {
+        mItems.replace(item);
+    }
+
+    /**
+     * Asks the grid the session came from to load its next page. The page will be delivered through
+     * {@link #addItems(Collection)}
+     *
+     * @return If a page is being loaded
+     */
+    public boolean requestMore() {
+        PageLoader loader = mLoader != null ? mLoader.get() : null;
+        return loader != null && loader.loadNextPage(this);
+    }
+
+    /**
+     * Sets what loads more items for the session. Only a weak reference is kept so the session does not keep the grid
+     * alive
+     *
+     * @param loader
+     */
+    public void setPageLoader(@Nullable PageLoader loader) {
+        mLoader = loader != null ? new WeakReference<>(loader) : null;
+    }
+
+    public void addListener(@NonNull SessionListener listener) {
+        if (!mListeners.contains(listener)) mListeners.add(listener);
+    }
+
+    public void removeListener(@NonNull SessionListener listener) {
+        mListeners.remove(listener);
+    }
+
+    public interface SessionListener {
+        /**
+         * Called when items have been appended to the session
+         *
+         * @param session The session
+         * @param start   The position of the first new item
+         * @param count   The number of items added
+         */
+        void onItemsAdded(GallerySession session, int start, int count);
+    }
+
+    public interface PageLoader {
+        /**
+         * Called when the next page for the session is needed
+         *
+         * @param session The session that needs more items
+         * @return If the next page is being loaded
+         */
+        boolean loadNextPage(GallerySession session);
+    }
+}
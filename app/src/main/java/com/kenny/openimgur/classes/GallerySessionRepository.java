@@ -0,0 +1,254 @@
+package com.kenny.openimgur.classes;
+
+import android.os.AsyncTask;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.format.DateUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.util.FileUtil;
+import com.kenny.openimgur.util.LogUtil;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Holds the {@link GallerySession}s currently being browsed. Sessions live in memory while the process does, and are
+ * written to disk when the screen browsing them saves its state so they can be restored after the process is killed.
+ */
+public class GallerySessionRepository {
+    private static final String TAG = "GallerySessionRepository";
+
+    // Sessions left on disk longer than this are abandoned
+    private static final long MAX_AGE = DateUtils.DAY_IN_MILLIS;
+
+    private static final Type ITEMS_TYPE = new TypeToken<List<ImgurBaseObject>>() {
+    }.getType();
+
+    private static GallerySessionRepository sInstance;
+
+    private final Map<String, GallerySession> mSessions = new HashMap<>();
+
+    private final File mSessionDir;
+
+    private final Gson mGson = ApiClient.getGson();
+
+    public static synchronized GallerySessionRepository getInstance() {
+        if (sInstance == null) {
+            sInstance = new GallerySessionRepository();
+        }
+
+        return sInstance;
+    }
+
+    private GallerySessionRepository() {
+        mSessionDir = new File(OpengurApp.getInstance().getCacheDir(), "gallery_sessions");
+        mSessionDir.mkdirs();
+    }
+
+    /**
+     * Creates a new session
+     *
+     * @param items  The items to start the session with
+     * @param loader What will load more items for the session, null if there are no more
+     * @return
+     */
+    @NonNull
+    public GallerySession createSession(@NonNull Collection<? extends ImgurBaseObject> items, @Nullable GallerySession.PageLoader loader) {
+        GallerySession session = new GallerySession(UUID.randomUUID().toString(), items, loader);
+        mSessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * Returns the session if it is in memory
+     *
+     * @param id
+     * @return
+     */
+    @Nullable
+    public GallerySession getSession(@Nullable String id) {
+        return id != null ? mSessions.get(id) : null;
+    }
+
+    /**
+     * Loads a session that is no longer in memory from disk
+     *
+     * @param id       The id of the session
+     * @param listener Listener to receive the session on the main thread
+     */
+    public void restoreSession(@Nullable String id, @NonNull SessionRestoreListener listener) {
+        GallerySession session = getSession(id);
+
+        if (session != null || id == null) {
+            listener.onSessionRestored(session);
+        } else {
+            new RestoreTask(id, listener).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        }
+    }
+
+    /**
+     * Writes the session to disk on a background thread
+     *
+     * @param session
+     */
+    public void saveSession(@NonNull GallerySession session) {
+        new SaveTask(session.getId(), new ArrayList<>(session.getItems())).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * Removes the session from memory and disk once it is no longer being browsed
+     *
+     * @param id
+     */
+    public void removeSession(@NonNull String id) {
+        mSessions.remove(id);
+        new DeleteTask(getFile(id)).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    public void deleteCache() {
+        FileUtil.deleteDirectory(mSessionDir);
+        mSessionDir.mkdirs();
+    }
+
+    @Nullable
+    private List<ImgurBaseObject> read(String id) {
+        File file = getFile(id);
+        if (!FileUtil.isFileValid(file)) return null;
+        BufferedReader reader = null;
+
+        try {
+            reader = new BufferedReader(new FileReader(file));
+            return mGson.fromJson(reader, ITEMS_TYPE);
+        } catch (Exception ex) {
+            LogUtil.e(TAG, "Unable to read session " + id, ex);
+            file.delete();
+        } finally {
+            FileUtil.closeStream(reader);
+        }
+
+        return null;
+    }
+
+    private synchronized void write(String id, List<ImgurBaseObject> items) {
+        File file = getFile(id);
+        File temp = new File(file.getPath() + ".tmp");
+        BufferedWriter writer = null;
+        boolean success = false;
+
+        try {
+            writer = new BufferedWriter(new FileWriter(temp));
+            mGson.toJson(items, ITEMS_TYPE, writer);
+            writer.flush();
+            success = true;
+        } catch (Exception ex) {
+            LogUtil.e(TAG, "Unable to save session " + id, ex);
+        } finally {
+            FileUtil.closeStream(writer);
+        }
+
+        // Only replace the previous session once the new one is complete
+        if (!success || !temp.renameTo(file)) {
+            temp.delete();
+        }
+
+        // Clean up sessions that were never restored
+        File[] files = mSessionDir.listFiles();
+        if (files == null) return;
+        long now = System.currentTimeMillis();
+
+        for (File f : files) {
+            if (now - f.lastModified() > MAX_AGE) f.delete();
+        }
+    }
+
+    private File getFile(String id) {
+        return new File(mSessionDir, id + ".json");
+    }
+
+    public interface SessionRestoreListener {
+        /**
+         * Called when a session has been restored
+         *
+         * @param session The session, null if it could not be restored
+         */
+        void onSessionRestored(@Nullable GallerySession session);
+    }
+
+    private static class RestoreTask extends AsyncTask<Void, Void, List<ImgurBaseObject>> {
+        private final String mId;
+
+        private SessionRestoreListener mListener;
+
+        RestoreTask(String id, SessionRestoreListener listener) {
+            mId = id;
+            mListener = listener;
+        }
+
+        @Override
+        protected List<ImgurBaseObject> doInBackground(Void... params) {
+            return getInstance().read(mId);
+        }
+
+        @Override
+        protected void onPostExecute(List<ImgurBaseObject> items) {
+            GallerySessionRepository repository = getInstance();
+            GallerySession session = repository.mSessions.get(mId);
+
+            if (session == null && items != null) {
+                LogUtil.v(TAG, "Restored session " + mId + " with " + items.size() + " items");
+                session = new GallerySession(mId, items, null);
+                repository.mSessions.put(mId, session);
+            }
+
+            mListener.onSessionRestored(session);
+            mListener = null;
+        }
+    }
+
+    private static class SaveTask extends AsyncTask<Void, Void, Void> {
+        private final String mId;
+
+        private final List<ImgurBaseObject> mItems;
+
+        SaveTask(String id, List<ImgurBaseObject> items) {
+            mId = id;
+            mItems = items;
+        }
+
+        @Override
+        protected Void doInBackground(Void... params) {
+            getInstance().write(mId, mItems);
+            return null;
+        }
+    }
+
+    private static class DeleteTask extends AsyncTask<Void, Void, Void> {
+        private final File mFile;
+
+        DeleteTask(File file) {
+            mFile = file;
+        }
+
+        @Override
+        protected Void doInBackground(Void... params) {
+            synchronized (getInstance()) {
+                mFile.delete();
+            }
+
+            return null;
+        }
+    }
+}
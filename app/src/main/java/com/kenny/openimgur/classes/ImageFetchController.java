@@ -0,0 +1,297 @@
+package com.kenny.openimgur.classes;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.text.format.DateUtils;
+
+import com.kenny.openimgur.util.LogUtil;
+import com.kenny.openimgur.util.NetworkUtils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Controls how many images are fetched from the network at once, the fetch stage of the {@link ImagePipeline}. The
+ * number of fetch threads is adjusted while the app runs, AIMD style, from the latency and throughput of the fetches
+ * measured by {@link MeteredImageDownloader}.
+ * <p>
+ * After every window of fetches, the average time to the first byte is compared to the lowest seen on the current
+ * network. If it has grown well past it, or a fetch timed out, the network is taken to be congested and the thread
+ * count is halved. Otherwise, if every thread was busy, one thread is added. A thread that doesn't raise throughput is
+ * taken away again and nothing is added for a while. The limits depend on the number of cores and if the device is on
+ * Wi-Fi, and everything is relearned when that changes.
+ * <p>
+ * Resizing only changes the size of the thread pool, the image loader and its caches are left alone.
+ */
+public class ImageFetchController {
+    private static final String TAG = "ImageFetchController";
+
+    private static final int MIN_THREADS = 2;
+
+    private static final int MAX_THREADS_WIFI = 12;
+
+    private static final int MAX_THREADS_MOBILE = 6;
+
+    private static final int INITIAL_THREADS_WIFI = 5;
+
+    private static final int INITIAL_THREADS_MOBILE = 3;
+
+    // Number of fetches measured before each adjustment
+    private static final int WINDOW_SIZE = 8;
+
+    // Latency this many times the baseline is taken as congestion
+    private static final float CONGESTION_FACTOR = 2.0f;
+
+    private static final float DECREASE_FACTOR = 0.5f;
+
+    // How much throughput must improve after adding a thread for the thread to be kept
+    private static final float MIN_GAIN = 1.05f;
+
+    // Windows to wait after a thread didn't help before trying another
+    private static final int HOLD_WINDOWS = 8;
+
+    // How much the baseline latency can rise each window, so it follows a network that has slowed down
+    private static final float BASELINE_DRIFT = 1.01f;
+
+    private static final long KEEP_ALIVE = 30 * DateUtils.SECOND_IN_MILLIS;
+
+    private static ImageFetchController sInstance;
+
+    private final Context mContext;
+
+    private final int mCores = Runtime.getRuntime().availableProcessors();
+
+    private final ThreadPoolExecutor mExecutor;
+
+    private boolean mIsWiFi;
+
+    private int mThreads;
+
+    // The current window
+    private int mWindowFetches = 0;
+
+    private int mWindowTimeouts = 0;
+
+    private long mWindowLatency = 0;
+
+    private long mWindowBytes = 0;
+
+    private long mWindowStart = Long.MAX_VALUE;
+
+    private long mWindowEnd = 0;
+
+    // Lowest average latency seen on the current network, 0 until measured
+    private float mBaselineLatency = 0;
+
+    private float mLastThroughput = 0;
+
+    // If a thread was added after the last window
+    private boolean mIncreased = false;
+
+    private int mHoldWindows = 0;
+
+    private int mFetches = 0;
+
+    private int mFailures = 0;
+
+    private int mTimeouts = 0;
+
+    private int mIncreases = 0;
+
+    private int mDecreases = 0;
+
+    public static synchronized ImageFetchController getInstance() {
+        if (sInstance == null) {
+            sInstance = new ImageFetchController(OpengurApp.getInstance());
+        }
+
+        return sInstance;
+    }
+
+    private ImageFetchController(Context context) {
+        mContext = context.getApplicationContext();
+        mIsWiFi = NetworkUtils.isConnectedToWiFi(mContext);
+        mThreads = getInitialThreads();
+
+        mExecutor = new ThreadPoolExecutor(mThreads, mThreads, KEEP_ALIVE, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new FetchThreadFactory());
+        mExecutor.allowCoreThreadTimeOut(true);
+        LogUtil.v(TAG, "Starting with " + mThreads + " fetch threads, Wi-Fi=" + mIsWiFi);
+    }
+
+    /**
+     * Returns the executor the image loader fetches images from the network on
+     *
+     * @return
+     */
+    @NonNull
+    public Executor getExecutor() {
+        return mExecutor;
+    }
+
+    public synchronized int getThreads() {
+        return mThreads;
+    }
+
+    /**
+     * Records a fetch that finished
+     *
+     * @param start   When the fetch started, in {@link android.os.SystemClock#elapsedRealtime()}
+     * @param latency Time until the response started
+     * @param bytes   Number of bytes read
+     * @param end     When the last byte was read
+     */
+    synchronized void onFetchFinished(long start, long latency, long bytes, long end) {
+        mFetches++;
+        mWindowFetches++;
+        mWindowLatency += latency;
+        mWindowBytes += bytes;
+        mWindowStart = Math.min(mWindowStart, start);
+        mWindowEnd = Math.max(mWindowEnd, end);
+        if (mWindowFetches >= WINDOW_SIZE) adjust();
+    }
+
+    /**
+     * Records a fetch that failed. Only timeouts count against the network, other failures such as missing images don't
+     *
+     * @param timedOut
+     */
+    synchronized void onFetchFailed(boolean timedOut) {
+        mFailures++;
+
+        if (timedOut) {
+            mTimeouts++;
+            mWindowTimeouts++;
+            mWindowFetches++;
+            if (mWindowFetches >= WINDOW_SIZE) adjust();
+        }
+    }
+
+    private void adjust() {
+        boolean isWiFi = NetworkUtils.isConnectedToWiFi(mContext);
+
+        if (isWiFi != mIsWiFi) {
+            // A different network, start over
+            mIsWiFi = isWiFi;
+            mBaselineLatency = 0;
+            mLastThroughput = 0;
+            mIncreased = false;
+            mHoldWindows = 0;
+            setThreads(getInitialThreads());
+            resetWindow();
+            return;
+        }
+
+        int finished = mWindowFetches - mWindowTimeouts;
+        float latency = finished > 0 ? (float) mWindowLatency / finished : 0;
+        float throughput = mWindowEnd > mWindowStart ? mWindowBytes * 1000f / (mWindowEnd - mWindowStart) : 0;
+
+        if (finished > 0) {
+            mBaselineLatency = mBaselineLatency > 0 ? Math.min(latency, mBaselineLatency * BASELINE_DRIFT) : latency;
+        }
+
+        boolean increased = mIncreased;
+        mIncreased = false;
+
+        if (mWindowTimeouts > 0 || latency > mBaselineLatency * CONGESTION_FACTOR) {
+            mHoldWindows = 0;
+
+            if (mThreads > MIN_THREADS) {
+                mDecreases++;
+                setThreads((int) (mThreads * DECREASE_FACTOR));
+            }
+        } else if (increased && throughput < mLastThroughput * MIN_GAIN) {
+            // The last thread didn't help, the network is the limit
+            mDecreases++;
+            setThreads(mThreads - 1);
+            mHoldWindows = HOLD_WINDOWS;
+        } else if (mHoldWindows > 0) {
+            mHoldWindows--;
+        } else if (isSaturated() && mThreads < getMaxThreads()) {
+            mIncreases++;
+            mIncreased = true;
+            setThreads(mThreads + 1);
+        }
+
+        mLastThroughput = throughput;
+        resetWindow();
+    }
+
+    /**
+     * Returns if every thread is busy and there is more work waiting
+     */
+    private boolean isSaturated() {
+        return !mExecutor.getQueue().isEmpty() || mExecutor.getActiveCount() >= mThreads;
+    }
+
+    private void setThreads(int threads) {
+        threads = Math.max(MIN_THREADS, Math.min(getMaxThreads(), threads));
+        if (threads == mThreads) return;
+        LogUtil.v(TAG, "Changing fetch threads from " + mThreads + " to " + threads);
+
+        // The core size can never be above the maximum size
+        if (threads > mExecutor.getMaximumPoolSize()) {
+            mExecutor.setMaximumPoolSize(threads);
+            mExecutor.setCorePoolSize(threads);
+        } else {
+            mExecutor.setCorePoolSize(threads);
+            mExecutor.setMaximumPoolSize(threads);
+        }
+
+        mThreads = threads;
+    }
+
+    private void resetWindow() {
+        mWindowFetches = 0;
+        mWindowTimeouts = 0;
+        mWindowLatency = 0;
+        mWindowBytes = 0;
+        mWindowStart = Long.MAX_VALUE;
+        mWindowEnd = 0;
+    }
+
+    private int getInitialThreads() {
+        return Math.min(getMaxThreads(), mIsWiFi ? INITIAL_THREADS_WIFI : INITIAL_THREADS_MOBILE);
+    }
+
+    /**
+     * Fast networks can keep more fetches busy, but each thread still costs the device something
+     */
+    private int getMaxThreads() {
+        int max = mIsWiFi ? Math.min(MAX_THREADS_WIFI, mCores * 3) : Math.min(MAX_THREADS_MOBILE, mCores * 2);
+        return Math.max(MIN_THREADS, max);
+    }
+
+    /**
+     * Returns a plain text summary of the controller
+     *
+     * @return
+     */
+    @NonNull
+    public synchronized String getSnapshot() {
+        return "Image fetch threads=" + mThreads + "/" + getMaxThreads()
+                + " wifi=" + mIsWiFi
+                + " fetches=" + mFetches
+                + " failures=" + mFailures
+                + " timeouts=" + mTimeouts
+                + " increases=" + mIncreases
+                + " decreases=" + mDecreases
+                + " baseline latency ms=" + Math.round(mBaselineLatency)
+                + " throughput KB/s=" + Math.round(mLastThroughput / 1024) + "\n";
+    }
+
+    private static class FetchThreadFactory implements ThreadFactory {
+        private final AtomicInteger mCount = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            Thread thread = new Thread(r, "image-fetch-" + mCount.getAndIncrement());
+            thread.setPriority(Thread.NORM_PRIORITY - 2);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.kenny.openimgur.classes;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.text.format.DateUtils;
+
+import com.kenny.openimgur.util.FileUtil;
+import com.kenny.openimgur.util.LogUtil;
+import com.nostra13.universalimageloader.cache.memory.MemoryCache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Memory cache for the image loader that gives memory back in proportion to how much the system asks for. Bitmaps are
+ * tracked in two categories. Gallery thumbnails are decoded as {@link Bitmap.Config#RGB_565} and everything else,
+ * mostly full size images, is not. When trimming for memory pressure, full size bitmaps are evicted before any
+ * thumbnails so the grid doesn't need to decode them all again. Normal evictions are least recently used across both.
+ * <p>
+ * After pressure the cache limit is lowered, and then grows back a step at a time once the pressure has eased.
+ * <p>
+ * Thumbnails leaving the cache are handed to the {@link BitmapPool} so they can be decoded into again.
+ */
+public class ImageMemoryCache implements MemoryCache {
+    private static final String TAG = "ImageMemoryCache";
+
+    public static final int CATEGORY_THUMBNAIL = 0;
+
+    public static final int CATEGORY_FULL_SIZE = 1;
+
+    private static final String[] CATEGORY_NAMES = {"thumbnail", "full size"};
+
+    // How long without pressure before the limit grows by one step
+    private static final long RECOVERY_INTERVAL = 30 * DateUtils.SECOND_IN_MILLIS;
+
+    // Fraction of the max size the limit grows by each step
+    private static final float RECOVERY_STEP = 0.1f;
+
+    private final int mMaxSize;
+
+    // Current size limit, lowered under pressure
+    private int mLimit;
+
+    // The limit set by the last trim, recovery grows from here
+    private int mTrimmedLimit;
+
+    private long mLastTrimTime;
+
+    private int mSize = 0;
+
+    private final LinkedHashMap<String, Bitmap> mBitmaps = new LinkedHashMap<>(0, 0.75f, true);
+
+    private final int[] mCategorySizes = new int[2];
+
+    private final int[] mHits = new int[2];
+
+    private final int[] mEvictions = new int[2];
+
+    private final int[] mTrimEvictions = new int[2];
+
+    private int mMisses = 0;
+
+    private int mTrims = 0;
+
+    /**
+     * @param maxSize The most bytes the cache can hold when there is no memory pressure
+     */
+    public ImageMemoryCache(int maxSize) {
+        mMaxSize = maxSize;
+        mLimit = maxSize;
+        mTrimmedLimit = maxSize;
+    }
+
+    @Override
+    public synchronized boolean put(String key, Bitmap value) {
+        if (key == null || value == null) return false;
+        recover();
+        int size = getSize(value);
+
+        // Don't let a single bitmap push everything else out
+        if (size > mLimit / 2) return false;
+
+        Bitmap previous = mBitmaps.put(key, value);
+        if (previous == value) return true;
+        if (previous != null) onRemoved(previous);
+        BitmapPool.getInstance().onCached(key, value);
+        mSize += size;
+        mCategorySizes[getCategory(value)] += size;
+        trimToSize(mLimit);
+        return true;
+    }
+
+    @Override
+    public synchronized Bitmap get(String key) {
+        if (key == null) return null;
+        Bitmap bitmap = mBitmaps.get(key);
+
+        if (bitmap != null) {
+            mHits[getCategory(bitmap)]++;
+        } else {
+            mMisses++;
+        }
+
+        return bitmap;
+    }
+
+    /**
+     * Returns if a bitmap that hasn't been recycled is cached for the key, without counting it as a hit or miss
+     *
+     * @param key
+     * @return
+     */
+    public synchronized boolean contains(String key) {
+        Bitmap bitmap = key != null ? mBitmaps.get(key) : null;
+        return bitmap != null && !bitmap.isRecycled();
+    }
+
+    @Override
+    public synchronized Bitmap remove(String key) {
+        if (key == null) return null;
+        Bitmap bitmap = mBitmaps.remove(key);
+        if (bitmap != null) onRemoved(bitmap);
+        return bitmap;
+    }
+
+    @Override
+    public synchronized Collection<String> keys() {
+        return new ArrayList<>(mBitmaps.keySet());
+    }
+
+    @Override
+    public synchronized void clear() {
+        BitmapPool pool = BitmapPool.getInstance();
+
+        for (Bitmap bitmap : mBitmaps.values()) {
+            pool.onUncached(bitmap);
+        }
+
+        mBitmaps.clear();
+        mSize = 0;
+        mCategorySizes[CATEGORY_THUMBNAIL] = 0;
+        mCategorySizes[CATEGORY_FULL_SIZE] = 0;
+    }
+
+    /**
+     * Gives memory back in response to {@link ComponentCallbacks2#onTrimMemory(int)}
+     *
+     * @param level
+     */
+    public synchronized void onTrimMemory(int level) {
+        float fraction;
+
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE) {
+            fraction = 0;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            fraction = 0.25f;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            fraction = 0.5f;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            // Nothing is on screen, the full size images won't be needed until the user comes back
+            fraction = 0.75f;
+            trimCategory(CATEGORY_FULL_SIZE, 0);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            fraction = 0.25f;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            fraction = 0.5f;
+        } else {
+            fraction = 0.75f;
+        }
+
+        trim(fraction);
+    }
+
+    /**
+     * Gives memory back in response to {@link android.content.ComponentCallbacks#onLowMemory()}
+     */
+    public synchronized void onLowMemory() {
+        trim(0.25f);
+    }
+
+    /**
+     * Lowers the limit to the fraction of the max size and evicts down to it, full size bitmaps first
+     */
+    private void trim(float fraction) {
+        int limit = (int) (mMaxSize * fraction);
+        mTrims++;
+        mLastTrimTime = SystemClock.elapsedRealtime();
+        mTrimmedLimit = Math.min(limit, mLimit);
+        mLimit = mTrimmedLimit;
+        int before = mSize;
+        if (mSize > limit) trimCategory(CATEGORY_FULL_SIZE, Math.max(0, mCategorySizes[CATEGORY_FULL_SIZE] - (mSize - limit)));
+        if (mSize > limit) trimCategory(CATEGORY_THUMBNAIL, Math.max(0, limit - mCategorySizes[CATEGORY_FULL_SIZE]));
+        LogUtil.v(TAG, "Trimmed from " + FileUtil.humanReadableByteCount(before, false) + " to " + FileUtil.humanReadableByteCount(mSize, false));
+    }
+
+    /**
+     * Evicts the least recently used bitmaps of the category until the category is at or under the size
+     */
+    private void trimCategory(int category, int size) {
+        Iterator<Bitmap> iterator = mBitmaps.values().iterator();
+
+        while (mCategorySizes[category] > size && iterator.hasNext()) {
+            Bitmap bitmap = iterator.next();
+            if (getCategory(bitmap) != category) continue;
+            iterator.remove();
+            onRemoved(bitmap);
+            mTrimEvictions[category]++;
+        }
+    }
+
+    private void trimToSize(int size) {
+        Iterator<Bitmap> iterator = mBitmaps.values().iterator();
+
+        while (mSize > size && iterator.hasNext()) {
+            Bitmap bitmap = iterator.next();
+            iterator.remove();
+            onRemoved(bitmap);
+            mEvictions[getCategory(bitmap)]++;
+        }
+    }
+
+    /**
+     * Grows the limit back towards the max size for each interval that has passed without pressure
+     */
+    private void recover() {
+        if (mLimit >= mMaxSize) return;
+        long steps = (SystemClock.elapsedRealtime() - mLastTrimTime) / RECOVERY_INTERVAL;
+        if (steps <= 0) return;
+        mLimit = (int) Math.min(mMaxSize, mTrimmedLimit + steps * (long) (mMaxSize * RECOVERY_STEP));
+    }
+
+    private void onRemoved(Bitmap bitmap) {
+        int size = getSize(bitmap);
+        mSize -= size;
+        mCategorySizes[getCategory(bitmap)] -= size;
+        BitmapPool.getInstance().onUncached(bitmap);
+    }
+
+    private static int getCategory(Bitmap bitmap) {
+        return bitmap.getConfig() == Bitmap.Config.RGB_565 ? CATEGORY_THUMBNAIL : CATEGORY_FULL_SIZE;
+    }
+
+    private static int getSize(Bitmap bitmap) {
+        return bitmap.getRowBytes() * bitmap.getHeight();
+    }
+
+    /**
+     * Returns the number of bytes held by bitmaps in the category
+     *
+     * @param category {@link #CATEGORY_THUMBNAIL} or {@link #CATEGORY_FULL_SIZE}
+     * @return
+     */
+    public synchronized int getSize(int category) {
+        return mCategorySizes[category];
+    }
+
+    public synchronized int getSize() {
+        return mSize;
+    }
+
+    public synchronized int getLimit() {
+        return mLimit;
+    }
+
+    /**
+     * Returns the fraction of lookups that found a bitmap
+     *
+     * @return
+     */
+    public synchronized float getHitRate() {
+        int hits = mHits[CATEGORY_THUMBNAIL] + mHits[CATEGORY_FULL_SIZE];
+        int total = hits + mMisses;
+        return total > 0 ? (float) hits / total : 0;
+    }
+
+    /**
+     * Returns a plain text summary of the cache
+     *
+     * @return
+     */
+    @NonNull
+    public synchronized String getSnapshot() {
+        StringBuilder sb = new StringBuilder("Image memory cache size=")
+                .append(FileUtil.humanReadableByteCount(mSize, false))
+                .append(" limit=").append(FileUtil.humanReadableByteCount(mLimit, false))
+                .append(" max=").append(FileUtil.humanReadableByteCount(mMaxSize, false))
+                .append(" hit rate=").append(Math.round(getHitRate() * 100)).append("%")
+                .append(" miss=").append(mMisses)
+                .append(" trims=").append(mTrims).append("\n");
+
+        for (int i = 0; i < CATEGORY_NAMES.length; i++) {
+            sb.append("  ").append(CATEGORY_NAMES[i])
+                    .append(" bytes=").append(mCategorySizes[i])
+                    .append(" hit=").append(mHits[i])
+                    .append(" evicted=").append(mEvictions[i])
+                    .append(" trimmed=").append(mTrimEvictions[i]).append("\n");
+        }
+
+        return sb.toString();
+    }
+}
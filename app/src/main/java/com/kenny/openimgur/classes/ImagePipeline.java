@@ -0,0 +1,266 @@
+package com.kenny.openimgur.classes;
+
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.widget.ImageView;
+
+import com.nostra13.universalimageloader.core.DefaultConfigurationFactory;
+import com.nostra13.universalimageloader.core.ImageLoader;
+import com.nostra13.universalimageloader.core.assist.QueueProcessingType;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits the work of the image loader into a fetch stage and a decode stage. The image loader's own thread pool only
+ * fetches images from the network, which mostly waits on sockets and can be sized for network concurrency. Fetched
+ * images are handed to a decode executor with one thread per CPU core, so adding fetch threads doesn't oversubscribe
+ * the CPU. Images already on disk skip the fetch stage and are loaded on an executor sized to the cores.
+ * <p>
+ * The stages are connected by a bounded queue. Once it is full, fetch threads wait for room before handing off another
+ * image, so fetching can't run ahead of decoding. The image loader needs the decoded image back on the thread that
+ * fetched it, which waits for it. Images requested for a view are dropped instead of decoded if the view has moved on
+ * to another image while they were queued.
+ * <p>
+ * Loads cancelled through {@link com.kenny.openimgur.util.ImageUtil#cancelDisplayTask} are counted, along with how
+ * many of them were decoded anyway, to measure the decodes cancelling avoids.
+ */
+public class ImagePipeline {
+    private static final String TAG = "ImagePipeline";
+
+    // Most keys requested for views to remember, requests that never reach the decode stage are forgotten this way
+    private static final int MAX_VIEW_KEYS = 256;
+
+    // Fetched images that can wait for each decode thread
+    private static final int DECODE_QUEUE_PER_THREAD = 2;
+
+    private static ImagePipeline sInstance;
+
+    private final int mDecodeThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    private final ThreadPoolExecutor mDecodeExecutor;
+
+    private final Executor mCachedImageExecutor;
+
+    // Views that have requested images, they are asked which image they still want
+    private final WeakHashMap<ImageView, Boolean> mViews = new WeakHashMap<>();
+
+    // Memory cache keys of the images requested for views
+    private final Map<String, Boolean> mViewKeys = new LinkedHashMap<String, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_VIEW_KEYS;
+        }
+    };
+
+    // Memory cache keys of cancelled loads
+    private final Map<String, Boolean> mCancelledKeys = new LinkedHashMap<String, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_VIEW_KEYS;
+        }
+    };
+
+    private int mDecoded = 0;
+
+    private int mDropped = 0;
+
+    private int mMaxWaiting = 0;
+
+    private int mWaits = 0;
+
+    private long mWaitTime = 0;
+
+    private int mCancelled = 0;
+
+    // Cancelled loads that reached the decode stage and were decoded regardless
+    private int mCancelledDecoded = 0;
+
+    // Cancelled loads whose download was finished into the disk cache
+    private int mCancelledDownloads = 0;
+
+    public static synchronized ImagePipeline getInstance() {
+        if (sInstance == null) {
+            sInstance = new ImagePipeline();
+        }
+
+        return sInstance;
+    }
+
+    private ImagePipeline() {
+        mCachedImageExecutor = DefaultConfigurationFactory.createExecutor(mDecodeThreads, Thread.NORM_PRIORITY - 2, QueueProcessingType.FIFO);
+
+        mDecodeExecutor = new ThreadPoolExecutor(mDecodeThreads, mDecodeThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(mDecodeThreads * DECODE_QUEUE_PER_THREAD), new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(@NonNull Runnable r) {
+                Thread thread = new Thread(r, "image-decode-" + mCount.getAndIncrement());
+                thread.setPriority(Thread.NORM_PRIORITY - 2);
+                return thread;
+            }
+        }, new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                // The queue is full, hold the fetch thread back until the decode stage catches up
+                try {
+                    executor.getQueue().put(r);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the executor for images that are already in the disk cache
+     *
+     * @return
+     */
+    @NonNull
+    public Executor getCachedImageExecutor() {
+        return mCachedImageExecutor;
+    }
+
+    public int getDecodeThreads() {
+        return mDecodeThreads;
+    }
+
+    /**
+     * Called after the image loader was asked to display an image in the view
+     *
+     * @param view
+     * @param key  The memory cache key being loaded for the view, null if it was displayed from memory
+     */
+    public synchronized void onDisplayRequested(@NonNull ImageView view, @Nullable String key) {
+        if (key == null) return;
+        mViews.put(view, Boolean.TRUE);
+        mViewKeys.put(key, Boolean.TRUE);
+        mCancelledKeys.remove(key);
+    }
+
+    /**
+     * Called after a load that had not finished was cancelled
+     *
+     * @param key The memory cache key that was being loaded
+     */
+    public synchronized void onLoadCancelled(@NonNull String key) {
+        mCancelled++;
+        mCancelledKeys.put(key, Boolean.TRUE);
+    }
+
+    /**
+     * Called when the download of a cancelled load is finished into the disk cache instead of being abandoned
+     */
+    synchronized void onCancelledDownloadFinished() {
+        mCancelledDownloads++;
+    }
+
+    /**
+     * Hands the image to the decode stage and waits for it to be decoded
+     *
+     * @param key     The memory cache key of the image
+     * @param decoder Decodes the image on a decode thread
+     * @return The decoded image, null if it is no longer wanted
+     * @throws IOException
+     */
+    @Nullable
+    Bitmap decode(@NonNull final String key, @NonNull final Callable<Bitmap> decoder) throws IOException {
+        if (!isWanted(key)) return null;
+        final long queuedAt = SystemClock.elapsedRealtime();
+
+        FutureTask<Bitmap> task = new FutureTask<>(new Callable<Bitmap>() {
+            @Override
+            public Bitmap call() throws Exception {
+                onDecodeStarted(SystemClock.elapsedRealtime() - queuedAt);
+                if (!isWanted(key)) return null;
+
+                synchronized (ImagePipeline.this) {
+                    mViewKeys.remove(key);
+                    mDecoded++;
+                    if (mCancelledKeys.remove(key) != null) mCancelledDecoded++;
+                }
+
+                return decoder.call();
+            }
+        });
+
+        try {
+            mDecodeExecutor.execute(task);
+
+            synchronized (this) {
+                mMaxWaiting = Math.max(mMaxWaiting, mDecodeExecutor.getQueue().size());
+            }
+
+            return task.get();
+        } catch (InterruptedException | RejectedExecutionException e) {
+            // The image loader is being stopped
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private synchronized void onDecodeStarted(long waitTime) {
+        mWaits++;
+        mWaitTime += waitTime;
+    }
+
+    /**
+     * Returns if the image is still wanted. Images not requested for a view are always wanted
+     */
+    private synchronized boolean isWanted(String key) {
+        if (!mViewKeys.containsKey(key)) return true;
+        ImageLoader imageLoader = ImageLoader.getInstance();
+
+        for (ImageView view : mViews.keySet()) {
+            if (key.equals(imageLoader.getLoadingUriForView(view))) return true;
+        }
+
+        mViewKeys.remove(key);
+        // Cancelled loads are already counted as avoided
+        if (mCancelledKeys.remove(key) == null) mDropped++;
+        return false;
+    }
+
+    /**
+     * Returns a plain text summary of the pipeline
+     *
+     * @return
+     */
+    @NonNull
+    public synchronized String getSnapshot() {
+        return "Image pipeline decode threads=" + mDecodeThreads
+                + " decoded=" + mDecoded
+                + " dropped=" + mDropped
+                + " waiting=" + mDecodeExecutor.getQueue().size()
+                + " max waiting=" + mMaxWaiting
+                + " avg wait ms=" + (mWaits > 0 ? mWaitTime / mWaits : 0)
+                + " cancelled=" + mCancelled
+                + " cancelled downloads finished=" + mCancelledDownloads
+                + " decodes avoided=" + (mCancelled - mCancelledDecoded + mDropped) + "\n";
+    }
+}
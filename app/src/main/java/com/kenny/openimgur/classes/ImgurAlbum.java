@@ -45,6 +45,10 @@ public class ImgurAlbum extends ImgurBaseObject {
         mCoverId = id;
     }
 
+    public void setAlbumImageCount(int count) {
+        mAlbumImageCount = count;
+    }
+
     public String getCoverId() {
         return mCoverId;
     }
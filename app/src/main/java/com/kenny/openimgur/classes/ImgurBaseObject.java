@@ -163,6 +163,43 @@ public class ImgurBaseObject implements Parcelable {
         mVote = vote;
     }
 
+    public void setUpVotes(int upVotes) {
+        mUpVotes = upVotes;
+    }
+
+    public void setDownVotes(int downVotes) {
+        mDownVotes = downVotes;
+    }
+
+    public void setDescription(String description) {
+        mDescription = description;
+    }
+
+    public void setAccount(String account) {
+        mAccount = account;
+    }
+
+    public void setRedditLink(String redditLink) {
+        mRedditLink = redditLink;
+    }
+
+    public void setTopic(String topic) {
+        mTopic = topic;
+    }
+
+    public void setIsNSFW(boolean isNSFW) {
+        mIsNSFW = isNSFW;
+    }
+
+    /**
+     * Sets the vote returned by the API without adjusting the score like {@link #setVote(String)} does
+     *
+     * @param vote
+     */
+    public void setApiVote(String vote) {
+        mVote = vote;
+    }
+
     public void setTags(List<ImgurTag> tags) {
         mTags = tags;
     }
@@ -6,11 +6,12 @@ package com.kenny.openimgur.classes;
 
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.support.annotation.Nullable;
 import android.text.TextUtils;
 
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -39,7 +40,8 @@ public class ImgurComment extends ImgurBaseObject {
     private boolean mIsDeleted;
 
     @SerializedName("children")
-    private List<ImgurComment> mChildrenComments;
+    @JsonAdapter(CommentReplies.Adapter.class)
+    private CommentReplies mReplies;
 
     @SerializedName("parent_id")
     private long mParentId;
@@ -56,8 +58,16 @@ public class ImgurComment extends ImgurBaseObject {
         mAlbumCoverId = in.readString();
         mIsDeleted = in.readInt() == 1;
         mIsAlbumComment = in.readInt() == 1;
-        mChildrenComments = new ArrayList<>();
-        in.readTypedList(mChildrenComments, ImgurComment.CREATOR);
+        int replyCount = in.readInt();
+        byte[] rawReplies = in.createByteArray();
+
+        if (rawReplies != null) {
+            mReplies = new CommentReplies(rawReplies, replyCount);
+        } else {
+            List<ImgurComment> replies = in.createTypedArrayList(ImgurComment.CREATOR);
+            if (replies != null && !replies.isEmpty()) mReplies = new CommentReplies(replies);
+        }
+
         mParentId = in.readLong();
         mPoints = in.readLong();
     }
@@ -71,7 +81,12 @@ public class ImgurComment extends ImgurBaseObject {
         out.writeString(mAlbumCoverId);
         out.writeInt(mIsDeleted ? 1 : 0);
         out.writeInt(mIsAlbumComment ? 1 : 0);
-        out.writeTypedList(mChildrenComments);
+
+        // Replies that have not been needed yet stay in their raw form
+        byte[] rawReplies = mReplies != null ? mReplies.getRaw() : null;
+        out.writeInt(getReplyCount());
+        out.writeByteArray(rawReplies);
+        if (rawReplies == null) out.writeTypedList(mReplies != null ? mReplies.get() : null);
         out.writeLong(mParentId);
         out.writeLong(mPoints);
     }
@@ -96,11 +111,21 @@ public class ImgurComment extends ImgurBaseObject {
      * @return
      */
     public int getReplyCount() {
-        return mChildrenComments != null ? mChildrenComments.size() : 0;
+        return mReplies != null ? mReplies.size() : 0;
     }
 
+    /**
+     * Returns the replies to the comment. The replies are parsed the first time this is called
+     *
+     * @return
+     */
     public List<ImgurComment> getReplies() {
-        return mChildrenComments;
+        return mReplies != null ? mReplies.get() : null;
+    }
+
+    @Nullable
+    CommentReplies getCommentReplies() {
+        return mReplies;
     }
 
     public String getAuthor() {
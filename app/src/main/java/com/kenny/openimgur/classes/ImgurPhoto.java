@@ -70,6 +70,10 @@ public class ImgurPhoto extends ImgurBaseObject {
         mIsAnimated = LinkUtils.isLinkAnimated(link);
     }
 
+    public ImgurPhoto(String id, String title, String link, String deleteHash) {
+        super(id, title, link, deleteHash);
+    }
+
     public long getSize() {
         return mSize;
     }
@@ -90,6 +94,22 @@ public class ImgurPhoto extends ImgurBaseObject {
         return mType;
     }
 
+    public String getMP4Link() {
+        return mMP4Link;
+    }
+
+    public long getMP4Size() {
+        return mMP4Size;
+    }
+
+    public String getWebMLink() {
+        return mWebMLink;
+    }
+
+    public long getWebMSize() {
+        return mWebMSize;
+    }
+
     public boolean hasVideoLink() {
         return !TextUtils.isEmpty(mMP4Link) || !TextUtils.isEmpty(mWebMLink);
     }
@@ -105,6 +125,30 @@ public class ImgurPhoto extends ImgurBaseObject {
         return null;
     }
 
+    public void setType(String type) {
+        mType = type;
+    }
+
+    public void setDimensions(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+    }
+
+    public void setIsAnimated(boolean isAnimated) {
+        mIsAnimated = isAnimated;
+    }
+
+    public void setSize(long size) {
+        mSize = size;
+    }
+
+    public void setVideoLinks(String mp4Link, long mp4Size, String webMLink, long webMSize) {
+        mMP4Link = mp4Link;
+        mMP4Size = mp4Size;
+        mWebMLink = webMLink;
+        mWebMSize = webMSize;
+    }
+
     ImgurPhoto(Parcel in) {
         super(in);
         mType = in.readString();
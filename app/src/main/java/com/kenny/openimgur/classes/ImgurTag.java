@@ -21,6 +21,13 @@ public class ImgurTag implements Parcelable {
     @SerializedName("downs")
     private int mDownVotes;
 
+    public ImgurTag(String name, String author, int upVotes, int downVotes) {
+        mName = name;
+        mAuthor = author;
+        mUpVotes = upVotes;
+        mDownVotes = downVotes;
+    }
+
     ImgurTag(Parcel in) {
         mName = in.readString();
         mAuthor = in.readString();
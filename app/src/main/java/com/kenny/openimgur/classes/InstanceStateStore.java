@@ -0,0 +1,281 @@
+package com.kenny.openimgur.classes;
+
+import android.os.AsyncTask;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.format.DateUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.util.FileUtil;
+import com.kenny.openimgur.util.LogUtil;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps large lists out of saved instance state Bundles. Lists are written to the cache directory as a JSON array and
+ * only a handle is put in the Bundle. The list is also kept in memory until it is restored, so configuration changes
+ * never touch the disk.
+ * <p>
+ * Restoring after the process has been killed streams the file on a background thread, handing items back in chunks
+ * so the first screen of content can be shown before the whole list has been read. The file is kept until the handle
+ * is removed or saved over, so the same handle can be restored again if the restore is interrupted.
+ */
+public class InstanceStateStore {
+    private static final String TAG = "InstanceStateStore";
+
+    // Items handed back per chunk when restoring from disk
+    private static final int CHUNK_SIZE = 60;
+
+    // Files left on disk longer than this were never restored
+    private static final long MAX_AGE = DateUtils.DAY_IN_MILLIS;
+
+    private static InstanceStateStore sInstance;
+
+    private final File mStateDir;
+
+    private final Gson mGson = ApiClient.getGson();
+
+    // Lists that have been saved in this process and not yet restored
+    private final Map<String, List<?>> mPending = new HashMap<>();
+
+    public static synchronized InstanceStateStore getInstance() {
+        if (sInstance == null) {
+            sInstance = new InstanceStateStore();
+        }
+
+        return sInstance;
+    }
+
+    private InstanceStateStore() {
+        mStateDir = new File(OpengurApp.getInstance().getCacheDir(), "instance_state");
+        mStateDir.mkdirs();
+    }
+
+    /**
+     * Saves the list, writing it to disk on a background thread
+     *
+     * @param handle The handle the list was previously saved under, null to create a new one
+     * @param items  The items to save. The list is copied so it can continue to be modified
+     * @param type   The type the items are serialized as
+     * @return The handle to put in the Bundle
+     */
+    @NonNull
+    public <T> String save(@Nullable String handle, @NonNull List<? extends T> items, @NonNull Class<T> type) {
+        if (handle == null) handle = UUID.randomUUID().toString();
+        List<T> copy = new ArrayList<>(items);
+        mPending.put(handle, copy);
+        new SaveTask<>(handle, copy, type).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        return handle;
+    }
+
+    /**
+     * Restores a list saved with {@link #save(String, List, Class)}. If the list is still in memory it is delivered
+     * before this method returns, otherwise it is read from disk and delivered on the main thread in chunks
+     *
+     * @param handle   The handle from the Bundle
+     * @param type     The type the items were saved as
+     * @param listener Listener to receive the items
+     */
+    public <T> void restore(@Nullable String handle, @NonNull Class<T> type, @NonNull RestoreListener<T> listener) {
+        if (handle == null) {
+            listener.onRestoreFinished(false);
+            return;
+        }
+
+        List<?> items = mPending.remove(handle);
+
+        if (items != null) {
+            //noinspection unchecked
+            listener.onItemsRestored(new ArrayList<>((List<T>) items));
+            listener.onRestoreFinished(true);
+        } else {
+            new RestoreTask<>(getFile(handle), type, listener).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        }
+    }
+
+    /**
+     * Removes a saved list that will not be restored
+     *
+     * @param handle
+     */
+    public void remove(@Nullable String handle) {
+        if (handle == null) return;
+        mPending.remove(handle);
+        new DeleteTask(getFile(handle)).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    public void deleteCache() {
+        FileUtil.deleteDirectory(mStateDir);
+        mStateDir.mkdirs();
+    }
+
+    private synchronized <T> void write(File file, List<T> items, Class<T> type) {
+        File temp = new File(file.getPath() + ".tmp");
+        JsonWriter writer = null;
+        boolean success = false;
+
+        try {
+            writer = new JsonWriter(new BufferedWriter(new FileWriter(temp)));
+            writer.beginArray();
+
+            for (T item : items) {
+                mGson.toJson(item, type, writer);
+            }
+
+            writer.endArray();
+            writer.flush();
+            success = true;
+        } catch (Exception ex) {
+            LogUtil.e(TAG, "Unable to save state " + file.getName(), ex);
+        } finally {
+            FileUtil.closeStream(writer);
+        }
+
+        // Only replace the previous state once the new one is complete
+        if (!success || !temp.renameTo(file)) {
+            temp.delete();
+        }
+
+        File[] files = mStateDir.listFiles();
+        if (files == null) return;
+        long now = System.currentTimeMillis();
+
+        for (File f : files) {
+            if (now - f.lastModified() > MAX_AGE) f.delete();
+        }
+    }
+
+    private File getFile(String handle) {
+        return new File(mStateDir, handle);
+    }
+
+    public interface RestoreListener<T> {
+        /**
+         * Called on the main thread with the next chunk of restored items
+         *
+         * @param items
+         */
+        void onItemsRestored(@NonNull List<T> items);
+
+        /**
+         * Called on the main thread once all items have been restored
+         *
+         * @param success If the whole list was restored
+         */
+        void onRestoreFinished(boolean success);
+    }
+
+    private static class RestoreTask<T> extends AsyncTask<Void, List<T>, Boolean> {
+        private final File mFile;
+
+        private final Class<T> mType;
+
+        private RestoreListener<T> mListener;
+
+        RestoreTask(File file, Class<T> type, RestoreListener<T> listener) {
+            mFile = file;
+            mType = type;
+            mListener = listener;
+        }
+
+        @Override
+        protected Boolean doInBackground(Void... params) {
+            if (!FileUtil.isFileValid(mFile)) return false;
+            Gson gson = getInstance().mGson;
+            JsonReader reader = null;
+            boolean success = false;
+
+            // Hold the lock so a save for the same handle can not replace the file mid read
+            synchronized (getInstance()) {
+                try {
+                    reader = new JsonReader(new BufferedReader(new FileReader(mFile)));
+                    List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+                    reader.beginArray();
+
+                    while (reader.hasNext() && !isCancelled()) {
+                        T item = gson.fromJson(reader, mType);
+                        if (item != null) chunk.add(item);
+
+                        if (chunk.size() >= CHUNK_SIZE) {
+                            //noinspection unchecked
+                            publishProgress(chunk);
+                            chunk = new ArrayList<>(CHUNK_SIZE);
+                        }
+                    }
+
+                    //noinspection unchecked
+                    if (!chunk.isEmpty()) publishProgress(chunk);
+                    success = true;
+                } catch (Exception ex) {
+                    LogUtil.e(TAG, "Unable to restore state " + mFile.getName(), ex);
+                    mFile.delete();
+                } finally {
+                    FileUtil.closeStream(reader);
+                }
+            }
+
+            return success;
+        }
+
+        @SafeVarargs
+        @Override
+        protected final void onProgressUpdate(List<T>... values) {
+            mListener.onItemsRestored(values[0]);
+        }
+
+        @Override
+        protected void onPostExecute(Boolean success) {
+            mListener.onRestoreFinished(success);
+            mListener = null;
+        }
+    }
+
+    private static class SaveTask<T> extends AsyncTask<Void, Void, Void> {
+        private final File mFile;
+
+        private final List<T> mItems;
+
+        private final Class<T> mType;
+
+        SaveTask(String handle, List<T> items, Class<T> type) {
+            mFile = getInstance().getFile(handle);
+            mItems = items;
+            mType = type;
+        }
+
+        @Override
+        protected Void doInBackground(Void... params) {
+            getInstance().write(mFile, mItems, mType);
+            return null;
+        }
+    }
+
+    private static class DeleteTask extends AsyncTask<Void, Void, Void> {
+        private final File mFile;
+
+        DeleteTask(File file) {
+            mFile = file;
+        }
+
+        @Override
+        protected Void doInBackground(Void... params) {
+            synchronized (getInstance()) {
+                mFile.delete();
+            }
+
+            return null;
+        }
+    }
+}
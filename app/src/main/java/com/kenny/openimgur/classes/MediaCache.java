@@ -0,0 +1,719 @@
+package com.kenny.openimgur.classes;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.preference.PreferenceManager;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.kenny.openimgur.activities.SettingsActivity;
+import com.kenny.openimgur.util.FileUtil;
+import com.kenny.openimgur.util.ImageUtil;
+import com.kenny.openimgur.util.LogUtil;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import okhttp3.Cache;
+
+/**
+ * One byte budget shared by the image, video and HTTP caches, set by the cache size setting. Every file written to the
+ * image and video caches is recorded in an index kept in least recently used order. The index is persisted in a
+ * journal so it survives restarts. When the caches together go over the budget, the least recently used files are
+ * evicted whichever cache they are in. The image and video caches also have a quota of the budget they can't grow past,
+ * so a few videos can't push out every image.
+ * <p>
+ * The HTTP cache is managed by OkHttp, which doesn't report when its responses are used. It keeps its own least recently
+ * used order within a fixed quota, and its size counts towards the budget.
+ * <p>
+ * Sizes are tracked as files are written and evicted, so they can be read without walking the cache directories.
+ * <p>
+ * The index is loaded, journaled and trimmed on a background thread, none of the methods here wait on it. Files already
+ * on disk are served while it loads, only the ones it evicts once loaded are hidden, see
+ * {@link #isAvailable(Category, File)}.
+ */
+public class MediaCache {
+    private static final String TAG = "MediaCache";
+
+    public enum Category {
+        IMAGE("images"),
+        VIDEO("video_cache"),
+        HTTP("http_cache");
+
+        final String directory;
+
+        Category(String directory) {
+            this.directory = directory;
+        }
+    }
+
+    // The image loader used to keep its own index and file names here, its files can't be looked up anymore
+    private static final String LEGACY_IMAGE_DIRECTORY = "image_cache";
+
+    private static final String JOURNAL_FILE = "media_cache.journal";
+
+    private static final String JOURNAL_TEMP_FILE = "media_cache.journal.tmp";
+
+    private static final String PUT = "P";
+
+    private static final String READ = "R";
+
+    private static final String DELETE = "D";
+
+    // Journal lines written before it is rewritten with only the current entries
+    private static final int MAX_JOURNAL_OPS = 2000;
+
+    // Most of the budget each category can use
+    private static final float IMAGE_QUOTA = 0.8f;
+
+    private static final float VIDEO_QUOTA = 0.5f;
+
+    // 10MB, enforced by OkHttp
+    private static final long HTTP_QUOTA = 10 * 1024 * 1024;
+
+    private static MediaCache sInstance;
+
+    private final Context mContext;
+
+    // Reads the journal, writes it and evicts files. The fields below up to the pending reads are only used on it
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+
+    // Entries keyed by category and file name, least recently used first
+    private final LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<>(0, 0.75f, true);
+
+    // The directory the entries are in
+    private File mIndexDir;
+
+    // Bytes all caches can use together, -1 if unlimited
+    private long mBudget;
+
+    private BufferedWriter mJournal;
+
+    private int mJournalOps = 0;
+
+    // Files read since the index was last updated, applied in batches so reading a file never waits on the index
+    private final Map<String, Entry> mPendingReads = new LinkedHashMap<>();
+
+    private boolean mReadsScheduled = false;
+
+    // Files evicted before the index was done loading, lookups may still find them on disk while they are deleted
+    private final Set<String> mEvictedWhileLoading = Collections.synchronizedSet(new HashSet<String>());
+
+    private final AtomicLongArray mSizes = new AtomicLongArray(Category.values().length);
+
+    private volatile File mCacheDir;
+
+    private volatile boolean mReady = false;
+
+    private volatile Cache mHttpCache;
+
+    private volatile int mFiles = 0;
+
+    private volatile int mEvictions = 0;
+
+    private volatile long mEvictedBytes = 0;
+
+    private final Runnable mApplyReads = new Runnable() {
+        @Override
+        public void run() {
+            List<Entry> reads;
+
+            synchronized (mPendingReads) {
+                reads = new ArrayList<>(mPendingReads.values());
+                mPendingReads.clear();
+                mReadsScheduled = false;
+            }
+
+            for (Entry read : reads) {
+                Entry entry = mEntries.get(getKey(read.category, read.name));
+
+                if (entry != null) {
+                    journal(READ, entry);
+                } else {
+                    // Written without being recorded, start tracking it
+                    File file = new File(getIndexDirectory(read.category), read.name);
+                    if (!file.isFile()) continue;
+                    entry = new Entry(read.category, read.name, file.length());
+                    putEntry(entry);
+                    journal(PUT, entry);
+                }
+            }
+
+            flushJournal();
+        }
+    };
+
+    public static synchronized MediaCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new MediaCache(OpengurApp.getInstance());
+        }
+
+        return sInstance;
+    }
+
+    private MediaCache(Context context) {
+        mContext = context.getApplicationContext();
+        SharedPreferences pref = PreferenceManager.getDefaultSharedPreferences(mContext);
+        final long budget = getBudget(pref);
+        String cacheKey = pref.getString(SettingsActivity.KEY_CACHE_LOC, SettingsActivity.CACHE_LOC_INTERNAL);
+        final File dir = ImageUtil.getCacheDirectory(mContext, cacheKey);
+        mCacheDir = dir;
+
+        // Created during startup on the main thread, the index is loaded in the background
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                mBudget = budget;
+                open(dir);
+            }
+        });
+    }
+
+    /**
+     * Moves the image and video caches to a different directory. Nothing is copied, the caches start over with whatever
+     * the new directory holds
+     *
+     * @param dir
+     */
+    public void setCacheDirectory(@NonNull final File dir) {
+        if (dir.equals(mCacheDir)) return;
+        mCacheDir = dir;
+        mReady = false;
+        mEvictedWhileLoading.clear();
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                closeJournal();
+                mEntries.clear();
+                mSizes.set(Category.IMAGE.ordinal(), 0);
+                mSizes.set(Category.VIDEO.ordinal(), 0);
+                open(dir);
+            }
+        });
+    }
+
+    /**
+     * Rereads the budget from the cache size setting and evicts what no longer fits on a background thread
+     */
+    public void updateBudget() {
+        final long budget = getBudget(PreferenceManager.getDefaultSharedPreferences(mContext));
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                mBudget = budget;
+                LogUtil.v(TAG, "Budget changed to " + getReadableBudget());
+                updateHttpSize();
+                trim();
+                flushJournal();
+            }
+        });
+    }
+
+    /**
+     * Returns the directory the category keeps its files in
+     *
+     * @param category
+     * @return
+     */
+    @NonNull
+    public File getDirectory(@NonNull Category category) {
+        // OkHttp's cache always stays internal
+        File base = category == Category.HTTP ? mContext.getCacheDir() : mCacheDir;
+        return new File(base, category.directory);
+    }
+
+    /**
+     * Returns the cache for HTTP responses, null if there is no cache directory
+     *
+     * @return
+     */
+    @Nullable
+    public synchronized Cache getHttpCache() {
+        if (mHttpCache == null && FileUtil.isFileValid(mContext.getCacheDir())) {
+            mHttpCache = new Cache(getDirectory(Category.HTTP), HTTP_QUOTA);
+
+            // OkHttp reads its journal the first time its size is asked for
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    updateHttpSize();
+                }
+            });
+        }
+
+        return mHttpCache;
+    }
+
+    /**
+     * Returns if a file in the cache can be used. While the index loads every file on disk can be, except the ones it
+     * has started evicting. Files used while it loads are marked as read before it trims, so they are the last evicted
+     *
+     * @param category
+     * @param file
+     * @return
+     */
+    public boolean isAvailable(@NonNull Category category, @NonNull File file) {
+        return mReady || !mEvictedWhileLoading.contains(getKey(category, file.getName()));
+    }
+
+    /**
+     * Records a file that was written to the cache and evicts whatever no longer fits in the background
+     *
+     * @param category
+     * @param file
+     */
+    public void onWritten(@NonNull Category category, @NonNull File file) {
+        final Entry entry = new Entry(category, file.getName(), file.length());
+        mEvictedWhileLoading.remove(getKey(category, entry.name));
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                putEntry(entry);
+                journal(PUT, entry);
+                updateHttpSize();
+                trim();
+                flushJournal();
+            }
+        });
+    }
+
+    /**
+     * Records a file in the cache being used, so it is the last to be evicted. This never waits on the index, reads are
+     * applied to it and journaled in batches
+     *
+     * @param category
+     * @param file
+     */
+    public void onRead(@NonNull Category category, @NonNull File file) {
+        String key = getKey(category, file.getName());
+
+        synchronized (mPendingReads) {
+            // Moved to the end so the batch keeps the order files were read in
+            mPendingReads.remove(key);
+            mPendingReads.put(key, new Entry(category, file.getName(), 0));
+            if (mReadsScheduled) return;
+            mReadsScheduled = true;
+        }
+
+        mExecutor.execute(mApplyReads);
+    }
+
+    /**
+     * Records a file that was deleted from the cache
+     *
+     * @param category
+     * @param file
+     */
+    public void onRemoved(@NonNull Category category, @NonNull File file) {
+        final String key = getKey(category, file.getName());
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Entry entry = removeEntry(key);
+
+                if (entry != null) {
+                    journal(DELETE, entry);
+                    flushJournal();
+                }
+            }
+        });
+    }
+
+    /**
+     * Records every file of the category being deleted
+     *
+     * @param category
+     */
+    public void onCleared(@NonNull final Category category) {
+        // Shown as cleared right away, the index catches up in the background
+        mSizes.set(category.ordinal(), 0);
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Iterator<Entry> iterator = mEntries.values().iterator();
+
+                while (iterator.hasNext()) {
+                    if (iterator.next().category == category) iterator.remove();
+                }
+
+                mFiles = mEntries.size();
+                mSizes.set(category.ordinal(), 0);
+                rewriteJournal();
+            }
+        });
+    }
+
+    /**
+     * Returns the size of all of the caches
+     *
+     * @return
+     */
+    public long getSize() {
+        updateHttpSize();
+        long size = 0;
+
+        for (int i = 0; i < mSizes.length(); i++) {
+            size += mSizes.get(i);
+        }
+
+        return size;
+    }
+
+    public long getSize(@NonNull Category category) {
+        if (category == Category.HTTP) updateHttpSize();
+        return mSizes.get(category.ordinal());
+    }
+
+    private void open(File dir) {
+        mIndexDir = dir;
+        File legacy = new File(dir, LEGACY_IMAGE_DIRECTORY);
+
+        if (legacy.isDirectory()) {
+            FileUtil.deleteDirectory(legacy);
+            legacy.delete();
+        }
+
+        getIndexDirectory(Category.IMAGE).mkdirs();
+        getIndexDirectory(Category.VIDEO).mkdirs();
+        File journal = new File(dir, JOURNAL_FILE);
+
+        if (FileUtil.isFileValid(journal)) {
+            readJournal(journal);
+        } else {
+            adoptFiles(Category.IMAGE);
+            adoptFiles(Category.VIDEO);
+        }
+
+        // Files served while the journal was read are the most recently used, record them before trimming
+        mApplyReads.run();
+        rewriteJournal();
+        updateHttpSize();
+        trim();
+        flushJournal();
+
+        // Lookups may be made before the journal for the new directory was read
+        if (dir.equals(mCacheDir)) {
+            mReady = true;
+            mEvictedWhileLoading.clear();
+        }
+
+        LogUtil.v(TAG, "Opened at " + dir.getAbsolutePath() + " with " + mEntries.size() + " files, budget " + getReadableBudget());
+    }
+
+    private void readJournal(File journal) {
+        BufferedReader reader = null;
+
+        try {
+            reader = new BufferedReader(new FileReader(journal));
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                readJournalLine(line);
+            }
+        } catch (IOException e) {
+            LogUtil.e(TAG, "Unable to read journal", e);
+        } finally {
+            FileUtil.closeStream(reader);
+        }
+    }
+
+    private void readJournalLine(String line) {
+        // A line cut short by the app being killed is skipped
+        String[] parts = line.split(" ");
+        if (parts.length < 3) return;
+        Category category;
+
+        try {
+            category = Category.valueOf(parts[1]);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+
+        String key = getKey(category, parts[2]);
+
+        switch (parts[0]) {
+            case PUT:
+                if (parts.length < 4) return;
+
+                try {
+                    putEntry(new Entry(category, parts[2], Long.parseLong(parts[3])));
+                } catch (NumberFormatException e) {
+                    LogUtil.w(TAG, "Invalid journal line " + line);
+                }
+                break;
+
+            case READ:
+                mEntries.get(key);
+                break;
+
+            case DELETE:
+                removeEntry(key);
+                break;
+        }
+    }
+
+    /**
+     * Adds the files of the category already on disk to the index, for when there is no journal
+     */
+    private void adoptFiles(Category category) {
+        File[] files = getIndexDirectory(category).listFiles();
+        if (files == null) return;
+
+        // Oldest first, the order they will be evicted in
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long diff = lhs.lastModified() - rhs.lastModified();
+                return diff > 0 ? 1 : diff < 0 ? -1 : 0;
+            }
+        });
+
+        for (File file : files) {
+            if (file.isFile()) putEntry(new Entry(category, file.getName(), file.length()));
+        }
+    }
+
+    /**
+     * Replaces the journal with one line per entry, in least recently used order
+     */
+    private void rewriteJournal() {
+        closeJournal();
+        File temp = new File(mIndexDir, JOURNAL_TEMP_FILE);
+        BufferedWriter writer = null;
+
+        try {
+            writer = new BufferedWriter(new FileWriter(temp));
+
+            for (Entry entry : mEntries.values()) {
+                writeJournalLine(writer, PUT, entry);
+            }
+
+            writer.close();
+            writer = null;
+
+            if (!temp.renameTo(new File(mIndexDir, JOURNAL_FILE))) {
+                throw new IOException("Unable to rename journal");
+            }
+
+            mJournal = new BufferedWriter(new FileWriter(new File(mIndexDir, JOURNAL_FILE), true));
+            mJournalOps = 0;
+        } catch (IOException e) {
+            // The index is still kept in memory, it is rebuilt from the files if the journal is missing on the next start
+            LogUtil.e(TAG, "Unable to write journal", e);
+            FileUtil.closeStream(writer);
+            temp.delete();
+        }
+    }
+
+    /**
+     * Buffers a line for the journal, which is written out by {@link #flushJournal()} once the current work is done
+     */
+    private void journal(String op, Entry entry) {
+        if (mJournal == null) return;
+
+        try {
+            writeJournalLine(mJournal, op, entry);
+            mJournalOps++;
+        } catch (IOException e) {
+            LogUtil.e(TAG, "Unable to append to journal", e);
+        }
+
+        if (mJournalOps > MAX_JOURNAL_OPS && mJournalOps > mEntries.size() * 2) rewriteJournal();
+    }
+
+    private void flushJournal() {
+        if (mJournal == null) return;
+
+        try {
+            mJournal.flush();
+        } catch (IOException e) {
+            LogUtil.e(TAG, "Unable to write journal", e);
+        }
+    }
+
+    private void closeJournal() {
+        FileUtil.closeStream(mJournal);
+        mJournal = null;
+    }
+
+    private static void writeJournalLine(BufferedWriter writer, String op, Entry entry) throws IOException {
+        writer.write(op + " " + entry.category.name() + " " + entry.name);
+        if (PUT.equals(op)) writer.write(" " + entry.size);
+        writer.write('\n');
+    }
+
+    /**
+     * Evicts the least recently used files until the caches fit the budget and each category fits its quota
+     */
+    private void trim() {
+        if (mBudget < 0) return;
+        long imageQuota = (long) (mBudget * IMAGE_QUOTA);
+        long videoQuota = (long) (mBudget * VIDEO_QUOTA);
+        List<Entry> evicted = new ArrayList<>();
+        Iterator<Entry> iterator = mEntries.values().iterator();
+
+        while (iterator.hasNext()) {
+            boolean overBudget = getTotalSize() > mBudget;
+            boolean imagesOver = mSizes.get(Category.IMAGE.ordinal()) > imageQuota;
+            boolean videosOver = mSizes.get(Category.VIDEO.ordinal()) > videoQuota;
+            if (!overBudget && !imagesOver && !videosOver) break;
+
+            Entry entry = iterator.next();
+
+            // The file that was just used is about to be read, even if it doesn't fit
+            if (!iterator.hasNext()) break;
+            boolean overQuota = entry.category == Category.IMAGE ? imagesOver : videosOver;
+            if (!overBudget && !overQuota) continue;
+
+            iterator.remove();
+            mSizes.addAndGet(entry.category.ordinal(), -entry.size);
+            if (!mReady) mEvictedWhileLoading.add(getKey(entry.category, entry.name));
+            File file = new File(getIndexDirectory(entry.category), entry.name);
+            if (!file.delete() && file.exists()) LogUtil.w(TAG, "Unable to evict " + file.getAbsolutePath());
+            evicted.add(entry);
+            mEvictions++;
+            mEvictedBytes += entry.size;
+        }
+
+        mFiles = mEntries.size();
+
+        // Journaled once done iterating, the journal may be rewritten from the entries
+        for (Entry entry : evicted) {
+            journal(DELETE, entry);
+        }
+    }
+
+    /**
+     * Reads the size OkHttp keeps of its cache. OkHttp reads its journal the first time, which is done in the
+     * background when the cache is created
+     */
+    private void updateHttpSize() {
+        Cache cache = mHttpCache;
+        if (cache == null) return;
+
+        try {
+            mSizes.set(Category.HTTP.ordinal(), cache.size());
+        } catch (IOException e) {
+            LogUtil.e(TAG, "Unable to get HTTP cache size", e);
+        }
+    }
+
+    private long getTotalSize() {
+        long size = 0;
+
+        for (int i = 0; i < mSizes.length(); i++) {
+            size += mSizes.get(i);
+        }
+
+        return size;
+    }
+
+    private void putEntry(Entry entry) {
+        Entry previous = mEntries.put(getKey(entry.category, entry.name), entry);
+        if (previous != null) mSizes.addAndGet(previous.category.ordinal(), -previous.size);
+        mSizes.addAndGet(entry.category.ordinal(), entry.size);
+        mFiles = mEntries.size();
+    }
+
+    @Nullable
+    private Entry removeEntry(String key) {
+        Entry entry = mEntries.remove(key);
+        if (entry != null) mSizes.addAndGet(entry.category.ordinal(), -entry.size);
+        mFiles = mEntries.size();
+        return entry;
+    }
+
+    private File getIndexDirectory(Category category) {
+        return new File(mIndexDir, category.directory);
+    }
+
+    private static String getKey(Category category, String name) {
+        return category.name() + "/" + name;
+    }
+
+    private String getReadableBudget() {
+        return mBudget < 0 ? "unlimited" : FileUtil.humanReadableByteCount(mBudget, false);
+    }
+
+    private static long getBudget(SharedPreferences pref) {
+        long budget = 1024 * 1024;
+
+        switch (pref.getString(SettingsActivity.KEY_CACHE_SIZE, SettingsActivity.CACHE_SIZE_512MB)) {
+            case SettingsActivity.CACHE_SIZE_256MB:
+                budget *= 256;
+                break;
+
+            case SettingsActivity.CACHE_SIZE_1GB:
+                budget *= 1024;
+                break;
+
+            case SettingsActivity.CACHE_SIZE_2GB:
+                budget *= 2048;
+                break;
+
+            case SettingsActivity.CACHE_SIZE_UNLIMITED:
+                budget = -1;
+                break;
+
+            case SettingsActivity.CACHE_SIZE_512MB:
+            default:
+                budget *= 512;
+                break;
+        }
+
+        return budget;
+    }
+
+    /**
+     * Returns a plain text summary of the caches
+     *
+     * @return
+     */
+    @NonNull
+    public String getSnapshot() {
+        return "Media cache size=" + FileUtil.humanReadableByteCount(getSize(), false)
+                + " ready=" + mReady
+                + " images=" + FileUtil.humanReadableByteCount(mSizes.get(Category.IMAGE.ordinal()), false)
+                + " videos=" + FileUtil.humanReadableByteCount(mSizes.get(Category.VIDEO.ordinal()), false)
+                + " http=" + FileUtil.humanReadableByteCount(mSizes.get(Category.HTTP.ordinal()), false)
+                + " files=" + mFiles
+                + " evictions=" + mEvictions
+                + " evicted=" + FileUtil.humanReadableByteCount(mEvictedBytes, false) + "\n";
+    }
+
+    private static class Entry {
+        final Category category;
+
+        final String name;
+
+        final long size;
+
+        Entry(Category category, String name, long size) {
+            this.category = category;
+            this.name = name;
+            this.size = size;
+        }
+    }
+}
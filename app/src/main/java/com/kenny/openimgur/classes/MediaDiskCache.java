@@ -0,0 +1,62 @@
+package com.kenny.openimgur.classes;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+
+import com.nostra13.universalimageloader.cache.disc.impl.BaseDiskCache;
+import com.nostra13.universalimageloader.cache.disc.naming.Md5FileNameGenerator;
+import com.nostra13.universalimageloader.utils.IoUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Disk cache for the image loader that reports its files to the {@link MediaCache}, which decides when they are evicted
+ */
+public class MediaDiskCache extends BaseDiskCache {
+    private final MediaCache mMediaCache;
+
+    public MediaDiskCache(@NonNull MediaCache mediaCache) {
+        super(mediaCache.getDirectory(MediaCache.Category.IMAGE), null, new Md5FileNameGenerator());
+        mMediaCache = mediaCache;
+    }
+
+    @Override
+    public File get(String imageUri) {
+        File file = super.get(imageUri);
+        if (file == null || !file.isFile()) return file;
+        // Treated as a miss if the media cache is evicting it
+        if (!mMediaCache.isAvailable(MediaCache.Category.IMAGE, file)) return null;
+        mMediaCache.onRead(MediaCache.Category.IMAGE, file);
+        return file;
+    }
+
+    @Override
+    public boolean save(String imageUri, InputStream imageStream, IoUtils.CopyListener listener) throws IOException {
+        boolean saved = super.save(imageUri, imageStream, listener);
+        if (saved) mMediaCache.onWritten(MediaCache.Category.IMAGE, getFile(imageUri));
+        return saved;
+    }
+
+    @Override
+    public boolean save(String imageUri, Bitmap bitmap) throws IOException {
+        boolean saved = super.save(imageUri, bitmap);
+        if (saved) mMediaCache.onWritten(MediaCache.Category.IMAGE, getFile(imageUri));
+        return saved;
+    }
+
+    @Override
+    public boolean remove(String imageUri) {
+        File file = getFile(imageUri);
+        boolean removed = super.remove(imageUri);
+        mMediaCache.onRemoved(MediaCache.Category.IMAGE, file);
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        mMediaCache.onCleared(MediaCache.Category.IMAGE);
+    }
+}
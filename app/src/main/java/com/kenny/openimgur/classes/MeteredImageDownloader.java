@@ -0,0 +1,90 @@
+package com.kenny.openimgur.classes;
+
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.nostra13.universalimageloader.core.download.BaseImageDownloader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+
+/**
+ * Image downloader that measures each network fetch for the {@link ImageFetchController}
+ */
+public class MeteredImageDownloader extends BaseImageDownloader {
+    private final ImageFetchController mController = ImageFetchController.getInstance();
+
+    public MeteredImageDownloader(Context context) {
+        super(context);
+    }
+
+    @Override
+    protected InputStream getStreamFromNetwork(String imageUri, Object extra) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        InputStream stream;
+
+        try {
+            stream = super.getStreamFromNetwork(imageUri, extra);
+        } catch (SocketTimeoutException e) {
+            mController.onFetchFailed(true);
+            throw e;
+        } catch (IOException e) {
+            mController.onFetchFailed(false);
+            throw e;
+        }
+
+        return new MeteredInputStream(stream, start, SystemClock.elapsedRealtime() - start);
+    }
+
+    /**
+     * Counts the bytes read and reports the fetch once it is closed
+     */
+    private class MeteredInputStream extends FilterInputStream {
+        private final long mStart;
+
+        private final long mLatency;
+
+        private long mBytes = 0;
+
+        private boolean mReported = false;
+
+        MeteredInputStream(InputStream in, long start, long latency) {
+            super(in);
+            mStart = start;
+            mLatency = latency;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) mBytes++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            int read = super.read(buffer, offset, count);
+            if (read > 0) mBytes += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = super.skip(count);
+            if (skipped > 0) mBytes += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!mReported) {
+                mReported = true;
+                mController.onFetchFinished(mStart, mLatency, mBytes, SystemClock.elapsedRealtime());
+            }
+
+            super.close();
+        }
+    }
+}
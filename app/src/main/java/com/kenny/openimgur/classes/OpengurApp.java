@@ -82,7 +82,28 @@ public class OpengurApp extends Application implements SharedPreferences.OnShare
     public void onLowMemory() {
         super.onLowMemory();
         LogUtil.w(TAG, "Received onLowMemory");
-        ImageUtil.getImageLoader(this).clearMemoryCache();
+        ImageMemoryCache memoryCache = ImageUtil.getMemoryCache();
+
+        if (memoryCache != null) {
+            memoryCache.onLowMemory();
+        } else {
+            ImageUtil.getImageLoader(this).clearMemoryCache();
+        }
+
+        CommentCache.getInstance().clear();
+        BitmapPool.getInstance().clear();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        LogUtil.v(TAG, "Received onTrimMemory " + level);
+        ImageMemoryCache memoryCache = ImageUtil.getMemoryCache();
+        if (memoryCache != null) memoryCache.onTrimMemory(level);
+        BitmapPool.getInstance().onTrimMemory(level);
+        // UI_HIDDEN and BACKGROUND are above the running levels but only mean the app left the screen
+        boolean runningLow = level >= TRIM_MEMORY_RUNNING_LOW && level < TRIM_MEMORY_UI_HIDDEN;
+        if (runningLow || level >= TRIM_MEMORY_MODERATE) CommentCache.getInstance().clear();
     }
 
     public static OpengurApp getInstance() {
@@ -114,6 +135,9 @@ public class OpengurApp extends Application implements SharedPreferences.OnShare
         imageLoader.clearDiskCache();
         imageLoader.clearMemoryCache();
         VideoCache.getInstance().deleteCache();
+        GalleryPageCache.getInstance().deleteCache();
+        GallerySessionRepository.getInstance().deleteCache();
+        InstanceStateStore.getInstance().deleteCache();
         String cacheKey = mPref.getString(SettingsActivity.KEY_CACHE_LOC, SettingsActivity.CACHE_LOC_INTERNAL);
 
         if (SettingsActivity.CACHE_LOC_EXTERNAL.equals(cacheKey)) {
@@ -189,9 +213,8 @@ public class OpengurApp extends Application implements SharedPreferences.OnShare
         LogUtil.v(TAG, "Preference " + key + " changed");
 
         switch (key) {
-            case SettingsActivity.KEY_THREAD_SIZE:
             case SettingsActivity.KEY_CACHE_SIZE:
-                ImageUtil.initImageLoader(getApplicationContext());
+                MediaCache.getInstance().updateBudget();
                 break;
 
             case SettingsActivity.KEY_NOTIFICATIONS:
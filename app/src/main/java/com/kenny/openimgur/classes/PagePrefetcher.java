@@ -0,0 +1,334 @@
+package com.kenny.openimgur.classes;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.format.DateUtils;
+
+import com.kenny.openimgur.api.responses.GalleryResponse;
+import com.kenny.openimgur.util.LogUtil;
+
+import java.util.Locale;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Requests the next page of a grid ahead of time based on how fast the user is scrolling. The scroll velocity and the
+ * time it takes to fetch a page are both tracked so the next page is requested early enough to arrive before the user
+ * reaches the end of the grid. One page is held at a time until it is consumed with {@link #consume(int, Callback)}.
+ * <p>
+ * The tunables start at the defaults below and can be changed with their setters.
+ * <p>
+ * All methods must be called from the main thread.
+ */
+public class PagePrefetcher {
+    private static final String TAG = PagePrefetcher.class.getSimpleName();
+
+    // Weight given to new samples when averaging velocity and latency
+    public static final float DEFAULT_SMOOTHING = 0.3f;
+
+    // Initial guess at how long a page takes to load
+    public static final long DEFAULT_LATENCY = 2 * DateUtils.SECOND_IN_MILLIS;
+
+    // Stop considering scroll velocity after not scrolling for this long
+    public static final long DEFAULT_VELOCITY_TIMEOUT = 500;
+
+    // How many times longer than a page takes to load to start prefetching before reaching the end
+    public static final float DEFAULT_SAFETY_FACTOR = 2f;
+
+    // Remaining items at which the next page is always prefetched regardless of velocity
+    public static final int DEFAULT_MIN_ITEMS_AHEAD = 12;
+
+    // How long a prefetched page may be held before it is considered stale
+    public static final long DEFAULT_MAX_BUFFER_AGE = 5 * DateUtils.MINUTE_IN_MILLIS;
+
+    private static final Handler sHandler = new Handler(Looper.getMainLooper());
+
+    // App wide metrics
+    private static int sPrefetched = 0;
+
+    private static int sHits = 0;
+
+    private static int sMisses = 0;
+
+    private static int sWasted = 0;
+
+    private float mSmoothing = DEFAULT_SMOOTHING;
+
+    private long mVelocityTimeout = DEFAULT_VELOCITY_TIMEOUT;
+
+    private float mSafetyFactor = DEFAULT_SAFETY_FACTOR;
+
+    private int mMinItemsAhead = DEFAULT_MIN_ITEMS_AHEAD;
+
+    private long mMaxBufferAge = DEFAULT_MAX_BUFFER_AGE;
+
+    // Items per millisecond, only positive when scrolling towards the end of the grid
+    private float mVelocity = 0;
+
+    private float mLatency = DEFAULT_LATENCY;
+
+    private int mLastPosition = -1;
+
+    private long mLastScrollTime = 0;
+
+    private int mPage = -1;
+
+    @Nullable
+    private Call<GalleryResponse> mCall;
+
+    @Nullable
+    private Response<GalleryResponse> mResponse;
+
+    @Nullable
+    private Callback<GalleryResponse> mConsumer;
+
+    private long mRequestTime;
+
+    private long mResponseTime;
+
+    /**
+     * Sets the weight given to new samples when averaging velocity and latency
+     *
+     * @param smoothing Between 0 exclusive and 1, higher reacts faster
+     */
+    public void setSmoothing(float smoothing) {
+        mSmoothing = smoothing;
+    }
+
+    /**
+     * Sets the estimate of how long a page takes to load, used until pages have been timed
+     *
+     * @param latency In milliseconds
+     */
+    public void setInitialLatency(long latency) {
+        mLatency = latency;
+    }
+
+    /**
+     * Sets how long without scrolling before the previous velocity is ignored
+     *
+     * @param timeout In milliseconds
+     */
+    public void setVelocityTimeout(long timeout) {
+        mVelocityTimeout = timeout;
+    }
+
+    /**
+     * Sets how many times longer than a page takes to load the next page is requested before reaching the end
+     *
+     * @param safetyFactor
+     */
+    public void setSafetyFactor(float safetyFactor) {
+        mSafetyFactor = safetyFactor;
+    }
+
+    /**
+     * Sets the number of remaining items at which the next page is always prefetched
+     *
+     * @param minItemsAhead
+     */
+    public void setMinItemsAhead(int minItemsAhead) {
+        mMinItemsAhead = minItemsAhead;
+    }
+
+    /**
+     * Sets how long a prefetched page may be held before it is discarded
+     *
+     * @param maxBufferAge In milliseconds
+     */
+    public void setMaxBufferAge(long maxBufferAge) {
+        mMaxBufferAge = maxBufferAge;
+    }
+
+    /**
+     * Updates the scroll velocity and returns if the next page should be prefetched
+     *
+     * @param lastVisiblePosition The last visible position in the grid
+     * @param itemCount           The number of items in the grid
+     * @return
+     */
+    public boolean onScrolled(int lastVisiblePosition, int itemCount) {
+        long now = SystemClock.elapsedRealtime();
+
+        if (mLastPosition >= 0 && now > mLastScrollTime) {
+            float velocity = Math.max(0, (float) (lastVisiblePosition - mLastPosition) / (now - mLastScrollTime));
+            mVelocity = now - mLastScrollTime > mVelocityTimeout ? velocity : mVelocity + mSmoothing * (velocity - mVelocity);
+        }
+
+        mLastPosition = lastVisiblePosition;
+        mLastScrollTime = now;
+        int remaining = itemCount - lastVisiblePosition;
+        if (remaining <= mMinItemsAhead) return true;
+        if (mVelocity <= 0) return false;
+
+        // Request the page if the user will reach the end before it would arrive
+        return remaining / mVelocity <= mLatency * mSafetyFactor;
+    }
+
+    /**
+     * Starts prefetching the given page. Any other page being held is discarded
+     *
+     * @param page The page to fetch
+     * @param call The call that will fetch the page
+     */
+    public void prefetch(int page, @NonNull Call<GalleryResponse> call) {
+        if (mPage == page) return;
+        clear();
+        LogUtil.v(TAG, "Prefetching page " + page);
+        sPrefetched++;
+        mPage = page;
+        mCall = call;
+        mRequestTime = SystemClock.elapsedRealtime();
+
+        call.enqueue(new Callback<GalleryResponse>() {
+            @Override
+            public void onResponse(Call<GalleryResponse> call, Response<GalleryResponse> response) {
+                if (call != mCall) return;
+                onLatency(SystemClock.elapsedRealtime() - mRequestTime);
+
+                if (mConsumer != null) {
+                    Callback<GalleryResponse> consumer = mConsumer;
+                    reset();
+                    consumer.onResponse(call, response);
+                } else {
+                    mResponse = response;
+                    mResponseTime = SystemClock.elapsedRealtime();
+                }
+            }
+
+            @Override
+            public void onFailure(Call<GalleryResponse> call, Throwable t) {
+                if (call != mCall) return;
+                LogUtil.w(TAG, "Unable to prefetch page", t);
+                Callback<GalleryResponse> consumer = mConsumer;
+                reset();
+                if (consumer != null) consumer.onFailure(call, t);
+            }
+        });
+    }
+
+    /**
+     * Returns if the page is currently being prefetched or is being held
+     *
+     * @param page
+     * @return
+     */
+    public boolean hasPage(int page) {
+        return mPage == page;
+    }
+
+    /**
+     * Hands the given page to the callback if it was prefetched. If the page is still loading, the callback will receive
+     * it once it arrives.
+     *
+     * @param page     The page needed
+     * @param callback The callback to receive the page
+     * @return True if the callback will receive the page, false if it needs to be requested
+     */
+    public boolean consume(int page, @NonNull final Callback<GalleryResponse> callback) {
+        if (mPage != page) {
+            sMisses++;
+            clear();
+            return false;
+        }
+
+        if (mResponse != null) {
+            if (SystemClock.elapsedRealtime() - mResponseTime > mMaxBufferAge) {
+                LogUtil.v(TAG, "Prefetched page " + page + " is too old, discarding");
+                sMisses++;
+                clear();
+                return false;
+            }
+
+            final Call<GalleryResponse> call = mCall;
+            final Response<GalleryResponse> response = mResponse;
+            sHits++;
+            reset();
+
+            // Post so the adapter isn't updated in the middle of a scroll callback
+            sHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onResponse(call, response);
+                }
+            });
+        } else {
+            // Still loading, hand it off once it arrives
+            sHits++;
+            mConsumer = callback;
+        }
+
+        return true;
+    }
+
+    /**
+     * Cancels any page being fetched and discards any page being held
+     */
+    public void clear() {
+        if (mCall != null) {
+            if (mResponse != null) {
+                sWasted++;
+            } else {
+                mCall.cancel();
+            }
+        }
+
+        reset();
+    }
+
+    private void reset() {
+        mPage = -1;
+        mCall = null;
+        mResponse = null;
+        mConsumer = null;
+    }
+
+    private void onLatency(long latency) {
+        mLatency += mSmoothing * (latency - mLatency);
+    }
+
+    public static int getPrefetchCount() {
+        return sPrefetched;
+    }
+
+    public static int getHitCount() {
+        return sHits;
+    }
+
+    public static int getMissCount() {
+        return sMisses;
+    }
+
+    public static int getWastedCount() {
+        return sWasted;
+    }
+
+    /**
+     * Returns the fraction of page loads that were served by a prefetch
+     *
+     * @return
+     */
+    public static float getHitRate() {
+        int total = sHits + sMisses;
+        return total > 0 ? (float) sHits / total : 0;
+    }
+
+    /**
+     * Returns a plain text summary of the pages prefetched
+     *
+     * @return
+     */
+    @NonNull
+    public static String getSnapshot() {
+        return "Page prefetches=" + sPrefetched
+                + " hits=" + sHits
+                + " misses=" + sMisses
+                + " wasted=" + sWasted
+                + " hit rate=" + String.format(Locale.US, "%.2f", getHitRate()) + "\n";
+    }
+}
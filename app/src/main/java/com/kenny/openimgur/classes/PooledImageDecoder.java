@@ -0,0 +1,129 @@
+package com.kenny.openimgur.classes;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.os.Build;
+
+import com.kenny.openimgur.util.LogUtil;
+import com.nostra13.universalimageloader.core.assist.ImageScaleType;
+import com.nostra13.universalimageloader.core.assist.ImageSize;
+import com.nostra13.universalimageloader.core.decode.BaseImageDecoder;
+import com.nostra13.universalimageloader.core.decode.ImageDecodingInfo;
+import com.nostra13.universalimageloader.utils.ImageSizeUtils;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Image decoder that decodes gallery thumbnails into bitmaps from the {@link BitmapPool}. Thumbnails are recognized by
+ * being decoded as {@link Bitmap.Config#RGB_565} and scaled {@link ImageScaleType#EXACTLY}, everything else is decoded
+ * as normal.
+ * <p>
+ * Scaling a thumbnail to its exact size draws it into a pooled bitmap as well, and the bitmap it was decoded into goes
+ * straight back to the pool.
+ * <p>
+ * Every decode is handed to the decode stage of the {@link ImagePipeline}.
+ */
+public class PooledImageDecoder extends BaseImageDecoder {
+    private static final String TAG = "PooledImageDecoder";
+
+    private final BitmapPool mPool = BitmapPool.getInstance();
+
+    private final ImagePipeline mPipeline = ImagePipeline.getInstance();
+
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    public PooledImageDecoder(boolean loggingEnabled) {
+        super(loggingEnabled);
+    }
+
+    @Override
+    public Bitmap decode(final ImageDecodingInfo decodingInfo) throws IOException {
+        // Returning null for an image no longer wanted by its view is ignored by the image loader
+        return mPipeline.decode(decodingInfo.getImageKey(), new Callable<Bitmap>() {
+            @Override
+            public Bitmap call() throws IOException {
+                return isPooled(decodingInfo) ? decodePooled(decodingInfo) : PooledImageDecoder.super.decode(decodingInfo);
+            }
+        });
+    }
+
+    private Bitmap decodePooled(ImageDecodingInfo decodingInfo) throws IOException {
+        Bitmap bitmap;
+
+        try {
+            bitmap = super.decode(decodingInfo);
+        } catch (IllegalArgumentException e) {
+            // The pooled bitmap could not be decoded into, the stream has been read so decode it again from the start
+            LogUtil.w(TAG, "Unable to decode into pooled bitmap", e);
+            BitmapFactory.Options options = decodingInfo.getDecodingOptions();
+            options.inBitmap = null;
+            bitmap = super.decode(decodingInfo);
+        }
+
+        if (bitmap != null) mPool.track(bitmap);
+        return bitmap;
+    }
+
+    @Override
+    protected BitmapFactory.Options prepareDecodingOptions(ImageSize imageSize, ImageDecodingInfo decodingInfo) {
+        BitmapFactory.Options options = super.prepareDecodingOptions(imageSize, decodingInfo);
+
+        // Only set for the first attempt, a retry decodes into a new bitmap
+        if (isPooled(decodingInfo) && !options.inMutable) {
+            int sampleSize = Math.max(1, options.inSampleSize);
+            int width = (imageSize.getWidth() + sampleSize - 1) / sampleSize;
+            int height = (imageSize.getHeight() + sampleSize - 1) / sampleSize;
+            options.inMutable = true;
+            options.inBitmap = mPool.get(width * height * getBytesPerPixel(options.inPreferredConfig));
+        }
+
+        return options;
+    }
+
+    @Override
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    protected Bitmap considerExactScaleAndOrientatiton(Bitmap subsampledBitmap, ImageDecodingInfo decodingInfo, int rotation, boolean flipHorizontal) {
+        if (!isPooled(decodingInfo) || rotation != 0 || flipHorizontal || subsampledBitmap.getConfig() == null) {
+            return super.considerExactScaleAndOrientatiton(subsampledBitmap, decodingInfo, rotation, flipHorizontal);
+        }
+
+        ImageSize srcSize = new ImageSize(subsampledBitmap.getWidth(), subsampledBitmap.getHeight());
+        float scale = ImageSizeUtils.computeImageScale(srcSize, decodingInfo.getTargetSize(), decodingInfo.getViewScaleType(), false);
+        if (Float.compare(scale, 1f) == 0) return subsampledBitmap;
+
+        int width = Math.round(srcSize.getWidth() * scale);
+        int height = Math.round(srcSize.getHeight() * scale);
+        if (width <= 0 || height <= 0) return subsampledBitmap;
+
+        Bitmap.Config config = subsampledBitmap.getConfig();
+        Bitmap scaled = mPool.get(width * height * getBytesPerPixel(config));
+
+        if (scaled != null) {
+            scaled.reconfigure(width, height, config);
+        } else {
+            scaled = Bitmap.createBitmap(width, height, config);
+        }
+
+        Canvas canvas = new Canvas(scaled);
+        canvas.scale(scale, scale);
+        canvas.drawBitmap(subsampledBitmap, 0, 0, mPaint);
+        mPool.put(subsampledBitmap);
+        return scaled;
+    }
+
+    private boolean isPooled(ImageDecodingInfo decodingInfo) {
+        return mPool.isEnabled()
+                && decodingInfo.getDecodingOptions().inPreferredConfig == Bitmap.Config.RGB_565
+                && decodingInfo.getImageScaleType() == ImageScaleType.EXACTLY;
+    }
+
+    private static int getBytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) return 2;
+        if (config == Bitmap.Config.ALPHA_8) return 1;
+        return 4;
+    }
+}
@@ -0,0 +1,219 @@
+package com.kenny.openimgur.classes;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.widget.ImageView;
+
+import com.kenny.openimgur.util.ImageUtil;
+import com.nostra13.universalimageloader.core.DisplayImageOptions;
+import com.nostra13.universalimageloader.core.ImageLoader;
+import com.nostra13.universalimageloader.core.imageaware.ImageAware;
+import com.nostra13.universalimageloader.core.imageaware.ImageViewAware;
+import com.nostra13.universalimageloader.core.listener.ImageLoadingListener;
+import com.nostra13.universalimageloader.core.listener.SimpleImageLoadingListener;
+import com.nostra13.universalimageloader.utils.DiskCacheUtils;
+import com.nostra13.universalimageloader.utils.MemoryCacheUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.WeakHashMap;
+
+/**
+ * Shows a low resolution version of a photo while the full photo loads, so a large photo on a slow connection has
+ * something on screen long before its file arrives. The preview is the largest version of the photo in the memory
+ * cache, then the largest on disk, and only then the medium thumbnail from the network.
+ * <p>
+ * Only thumbnails that keep the proportions of the photo are used, the square ones are cropped. This way the full photo
+ * replaces the preview without the view changing size.
+ * <p>
+ * All methods must be called from the main thread.
+ */
+public class ProgressiveImageLoader {
+    private static final String TAG = "ProgressiveImageLoader";
+
+    // Versions of a photo that keep its proportions, largest first
+    private static final String[] PREVIEW_SIZES = {ImgurPhoto.THUMBNAIL_HUGE, ImgurPhoto.THUMBNAIL_LARGE, ImgurPhoto.THUMBNAIL_MEDIUM};
+
+    // Photos smaller than this load fast enough on their own to not fetch a preview from the network for them
+    private static final long MIN_NETWORK_PREVIEW_SIZE = 256 * 1024;
+
+    // App wide metrics
+    private static int sRequested = 0;
+
+    private static int sFromMemory = 0;
+
+    private static int sFromDisk = 0;
+
+    private static int sFromNetwork = 0;
+
+    private static int sShown = 0;
+
+    private static int sLate = 0;
+
+    private final ImageLoader mImageLoader;
+
+    private final DisplayImageOptions mOptions = ImageUtil.getDefaultDisplayOptions().build();
+
+    // Previews being loaded for views
+    private final WeakHashMap<ImageView, ImageAware> mPreviews = new WeakHashMap<>();
+
+    public ProgressiveImageLoader(@NonNull ImageLoader imageLoader) {
+        mImageLoader = imageLoader;
+    }
+
+    /**
+     * Shows a preview of the photo in the view while the full photo loads into it. Must be called right after the image
+     * loader was asked to display the full photo in the view, which replaces the preview once it loads
+     *
+     * @param imageView
+     * @param photo
+     * @param url       The url of the full photo being displayed in the view
+     */
+    public void displayPreview(@NonNull final ImageView imageView, @NonNull ImgurPhoto photo, @NonNull String url) {
+        cancel(imageView);
+        final ImageAware imageAware = new ImageViewAware(imageView);
+        final String key = mImageLoader.getLoadingUriForView(imageAware);
+
+        // The full photo was displayed from memory, or is about to be
+        if (photo.isAnimated() || !ImageUtil.isLoadPending(mImageLoader, imageAware)) return;
+        Bitmap bitmap = findCachedPreview(photo, url);
+
+        if (bitmap != null) {
+            onPreviewShown(true);
+            imageView.setImageBitmap(bitmap);
+            return;
+        }
+
+        ImageAware preview = loadPreview(photo, url, new SimpleImageLoadingListener() {
+            @Override
+            public void onLoadingComplete(String imageUri, View view, Bitmap loadedImage) {
+                mPreviews.remove(imageView);
+                boolean loading = key.equals(mImageLoader.getLoadingUriForView(imageAware)) && ImageUtil.isLoadPending(mImageLoader, imageAware);
+                onPreviewShown(loading);
+                if (loading) imageView.setImageBitmap(loadedImage);
+            }
+        });
+
+        if (preview != null) mPreviews.put(imageView, preview);
+    }
+
+    /**
+     * Cancels the preview being loaded for the view
+     *
+     * @param imageView
+     */
+    public void cancel(@NonNull ImageView imageView) {
+        ImageUtil.cancelDisplayTask(mImageLoader, mPreviews.remove(imageView));
+    }
+
+    /**
+     * Cancels every preview being loaded
+     */
+    public void clear() {
+        for (ImageAware preview : mPreviews.values()) {
+            ImageUtil.cancelDisplayTask(mImageLoader, preview);
+        }
+
+        mPreviews.clear();
+    }
+
+    /**
+     * Returns the largest version of the photo in the memory cache that is smaller than the full photo
+     *
+     * @param photo
+     * @param url   The url of the full photo
+     * @return
+     */
+    @Nullable
+    public Bitmap findCachedPreview(@NonNull ImgurPhoto photo, @NonNull String url) {
+        sRequested++;
+
+        for (String previewUrl : getPreviewUrls(photo, url)) {
+            for (Bitmap bitmap : MemoryCacheUtils.findCachedBitmapsForImageUri(previewUrl, mImageLoader.getMemoryCache())) {
+                // Pooled thumbnails are decoded into again once the pool has them back, they can't be shown elsewhere
+                if (bitmap.isRecycled() || BitmapPool.getInstance().isTracked(bitmap)) continue;
+                sFromMemory++;
+                return bitmap;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Loads the largest version of the photo in the disk cache that is smaller than the full photo, or the medium
+     * thumbnail if the photo is large enough for it to be worth fetching
+     *
+     * @param photo
+     * @param url      The url of the full photo
+     * @param listener
+     * @return What the preview is loaded into, null if there is no preview to load
+     */
+    @Nullable
+    public ImageAware loadPreview(@NonNull ImgurPhoto photo, @NonNull String url, @NonNull ImageLoadingListener listener) {
+        List<String> previewUrls = getPreviewUrls(photo, url);
+        if (previewUrls.isEmpty()) return null;
+
+        for (String previewUrl : previewUrls) {
+            if (DiskCacheUtils.findInCache(previewUrl, mImageLoader.getDiskCache()) != null) {
+                sFromDisk++;
+                return ImageUtil.loadImage(mImageLoader, previewUrl, null, mOptions, listener, null);
+            }
+        }
+
+        if (photo.getSize() < MIN_NETWORK_PREVIEW_SIZE) return null;
+        sFromNetwork++;
+        return ImageUtil.loadImage(mImageLoader, previewUrls.get(previewUrls.size() - 1), null, mOptions, listener, null);
+    }
+
+    /**
+     * Records a preview that loaded
+     *
+     * @param beforeFullPhoto If the preview was shown before the full photo loaded, false if it was too late
+     */
+    public static void onPreviewShown(boolean beforeFullPhoto) {
+        if (beforeFullPhoto) {
+            sShown++;
+        } else {
+            sLate++;
+        }
+    }
+
+    /**
+     * Returns the urls of the versions of the photo smaller than the full photo, largest first
+     */
+    private static List<String> getPreviewUrls(ImgurPhoto photo, String url) {
+        List<String> urls = new ArrayList<>(PREVIEW_SIZES.length);
+
+        for (String size : PREVIEW_SIZES) {
+            String previewUrl = photo.getThumbnail(size, false, null);
+            if (previewUrl == null) continue;
+
+            if (previewUrl.equals(url)) {
+                // The full photo is a thumbnail itself, only the ones after it are smaller
+                urls.clear();
+            } else {
+                urls.add(previewUrl);
+            }
+        }
+
+        return urls;
+    }
+
+    /**
+     * Returns a plain text summary of the previews
+     *
+     * @return
+     */
+    @NonNull
+    public static String getSnapshot() {
+        return "Progressive previews requested=" + sRequested
+                + " memory=" + sFromMemory
+                + " disk=" + sFromDisk
+                + " network=" + sFromNetwork
+                + " shown before full=" + sShown
+                + " late=" + sLate + "\n";
+    }
+}
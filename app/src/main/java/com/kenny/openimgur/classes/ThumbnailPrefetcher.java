@@ -0,0 +1,197 @@
+package com.kenny.openimgur.classes;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.v7.widget.GridLayoutManager;
+import android.text.TextUtils;
+import android.view.View;
+
+import com.kenny.openimgur.activities.SettingsActivity;
+import com.kenny.openimgur.ui.adapters.GalleryAdapter;
+import com.kenny.openimgur.util.ImageUtil;
+import com.nostra13.universalimageloader.core.DisplayImageOptions;
+import com.nostra13.universalimageloader.core.ImageLoader;
+import com.nostra13.universalimageloader.core.assist.ImageSize;
+import com.nostra13.universalimageloader.core.assist.ViewScaleType;
+import com.nostra13.universalimageloader.core.imageaware.NonViewAware;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Loads the thumbnails of the rows a grid is scrolling towards into the disk and memory caches before their cells are
+ * bound. The number of rows covered grows with the scroll speed, in whichever direction the grid is moving.
+ * Thumbnails are loaded at the size of the grid's cells so the cells find them in the memory cache. Any thumbnail that
+ * falls out of the rows being covered before it loads is cancelled.
+ * <p>
+ * Binds report if their thumbnail came from memory with {@link #onBind(boolean)}, counted separately for when
+ * prefetching is on and off so the two can be compared.
+ * <p>
+ * All methods must be called from the main thread.
+ */
+public class ThumbnailPrefetcher {
+    private static final String TAG = ThumbnailPrefetcher.class.getSimpleName();
+
+    private static final int MIN_ROWS_AHEAD = 2;
+
+    private static final int MAX_ROWS_AHEAD = 8;
+
+    // How far ahead of the scroll to cover at the current speed
+    private static final long LOOKAHEAD = 1000;
+
+    // Weight given to new samples when averaging velocity
+    private static final float SMOOTHING = 0.3f;
+
+    // Stop considering scroll velocity after not scrolling for this long
+    private static final long VELOCITY_TIMEOUT = 500;
+
+    // App wide metrics, indexed by if prefetching was on
+    private static final int[] sBinds = new int[2];
+
+    private static final int[] sMemoryBinds = new int[2];
+
+    private static int sPrefetched = 0;
+
+    private static int sCancelled = 0;
+
+    private final ImageLoader mImageLoader;
+
+    private final DisplayImageOptions mOptions = ImageUtil.getDisplayOptionsForGallery().build();
+
+    // Thumbnails being loaded, keyed by url
+    private final Map<String, NonViewAware> mLoads = new HashMap<>();
+
+    // Rows per millisecond, positive when scrolling towards the end of the grid
+    private float mVelocity = 0;
+
+    private int mLastRow = -1;
+
+    private long mLastScrollTime = 0;
+
+    private boolean mForward = true;
+
+    public ThumbnailPrefetcher(@NonNull ImageLoader imageLoader) {
+        mImageLoader = imageLoader;
+    }
+
+    /**
+     * Returns if thumbnails should be prefetched
+     *
+     * @return
+     */
+    public static boolean isEnabled() {
+        return OpengurApp.getInstance().getPreferences().getBoolean(SettingsActivity.KEY_PREFETCH_THUMBNAILS, true);
+    }
+
+    /**
+     * Updates the scroll velocity and prefetches the thumbnails of the rows ahead
+     *
+     * @param manager The layout manager of the grid
+     * @param adapter The adapter of the grid
+     */
+    public void onScrolled(@NonNull GridLayoutManager manager, @NonNull GalleryAdapter adapter) {
+        int first = manager.findFirstVisibleItemPosition();
+        int last = manager.findLastVisibleItemPosition();
+        int spanCount = manager.getSpanCount();
+        View cell = manager.getChildAt(0);
+
+        if (first < 0 || last < first || cell == null || cell.getWidth() <= 0 || cell.getHeight() <= 0 || !isEnabled()) {
+            clear();
+            return;
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        int row = first / spanCount;
+
+        if (mLastRow >= 0 && now > mLastScrollTime) {
+            float velocity = (float) (row - mLastRow) / (now - mLastScrollTime);
+            mVelocity = now - mLastScrollTime > VELOCITY_TIMEOUT ? velocity : mVelocity + SMOOTHING * (velocity - mVelocity);
+        }
+
+        mLastRow = row;
+        mLastScrollTime = now;
+        if (mVelocity != 0) mForward = mVelocity > 0;
+
+        int rowsAhead = Math.max(MIN_ROWS_AHEAD, Math.min(MAX_ROWS_AHEAD, (int) Math.ceil(Math.abs(mVelocity) * LOOKAHEAD)));
+        int start;
+        int end;
+
+        if (mForward) {
+            start = last + 1;
+            end = Math.min(adapter.getItemCount() - 1, last + rowsAhead * spanCount);
+        } else {
+            start = Math.max(0, first - rowsAhead * spanCount);
+            end = first - 1;
+        }
+
+        prefetch(adapter, start, end, new ImageSize(cell.getWidth(), cell.getHeight()));
+    }
+
+    /**
+     * Loads the thumbnails of the positions, nearest to the visible rows first, and cancels any others
+     */
+    private void prefetch(GalleryAdapter adapter, int start, int end, ImageSize size) {
+        Map<String, NonViewAware> loads = new HashMap<>();
+
+        for (int i = 0; i <= end - start; i++) {
+            int position = mForward ? start + i : end - i;
+            String url = adapter.getThumbnailUrl(position);
+            if (TextUtils.isEmpty(url) || loads.containsKey(url)) continue;
+            NonViewAware load = mLoads.remove(url);
+
+            if (load == null) {
+                load = new NonViewAware(url, size, ViewScaleType.CROP);
+                // Already in memory, nothing to load
+                if (ImageUtil.displayImage(mImageLoader, url, load, mOptions, null, null)) continue;
+                sPrefetched++;
+            }
+
+            loads.put(url, load);
+        }
+
+        clear();
+        mLoads.putAll(loads);
+    }
+
+    /**
+     * Cancels every thumbnail being loaded
+     */
+    public void clear() {
+        Iterator<NonViewAware> iterator = mLoads.values().iterator();
+
+        while (iterator.hasNext()) {
+            // Loads that have finished are not counted
+            if (ImageUtil.cancelDisplayTask(mImageLoader, iterator.next())) sCancelled++;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Records a thumbnail being bound to a cell
+     *
+     * @param fromMemory If the thumbnail was in the memory cache
+     */
+    public static void onBind(boolean fromMemory) {
+        int index = isEnabled() ? 1 : 0;
+        sBinds[index]++;
+        if (fromMemory) sMemoryBinds[index]++;
+    }
+
+    /**
+     * Returns a plain text summary of the prefetcher
+     *
+     * @return
+     */
+    @NonNull
+    public static String getSnapshot() {
+        return "Thumbnail prefetch prefetched=" + sPrefetched
+                + " cancelled=" + sCancelled
+                + " binds from memory on=" + sMemoryBinds[1] + "/" + sBinds[1] + " (" + getPercent(1) + "%)"
+                + " off=" + sMemoryBinds[0] + "/" + sBinds[0] + " (" + getPercent(0) + "%)\n";
+    }
+
+    private static int getPercent(int index) {
+        return sBinds[index] > 0 ? Math.round(100f * sMemoryBinds[index] / sBinds[index]) : 0;
+    }
+}
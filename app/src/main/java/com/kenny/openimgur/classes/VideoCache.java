@@ -5,9 +5,7 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
 
-import com.kenny.openimgur.activities.SettingsActivity;
 import com.kenny.openimgur.util.FileUtil;
-import com.kenny.openimgur.util.ImageUtil;
 import com.kenny.openimgur.util.LogUtil;
 import com.nostra13.universalimageloader.cache.disc.naming.Md5FileNameGenerator;
 
@@ -28,8 +26,6 @@ public class VideoCache {
 
     private static VideoCache mInstance;
 
-    private File mCacheDir;
-
     private Md5FileNameGenerator mKeyGenerator;
 
     public static VideoCache getInstance() {
@@ -41,17 +37,14 @@ public class VideoCache {
     }
 
     private VideoCache() {
-        OpengurApp app = OpengurApp.getInstance();
-        String cacheKey = app.getPreferences().getString(SettingsActivity.KEY_CACHE_LOC, SettingsActivity.CACHE_LOC_INTERNAL);
-        File dir = ImageUtil.getCacheDirectory(app.getApplicationContext(), cacheKey);
-        mCacheDir = new File(dir, "video_cache");
-        mCacheDir.mkdirs();
         mKeyGenerator = new Md5FileNameGenerator();
     }
 
-    public void setCacheDirectory(File dir) {
-        mCacheDir = new File(dir, "video_cache");
-        mCacheDir.mkdirs();
+    /**
+     * Returns the directory videos are saved to, which is managed by the {@link MediaCache}
+     */
+    private File getCacheDir() {
+        return MediaCache.getInstance().getDirectory(MediaCache.Category.VIDEO);
     }
 
     /**
@@ -74,6 +67,7 @@ public class VideoCache {
         if (FileUtil.isFileValid(file)) {
             LogUtil.v(TAG, "File already exists, deleting existing file and replacing it");
             file.delete();
+            MediaCache.getInstance().onRemoved(MediaCache.Category.VIDEO, file);
         }
 
         try {
@@ -85,9 +79,11 @@ public class VideoCache {
                     return;
                 }
 
-                file = new File(mCacheDir, key + ext);
+                file = new File(getCacheDir(), key + ext);
             }
 
+            // The media cache creates the directory in the background, it may not have yet
+            file.getParentFile().mkdirs();
             file.createNewFile();
         } catch (IOException e) {
             LogUtil.e(TAG, "Error creating file", e);
@@ -116,17 +112,21 @@ public class VideoCache {
         if (TextUtils.isEmpty(url)) return null;
 
         String key = mKeyGenerator.generate(url);
-        File file = new File(mCacheDir, key + ext);
-        return FileUtil.isFileValid(file) ? file : null;
+        File file = new File(getCacheDir(), key + ext);
+        if (!FileUtil.isFileValid(file) || !MediaCache.getInstance().isAvailable(MediaCache.Category.VIDEO, file)) return null;
+        MediaCache.getInstance().onRead(MediaCache.Category.VIDEO, file);
+        return file;
     }
 
     public void deleteCache() {
-        FileUtil.deleteDirectory(mCacheDir);
-        mCacheDir.mkdirs();
+        File cacheDir = getCacheDir();
+        FileUtil.deleteDirectory(cacheDir);
+        cacheDir.mkdirs();
+        MediaCache.getInstance().onCleared(MediaCache.Category.VIDEO);
     }
 
     public long getCacheSize() {
-        return FileUtil.getDirectorySize(mCacheDir);
+        return MediaCache.getInstance().getSize(MediaCache.Category.VIDEO);
     }
 
     public interface VideoCacheListener {
@@ -188,6 +188,7 @@ public class VideoCache {
                 }
 
                 buffer.flush();
+                MediaCache.getInstance().onWritten(MediaCache.Category.VIDEO, writeFile);
                 return writeFile;
             } catch (Exception e) {
                 LogUtil.e(TAG, "An error occurred whiling downloading video", e);
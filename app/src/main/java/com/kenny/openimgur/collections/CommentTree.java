@@ -0,0 +1,240 @@
+package com.kenny.openimgur.collections;
+
+import android.support.annotation.NonNull;
+
+import com.kenny.openimgur.classes.ImgurComment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Comment threads flattened into arrays. Every comment that has been loaded, shown or not, has a node holding its
+ * depth, if it is expanded and where its replies are stored. Replies are only loaded into the tree the first time their
+ * comment is expanded, so threads that are never opened are never parsed. Loaded replies are appended after every
+ * other node, so loading never moves the nodes already in the tree.
+ * <p>
+ * The rows currently shown are kept as node indexes. Only shown comments can be expanded, and an expanded comment's
+ * shown replies, with theirs in turn, are always the rows directly after it, so expanding and collapsing only touch
+ * the rows being shown or hidden.
+ */
+public class CommentTree {
+    private static final int[] EMPTY = new int[0];
+
+    private ImgurComment[] mNodes = new ImgurComment[0];
+
+    private int[] mDepths = EMPTY;
+
+    // Node index of the first reply of each node, its replies are stored next to each other
+    private int[] mFirstReplies = EMPTY;
+
+    // Number of replies of each node that have been loaded
+    private int[] mReplyCounts = EMPTY;
+
+    private boolean[] mExpanded = new boolean[0];
+
+    // If the replies of the node have been added to the tree
+    private boolean[] mLoaded = new boolean[0];
+
+    private int mNodeCount = 0;
+
+    // Indexes of the nodes being shown
+    private int[] mRows = EMPTY;
+
+    private int mRowCount = 0;
+
+    private final List<ImgurComment> mRoots = new ArrayList<>();
+
+    public CommentTree() {
+    }
+
+    public CommentTree(@NonNull List<ImgurComment> roots) {
+        append(roots);
+    }
+
+    /**
+     * Adds top level comments to the end of the tree. They are shown collapsed
+     *
+     * @param roots
+     */
+    public void append(@NonNull List<ImgurComment> roots) {
+        if (roots.isEmpty()) return;
+        mRoots.addAll(roots);
+        ensureNodeCapacity(mNodeCount + roots.size());
+        ensureRowCapacity(mRowCount + roots.size());
+
+        for (ImgurComment comment : roots) {
+            setNode(mNodeCount, comment, 0);
+            mRows[mRowCount++] = mNodeCount++;
+        }
+    }
+
+    /**
+     * Removes all comments
+     */
+    public void clear() {
+        Arrays.fill(mNodes, 0, mNodeCount, null);
+        mNodeCount = 0;
+        mRowCount = 0;
+        mRoots.clear();
+    }
+
+    /**
+     * Returns the top level comments
+     *
+     * @return
+     */
+    @NonNull
+    public List<ImgurComment> getRoots() {
+        return Collections.unmodifiableList(mRoots);
+    }
+
+    /**
+     * Returns the comments being shown, in the order they are shown
+     *
+     * @return
+     */
+    @NonNull
+    public List<ImgurComment> getRows() {
+        List<ImgurComment> rows = new ArrayList<>(mRowCount);
+
+        for (int i = 0; i < mRowCount; i++) {
+            rows.add(mNodes[mRows[i]]);
+        }
+
+        return rows;
+    }
+
+    public int getRowCount() {
+        return mRowCount;
+    }
+
+    public ImgurComment getRow(int row) {
+        return mNodes[getNode(row)];
+    }
+
+    /**
+     * Returns how deeply nested the comment at the row is, 0 for top level comments
+     *
+     * @param row
+     * @return
+     */
+    public int getDepth(int row) {
+        return mDepths[getNode(row)];
+    }
+
+    public boolean isExpanded(int row) {
+        return mExpanded[getNode(row)];
+    }
+
+    public boolean hasReplies(int row) {
+        return mNodes[getNode(row)].getReplyCount() > 0;
+    }
+
+    /**
+     * Expands the comment at the row, showing its replies after it
+     *
+     * @param row
+     * @return The comments now shown after the row
+     */
+    @NonNull
+    public List<ImgurComment> expand(int row) {
+        int node = getNode(row);
+        if (mExpanded[node]) return Collections.emptyList();
+        if (!mLoaded[node]) loadReplies(node);
+        int count = mReplyCounts[node];
+        if (count == 0) return Collections.emptyList();
+
+        // Replies of a collapsed comment are never expanded themselves, so only its direct replies are shown
+        mExpanded[node] = true;
+        int first = mFirstReplies[node];
+        ensureRowCapacity(mRowCount + count);
+        System.arraycopy(mRows, row + 1, mRows, row + 1 + count, mRowCount - row - 1);
+        List<ImgurComment> comments = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            mRows[row + 1 + i] = first + i;
+            comments.add(mNodes[first + i]);
+        }
+
+        mRowCount += count;
+        return comments;
+    }
+
+    /**
+     * Collapses the comment at the row, hiding all of the replies beneath it. Any replies that were expanded are
+     * collapsed as well
+     *
+     * @param row
+     * @return The number of rows hidden after the row
+     */
+    public int collapse(int row) {
+        int node = getNode(row);
+        if (!mExpanded[node]) return 0;
+
+        mExpanded[node] = false;
+        int depth = mDepths[node];
+        int end = row + 1;
+
+        // Everything nested deeper directly after the row belongs to the thread
+        while (end < mRowCount && mDepths[mRows[end]] > depth) {
+            mExpanded[mRows[end]] = false;
+            end++;
+        }
+
+        int removed = end - row - 1;
+        System.arraycopy(mRows, end, mRows, row + 1, mRowCount - end);
+        mRowCount -= removed;
+        return removed;
+    }
+
+    /**
+     * Adds the replies of the node to the end of the tree
+     */
+    private void loadReplies(int node) {
+        mLoaded[node] = true;
+        List<ImgurComment> replies = mNodes[node].getReplies();
+        int count = replies != null ? replies.size() : 0;
+        if (count == 0) return;
+
+        ensureNodeCapacity(mNodeCount + count);
+        mFirstReplies[node] = mNodeCount;
+        mReplyCounts[node] = count;
+        int depth = mDepths[node] + 1;
+
+        for (ImgurComment reply : replies) {
+            setNode(mNodeCount++, reply, depth);
+        }
+    }
+
+    private void setNode(int index, ImgurComment comment, int depth) {
+        mNodes[index] = comment;
+        mDepths[index] = depth;
+        mFirstReplies[index] = 0;
+        mReplyCounts[index] = 0;
+        mExpanded[index] = false;
+        mLoaded[index] = false;
+    }
+
+    private int getNode(int row) {
+        if (row < 0 || row >= mRowCount) throw new IndexOutOfBoundsException("Row " + row + " of " + mRowCount);
+        return mRows[row];
+    }
+
+    private void ensureNodeCapacity(int capacity) {
+        if (capacity <= mNodes.length) return;
+        int newCapacity = Math.max(capacity, mNodes.length * 2);
+        mNodes = Arrays.copyOf(mNodes, newCapacity);
+        mDepths = Arrays.copyOf(mDepths, newCapacity);
+        mFirstReplies = Arrays.copyOf(mFirstReplies, newCapacity);
+        mReplyCounts = Arrays.copyOf(mReplyCounts, newCapacity);
+        mExpanded = Arrays.copyOf(mExpanded, newCapacity);
+        mLoaded = Arrays.copyOf(mLoaded, newCapacity);
+    }
+
+    private void ensureRowCapacity(int capacity) {
+        if (capacity <= mRows.length) return;
+        mRows = Arrays.copyOf(mRows, Math.max(capacity, mRows.length * 2));
+    }
+}
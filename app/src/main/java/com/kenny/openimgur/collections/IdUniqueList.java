@@ -0,0 +1,239 @@
+package com.kenny.openimgur.collections;
+
+import android.support.annotation.NonNull;
+
+import com.kenny.openimgur.classes.ImgurBaseObject;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Insertion ordered list of {@link ImgurBaseObject}s that rejects duplicates based on their Imgur id. The position of
+ * every id is indexed, so {@link #contains(Object)} and {@link #indexOf(Object)} are constant time, and appending a
+ * page with {@link #addAll(Collection)} does not copy the list.
+ * <p>
+ * Items without an id can not be checked for duplicates. They are always added, aren't indexed and are only found by
+ * identity. Adding or removing anywhere but the end of the list requires the positions after it to be reindexed.
+ */
+public class IdUniqueList<E extends ImgurBaseObject> extends AbstractList<E> implements RandomAccess {
+    private final ArrayList<E> mItems;
+
+    private final Map<String, Integer> mPositions;
+
+    public IdUniqueList() {
+        this(0);
+    }
+
+    public IdUniqueList(int capacity) {
+        mItems = new ArrayList<>(capacity);
+        mPositions = new HashMap<>(Math.max(16, (int) (capacity / .75f) + 1));
+    }
+
+    /**
+     * Creates the list from the given items. If there are duplicates, the first is kept
+     *
+     * @param items
+     */
+    public IdUniqueList(@NonNull Collection<? extends E> items) {
+        this(items.size());
+        addAll(items);
+    }
+
+    @Override
+    public E get(int index) {
+        return mItems.get(index);
+    }
+
+    @Override
+    public int size() {
+        return mItems.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Returns if an item with the given id is in the list
+     *
+     * @param id
+     * @return
+     */
+    public boolean containsId(String id) {
+        return id != null && mPositions.containsKey(id);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof ImgurBaseObject)) return -1;
+        String id = ((ImgurBaseObject) o).getId();
+        if (id != null) return indexOfId(id);
+
+        for (int i = 0; i < mItems.size(); i++) {
+            if (mItems.get(i) == o) return i;
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        // Ids are unique and items without one are found by identity, there is only ever one
+        return indexOf(o);
+    }
+
+    /**
+     * Returns the position of the item with the given id, -1 if not in the list
+     *
+     * @param id
+     * @return
+     */
+    public int indexOfId(String id) {
+        if (id == null) return -1;
+        Integer position = mPositions.get(id);
+        return position != null ? position : -1;
+    }
+
+    @Override
+    public boolean add(E e) {
+        String id = e.getId();
+        if (id != null && mPositions.containsKey(id)) return false;
+
+        if (id != null) mPositions.put(id, mItems.size());
+        mItems.add(e);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        if (index == mItems.size()) {
+            add(element);
+            return;
+        }
+
+        String id = element.getId();
+        if (id != null && mPositions.containsKey(id)) return;
+
+        mItems.add(index, element);
+        modCount++;
+        reindex(index);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        mItems.ensureCapacity(mItems.size() + c.size());
+        boolean changed = false;
+
+        for (E e : c) {
+            changed |= add(e);
+        }
+
+        return changed;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends E> c) {
+        if (index == mItems.size()) return addAll(c);
+
+        List<E> toAdd = new ArrayList<>(c.size());
+
+        for (E e : c) {
+            String id = e.getId();
+
+            if (id == null) {
+                toAdd.add(e);
+            } else if (!mPositions.containsKey(id)) {
+                // Reserve the id so duplicates within the collection are also skipped
+                mPositions.put(id, -1);
+                toAdd.add(e);
+            }
+        }
+
+        if (toAdd.isEmpty()) return false;
+        mItems.addAll(index, toAdd);
+        modCount++;
+        reindex(index);
+        return true;
+    }
+
+    /**
+     * Replaces the item at the given position. If the new item has a different id that is already in the list, an
+     * {@link IllegalArgumentException} is thrown
+     */
+    @Override
+    public E set(int index, E element) {
+        String id = element.getId();
+        Integer existing = id != null ? mPositions.get(id) : null;
+        if (existing != null && existing != index) throw new IllegalArgumentException("Item " + id + " is already in the list");
+
+        E old = mItems.set(index, element);
+        mPositions.remove(old.getId());
+        if (id != null) mPositions.put(id, index);
+        return old;
+    }
+
+    /**
+     * Replaces the item with the same id as the given item, keeping its position
+     *
+     * @param item The updated item
+     * @return The position of the replaced item, -1 if it was not in the list
+     */
+    public int replace(@NonNull E item) {
+        int index = indexOfId(item.getId());
+        if (index >= 0) mItems.set(index, item);
+        return index;
+    }
+
+    @Override
+    public E remove(int index) {
+        E removed = mItems.remove(index);
+        mPositions.remove(removed.getId());
+        modCount++;
+        reindex(index);
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) return false;
+
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        mItems.clear();
+        mPositions.clear();
+        modCount++;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) return;
+
+        List<E> range = mItems.subList(fromIndex, toIndex);
+        for (E e : range) mPositions.remove(e.getId());
+        range.clear();
+        modCount++;
+        reindex(fromIndex);
+    }
+
+    /**
+     * Updates the stored positions of every item from the given position onwards
+     */
+    private void reindex(int from) {
+        for (int i = from; i < mItems.size(); i++) {
+            String id = mItems.get(i).getId();
+            if (id != null) mPositions.put(id, i);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import android.widget.Toast;
 
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.activities.BaseActivity;
+import com.kenny.openimgur.api.CallManager;
 import com.kenny.openimgur.classes.ImgurTheme;
 import com.kenny.openimgur.classes.ImgurUser;
 import com.kenny.openimgur.classes.OpengurApp;
@@ -19,6 +20,8 @@ import com.kennyc.bottomsheet.BottomSheet;
 
 import butterknife.ButterKnife;
 import butterknife.Unbinder;
+import retrofit2.Call;
+import retrofit2.Callback;
 
 /**
  * Created by kcampagna on 9/5/14.
@@ -34,6 +37,8 @@ abstract public class BaseFragment extends Fragment {
 
     private Unbinder mUnbinder;
 
+    private final CallManager mCallManager = new CallManager();
+
     @Override
     public void onCreate(Bundle savedInstanceState) {
         LogUtil.v(TAG, "onCreate");
@@ -78,9 +83,21 @@ abstract public class BaseFragment extends Fragment {
     public void onDestroyView() {
         LogUtil.v(TAG, "onDestroyView");
         if (mUnbinder != null) mUnbinder.unbind();
+        mCallManager.cancelAll();
         super.onDestroyView();
     }
 
+    /**
+     * Enqueues a call that will be cancelled when the fragment's view is destroyed. Cancelled calls do not reach the
+     * callback
+     *
+     * @param call     The call to enqueue
+     * @param callback The callback for the call
+     */
+    protected <T> void enqueue(@NonNull Call<T> call, @NonNull Callback<T> callback) {
+        mCallManager.enqueue(call, callback);
+    }
+
     protected boolean isTablet() {
         if (getActivity() instanceof BaseActivity) {
             return ((BaseActivity) getActivity()).isTablet();
@@ -3,7 +3,6 @@ package com.kenny.openimgur.fragments;
 import android.app.Activity;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.os.Build;
 import android.os.Bundle;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
@@ -17,11 +16,20 @@ import com.kenny.openimgur.R;
 import com.kenny.openimgur.activities.SettingsActivity;
 import com.kenny.openimgur.activities.ViewActivity;
 import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.api.ImgurService;
+import com.kenny.openimgur.api.RateLimiter;
+import com.kenny.openimgur.api.RequestPriority;
 import com.kenny.openimgur.api.responses.GalleryResponse;
 import com.kenny.openimgur.classes.FragmentListener;
+import com.kenny.openimgur.classes.GalleryPageCache;
+import com.kenny.openimgur.classes.GallerySession;
+import com.kenny.openimgur.classes.GallerySessionRepository;
 import com.kenny.openimgur.classes.ImgurBaseObject;
 import com.kenny.openimgur.classes.ImgurPhoto;
-import com.kenny.openimgur.collections.SetUniqueList;
+import com.kenny.openimgur.classes.InstanceStateStore;
+import com.kenny.openimgur.classes.PagePrefetcher;
+import com.kenny.openimgur.classes.ThumbnailPrefetcher;
+import com.kenny.openimgur.collections.IdUniqueList;
 import com.kenny.openimgur.ui.adapters.GalleryAdapter;
 import com.kenny.openimgur.util.ImageUtil;
 import com.kenny.openimgur.util.LogUtil;
@@ -30,7 +38,7 @@ import com.kenny.openimgur.util.ViewUtils;
 import com.kennyc.view.MultiStateView;
 import com.nostra13.universalimageloader.core.ImageLoader;
 
-import java.util.ArrayList;
+import java.util.List;
 
 import butterknife.BindView;
 import butterknife.OnClick;
@@ -42,10 +50,13 @@ import retrofit2.Response;
  * Base class for fragments that display images in a grid like style
  * Created by Kenny Campagna on 12/13/2014.
  */
-public abstract class BaseGridFragment extends BaseFragment implements Callback<GalleryResponse>, View.OnClickListener {
+public abstract class BaseGridFragment extends BaseFragment implements Callback<GalleryResponse>, View.OnClickListener, GalleryPageCache.PageCacheListener, GallerySession.PageLoader {
     private static final String KEY_CURRENT_POSITION = "position";
 
-    private static final String KEY_ITEMS = "items";
+    // Rows of items left at which the next page is always prefetched
+    private static final int PREFETCH_ROWS_AHEAD = 4;
+
+    private static final String KEY_ITEMS_HANDLE = "itemsHandle";
 
     private static final String KEY_CURRENT_PAGE = "page";
 
@@ -82,8 +93,38 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
 
     private GalleryAdapter mAdapter;
 
+    // If the first page is currently showing results from the page cache while waiting on the network
+    private boolean mShowingCachedPage = false;
+
+    // The page being loaded from the page cache because the network request for it failed
+    private int mCacheFallbackPage = -1;
+
+    @StringRes
+    private int mCacheFallbackError;
+
+    // Incremented each time the grid starts over from the first page, responses for older generations are dropped
+    private int mGeneration = 0;
+
+    private final PagePrefetcher mPrefetcher = new PagePrefetcher();
+
+    // The session being browsed in ViewActivity, pages loaded for the grid are appended to it
+    @Nullable
+    private GallerySession mSession;
+
+    // Handle of the items saved in the InstanceStateStore
+    @Nullable
+    private String mStateHandle;
+
+    // If the saved items are still being read back from disk
+    private boolean mIsRestoringState = false;
+
+    // The position to scroll to once the saved items are restored
+    private int mRestorePosition = 0;
+
     ImageLoader imageLoader;
 
+    private ThumbnailPrefetcher mThumbnailPrefetcher;
+
     @Override
     public void onAttach(Activity activity) {
         super.onAttach(activity);
@@ -101,7 +142,10 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
         super.onViewCreated(view, savedInstanceState);
         mAllowNSFW = app.getPreferences().getBoolean(SettingsActivity.NSFW_KEY, false);
         ViewUtils.setRecyclerViewGridDefaults(getActivity(), mGrid);
+        // Wider grids show more items per row, so keep the same number of rows in reserve
+        mPrefetcher.setMinItemsAhead(((GridLayoutManager) mGrid.getLayoutManager()).getSpanCount() * PREFETCH_ROWS_AHEAD);
         imageLoader = ImageUtil.getImageLoader(getActivity());
+        mThumbnailPrefetcher = new ThumbnailPrefetcher(imageLoader);
 
         mGrid.addOnScrollListener(new RecyclerView.OnScrollListener() {
             @Override
@@ -113,12 +157,17 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
                 int visibleItemCount = mManager.getChildCount();
                 int totalItemCount = mManager.getItemCount();
                 int firstVisibleItemPosition = mManager.findFirstVisibleItemPosition();
+                boolean shouldPrefetch = mPrefetcher.onScrolled(firstVisibleItemPosition + visibleItemCount, totalItemCount);
+                GalleryAdapter adapter = getAdapter();
+                if (adapter != null) mThumbnailPrefetcher.onScrolled(mManager, adapter);
 
                 // Load more items when hey get to the end of the list
                 if (mHasMore && totalItemCount > 0 && firstVisibleItemPosition + visibleItemCount >= totalItemCount && !mIsLoading) {
                     mIsLoading = true;
                     mCurrentPage++;
                     fetchGallery();
+                } else if (shouldPrefetch && mHasMore && totalItemCount > 0 && !mIsLoading) {
+                    prefetchNextPage();
                 }
             }
 
@@ -131,7 +180,8 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
                         break;
 
                     case RecyclerView.SCROLL_STATE_SETTLING:
-                        imageLoader.pause();
+                        // Prefetching needs the image loader running to keep ahead of a fling
+                        if (!ThumbnailPrefetcher.isEnabled()) imageLoader.pause();
                         break;
                 }
             }
@@ -148,7 +198,7 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
         super.onResume();
         GalleryAdapter adapter = getAdapter();
 
-        if (adapter == null || adapter.isEmpty()) {
+        if (!mIsRestoringState && (adapter == null || adapter.isEmpty())) {
             mMultiStateView.setViewState(MultiStateView.VIEW_STATE_LOADING);
             mIsLoading = true;
             if (mListener != null)
@@ -177,17 +227,7 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
         int adapterPosition = mGrid.getChildAdapterPosition(v);
 
         if (adapterPosition != RecyclerView.NO_POSITION) {
-            ArrayList<ImgurBaseObject> items = getAdapter().getItems(adapterPosition);
-            int itemPosition = adapterPosition;
-
-            // Get the correct array index of the selected item
-            if (itemPosition > GalleryAdapter.MAX_ITEMS / 2) {
-                itemPosition = items.size() == GalleryAdapter.MAX_ITEMS
-                        ? GalleryAdapter.MAX_ITEMS / 2
-                        : items.size() - (getAdapter().getItemCount() - itemPosition);
-            }
-
-            onItemSelected(v, itemPosition, items);
+            onItemSelected(v, adapterPosition, getAdapter().getAllItems());
         }
     }
 
@@ -215,18 +255,63 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
             mRequestId = savedInstanceState.getString(KEY_REQUEST_ID, null);
             mHasMore = savedInstanceState.getBoolean(KEY_HAS_MORE, true);
 
-            if (savedInstanceState.containsKey(KEY_ITEMS)) {
-                ArrayList<ImgurBaseObject> items = savedInstanceState.getParcelableArrayList(KEY_ITEMS);
-                int currentPosition = savedInstanceState.getInt(KEY_CURRENT_POSITION, 0);
-                setAdapter(new GalleryAdapter(getActivity(), SetUniqueList.decorate(items), this, showPoints()));
-                mGrid.scrollToPosition(currentPosition);
-                if (mListener != null)
-                    mListener.onFragmentStateChange(FragmentListener.STATE_LOADING_COMPLETE);
-                mMultiStateView.setViewState(MultiStateView.VIEW_STATE_CONTENT);
+            if (savedInstanceState.containsKey(KEY_ITEMS_HANDLE)) {
+                mStateHandle = savedInstanceState.getString(KEY_ITEMS_HANDLE);
+                restoreItems(savedInstanceState.getInt(KEY_CURRENT_POSITION, 0));
             }
         }
     }
 
+    /**
+     * Restores the saved items into the grid. Items are added as they are read so the top of the grid can be shown
+     * before all of them are restored
+     *
+     * @param position The position to scroll to once restored
+     */
+    private void restoreItems(int position) {
+        mIsRestoringState = true;
+        mIsLoading = true;
+        mRestorePosition = position;
+
+        InstanceStateStore.getInstance().restore(mStateHandle, ImgurBaseObject.class, new InstanceStateStore.RestoreListener<ImgurBaseObject>() {
+            @Override
+            public void onItemsRestored(@NonNull List<ImgurBaseObject> items) {
+                if (!isAdded() || getView() == null) return;
+
+                if (getAdapter() == null) {
+                    setAdapter(new GalleryAdapter(getActivity(), new IdUniqueList<>(items), BaseGridFragment.this, showPoints()));
+                    if (mListener != null) mListener.onFragmentStateChange(FragmentListener.STATE_LOADING_COMPLETE);
+                    mMultiStateView.setViewState(MultiStateView.VIEW_STATE_CONTENT);
+                } else {
+                    getAdapter().addItems(items);
+                }
+            }
+
+            @Override
+            public void onRestoreFinished(boolean success) {
+                mIsRestoringState = false;
+                mIsLoading = false;
+                if (!isAdded() || getView() == null) return;
+
+                if (getAdapter() != null && !getAdapter().isEmpty()) {
+                    mGrid.scrollToPosition(mRestorePosition);
+                } else if (isResumed()) {
+                    // Nothing could be restored, start over from the network
+                    refresh();
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns if the saved items are still being restored
+     *
+     * @return
+     */
+    protected boolean isRestoringState() {
+        return mIsRestoringState;
+    }
+
     @Override
     public void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
@@ -235,13 +320,14 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
         outState.putBoolean(KEY_HAS_MORE, mHasMore);
         GalleryAdapter adapter = getAdapter();
 
-        if (adapter != null && !adapter.isEmpty()) {
-            // Saving the entire adapter can cause a crash in N
-            if (isApiLevel(Build.VERSION_CODES.N) && adapter.getItemCount() > GalleryAdapter.MAX_ITEMS) {
-                return;
-            }
-
-            outState.putParcelableArrayList(KEY_ITEMS, adapter.retainItems());
+        if (mIsRestoringState) {
+            // Only part of the items are in the grid, the saved ones are still on disk under the same handle
+            outState.putString(KEY_ITEMS_HANDLE, mStateHandle);
+            outState.putInt(KEY_CURRENT_POSITION, mRestorePosition);
+        } else if (adapter != null && !adapter.isEmpty()) {
+            // The items are kept out of the Bundle so its size doesn't grow with the grid
+            mStateHandle = InstanceStateStore.getInstance().save(mStateHandle, adapter.getAllItems(), ImgurBaseObject.class);
+            outState.putString(KEY_ITEMS_HANDLE, mStateHandle);
             GridLayoutManager manager = (GridLayoutManager) mGrid.getLayoutManager();
             outState.putInt(KEY_CURRENT_POSITION, manager.findFirstVisibleItemPosition());
         }
@@ -249,11 +335,22 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
 
     @Override
     public void onDestroyView() {
+        mPrefetcher.clear();
+        mThumbnailPrefetcher.clear();
+        detachSession();
+        mIsRestoringState = false;
         GalleryAdapter adapter = getAdapter();
         if (adapter != null) adapter.onDestroy();
         super.onDestroyView();
     }
 
+    @Override
+    public void onDestroy() {
+        // The saved items will never be restored
+        if (isRemoving() || getActivity().isFinishing()) InstanceStateStore.getInstance().remove(mStateHandle);
+        super.onDestroy();
+    }
+
     /**
      * Callback for when an item is selected from the grid
      *
@@ -261,8 +358,31 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
      * @param position The position of the item in the list of items
      * @param items    The list of items that will be able to paged between
      */
-    protected void onItemSelected(View view, int position, ArrayList<ImgurBaseObject> items) {
-        startActivityForResult(ViewActivity.createIntent(getActivity(), items, position), RequestCodes.GALLERY_VIEW);
+    protected void onItemSelected(View view, int position, List<ImgurBaseObject> items) {
+        detachSession();
+        mSession = GallerySessionRepository.getInstance().createSession(items, this);
+        startActivityForResult(ViewActivity.createIntent(getActivity(), mSession, position), RequestCodes.GALLERY_VIEW);
+    }
+
+    @Override
+    public boolean loadNextPage(GallerySession session) {
+        if (session != mSession || !isAdded() || getView() == null || !mHasMore) return false;
+        if (mIsLoading) return true;
+
+        mIsLoading = true;
+        mCurrentPage++;
+        fetchGallery();
+        return true;
+    }
+
+    /**
+     * Stops appending pages to the session being browsed
+     */
+    private void detachSession() {
+        if (mSession != null) {
+            mSession.setPageLoader(null);
+            mSession = null;
+        }
     }
 
     /**
@@ -271,6 +391,117 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
     protected void fetchGallery() {
         if (mLoadingFooter != null) mLoadingFooter.setVisibility(View.VISIBLE);
         mIsLoading = true;
+        mCacheFallbackPage = -1;
+        String key = getPageCacheKey();
+
+        // Show what we have cached while the network request is made
+        if (key != null && mCurrentPage == 0 && (getAdapter() == null || getAdapter().isEmpty())) {
+            GalleryPageCache.getInstance().getPage(key, 0, this);
+        }
+
+        if (mCurrentPage == 0) {
+            // Starting over, anything in flight, prefetched or being browsed belongs to the old results
+            mGeneration++;
+            mPrefetcher.clear();
+            detachSession();
+        } else if (mPrefetcher.consume(mCurrentPage, this)) {
+            LogUtil.v(TAG, "Using prefetched page " + mCurrentPage);
+            return;
+        }
+
+        Call<GalleryResponse> call = getGalleryCall(ApiClient.getService(), mCurrentPage);
+        if (call != null) enqueue(call, newPageCallback());
+    }
+
+    /**
+     * Returns a callback that passes the response on to the fragment, unless the grid has started over since the
+     * request was made. Otherwise a page still in flight when the grid is refreshed would be shown and cached as the new
+     * first page
+     *
+     * @return
+     */
+    private Callback<GalleryResponse> newPageCallback() {
+        final int generation = mGeneration;
+
+        return new Callback<GalleryResponse>() {
+            @Override
+            public void onResponse(Call<GalleryResponse> call, Response<GalleryResponse> response) {
+                if (generation != mGeneration) {
+                    LogUtil.v(TAG, "Dropping page from before the grid was refreshed");
+                    return;
+                }
+
+                BaseGridFragment.this.onResponse(call, response);
+            }
+
+            @Override
+            public void onFailure(Call<GalleryResponse> call, Throwable t) {
+                if (generation == mGeneration) BaseGridFragment.this.onFailure(call, t);
+            }
+        };
+    }
+
+    /**
+     * Returns the call that will fetch the given page of the grid
+     *
+     * @param service The service to create the call with
+     * @param page    The page to fetch
+     * @return The call, null if there is nothing to fetch
+     */
+    @Nullable
+    protected abstract Call<GalleryResponse> getGalleryCall(@NonNull ImgurService service, int page);
+
+    /**
+     * Starts loading the page after the current one ahead of the user reaching the end of the grid
+     */
+    private void prefetchNextPage() {
+        int nextPage = mCurrentPage + 1;
+        if (mPrefetcher.hasPage(nextPage) || RateLimiter.shouldDefer()) return;
+
+        Call<GalleryResponse> call = getGalleryCall(ApiClient.getService(RequestPriority.PREFETCH), nextPage);
+        if (call != null) mPrefetcher.prefetch(nextPage, call);
+    }
+
+    /**
+     * Returns the key the pages for the current filters are stored under in the {@link GalleryPageCache}.
+     * Returning null will not cache any pages
+     *
+     * @return
+     */
+    @Nullable
+    protected String getPageCacheKey() {
+        return null;
+    }
+
+    @Override
+    public void onPageLoaded(String key, int page, @Nullable GalleryResponse response) {
+        if (!isAdded() || getView() == null || page != mCurrentPage || !key.equals(getPageCacheKey())) return;
+
+        if (mCacheFallbackPage == page) {
+            mCacheFallbackPage = -1;
+
+            if (response != null && !response.data.isEmpty()) {
+                LogUtil.v(TAG, "Showing cached page " + page + " after network failure");
+                response.purgeNSFW(mAllowNSFW);
+                onApiResult(response);
+            } else {
+                onApiFailure(mCacheFallbackError);
+            }
+        } else if (response != null && mIsLoading && (getAdapter() == null || getAdapter().isEmpty())) {
+            response.purgeNSFW(mAllowNSFW);
+            if (response.data.isEmpty()) return;
+            mShowingCachedPage = true;
+
+            if (getAdapter() == null) {
+                setAdapter(new GalleryAdapter(getActivity(), new IdUniqueList<>(response.data), this, showPoints()));
+            } else {
+                getAdapter().addItems(response.data);
+            }
+
+            mMultiStateView.setViewState(MultiStateView.VIEW_STATE_CONTENT);
+            mRefreshLayout.setRefreshing(true);
+            if (mListener != null) mListener.onFragmentStateChange(FragmentListener.STATE_LOADING_COMPLETE);
+        }
     }
 
     @Override
@@ -281,6 +512,8 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
             GalleryResponse galleryResponse = response.body();
 
             if (galleryResponse != null) {
+                String key = getPageCacheKey();
+                if (key != null && !galleryResponse.data.isEmpty()) GalleryPageCache.getInstance().putPage(key, mCurrentPage, galleryResponse);
                 galleryResponse.purgeNSFW(mAllowNSFW);
                 onApiResult(galleryResponse);
             } else {
@@ -295,6 +528,16 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
     public void onFailure(Call<GalleryResponse> call, Throwable t) {
         LogUtil.e(TAG, "Error fetching gallery items", t);
         if (!isAdded()) return;
+        String key = getPageCacheKey();
+
+        if (key != null && !mShowingCachedPage) {
+            // Try to show the page from the cache before showing the error
+            mCacheFallbackPage = mCurrentPage;
+            mCacheFallbackError = ApiClient.getErrorCode(t);
+            GalleryPageCache.getInstance().getPage(key, mCurrentPage, this);
+            return;
+        }
+
         onApiFailure(ApiClient.getErrorCode(t));
         if (mLoadingFooter != null) mLoadingFooter.setVisibility(View.GONE);
     }
@@ -304,11 +547,15 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
             galleryResponse.purgeNSFW(mAllowNSFW);
 
             if (getAdapter() == null) {
-                setAdapter(new GalleryAdapter(getActivity(), SetUniqueList.decorate(galleryResponse.data), this, showPoints()));
+                setAdapter(new GalleryAdapter(getActivity(), new IdUniqueList<>(galleryResponse.data), this, showPoints()));
             } else {
+                // Replace the cached page being shown with the fresh one
+                if (mShowingCachedPage) getAdapter().clear();
                 getAdapter().addItems(galleryResponse.data);
             }
 
+            if (mSession != null) mSession.addItems(galleryResponse.data);
+
             if (mMultiStateView != null)
                 mMultiStateView.setViewState(MultiStateView.VIEW_STATE_CONTENT);
 
@@ -316,9 +563,11 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
                 mListener.onFragmentStateChange(FragmentListener.STATE_LOADING_COMPLETE);
             }
         } else {
+            if (mShowingCachedPage && getAdapter() != null) getAdapter().clear();
             onEmptyResults();
         }
 
+        mShowingCachedPage = false;
         mIsLoading = false;
         if (mRefreshLayout != null) mRefreshLayout.setRefreshing(false);
         if (mLoadingFooter != null) mLoadingFooter.setVisibility(View.GONE);
@@ -331,6 +580,7 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
             mMultiStateView.setViewState(MultiStateView.VIEW_STATE_ERROR);
         }
 
+        mShowingCachedPage = false;
         mIsLoading = false;
         if (mRefreshLayout != null) mRefreshLayout.setRefreshing(false);
         if (mLoadingFooter != null) mLoadingFooter.setVisibility(View.GONE);
@@ -370,11 +620,14 @@ public abstract class BaseGridFragment extends BaseFragment implements Callback<
 
         switch (requestCode) {
             case RequestCodes.GALLERY_VIEW:
+                detachSession();
+
                 if (data != null && mAdapter != null) {
                     ImgurBaseObject obj = data.getParcelableExtra(ViewActivity.KEY_ENDING_ITEM);
 
                     if (obj != null) {
-                        int adapterPosition = mAdapter.indexOf(obj);
+                        // The item may have been voted on or favorited while viewing it
+                        int adapterPosition = mAdapter.updateItem(obj);
                         if (adapterPosition >= 0) {
                             if (mManager == null) mManager = (GridLayoutManager) mGrid.getLayoutManager();
                             int visibleItemCount = mManager.getChildCount();
@@ -1,16 +1,13 @@
 package com.kenny.openimgur.fragments;
 
-import android.content.DialogInterface;
-import android.content.SharedPreferences;
+import android.content.Intent;
 import android.os.Bundle;
 import android.preference.Preference;
+import android.support.design.widget.Snackbar;
 import android.support.v7.app.AlertDialog;
-import android.view.Menu;
-import android.view.MenuInflater;
-import android.view.MenuItem;
 
 import com.kenny.openimgur.R;
-import com.kenny.openimgur.activities.SettingsActivity;
+import com.kenny.openimgur.api.NetworkMetrics;
 
 /**
  * Created by kcampagna on 4/16/15.
@@ -20,8 +17,7 @@ public class ExperimentalSettingsFragment extends BasePreferenceFragment impleme
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        bindListPreference(findPreference(SettingsActivity.KEY_THREAD_SIZE));
-        setHasOptionsMenu(true);
+        findPreference("networkMetrics").setOnPreferenceClickListener(this);
 
         new AlertDialog.Builder(getActivity(), mApp.getImgurTheme().getAlertDialogTheme())
                 .setTitle(R.string.caution)
@@ -31,32 +27,23 @@ public class ExperimentalSettingsFragment extends BasePreferenceFragment impleme
     }
 
     @Override
-    public void onCreateOptionsMenu(Menu menu, MenuInflater inflater) {
-        inflater.inflate(R.menu.experimental_settings, menu);
-        super.onCreateOptionsMenu(menu, inflater);
-    }
-
-    @Override
-    public boolean onOptionsItemSelected(MenuItem item) {
-        switch (item.getItemId()) {
-            case R.id.reset:
-                new AlertDialog.Builder(getActivity(), mApp.getImgurTheme().getAlertDialogTheme())
-                        .setTitle(R.string.pref_experimental_settings)
-                        .setMessage(R.string.pref_experimental_reset_msg)
-                        .setNegativeButton(R.string.cancel, null)
-                        .setPositiveButton(R.string.yes, new DialogInterface.OnClickListener() {
-                            @Override
-                            public void onClick(DialogInterface dialog, int which) {
-                                SharedPreferences.Editor edit = mApp.getPreferences().edit();
-                                edit.putString(SettingsActivity.KEY_THREAD_SIZE, SettingsActivity.THREAD_SIZE_5);
-                                onPreferenceChange(findPreference(SettingsActivity.KEY_THREAD_SIZE), SettingsActivity.THREAD_SIZE_5);
-                                edit.apply();
-                            }
-                        }).show();
-                break;
+    public boolean onPreferenceClick(Preference preference) {
+        switch (preference.getKey()) {
+            case "networkMetrics":
+                Intent shareIntent = new Intent(Intent.ACTION_SEND);
+                shareIntent.setType("text/plain");
+                shareIntent.putExtra(Intent.EXTRA_SUBJECT, getString(R.string.pref_experimental_network_metrics));
+                shareIntent.putExtra(Intent.EXTRA_TEXT, NetworkMetrics.getSnapshot());
+
+                if (shareIntent.resolveActivity(getActivity().getPackageManager()) != null) {
+                    startActivity(Intent.createChooser(shareIntent, getString(R.string.share)));
+                } else {
+                    Snackbar.make(getActivity().findViewById(android.R.id.content), R.string.cant_launch_intent, Snackbar.LENGTH_LONG).show();
+                }
+                return true;
         }
 
-        return super.onOptionsItemSelected(item);
+        return super.onPreferenceClick(preference);
     }
 
     @Override
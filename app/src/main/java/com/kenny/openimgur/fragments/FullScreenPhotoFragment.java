@@ -28,6 +28,7 @@ import com.davemorrissey.labs.subscaleview.SubsamplingScaleImageView;
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.classes.ImgurHandler;
 import com.kenny.openimgur.classes.ImgurPhoto;
+import com.kenny.openimgur.classes.ProgressiveImageLoader;
 import com.kenny.openimgur.classes.VideoCache;
 import com.kenny.openimgur.services.DownloaderService;
 import com.kenny.openimgur.ui.VideoView;
@@ -39,8 +40,10 @@ import com.kenny.openimgur.util.PermissionUtils;
 import com.kenny.openimgur.util.RequestCodes;
 import com.kenny.openimgur.util.ViewUtils;
 import com.kennyc.view.MultiStateView;
+import com.nostra13.universalimageloader.core.ImageLoader;
 import com.nostra13.universalimageloader.core.assist.FailReason;
 import com.nostra13.universalimageloader.core.assist.ImageSize;
+import com.nostra13.universalimageloader.core.imageaware.ImageAware;
 import com.nostra13.universalimageloader.core.listener.ImageLoadingProgressListener;
 import com.nostra13.universalimageloader.core.listener.SimpleImageLoadingListener;
 
@@ -93,6 +96,14 @@ public class FullScreenPhotoFragment extends BaseFragment {
 
     boolean replacedPNG = false;
 
+    // What the full size image is being loaded into
+    ImageAware imageAware;
+
+    // Low resolution version of the image shown while the full size image loads
+    ImageAware previewAware;
+
+    Bitmap previewBitmap;
+
     public static FullScreenPhotoFragment createInstance(@NonNull ImgurPhoto photo) {
         FullScreenPhotoFragment fragment = new FullScreenPhotoFragment();
         Bundle args = new Bundle(1);
@@ -156,6 +167,14 @@ public class FullScreenPhotoFragment extends BaseFragment {
         handler.removeMessages(0);
         handler = null;
 
+        ImageLoader loader = ImageUtil.getImageLoader(getActivity());
+        ImageUtil.cancelDisplayTask(loader, imageAware);
+        ImageUtil.cancelDisplayTask(loader, previewAware);
+        ImageUtil.cancelDisplayTask(loader, gifImageView);
+        imageAware = null;
+        previewAware = null;
+        previewBitmap = null;
+
         // Free up some memory
         if (gifImageView.getDrawable() instanceof GifDrawable) {
             ((GifDrawable) gifImageView.getDrawable()).recycle();
@@ -172,13 +191,47 @@ public class FullScreenPhotoFragment extends BaseFragment {
      * Displays the image
      */
     void displayImage() {
+        ImageLoader loader = ImageUtil.getImageLoader(getActivity());
+        ImageUtil.cancelDisplayTask(loader, imageAware);
+
         if (!replacedPNG && LinkUtils.isImgurPNG(url)) {
             replacedPNG = true;
             LogUtil.v(TAG, "Replacing png link with jpeg");
             url = url.replace(".png", ".jpeg");
         }
 
-        ImageUtil.getImageLoader(getActivity()).loadImage(url, new ImageSize(1, 1), ImageUtil.getDisplayOptionsForFullscreen().build(), simpleImageLoadingListener, progressListener);
+        imageAware = ImageUtil.loadImage(loader, url, new ImageSize(1, 1), ImageUtil.getDisplayOptionsForFullscreen().build(), simpleImageLoadingListener, progressListener);
+        if (startedToLoad && !photo.isAnimated() && previewAware == null && previewBitmap == null) displayPreview(loader);
+    }
+
+    /**
+     * Shows a low resolution version of the image until the full size image has loaded
+     */
+    private void displayPreview(ImageLoader loader) {
+        ProgressiveImageLoader progressiveLoader = new ProgressiveImageLoader(loader);
+        Bitmap bitmap = progressiveLoader.findCachedPreview(photo, url);
+
+        if (bitmap != null) {
+            ProgressiveImageLoader.onPreviewShown(true);
+            showPreview(bitmap);
+            return;
+        }
+
+        previewAware = progressiveLoader.loadPreview(photo, url, new SimpleImageLoadingListener() {
+            @Override
+            public void onLoadingComplete(String imageUri, View view, Bitmap loadedImage) {
+                previewAware = null;
+                if (!isAdded() || isRemoving()) return;
+                ProgressiveImageLoader.onPreviewShown(startedToLoad);
+                if (startedToLoad) showPreview(loadedImage);
+            }
+        });
+    }
+
+    void showPreview(Bitmap bitmap) {
+        // The bitmap belongs to the memory cache, it must not be recycled by the view
+        previewBitmap = bitmap;
+        imageView.setImage(ImageSource.cachedBitmap(bitmap));
     }
 
     private void displayVideo(Bundle savedInstance) {
@@ -271,7 +324,7 @@ public class FullScreenPhotoFragment extends BaseFragment {
         } else {
             videoView.setVisibility(View.GONE);
             imageView.setVisibility(View.GONE);
-            ImageUtil.getImageLoader(getActivity()).displayImage(url, gifImageView, null, simpleImageLoadingListener, progressListener);
+            ImageUtil.displayImage(ImageUtil.getImageLoader(getActivity()), url, gifImageView, null, simpleImageLoadingListener, progressListener);
             multiView.setViewState(MultiStateView.VIEW_STATE_CONTENT);
         }
     }
@@ -475,7 +528,15 @@ public class FullScreenPhotoFragment extends BaseFragment {
                         });
 
                         imageView.setMinimumTileDpi(160);
-                        imageView.setImage(ImageSource.uri(fileUri).dimensions(dimensions[0], dimensions[1]).tiling(enableTiling));
+                        ImageSource source = ImageSource.uri(fileUri).dimensions(dimensions[0], dimensions[1]).tiling(enableTiling);
+
+                        // The preview stays up, scaled to the full image, until the full image is drawn over it
+                        if (previewBitmap != null) {
+                            imageView.setImage(source, ImageSource.cachedBitmap(previewBitmap));
+                        } else {
+                            imageView.setImage(source);
+                        }
+
                         videoView.setVisibility(View.GONE);
                         gifImageView.setVisibility(View.GONE);
                         multiView.setViewState(MultiStateView.VIEW_STATE_CONTENT);
@@ -21,8 +21,8 @@ import android.widget.FilterQueryProvider;
 
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.activities.GallerySearchActivity;
-import com.kenny.openimgur.api.ApiClient;
 import com.kenny.openimgur.api.ImgurService;
+import com.kenny.openimgur.api.responses.GalleryResponse;
 import com.kenny.openimgur.classes.FragmentListener;
 import com.kenny.openimgur.classes.ImgurFilters.GallerySection;
 import com.kenny.openimgur.classes.ImgurFilters.GallerySort;
@@ -33,6 +33,8 @@ import com.kenny.openimgur.util.LogUtil;
 import com.kenny.openimgur.util.SqlHelper;
 import com.kennyc.view.MultiStateView;
 
+import retrofit2.Call;
+
 /**
  * Created by kcampagna on 8/14/14.
  */
@@ -229,16 +231,21 @@ public class GalleryFragment extends BaseGridFragment {
         saveFilterSettings();
     }
 
+    @Nullable
     @Override
-    protected void fetchGallery() {
-        super.fetchGallery();
-        ImgurService apiService = ApiClient.getService();
-
+    protected Call<GalleryResponse> getGalleryCall(@NonNull ImgurService service, int page) {
         if (mSort == GallerySort.HIGHEST_SCORING) {
-            apiService.getGalleryForTopSorted(mSection.getSection(), mTimeSort.getSort(), mCurrentPage).enqueue(this);
-        } else {
-            apiService.getGallery(mSection.getSection(), mSort.getSort(), mCurrentPage, mShowViral).enqueue(this);
+            return service.getGalleryForTopSorted(mSection.getSection(), mTimeSort.getSort(), page);
         }
+
+        return service.getGallery(mSection.getSection(), mSort.getSort(), page, mShowViral);
+    }
+
+    @Nullable
+    @Override
+    protected String getPageCacheKey() {
+        String window = mSort == GallerySort.HIGHEST_SCORING ? mTimeSort.getSort() : null;
+        return "gallery_" + mSection.getSection() + "_" + mSort.getSort() + "_" + window + "_" + mShowViral;
     }
 
     @Override
@@ -2,6 +2,7 @@ package com.kenny.openimgur.fragments;
 
 import android.os.Bundle;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.v7.widget.PopupMenu;
 import android.support.v7.widget.SearchView;
 import android.text.TextUtils;
@@ -11,7 +12,6 @@ import android.view.MenuItem;
 
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.ui.adapters.SearchAdapter;
-import com.kenny.openimgur.api.ApiClient;
 import com.kenny.openimgur.api.ImgurService;
 import com.kenny.openimgur.api.responses.GalleryResponse;
 import com.kenny.openimgur.classes.FragmentListener;
@@ -22,6 +22,8 @@ import com.kenny.openimgur.util.SqlHelper;
 import com.kenny.openimgur.util.ViewUtils;
 import com.kennyc.view.MultiStateView;
 
+import retrofit2.Call;
+
 /**
  * Created by kcampagna on 3/21/15.
  */
@@ -52,15 +54,26 @@ public class GallerySearchFragment extends GalleryFragment {
     @Override
     protected void fetchGallery() {
         if (TextUtils.isEmpty(mQuery)) return;
+        super.fetchGallery();
+    }
 
-        ImgurService apiService = ApiClient.getService();
-        mIsLoading = true;
+    @Nullable
+    @Override
+    protected Call<GalleryResponse> getGalleryCall(@NonNull ImgurService service, int page) {
+        if (TextUtils.isEmpty(mQuery)) return null;
 
         if (mSort == ImgurFilters.GallerySort.HIGHEST_SCORING) {
-            apiService.searchGalleryForTopSorted(mTimeSort.getSort(), mCurrentPage, mQuery).enqueue(this);
-        } else {
-            apiService.searchGallery(mSort.getSort(), mCurrentPage, mQuery).enqueue(this);
+            return service.searchGalleryForTopSorted(mTimeSort.getSort(), page, mQuery);
         }
+
+        return service.searchGallery(mSort.getSort(), page, mQuery);
+    }
+
+    @Nullable
+    @Override
+    protected String getPageCacheKey() {
+        // Search results are not cached
+        return null;
     }
 
     @Override
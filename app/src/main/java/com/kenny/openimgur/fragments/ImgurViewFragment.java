@@ -57,6 +57,7 @@ import com.kenny.openimgur.util.ViewUtils;
 import com.kennyc.view.MultiStateView;
 import com.nostra13.universalimageloader.core.ImageLoader;
 import com.nostra13.universalimageloader.core.assist.FailReason;
+import com.nostra13.universalimageloader.core.imageaware.ImageAware;
 import com.nostra13.universalimageloader.core.listener.ImageLoadingListener;
 import com.nostra13.universalimageloader.utils.DiskCacheUtils;
 
@@ -92,6 +93,9 @@ public class ImgurViewFragment extends BaseFragment implements ImgurListener {
 
     boolean mDisplayTags = true;
 
+    // Gifs being loaded to play, cancelled when the view is destroyed
+    private final List<ImageAware> mGifLoads = new ArrayList<>();
+
     private static final long FIVE_MB = 5 * 1024 * 1024;
 
     public static ImgurViewFragment createInstance(@NonNull ImgurBaseObject obj, boolean displayTags) {
@@ -302,6 +306,16 @@ public class ImgurViewFragment extends BaseFragment implements ImgurListener {
     public void onDestroyView() {
         super.onDestroyView();
 
+        if (!mGifLoads.isEmpty()) {
+            ImageLoader loader = ImageUtil.getImageLoader(getActivity());
+
+            for (ImageAware gifLoad : mGifLoads) {
+                ImageUtil.cancelDisplayTask(loader, gifLoad);
+            }
+
+            mGifLoads.clear();
+        }
+
         if (mPhotoAdapter != null) {
             mPhotoAdapter.onDestroy();
             mPhotoAdapter = null;
@@ -416,7 +430,7 @@ public class ImgurViewFragment extends BaseFragment implements ImgurListener {
                     prog.setVisibility(View.GONE);
                 }
             } else {
-                loader.loadImage(photo.getLink(), new ImageLoadingListener() {
+                mGifLoads.add(ImageUtil.loadImage(loader, photo.getLink(), null, null, new ImageLoadingListener() {
                     @Override
                     public void onLoadingStarted(String s, View view) {
 
@@ -446,13 +460,13 @@ public class ImgurViewFragment extends BaseFragment implements ImgurListener {
 
                     @Override
                     public void onLoadingCancelled(String s, View view) {
+                        // Only cancelled once the view is going away, there is no error to show
                         if (image != null && getActivity() != null) {
-                            Snackbar.make(mMultiView, R.string.loading_image_error, Snackbar.LENGTH_LONG).show();
                             prog.setVisibility(View.GONE);
                             play.setVisibility(View.VISIBLE);
                         }
                     }
-                });
+                }, null));
             }
         } else {
             File file = VideoCache.getInstance().getVideoFile(photo.getVideoLink());
@@ -590,7 +604,7 @@ public class ImgurViewFragment extends BaseFragment implements ImgurListener {
     }
 
     private void fetchAlbumImages() {
-        ApiClient.getService().getAlbumImages(mImgurObject.getId()).enqueue(new Callback<AlbumResponse>() {
+        enqueue(ApiClient.getService().getAlbumImages(mImgurObject.getId()), new Callback<AlbumResponse>() {
             @Override
             public void onResponse(Call<AlbumResponse> call, Response<AlbumResponse> response) {
                 if (!isAdded()) return;
@@ -620,7 +634,7 @@ public class ImgurViewFragment extends BaseFragment implements ImgurListener {
     void fetchTags() {
         // No need to request if the object already has tags, they will be set in the adapter
         if (mDisplayTags && mImgurObject != null && mImgurObject.isListed() && (mImgurObject.getTags() == null || mImgurObject.getTags().isEmpty())) {
-            ApiClient.getService().getTags(mImgurObject.getId()).enqueue(new Callback<TagResponse>() {
+            enqueue(ApiClient.getService().getTags(mImgurObject.getId()), new Callback<TagResponse>() {
                 @Override
                 public void onResponse(Call<TagResponse> call, Response<TagResponse> response) {
                     if (!isAdded() || response == null || response.body() == null) return;
@@ -644,7 +658,7 @@ public class ImgurViewFragment extends BaseFragment implements ImgurListener {
     }
 
     void fetchGalleryDetails() {
-        ApiClient.getService().getGalleryDetails(mImgurObject.getId()).enqueue(new Callback<BasicObjectResponse>() {
+        enqueue(ApiClient.getService().getGalleryDetails(mImgurObject.getId()), new Callback<BasicObjectResponse>() {
             @Override
             public void onResponse(Call<BasicObjectResponse> call, Response<BasicObjectResponse> response) {
                 if (!isAdded()) return;
@@ -4,6 +4,7 @@ import android.app.Activity;
 import android.content.Intent;
 import android.os.Build;
 import android.os.Bundle;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.design.widget.Snackbar;
 import android.support.v4.app.ActivityOptionsCompat;
@@ -16,11 +17,11 @@ import android.view.ViewGroup;
 
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.activities.MemeActivity;
+import com.kenny.openimgur.api.ImgurService;
 import com.kenny.openimgur.ui.adapters.GalleryAdapter;
-import com.kenny.openimgur.api.ApiClient;
 import com.kenny.openimgur.api.responses.GalleryResponse;
 import com.kenny.openimgur.classes.ImgurBaseObject;
-import com.kenny.openimgur.collections.SetUniqueList;
+import com.kenny.openimgur.collections.IdUniqueList;
 import com.kenny.openimgur.util.DBContracts;
 import com.kenny.openimgur.util.FileUtil;
 import com.kenny.openimgur.util.LogUtil;
@@ -29,9 +30,10 @@ import com.kenny.openimgur.util.SqlHelper;
 import com.kennyc.view.MultiStateView;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
 
+import retrofit2.Call;
+
 /**
  * Created by Kenny-PC on 3/7/2015.
  */
@@ -85,14 +87,15 @@ public class MemeFragment extends BaseGridFragment {
         return super.onOptionsItemSelected(item);
     }
 
+    @Nullable
     @Override
-    protected void fetchGallery() {
-        super.fetchGallery();
-        ApiClient.getService().getDefaultMemes().enqueue(this);
+    protected Call<GalleryResponse> getGalleryCall(@NonNull ImgurService service, int page) {
+        // Memes are not paged
+        return page == 0 ? service.getDefaultMemes() : null;
     }
 
     @Override
-    protected void onItemSelected(View view, int position, ArrayList<ImgurBaseObject> items) {
+    protected void onItemSelected(View view, int position, List<ImgurBaseObject> items) {
         if (isApiLevel(Build.VERSION_CODES.LOLLIPOP)) {
 
             View v = view.findViewById(R.id.image);
@@ -108,12 +111,12 @@ public class MemeFragment extends BaseGridFragment {
     protected void onRestoreSavedInstance(Bundle savedInstanceState) {
         super.onRestoreSavedInstance(savedInstanceState);
 
-        if (getAdapter() == null || getAdapter().isEmpty()) {
+        if (!isRestoringState() && (getAdapter() == null || getAdapter().isEmpty())) {
             List<ImgurBaseObject> memes = SqlHelper.getInstance(getActivity()).getMemes();
 
             if (!memes.isEmpty()) {
                 LogUtil.v(TAG, "Memes found in database");
-                setAdapter(new GalleryAdapter(getActivity(), SetUniqueList.decorate(memes), this, showPoints()));
+                setAdapter(new GalleryAdapter(getActivity(), new IdUniqueList<>(memes), this, showPoints()));
                 mMultiStateView.setViewState(MultiStateView.VIEW_STATE_CONTENT);
                 mHasMore = false;
             }
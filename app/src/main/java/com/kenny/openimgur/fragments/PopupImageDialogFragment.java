@@ -160,7 +160,7 @@ public class PopupImageDialogFragment extends DialogFragment implements VideoCac
 
     @Override
     public void onDestroyView() {
-        ImageUtil.getImageLoader(getActivity()).cancelDisplayTask(mImage);
+        ImageUtil.cancelDisplayTask(ImageUtil.getImageLoader(getActivity()), mImage);
         if (mUnbinder != null) mUnbinder.unbind();
         super.onDestroyView();
     }
@@ -172,7 +172,7 @@ public class PopupImageDialogFragment extends DialogFragment implements VideoCac
      * @param isAnimated
      */
     public void displayImage(String url, final boolean isAnimated) {
-        ImageUtil.getImageLoader(getActivity()).displayImage(url, mImage, new ImageLoadingListener() {
+        ImageUtil.displayImage(ImageUtil.getImageLoader(getActivity()), url, mImage, null, new ImageLoadingListener() {
             @Override
             public void onLoadingStarted(String s, View view) {
 
@@ -206,7 +206,7 @@ public class PopupImageDialogFragment extends DialogFragment implements VideoCac
                     Toast.makeText(getActivity(), R.string.loading_image_error, Toast.LENGTH_SHORT).show();
                 }
             }
-        });
+        }, null);
     }
 
     /**
@@ -16,6 +16,7 @@ import android.view.ViewGroup;
 
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.api.ImgurService;
 import com.kenny.openimgur.api.responses.BasicResponse;
 import com.kenny.openimgur.api.responses.GalleryResponse;
 import com.kenny.openimgur.classes.ImgurBaseObject;
@@ -52,9 +53,8 @@ public class ProfileAlbumsFragment extends BaseGridFragment implements View.OnLo
     }
 
     @Override
-    protected void fetchGallery() {
-        super.fetchGallery();
-        ApiClient.getService().getProfileAlbums(mSelectedUser.getUsername(), mCurrentPage).enqueue(this);
+    protected Call<GalleryResponse> getGalleryCall(@NonNull ImgurService service, int page) {
+        return service.getProfileAlbums(mSelectedUser.getUsername(), page);
     }
 
     @Override
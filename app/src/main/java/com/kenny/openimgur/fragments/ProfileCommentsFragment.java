@@ -188,7 +188,7 @@ public class ProfileCommentsFragment extends BaseFragment implements View.OnClic
 
     void fetchComments() {
         mIsLoading = true;
-        ApiClient.getService().getProfileComments(mSelectedUser.getUsername(), mSort.getSort(), mPage).enqueue(new Callback<CommentResponse>() {
+        enqueue(ApiClient.getService().getProfileComments(mSelectedUser.getUsername(), mSort.getSort(), mPage), new Callback<CommentResponse>() {
             @Override
             public void onResponse(Call<CommentResponse> call, Response<CommentResponse> response) {
                 if (!isAdded()) return;
@@ -18,6 +18,7 @@ import com.kenny.openimgur.activities.ViewActivity;
 import com.kenny.openimgur.api.ApiClient;
 import com.kenny.openimgur.api.ImgurService;
 import com.kenny.openimgur.api.responses.BasicResponse;
+import com.kenny.openimgur.api.responses.GalleryResponse;
 import com.kenny.openimgur.classes.ImgurAlbum;
 import com.kenny.openimgur.classes.ImgurBaseObject;
 import com.kenny.openimgur.classes.ImgurPhoto;
@@ -81,16 +82,12 @@ public class ProfileFavoritesFragment extends BaseGridFragment implements View.O
     }
 
     @Override
-    protected void fetchGallery() {
-        super.fetchGallery();
-        boolean isSelf = mSelectedUser.isSelf(app);
-        ImgurService apiService = ApiClient.getService();
-
-        if (isSelf) {
-            apiService.getProfileFavorites(mSelectedUser.getUsername(), mCurrentPage).enqueue(this);
-        } else {
-            apiService.getProfileGalleryFavorites(mSelectedUser.getUsername(), mCurrentPage).enqueue(this);
+    protected Call<GalleryResponse> getGalleryCall(@NonNull ImgurService service, int page) {
+        if (mSelectedUser.isSelf(app)) {
+            return service.getProfileFavorites(mSelectedUser.getUsername(), page);
         }
+
+        return service.getProfileGalleryFavorites(mSelectedUser.getUsername(), page);
     }
 
     @Override
@@ -151,11 +151,11 @@ public class ProfileInfoFragment extends BaseFragment implements ImgurListener {
     @Override
     public void onLinkTap(View view, @Nullable String url) {
         if (!TextUtils.isEmpty(url) && isAdded()) {
-            LinkUtils.LinkMatch match = LinkUtils.findImgurLinkMatch(url);
+            LinkUtils.ImgurLink imgurLink = LinkUtils.parseImgurLink(url);
 
-            switch (match) {
+            switch (imgurLink.getMatch()) {
                 case GALLERY:
-                    String id = LinkUtils.getGalleryId(url);
+                    String id = imgurLink.getId();
 
                     if (!TextUtils.isEmpty(id)) {
                         startActivity(ViewActivity.createGalleryIntent(getActivity(), id));
@@ -163,7 +163,7 @@ public class ProfileInfoFragment extends BaseFragment implements ImgurListener {
                     break;
 
                 case ALBUM:
-                    String albumId = LinkUtils.getAlbumId(url);
+                    String albumId = imgurLink.getId();
                     Intent intent = ViewActivity.createAlbumIntent(getActivity(), albumId);
                     startActivity(intent);
                     break;
@@ -190,8 +190,7 @@ public class ProfileInfoFragment extends BaseFragment implements ImgurListener {
                     break;
 
                 case IMAGE:
-                    String[] split = url.split("\\/");
-                    PopupImageDialogFragment.getInstance(split[split.length - 1], false, false, false)
+                    PopupImageDialogFragment.getInstance(imgurLink.getId(), false, false, false)
                             .show(getFragmentManager(), "popup");
                     break;
 
@@ -200,7 +199,7 @@ public class ProfileInfoFragment extends BaseFragment implements ImgurListener {
                     break;
 
                 case USER:
-                    String username = LinkUtils.getUsername(url);
+                    String username = imgurLink.getId();
 
                     if (!TextUtils.isEmpty(username)) {
                         startActivity(ProfileActivity.createIntent(getActivity(), username));
@@ -208,7 +207,7 @@ public class ProfileInfoFragment extends BaseFragment implements ImgurListener {
                     break;
 
                 case TOPIC:
-                    String topicId = LinkUtils.getTopicGalleryId(url);
+                    String topicId = imgurLink.getId();
                     startActivity(ViewActivity.createGalleryIntent(getActivity(), topicId));
                     break;
 
@@ -237,7 +236,7 @@ public class ProfileInfoFragment extends BaseFragment implements ImgurListener {
     }
 
     private void fetchTrophies() {
-        ApiClient.getService().getProfileTrophies(mSelectedUser.getUsername()).enqueue(new Callback<TrophyResponse>() {
+        enqueue(ApiClient.getService().getProfileTrophies(mSelectedUser.getUsername()), new Callback<TrophyResponse>() {
             @Override
             public void onResponse(Call<TrophyResponse> call, Response<TrophyResponse> response) {
                 if (!isAdded()) return;
@@ -8,11 +8,14 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import com.kenny.openimgur.R;
-import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.api.ImgurService;
+import com.kenny.openimgur.api.responses.GalleryResponse;
 import com.kenny.openimgur.classes.ImgurUser;
 import com.kenny.openimgur.util.ViewUtils;
 import com.kennyc.view.MultiStateView;
 
+import retrofit2.Call;
+
 /**
  * Created by kcampagna on 12/23/14.
  */
@@ -36,9 +39,8 @@ public class ProfileSubmissionsFragment extends BaseGridFragment {
     }
 
     @Override
-    protected void fetchGallery() {
-        super.fetchGallery();
-        ApiClient.getService().getProfileSubmissions(mSelectedUser.getUsername(), mCurrentPage).enqueue(this);
+    protected Call<GalleryResponse> getGalleryCall(@NonNull ImgurService service, int page) {
+        return service.getProfileSubmissions(mSelectedUser.getUsername(), page);
     }
 
     @Override
@@ -6,6 +6,7 @@ import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.os.Bundle;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.design.widget.Snackbar;
 import android.support.v7.app.AlertDialog;
@@ -16,14 +17,16 @@ import android.view.ViewGroup;
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.activities.FullScreenPhotoActivity;
 import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.api.ImgurService;
 import com.kenny.openimgur.api.responses.BasicResponse;
+import com.kenny.openimgur.api.responses.GalleryResponse;
 import com.kenny.openimgur.classes.ImgurBaseObject;
 import com.kenny.openimgur.ui.adapters.GalleryAdapter;
 import com.kenny.openimgur.util.LogUtil;
 import com.kenny.openimgur.util.ViewUtils;
 import com.kennyc.view.MultiStateView;
 
-import java.util.ArrayList;
+import java.util.List;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -56,13 +59,12 @@ public class ProfileUploadsFragment extends BaseGridFragment implements View.OnL
     }
 
     @Override
-    protected void fetchGallery() {
-        super.fetchGallery();
-        ApiClient.getService().getProfileUploads(user.getUsername(), mCurrentPage).enqueue(this);
+    protected Call<GalleryResponse> getGalleryCall(@NonNull ImgurService service, int page) {
+        return service.getProfileUploads(user.getUsername(), page);
     }
 
     @Override
-    protected void onItemSelected(View view, int position, ArrayList<ImgurBaseObject> items) {
+    protected void onItemSelected(View view, int position, List<ImgurBaseObject> items) {
         startActivity(FullScreenPhotoActivity.createIntent(getActivity(), items.get(position).getLink()));
     }
 
@@ -1,6 +1,7 @@
 package com.kenny.openimgur.fragments;
 
 import android.os.Bundle;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.view.LayoutInflater;
 import android.view.Menu;
@@ -10,7 +11,10 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import com.kenny.openimgur.R;
-import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.api.ImgurService;
+import com.kenny.openimgur.api.responses.GalleryResponse;
+
+import retrofit2.Call;
 
 /**
  * Created by kcampagna on 1/27/15.
@@ -57,8 +61,7 @@ public class RandomFragment extends BaseGridFragment {
     }
 
     @Override
-    protected void fetchGallery() {
-        super.fetchGallery();
-        ApiClient.getService().getRandomGallery(mCurrentPage).enqueue(this);
+    protected Call<GalleryResponse> getGalleryCall(@NonNull ImgurService service, int page) {
+        return service.getRandomGallery(page);
     }
 }
@@ -24,7 +24,6 @@ import android.widget.Button;
 import android.widget.FilterQueryProvider;
 
 import com.kenny.openimgur.R;
-import com.kenny.openimgur.api.ApiClient;
 import com.kenny.openimgur.api.ImgurService;
 import com.kenny.openimgur.api.responses.GalleryResponse;
 import com.kenny.openimgur.classes.FragmentListener;
@@ -46,6 +45,7 @@ import java.util.Set;
 
 import butterknife.BindView;
 import butterknife.OnClick;
+import retrofit2.Call;
 
 /**
  * Created by kcampagna on 8/14/14.
@@ -386,16 +386,28 @@ public class RedditFragment extends BaseGridFragment {
     protected void fetchGallery() {
         if (TextUtils.isEmpty(mQuery)) return;
         super.fetchGallery();
+    }
 
-        ImgurService apiService = ApiClient.getService();
+    @Nullable
+    @Override
+    protected Call<GalleryResponse> getGalleryCall(@NonNull ImgurService service, int page) {
+        if (TextUtils.isEmpty(mQuery)) return null;
         String query = mQuery.replaceAll("\\s", "");
         if (query.startsWith("r/")) query = query.replace("r/", "");
 
         if (mSort == RedditSort.TOP) {
-            apiService.getSubRedditForTopSorted(query, mTopSort.getSort(), mCurrentPage).enqueue(this);
-        } else {
-            apiService.getSubReddit(query, mSort.getSort(), mCurrentPage).enqueue(this);
+            return service.getSubRedditForTopSorted(query, mTopSort.getSort(), page);
         }
+
+        return service.getSubReddit(query, mSort.getSort(), page);
+    }
+
+    @Nullable
+    @Override
+    protected String getPageCacheKey() {
+        if (TextUtils.isEmpty(mQuery)) return null;
+        String window = mSort == RedditSort.TOP ? mTopSort.getSort() : null;
+        return "reddit_" + mQuery.replaceAll("\\s", "").toLowerCase() + "_" + mSort.getSort() + "_" + window;
     }
 
     @Override
@@ -22,7 +22,7 @@ import com.kenny.openimgur.BuildConfig;
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.activities.SettingsActivity;
 import com.kenny.openimgur.classes.ImgurTheme;
-import com.kenny.openimgur.classes.VideoCache;
+import com.kenny.openimgur.classes.MediaCache;
 import com.kenny.openimgur.util.DBContracts;
 import com.kenny.openimgur.util.FabricUtil;
 import com.kenny.openimgur.util.FileUtil;
@@ -66,7 +66,7 @@ public class SettingsFragment extends BasePreferenceFragment implements Preferen
     @Override
     public void onResume() {
         super.onResume();
-        long cacheSize = ImageUtil.getTotalImageCacheSize(mApp);
+        long cacheSize = MediaCache.getInstance().getSize();
         findPreference(SettingsActivity.KEY_CURRENT_CACHE_SIZE).setSummary(FileUtil.humanReadableByteCount(cacheSize, false));
 
         try {
@@ -229,12 +229,11 @@ public class SettingsFragment extends BasePreferenceFragment implements Preferen
 
                 if (!TextUtils.isEmpty(mCacheDirKey)) {
                     File dir = ImageUtil.getCacheDirectory(activity, mCacheDirKey);
+                    MediaCache.getInstance().setCacheDirectory(dir);
                     ImageUtil.initImageLoader(activity);
-                    VideoCache.getInstance().setCacheDirectory(dir);
                 }
 
-
-                return ImageUtil.getTotalImageCacheSize(frag.mApp);
+                return MediaCache.getInstance().getSize();
             } else {
                 return -1L;
             }
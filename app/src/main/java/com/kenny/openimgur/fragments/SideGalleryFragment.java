@@ -11,10 +11,10 @@ import android.view.ViewGroup;
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.ui.adapters.GalleryAdapter;
 import com.kenny.openimgur.classes.ImgurBaseObject;
-import com.kenny.openimgur.collections.SetUniqueList;
+import com.kenny.openimgur.collections.IdUniqueList;
 import com.kenny.openimgur.util.ViewUtils;
 
-import java.util.ArrayList;
+import java.util.List;
 
 import butterknife.BindView;
 
@@ -71,13 +71,24 @@ public class SideGalleryFragment extends BaseFragment implements View.OnClickLis
         super.onDestroyView();
     }
 
-    public void addGalleryItems(ArrayList<ImgurBaseObject> galleryItems) {
+    public void addGalleryItems(List<ImgurBaseObject> galleryItems) {
         if (isAdded()) {
-            mAdapter = new GalleryAdapter(getActivity(), SetUniqueList.decorate(galleryItems), this, false);
+            mAdapter = new GalleryAdapter(getActivity(), new IdUniqueList<>(galleryItems), this, false);
             mList.setAdapter(mAdapter);
         }
     }
 
+    /**
+     * Appends items to the end of the list
+     *
+     * @param galleryItems
+     */
+    public void appendGalleryItems(List<ImgurBaseObject> galleryItems) {
+        if (isAdded() && mAdapter != null) {
+            mAdapter.addItems(galleryItems);
+        }
+    }
+
     /**
      * Notifies the list that the user has changed the item being view
      *
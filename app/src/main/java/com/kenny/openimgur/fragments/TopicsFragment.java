@@ -16,6 +16,7 @@ import android.view.ViewGroup;
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.api.ApiClient;
 import com.kenny.openimgur.api.ImgurService;
+import com.kenny.openimgur.api.responses.GalleryResponse;
 import com.kenny.openimgur.api.responses.TopicResponse;
 import com.kenny.openimgur.classes.FragmentListener;
 import com.kenny.openimgur.classes.ImgurFilters;
@@ -165,14 +166,26 @@ public class TopicsFragment extends BaseGridFragment {
     protected void fetchGallery() {
         if (mTopic == null) return;
         super.fetchGallery();
+    }
 
-        ImgurService apiService = ApiClient.getService();
+    @Nullable
+    @Override
+    protected Call<GalleryResponse> getGalleryCall(@NonNull ImgurService service, int page) {
+        if (mTopic == null) return null;
 
         if (mSort == ImgurFilters.GallerySort.HIGHEST_SCORING) {
-            apiService.getTopicForTopSorted(mTopic.getId(), mTimeSort.getSort(), mCurrentPage).enqueue(this);
-        } else {
-            apiService.getTopic(mTopic.getId(), mSort.getSort(), mCurrentPage).enqueue(this);
+            return service.getTopicForTopSorted(mTopic.getId(), mTimeSort.getSort(), page);
         }
+
+        return service.getTopic(mTopic.getId(), mSort.getSort(), page);
+    }
+
+    @Nullable
+    @Override
+    protected String getPageCacheKey() {
+        if (mTopic == null) return null;
+        String window = mSort == ImgurFilters.GallerySort.HIGHEST_SCORING ? mTimeSort.getSort() : null;
+        return "topic_" + mTopic.getId() + "_" + mSort.getSort() + "_" + window;
     }
 
     @Override
@@ -238,7 +251,7 @@ public class TopicsFragment extends BaseGridFragment {
     private void fetchTopics() {
         mMultiStateView.setViewState(MultiStateView.VIEW_STATE_LOADING);
 
-        ApiClient.getService().getDefaultTopics().enqueue(new Callback<TopicResponse>() {
+        enqueue(ApiClient.getService().getDefaultTopics(), new Callback<TopicResponse>() {
             @Override
             public void onResponse(Call<TopicResponse> call, Response<TopicResponse> response) {
                 if (!isAdded()) return;
@@ -135,7 +135,7 @@ public class UploadInfoFragment extends BaseFragment {
 
         if (topics.isEmpty()) {
             LogUtil.v(TAG, "No topics found, fetching");
-            ApiClient.getService().getDefaultTopics().enqueue(new Callback<TopicResponse>() {
+            enqueue(ApiClient.getService().getDefaultTopics(), new Callback<TopicResponse>() {
                 @Override
                 public void onResponse(Call<TopicResponse> call, Response<TopicResponse> response) {
                     if (isAdded() && response != null && response.body() != null) {
@@ -22,6 +22,7 @@ import com.kenny.openimgur.R;
 import com.kenny.openimgur.classes.ImgurHandler;
 import com.kenny.openimgur.util.ImageUtil;
 import com.nostra13.universalimageloader.core.assist.FailReason;
+import com.nostra13.universalimageloader.core.imageaware.ImageAware;
 import com.nostra13.universalimageloader.core.listener.SimpleImageLoadingListener;
 
 import butterknife.BindView;
@@ -56,6 +57,9 @@ public class UploadLinkDialogFragment extends DialogFragment implements TextWatc
 
     private Unbinder mUnbinder;
 
+    // The link being checked
+    private ImageAware mLinkLoad;
+
     public static DialogFragment newInstance(@Nullable String link) {
         UploadLinkDialogFragment fragment = new UploadLinkDialogFragment();
 
@@ -110,6 +114,8 @@ public class UploadLinkDialogFragment extends DialogFragment implements TextWatc
 
     @Override
     public void onDestroyView() {
+        ImageUtil.cancelDisplayTask(ImageUtil.getImageLoader(getActivity()), mLinkLoad);
+        mLinkLoad = null;
         if (mUnbinder != null) mUnbinder.unbind();
         super.onDestroyView();
     }
@@ -151,7 +157,7 @@ public class UploadLinkDialogFragment extends DialogFragment implements TextWatc
         public void handleMessage(Message msg) {
             switch (msg.what) {
                 case MESSAGE_SEARCH_URL:
-                    ImageUtil.getImageLoader(getActivity()).loadImage((String) msg.obj, new SimpleImageLoadingListener() {
+                    mLinkLoad = ImageUtil.loadImage(ImageUtil.getImageLoader(getActivity()), (String) msg.obj, null, null, new SimpleImageLoadingListener() {
 
                         @Override
                         public void onLoadingStarted(String imageUri, View view) {
@@ -184,7 +190,7 @@ public class UploadLinkDialogFragment extends DialogFragment implements TextWatc
                             mLoadingIndicator.setVisibility(View.INVISIBLE);
                             mLinkValidation.setText(R.string.upload_invalid_link);
                         }
-                    });
+                    }, null);
                     break;
             }
         }
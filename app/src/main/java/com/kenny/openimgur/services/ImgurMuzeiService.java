@@ -14,6 +14,8 @@ import com.google.android.apps.muzei.api.RemoteMuzeiArtSource;
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.activities.MuzeiSettingsActivity;
 import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.api.RequestPriority;
+import com.kenny.openimgur.api.RateLimiter;
 import com.kenny.openimgur.api.responses.GalleryResponse;
 import com.kenny.openimgur.classes.ImgurBaseObject;
 import com.kenny.openimgur.classes.ImgurFilters;
@@ -82,6 +84,13 @@ public class ImgurMuzeiService extends RemoteMuzeiArtSource {
             return;
         }
 
+        if (RateLimiter.shouldDefer()) {
+            long delay = RateLimiter.getDeferDelay();
+            LogUtil.w(TAG, "API budget is low, deferring update by " + delay + "ms");
+            scheduleUpdate(System.currentTimeMillis() + Math.max(delay, DateUtils.MINUTE_IN_MILLIS));
+            return;
+        }
+
         String url;
         String title;
         String byline;
@@ -174,14 +183,14 @@ public class ImgurMuzeiService extends RemoteMuzeiArtSource {
                 }
 
                 mSubreddit = query.replaceAll("\\s", "");
-                call = ApiClient.getService().getSubReddit(mSubreddit, ImgurFilters.RedditSort.TIME.getSort(), 0);
+                call = ApiClient.getService(RequestPriority.BACKGROUND).getSubReddit(mSubreddit, ImgurFilters.RedditSort.TIME.getSort(), 0);
             } else if (MuzeiSettingsActivity.SOURCE_USER_SUB.equals(source)) {
-                call = ApiClient.getService().getGallery(ImgurFilters.GallerySection.USER.getSection(), ImgurFilters.GallerySort.VIRAL.getSort(), 0, false);
+                call = ApiClient.getService(RequestPriority.BACKGROUND).getGallery(ImgurFilters.GallerySection.USER.getSection(), ImgurFilters.GallerySort.VIRAL.getSort(), 0, false);
             } else if (MuzeiSettingsActivity.SOURCE_TOPICS.equals(source)) {
                 int topicId = Integer.valueOf(pref.getString(MuzeiSettingsActivity.KEY_TOPIC, FALLBACK_TOPIC_ID));
-                call = ApiClient.getService().getTopic(topicId, ImgurFilters.GallerySort.VIRAL.getSort(), 0);
+                call = ApiClient.getService(RequestPriority.BACKGROUND).getTopic(topicId, ImgurFilters.GallerySort.VIRAL.getSort(), 0);
             } else {
-                call = ApiClient.getService().getGallery(ImgurFilters.GallerySection.HOT.getSection(), ImgurFilters.GallerySort.TIME.getSort(), 0, false);
+                call = ApiClient.getService(RequestPriority.BACKGROUND).getGallery(ImgurFilters.GallerySection.HOT.getSection(), ImgurFilters.GallerySort.TIME.getSort(), 0, false);
             }
 
             response = call.execute();
@@ -20,6 +20,8 @@ import android.text.format.DateUtils;
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.activities.SettingsActivity;
 import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.api.RequestPriority;
+import com.kenny.openimgur.api.RateLimiter;
 import com.kenny.openimgur.api.responses.NotificationResponse;
 import com.kenny.openimgur.classes.ImgurAlbum;
 import com.kenny.openimgur.classes.ImgurBaseObject;
@@ -69,12 +71,19 @@ public class NotificationService extends IntentService {
 
         // Make sure we have a valid user
         if (app.getUser() != null) {
+            if (RateLimiter.shouldDefer()) {
+                // Skip this poll, the next alarm will try again
+                LogUtil.w(TAG, "API budget is low, not fetching notifications");
+                AlarmReceiver.createNotificationAlarm(getApplicationContext());
+                return;
+            }
+
             PowerManager powerManager = (PowerManager) getSystemService(POWER_SERVICE);
             PowerManager.WakeLock wakeLock = powerManager.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, TAG);
             wakeLock.acquire();
 
             try {
-                Response<NotificationResponse> response = ApiClient.getService().getNotifications().execute();
+                Response<NotificationResponse> response = ApiClient.getService(RequestPriority.BACKGROUND).getNotifications().execute();
 
                 if (response != null && response.body() != null && response.body().hasNotifications()) {
                     NotificationResponse notificationResponse = response.body();
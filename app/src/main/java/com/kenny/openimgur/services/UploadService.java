@@ -12,6 +12,7 @@ import android.text.TextUtils;
 
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.api.RequestPriority;
 import com.kenny.openimgur.api.responses.BasicObjectResponse;
 import com.kenny.openimgur.api.responses.BasicResponse;
 import com.kenny.openimgur.api.responses.PhotoResponse;
@@ -283,7 +284,7 @@ public class UploadService extends IntentService {
         mNotification.onSubmitToGallery();
 
         try {
-            Response<BasicResponse> response = ApiClient.getService().submitToGallery(upload.getId(), title, topicId, "1").execute();
+            Response<BasicResponse> response = ApiClient.getService(RequestPriority.BACKGROUND).submitToGallery(upload.getId(), title, topicId, "1").execute();
 
             if (response != null && response.body() != null && response.body().data) {
                 mNotification.onSuccessfulUpload(upload);
@@ -0,0 +1,27 @@
+package com.kenny.openimgur.ui;
+
+import android.graphics.Bitmap;
+import android.view.View;
+
+import com.kenny.openimgur.classes.BitmapPool;
+import com.nostra13.universalimageloader.core.assist.LoadedFrom;
+import com.nostra13.universalimageloader.core.display.BitmapDisplayer;
+import com.nostra13.universalimageloader.core.imageaware.ImageAware;
+
+/**
+ * Displayer that tells the {@link BitmapPool} which bitmap a view is showing before handing it to another displayer
+ */
+public class PooledBitmapDisplayer implements BitmapDisplayer {
+    private final BitmapDisplayer mDisplayer;
+
+    public PooledBitmapDisplayer(BitmapDisplayer displayer) {
+        mDisplayer = displayer;
+    }
+
+    @Override
+    public void display(Bitmap bitmap, ImageAware imageAware, LoadedFrom loadedFrom) {
+        View view = imageAware.getWrappedView();
+        if (view != null) BitmapPool.getInstance().onDisplay(view, bitmap);
+        mDisplayer.display(bitmap, imageAware, loadedFrom);
+    }
+}
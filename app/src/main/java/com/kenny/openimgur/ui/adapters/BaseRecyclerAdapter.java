@@ -5,6 +5,7 @@ import android.support.v7.widget.RecyclerView;
 import android.view.View;
 import android.widget.ImageView;
 
+import com.kenny.openimgur.classes.ImagePipeline;
 import com.kenny.openimgur.classes.OpengurApp;
 import com.kenny.openimgur.util.ImageUtil;
 import com.kenny.openimgur.util.LogUtil;
@@ -12,6 +13,7 @@ import com.nostra13.universalimageloader.core.DisplayImageOptions;
 import com.nostra13.universalimageloader.core.ImageLoader;
 
 import java.util.List;
+import java.util.WeakHashMap;
 
 import butterknife.ButterKnife;
 
@@ -27,6 +29,9 @@ public abstract class BaseRecyclerAdapter<T> extends com.kennyc.adapters.BaseRec
 
     private ImageLoader imageLoader;
 
+    // Views images have been displayed in, so loads still running can be cancelled in onDestroy
+    private final WeakHashMap<ImageView, Boolean> imageViews = new WeakHashMap<>();
+
     public BaseRecyclerAdapter(Context context, List<T> collection, boolean hasImageLoader) {
         super(context, collection);
         if (hasImageLoader) imageLoader = ImageUtil.getImageLoader(context);
@@ -50,14 +55,27 @@ public abstract class BaseRecyclerAdapter<T> extends com.kennyc.adapters.BaseRec
      *
      * @param imageView
      * @param url
+     * @return If the image was displayed straight from the memory cache
      */
-    protected void displayImage(ImageView imageView, String url) {
+    protected boolean displayImage(ImageView imageView, String url) {
         if (imageLoader == null) {
             throw new IllegalStateException("Image Loader has not been created");
         }
 
-        imageLoader.cancelDisplayTask(imageView);
-        imageLoader.displayImage(url, imageView, getDisplayOptions());
+        cancelImage(imageView);
+        imageViews.put(imageView, Boolean.TRUE);
+        boolean fromMemory = ImageUtil.displayImage(imageLoader, url, imageView, getDisplayOptions());
+        ImagePipeline.getInstance().onDisplayRequested(imageView, imageLoader.getLoadingUriForView(imageView));
+        return fromMemory;
+    }
+
+    /**
+     * Cancels the image being loaded into the view, such as when its view holder is recycled
+     *
+     * @param imageView
+     */
+    protected void cancelImage(ImageView imageView) {
+        if (imageLoader != null) ImageUtil.cancelDisplayTask(imageLoader, imageView);
     }
 
     /**
@@ -73,6 +91,11 @@ public abstract class BaseRecyclerAdapter<T> extends com.kennyc.adapters.BaseRec
      * Frees up any resources tied to the adapter. Should be called in an activities onDestroy lifecycle method if needed
      */
     public void onDestroy() {
+        for (ImageView imageView : imageViews.keySet()) {
+            cancelImage(imageView);
+        }
+
+        imageViews.clear();
         super.onDestroy();
         LogUtil.v(TAG, "onDestroy");
     }
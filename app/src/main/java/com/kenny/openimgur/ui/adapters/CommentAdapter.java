@@ -1,15 +1,7 @@
 package com.kenny.openimgur.ui.adapters;
 
 import android.content.Context;
-import android.support.v4.util.LongSparseArray;
 import android.support.v7.widget.RecyclerView;
-import android.text.Spannable;
-import android.text.SpannableString;
-import android.text.Spanned;
-import android.text.TextUtils;
-import android.text.format.DateUtils;
-import android.text.style.ForegroundColorSpan;
-import android.text.util.Linkify;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageButton;
@@ -20,11 +12,9 @@ import com.kenny.openimgur.classes.CustomLinkMovement;
 import com.kenny.openimgur.classes.ImgurBaseObject;
 import com.kenny.openimgur.classes.ImgurComment;
 import com.kenny.openimgur.classes.ImgurListener;
-import com.kenny.openimgur.util.LinkUtils;
+import com.kenny.openimgur.collections.CommentTree;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import butterknife.BindView;
 
@@ -36,27 +26,39 @@ public class CommentAdapter extends BaseRecyclerAdapter<ImgurComment> {
 
     private static final float COLLAPSED = 0.0f;
 
+    // Number of rows on each side of the bound row whose text is built ahead of time
+    private static final int PRECOMPUTE_DISTANCE = 20;
+
     ImgurListener mListener;
 
     private int mSelectedIndex = -1;
 
     private String mOP;
 
-    private final Set<ImgurComment> mExpandedComments = new HashSet<>();
+    // The items of the adapter are always the rows of the tree
+    private final CommentTree mTree;
 
-    private final LongSparseArray<Integer> mIndicatorMultiples = new LongSparseArray<>();
+    private final CommentTextCache mTextCache = CommentTextCache.getInstance();
 
-    private int mGreenTextColor;
+    private int mCommentIndent;
 
-    private int mRedTextColor;
+    // Rows last handed to the text cache to precompute
+    private int mPrecomputeStart = 0;
 
-    private int mCommentIndent;
+    private int mPrecomputeEnd = 0;
 
+    /**
+     * @param comments The top level comments
+     */
     public CommentAdapter(Context context, List<ImgurComment> comments, ImgurListener listener) {
-        super(context, comments);
+        this(context, new CommentTree(comments), listener);
+    }
+
+    private CommentAdapter(Context context, CommentTree tree, ImgurListener listener) {
+        super(context, tree.getRows());
+        mTree = tree;
         mListener = listener;
-        mGreenTextColor = getColor(R.color.notoriety_positive);
-        mRedTextColor = getColor(R.color.notoriety_negative);
+        precomputeAround(0);
         mCommentIndent = getDimension(R.dimen.comment_padding);
     }
 
@@ -70,9 +72,38 @@ public class CommentAdapter extends BaseRecyclerAdapter<ImgurComment> {
         mListener = null;
     }
 
-    public void clearExpansionInfo() {
-        mExpandedComments.clear();
-        mIndicatorMultiples.clear();
+    /**
+     * Replaces the comments, all collapsed
+     *
+     * @param comments The top level comments
+     */
+    public void setComments(List<ImgurComment> comments) {
+        mSelectedIndex = -1;
+        mTree.clear();
+        clear();
+        resetPrecompute();
+        appendComments(comments);
+    }
+
+    /**
+     * Adds top level comments to the end of the list
+     *
+     * @param comments
+     */
+    public void appendComments(List<ImgurComment> comments) {
+        int start = mTree.getRowCount();
+        mTree.append(comments);
+        List<ImgurComment> rows = mTree.getRows();
+        addItems(rows.subList(start, rows.size()));
+    }
+
+    /**
+     * Returns the top level comments
+     *
+     * @return
+     */
+    public List<ImgurComment> getComments() {
+        return mTree.getRoots();
     }
 
     @Override
@@ -100,24 +131,22 @@ public class CommentAdapter extends BaseRecyclerAdapter<ImgurComment> {
         holder.itemView.setTag(holder);
         CommentViewHolder commentHolder = (CommentViewHolder) holder;
         final ImgurComment comment = getItem(position);
+        int slack = PRECOMPUTE_DISTANCE / 2;
 
-        commentHolder.comment.setText(comment.getComment());
-        commentHolder.author.setText(constructSpan(comment));
-        Linkify.addLinks(commentHolder.comment, Linkify.WEB_URLS);
-        Linkify.addLinks(commentHolder.comment, LinkUtils.USER_CALLOUT_PATTERN, null);
-        commentHolder.replies.setVisibility(comment.getReplyCount() > 0 ? View.VISIBLE : View.GONE);
-        boolean isExpanded = mExpandedComments.contains(comment);
-        commentHolder.replies.setRotation(isExpanded ? EXPANDED : COLLAPSED);
-        commentHolder.indicator.setVisibility(comment.getParentId() > 0 ? View.VISIBLE : View.GONE);
+        if ((position >= mPrecomputeEnd - slack && mPrecomputeEnd < getItemCount())
+                || (position < mPrecomputeStart + slack && mPrecomputeStart > 0)) {
+            precomputeAround(position);
+        }
 
-        Integer multiple = mIndicatorMultiples.get(comment.getParentId());
+        CommentTextCache.CommentText text = mTextCache.get(comment, mOP);
+        commentHolder.comment.setText(text.body);
+        commentHolder.author.setText(text.header);
+        commentHolder.replies.setVisibility(mTree.hasReplies(position) ? View.VISIBLE : View.GONE);
+        commentHolder.replies.setRotation(mTree.isExpanded(position) ? EXPANDED : COLLAPSED);
+        int depth = mTree.getDepth(position);
+        commentHolder.indicator.setVisibility(depth > 0 ? View.VISIBLE : View.GONE);
         RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) commentHolder.itemView.getLayoutParams();
-
-        if (multiple != null) {
-            lp.setMargins(multiple * mCommentIndent, 0, 0, 0);
-        } else {
-            lp.setMargins(0, 0, 0, 0);
-        }
+        lp.setMargins(depth * mCommentIndent, 0, 0, 0);
 
         if (ImgurBaseObject.VOTE_UP.equals(comment.getVote())) {
             commentHolder.author.setCompoundDrawablesRelativeWithIntrinsicBounds(0, 0, R.drawable.ic_upvote_green_12dp, 0);
@@ -131,130 +160,56 @@ public class CommentAdapter extends BaseRecyclerAdapter<ImgurComment> {
         commentHolder.itemView.setBackgroundColor(bgColor);
     }
 
+    public void setOP(String op) {
+        mOP = op;
+    }
+
     /**
-     * Creates the spannable object for the authors name, points, and time
+     * Builds the text of the rows around the position in the background. The window moves once a bound row gets close to
+     * either of its edges
      *
-     * @param comment
-     * @return
+     * @param position
      */
-    private Spannable constructSpan(ImgurComment comment) {
-        CharSequence date = getDateFormattedTime(comment.getDate() * DateUtils.SECOND_IN_MILLIS);
-        String author = comment.getAuthor();
-        StringBuilder sb = new StringBuilder(author);
-        boolean isOp = isOP(author);
-        int spanLength = author.length();
-        String points = getResources().getQuantityString(R.plurals.points, (int) comment.getPoints(), comment.getPoints());
-        int scoreTextLength = points.length();
-
-        if (isOp) {
-            sb.append(" OP");
-            spanLength += 3;
-        }
-
-        sb.append(": ").append(points).append(" ").append(date);
-        Spannable span = new SpannableString(sb.toString());
-        int scoreColor = comment.getPoints() >= 0 ? mGreenTextColor : mRedTextColor;
-
-        if (isOp) {
-            span.setSpan(new ForegroundColorSpan(mGreenTextColor), author.length() + 1, spanLength, Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-        }
-
-        int scoreStart = author.length() + 2;
-        if (isOp) scoreStart += +3;
-        span.setSpan(new ForegroundColorSpan(scoreColor), scoreStart, scoreStart + scoreTextLength, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
-        return span;
+    private void precomputeAround(int position) {
+        List<ImgurComment> rows = mTree.getRows();
+        mPrecomputeStart = Math.max(0, position - PRECOMPUTE_DISTANCE);
+        mPrecomputeEnd = Math.min(rows.size(), position + PRECOMPUTE_DISTANCE + 1);
+        if (mPrecomputeStart < mPrecomputeEnd) mTextCache.precompute(rows.subList(mPrecomputeStart, mPrecomputeEnd), mOP);
     }
 
-    private CharSequence getDateFormattedTime(long commentDate) {
-        long now = System.currentTimeMillis();
-        long difference = System.currentTimeMillis() - commentDate;
-
-        return (difference >= 0 && difference <= DateUtils.MINUTE_IN_MILLIS) ?
-                getString(R.string.moments_ago) :
-                DateUtils.getRelativeTimeSpanString(
-                        commentDate,
-                        now,
-                        DateUtils.MINUTE_IN_MILLIS,
-                        DateUtils.FORMAT_SHOW_YEAR | DateUtils.FORMAT_ABBREV_RELATIVE
-                                | DateUtils.FORMAT_ABBREV_ALL);
-    }
-
-    public void setOP(String op) {
-        mOP = op;
+    /**
+     * Forgets the precomputed window after rows were added or removed in the middle, the next bind starts a new one
+     */
+    private void resetPrecompute() {
+        mPrecomputeStart = 0;
+        mPrecomputeEnd = 0;
     }
 
     public void expandComments(View view, int position) {
-        ImgurComment comment = getItem(position);
-        if (comment.getReplyCount() <= 0) return;
+        if (!mTree.hasReplies(position)) return;
 
         // Should always be the case
         if (view.getTag() instanceof CommentViewHolder) {
             ((CommentViewHolder) view.getTag()).replies.animate().rotation(EXPANDED);
         }
 
-        mExpandedComments.add(comment);
-        Integer multiple = mIndicatorMultiples.get(comment.getParentId());
-
-        if (multiple == null) {
-            if (comment.getParentId() > 0) mIndicatorMultiples.put(comment.getParentId(), 1);
-            mIndicatorMultiples.put(Long.valueOf(comment.getId()), 1);
-        } else {
-            mIndicatorMultiples.put(Long.valueOf(comment.getId()), multiple + 1);
-        }
-
-        addItems(comment.getReplies(), position + 1);
+        List<ImgurComment> replies = mTree.expand(position);
+        resetPrecompute();
+        mTextCache.precompute(replies.subList(0, Math.min(replies.size(), PRECOMPUTE_DISTANCE)), mOP);
+        addItems(replies, position + 1);
     }
 
     public void collapseComments(View view, int position) {
-        ImgurComment comment = getItem(position);
-        if (comment.getReplyCount() <= 0) return;
+        if (!mTree.hasReplies(position)) return;
 
         // Should always be the case
         if (view.getTag() instanceof CommentViewHolder) {
             ((CommentViewHolder) view.getTag()).replies.animate().rotation(COLLAPSED);
         }
 
-        position++;
-        mExpandedComments.remove(comment);
-        int endPosition = -1;
-
-        for (int i = position; i < getItemCount(); i++) {
-            ImgurComment c = getItem(i);
-
-            if (c.getParentId() == comment.getParentId()) {
-                endPosition = i;
-                break;
-            } else if (mExpandedComments.contains(c)) {
-                // Remove any expanded comments
-                mExpandedComments.remove(c);
-            }
-        }
-
-
-        // Didn't find a comment parent to find the ending position, need to traverse the list and find comments to close
-        if (endPosition == -1) {
-            // Find the best parent to collapse to
-            for (int i = position - 2; i >= 0; i--) {
-                ImgurComment possibleParent = getItem(i);
-                // Now do the same steps as above to get a matching parent
-                for (int x = position; x < getItemCount(); x++) {
-                    ImgurComment c = getItem(x);
-                    if (c.getParentId() == possibleParent.getParentId()) {
-                        endPosition = x;
-                        break;
-                    } else if (mExpandedComments.contains(c)) {
-                        // Remove any expanded comments
-                        mExpandedComments.remove(c);
-                    }
-                }
-
-                if (endPosition != -1) break;
-            }
-        }
-
-        // Still didn't find anything, just collapse the number of replies it has as a fail safe
-        if (endPosition == -1) endPosition = position + comment.getReplyCount();
-        removeItems(position, endPosition);
+        int removed = mTree.collapse(position);
+        resetPrecompute();
+        if (removed > 0) removeItems(position + 1, position + 1 + removed);
     }
 
     /**
@@ -294,11 +249,7 @@ public class CommentAdapter extends BaseRecyclerAdapter<ImgurComment> {
      * @return
      */
     public boolean isExpanded(int position) {
-        return mExpandedComments.contains(getItem(position));
-    }
-
-    private boolean isOP(String user) {
-        return !TextUtils.isEmpty(mOP) && mOP.equals(user);
+        return mTree.isExpanded(position);
     }
 
     public static class CommentViewHolder extends BaseViewHolder {
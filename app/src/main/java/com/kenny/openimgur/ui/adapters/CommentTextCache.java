@@ -0,0 +1,252 @@
+package com.kenny.openimgur.ui.adapters;
+
+import android.content.res.Resources;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.Spannable;
+import android.text.SpannableString;
+import android.text.Spanned;
+import android.text.TextUtils;
+import android.text.format.DateUtils;
+import android.text.style.ForegroundColorSpan;
+import android.text.util.Linkify;
+import android.util.LruCache;
+
+import com.kenny.openimgur.R;
+import com.kenny.openimgur.classes.ImgurComment;
+import com.kenny.openimgur.classes.ImgurTheme;
+import com.kenny.openimgur.classes.OpengurApp;
+import com.kenny.openimgur.util.LinkUtils;
+import com.kenny.openimgur.util.LogUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Styled text for comments, built on a background thread for the rows around the ones being shown so binding a comment
+ * only has to attach it. The body of a comment has its links added and its header has the author, OP badge, points and time.
+ * Entries are keyed by the comment and the theme they were built for.
+ * <p>
+ * The header changes when the comment is voted on, the OP is set or its relative time moves on, so it is rebuilt on the
+ * main thread when it no longer matches. Rebuilding it is cheap compared to finding the links in the body.
+ */
+class CommentTextCache {
+    private static final String TAG = "CommentTextCache";
+
+    private static final int MAX_ENTRIES = 500;
+
+    // Requests waiting to be built, older requests are dropped as they are for rows that have likely scrolled past
+    private static final int PRECOMPUTE_QUEUE_SIZE = 2;
+
+    private static final long PRECOMPUTE_KEEP_ALIVE = 30 * DateUtils.SECOND_IN_MILLIS;
+
+    // Headers older than this may show the wrong relative time
+    private static final long HEADER_MAX_AGE = DateUtils.MINUTE_IN_MILLIS;
+
+    private static CommentTextCache sInstance;
+
+    private final LruCache<String, CommentText> mCache = new LruCache<>(MAX_ENTRIES);
+
+    private final Resources mResources;
+
+    private final int mGreenTextColor;
+
+    private final int mRedTextColor;
+
+    private final ThreadPoolExecutor mPrecomputeExecutor;
+
+    static synchronized CommentTextCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new CommentTextCache();
+        }
+
+        return sInstance;
+    }
+
+    private CommentTextCache() {
+        mResources = OpengurApp.getInstance().getResources();
+        mGreenTextColor = mResources.getColor(R.color.notoriety_positive);
+        mRedTextColor = mResources.getColor(R.color.notoriety_negative);
+
+        mPrecomputeExecutor = new ThreadPoolExecutor(1, 1, PRECOMPUTE_KEEP_ALIVE, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(PRECOMPUTE_QUEUE_SIZE), new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable r) {
+                Thread thread = new Thread(r, "comment-text");
+                thread.setPriority(Thread.NORM_PRIORITY - 2);
+                return thread;
+            }
+        }, new ThreadPoolExecutor.DiscardOldestPolicy());
+
+        mPrecomputeExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Builds the text of any comments that are not already cached on a background thread. Only pass the comments about to
+     * be shown, anything more pushes the rows on screen out of the cache
+     *
+     * @param comments
+     * @param op       The username of the OP
+     */
+    void precompute(@NonNull List<ImgurComment> comments, @Nullable String op) {
+        if (comments.isEmpty()) return;
+        mPrecomputeExecutor.execute(new PrecomputeTask(new ArrayList<>(comments), op));
+    }
+
+    /**
+     * Returns the text of the comment, building whatever is missing or out of date. Must be called from the main thread
+     *
+     * @param comment
+     * @param op      The username of the OP
+     * @return
+     */
+    @NonNull
+    CommentText get(@NonNull ImgurComment comment, @Nullable String op) {
+        String key = getKey(comment);
+        CommentText text = key != null ? mCache.get(key) : null;
+
+        if (text == null) {
+            text = build(comment, op);
+            if (key != null) mCache.put(key, text);
+        } else if (!text.isHeaderCurrent(comment, op)) {
+            text.setHeader(comment, op, buildHeader(comment, op));
+        }
+
+        return text;
+    }
+
+    @Nullable
+    private static String getKey(ImgurComment comment) {
+        if (TextUtils.isEmpty(comment.getId())) return null;
+        ImgurTheme theme = OpengurApp.getInstance().getImgurTheme();
+        return comment.getId() + "_" + theme.name() + (theme.isDarkTheme ? "_dark" : "");
+    }
+
+    private CommentText build(ImgurComment comment, @Nullable String op) {
+        String body = comment.getComment();
+        Spannable span = new SpannableString(body != null ? body : "");
+        Linkify.addLinks(span, Linkify.WEB_URLS);
+        Linkify.addLinks(span, LinkUtils.USER_CALLOUT_PATTERN, null);
+        CommentText text = new CommentText(span);
+        text.setHeader(comment, op, buildHeader(comment, op));
+        return text;
+    }
+
+    /**
+     * Creates the spannable object for the authors name, points, and time
+     *
+     * @param comment
+     * @param op
+     * @return
+     */
+    private Spannable buildHeader(ImgurComment comment, @Nullable String op) {
+        CharSequence date = getDateFormattedTime(comment.getDate() * DateUtils.SECOND_IN_MILLIS);
+        String author = comment.getAuthor();
+        StringBuilder sb = new StringBuilder(author);
+        boolean isOp = isOP(author, op);
+        int spanLength = author.length();
+        String points = mResources.getQuantityString(R.plurals.points, (int) comment.getPoints(), comment.getPoints());
+        int scoreTextLength = points.length();
+
+        if (isOp) {
+            sb.append(" OP");
+            spanLength += 3;
+        }
+
+        sb.append(": ").append(points).append(" ").append(date);
+        Spannable span = new SpannableString(sb.toString());
+        int scoreColor = comment.getPoints() >= 0 ? mGreenTextColor : mRedTextColor;
+
+        if (isOp) {
+            span.setSpan(new ForegroundColorSpan(mGreenTextColor), author.length() + 1, spanLength, Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+
+        int scoreStart = author.length() + 2;
+        if (isOp) scoreStart += +3;
+        span.setSpan(new ForegroundColorSpan(scoreColor), scoreStart, scoreStart + scoreTextLength, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        return span;
+    }
+
+    private CharSequence getDateFormattedTime(long commentDate) {
+        long now = System.currentTimeMillis();
+        long difference = System.currentTimeMillis() - commentDate;
+
+        return (difference >= 0 && difference <= DateUtils.MINUTE_IN_MILLIS) ?
+                mResources.getString(R.string.moments_ago) :
+                DateUtils.getRelativeTimeSpanString(
+                        commentDate,
+                        now,
+                        DateUtils.MINUTE_IN_MILLIS,
+                        DateUtils.FORMAT_SHOW_YEAR | DateUtils.FORMAT_ABBREV_RELATIVE
+                                | DateUtils.FORMAT_ABBREV_ALL);
+    }
+
+    static boolean isOP(String user, @Nullable String op) {
+        return !TextUtils.isEmpty(op) && op.equals(user);
+    }
+
+    static class CommentText {
+        final Spannable body;
+
+        Spannable header;
+
+        // What the header was built with
+        private long mPoints;
+
+        private boolean mIsOp;
+
+        private long mHeaderTime;
+
+        CommentText(Spannable body) {
+            this.body = body;
+        }
+
+        void setHeader(ImgurComment comment, @Nullable String op, Spannable header) {
+            this.header = header;
+            mPoints = comment.getPoints();
+            mIsOp = isOP(comment.getAuthor(), op);
+            mHeaderTime = System.currentTimeMillis();
+        }
+
+        boolean isHeaderCurrent(ImgurComment comment, @Nullable String op) {
+            return mPoints == comment.getPoints()
+                    && mIsOp == isOP(comment.getAuthor(), op)
+                    && System.currentTimeMillis() - mHeaderTime < HEADER_MAX_AGE;
+        }
+    }
+
+    private static class PrecomputeTask implements Runnable {
+        private final List<ImgurComment> mComments;
+
+        private final String mOP;
+
+        PrecomputeTask(List<ImgurComment> comments, String op) {
+            mComments = comments;
+            mOP = op;
+        }
+
+        @Override
+        public void run() {
+            CommentTextCache cache = getInstance();
+            int built = 0;
+
+            for (ImgurComment comment : mComments) {
+                String key = getKey(comment);
+                if (key == null || cache.mCache.get(key) != null) continue;
+                CommentText text = cache.build(comment, mOP);
+
+                // The main thread may have needed it in the meantime
+                if (cache.mCache.get(key) == null) {
+                    cache.mCache.put(key, text);
+                    built++;
+                }
+            }
+
+            LogUtil.v(TAG, "Precomputed text for " + built + " comments");
+        }
+    }
+}
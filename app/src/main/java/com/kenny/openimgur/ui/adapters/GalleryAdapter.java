@@ -5,6 +5,7 @@ import android.content.SharedPreferences;
 import android.graphics.BitmapFactory;
 import android.graphics.Color;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
@@ -12,18 +13,19 @@ import android.widget.TextView;
 
 import com.kenny.openimgur.R;
 import com.kenny.openimgur.activities.SettingsActivity;
+import com.kenny.openimgur.classes.BitmapPool;
 import com.kenny.openimgur.classes.ImgurAlbum;
 import com.kenny.openimgur.classes.ImgurBaseObject;
 import com.kenny.openimgur.classes.ImgurPhoto;
 import com.kenny.openimgur.classes.OpengurApp;
-import com.kenny.openimgur.collections.SetUniqueList;
+import com.kenny.openimgur.classes.ThumbnailPrefetcher;
+import com.kenny.openimgur.collections.IdUniqueList;
 import com.kenny.openimgur.ui.CenteredDrawable;
 import com.kenny.openimgur.util.FileUtil;
 import com.kenny.openimgur.util.ImageUtil;
 import com.kenny.openimgur.util.LogUtil;
 import com.nostra13.universalimageloader.core.DisplayImageOptions;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import butterknife.BindView;
@@ -45,7 +47,7 @@ public class GalleryAdapter extends BaseRecyclerAdapter<ImgurBaseObject> {
 
     private String mThumbnailQuality;
 
-    public GalleryAdapter(Context context, SetUniqueList<ImgurBaseObject> objects, View.OnClickListener listener) {
+    public GalleryAdapter(Context context, IdUniqueList<ImgurBaseObject> objects, View.OnClickListener listener) {
         super(context, objects, true);
         mUpvoteColor = getColor(R.color.notoriety_positive);
         mDownVoteColor = getColor(R.color.notoriety_negative);
@@ -55,7 +57,7 @@ public class GalleryAdapter extends BaseRecyclerAdapter<ImgurBaseObject> {
         mClickListener = listener;
     }
 
-    public GalleryAdapter(Context context, SetUniqueList<ImgurBaseObject> objects, View.OnClickListener listener, boolean showPoints) {
+    public GalleryAdapter(Context context, IdUniqueList<ImgurBaseObject> objects, View.OnClickListener listener, boolean showPoints) {
         this(context, objects, listener);
         mShowPoints = showPoints;
     }
@@ -74,23 +76,18 @@ public class GalleryAdapter extends BaseRecyclerAdapter<ImgurBaseObject> {
     }
 
     /**
-     * Returns a list of objects for the viewing activity. This will return a max of 200 items to avoid memory issues.
-     * 100 before and 100 after the currently selected position. If there are not 100 available before or after, it will go to as many as it can
+     * Replaces the item with the same id as the given item, such as after it has been voted on or favorited
      *
-     * @param position The position of the selected items
-     * @return
+     * @param item The updated item
+     * @return The position of the item, -1 if it is not in the adapter
      */
-    public ArrayList<ImgurBaseObject> getItems(int position) {
-        List<ImgurBaseObject> objects;
-        int size = getItemCount();
+    public int updateItem(@NonNull ImgurBaseObject item) {
+        List<ImgurBaseObject> items = getAllItems();
+        if (!(items instanceof IdUniqueList)) return indexOf(item);
 
-        if (position - MAX_ITEMS / 2 < 0) {
-            objects = getAllItems().subList(0, size > MAX_ITEMS ? position + (MAX_ITEMS / 2) : size);
-        } else {
-            objects = getAllItems().subList(position - (MAX_ITEMS / 2), position + (MAX_ITEMS / 2) <= size ? position + (MAX_ITEMS / 2) : size);
-        }
-
-        return new ArrayList<>(objects);
+        int position = ((IdUniqueList<ImgurBaseObject>) items).replace(item);
+        if (position >= 0) notifyItemChanged(position);
+        return position;
     }
 
     @Override
@@ -112,16 +109,7 @@ public class GalleryAdapter extends BaseRecyclerAdapter<ImgurBaseObject> {
             galleryHolder.itemType.setVisibility(View.GONE);
         } else if (obj instanceof ImgurPhoto) {
             ImgurPhoto photoObject = ((ImgurPhoto) obj);
-            String photoUrl;
-
-            // Check if the link is a thumbed version of a large gif
-            if (photoObject.hasVideoLink() && photoObject.isLinkAThumbnail() && ImgurPhoto.IMAGE_TYPE_GIF.equals(photoObject.getType())) {
-                photoUrl = photoObject.getThumbnail(ImgurPhoto.THUMBNAIL_GALLERY, true, FileUtil.EXTENSION_GIF);
-            } else {
-                photoUrl = ((ImgurPhoto) obj).getThumbnail(ImgurPhoto.THUMBNAIL_GALLERY, false, null);
-            }
-
-            displayImage(galleryHolder.image, photoUrl);
+            ThumbnailPrefetcher.onBind(displayImage(galleryHolder.image, getThumbnailUrl(obj)));
 
             if (photoObject.isAnimated()) {
                 galleryHolder.itemType.setVisibility(View.VISIBLE);
@@ -132,7 +120,7 @@ public class GalleryAdapter extends BaseRecyclerAdapter<ImgurBaseObject> {
             }
         } else if (obj instanceof ImgurAlbum) {
             ImgurAlbum album = ((ImgurAlbum) obj);
-            displayImage(galleryHolder.image, album.getCoverUrl(mThumbnailQuality));
+            ThumbnailPrefetcher.onBind(displayImage(galleryHolder.image, getThumbnailUrl(obj)));
             int albumSize = album.getAlbumImageCount();
 
             if (albumSize <= 1) {
@@ -184,8 +172,7 @@ public class GalleryAdapter extends BaseRecyclerAdapter<ImgurBaseObject> {
                 galleryHolder.itemType.setBackground(null);
             }
         } else {
-            String url = ImgurBaseObject.getThumbnail(obj.getId(), obj.getLink(), ImgurPhoto.THUMBNAIL_GALLERY);
-            displayImage(galleryHolder.image, url);
+            ThumbnailPrefetcher.onBind(displayImage(galleryHolder.image, getThumbnailUrl(obj)));
             galleryHolder.itemType.setVisibility(View.GONE);
         }
 
@@ -206,6 +193,50 @@ public class GalleryAdapter extends BaseRecyclerAdapter<ImgurBaseObject> {
         }
     }
 
+    /**
+     * Returns the url of the thumbnail shown for the item at the position
+     *
+     * @param position
+     * @return The url, null if the item doesn't show a thumbnail
+     */
+    @Nullable
+    public String getThumbnailUrl(int position) {
+        return getThumbnailUrl(getItem(position));
+    }
+
+    @Nullable
+    private String getThumbnailUrl(ImgurBaseObject obj) {
+        if (obj.isNSFW() && !mAllowNSFWThumb) return null;
+
+        if (obj instanceof ImgurPhoto) {
+            ImgurPhoto photoObject = ((ImgurPhoto) obj);
+
+            // Check if the link is a thumbed version of a large gif
+            if (photoObject.hasVideoLink() && photoObject.isLinkAThumbnail() && ImgurPhoto.IMAGE_TYPE_GIF.equals(photoObject.getType())) {
+                return photoObject.getThumbnail(ImgurPhoto.THUMBNAIL_GALLERY, true, FileUtil.EXTENSION_GIF);
+            }
+
+            return photoObject.getThumbnail(ImgurPhoto.THUMBNAIL_GALLERY, false, null);
+        } else if (obj instanceof ImgurAlbum) {
+            return ((ImgurAlbum) obj).getCoverUrl(mThumbnailQuality);
+        }
+
+        return ImgurBaseObject.getThumbnail(obj.getId(), obj.getLink(), ImgurPhoto.THUMBNAIL_GALLERY);
+    }
+
+    @Override
+    public void onViewRecycled(BaseViewHolder holder) {
+        super.onViewRecycled(holder);
+
+        if (holder instanceof GalleryHolder) {
+            // Let the thumbnail go back to the pool, the view can't draw it once it may be decoded into
+            ImageView image = ((GalleryHolder) holder).image;
+            cancelImage(image);
+            image.setImageDrawable(null);
+            BitmapPool.getInstance().onViewRecycled(image);
+        }
+    }
+
     @Override
     protected DisplayImageOptions getDisplayOptions() {
         // The drawable CAN NOT be Vectors as they do not get converted to bitmap on decoding
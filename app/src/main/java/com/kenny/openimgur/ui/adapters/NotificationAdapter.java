@@ -59,6 +59,12 @@ public class NotificationAdapter extends BaseRecyclerAdapter<ImgurNotification>
         super.onDestroy();
     }
 
+    @Override
+    public void onViewRecycled(BaseViewHolder holder) {
+        super.onViewRecycled(holder);
+        if (holder instanceof NotificationHolder) cancelImage(((NotificationHolder) holder).image);
+    }
+
     @Override
     protected DisplayImageOptions getDisplayOptions() {
         return ImageUtil.getDisplayOptionsForComments().build();
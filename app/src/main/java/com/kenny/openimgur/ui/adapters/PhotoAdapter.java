@@ -20,6 +20,7 @@ import com.kenny.openimgur.R;
 import com.kenny.openimgur.classes.ImgurBaseObject;
 import com.kenny.openimgur.classes.ImgurListener;
 import com.kenny.openimgur.classes.ImgurPhoto;
+import com.kenny.openimgur.classes.ProgressiveImageLoader;
 import com.kenny.openimgur.ui.PointsBar;
 import com.kenny.openimgur.ui.VideoView;
 import com.kenny.openimgur.util.FileUtil;
@@ -44,10 +45,13 @@ public class PhotoAdapter extends BaseRecyclerAdapter<ImgurPhoto> {
 
     ImgurBaseObject mImgurObject;
 
+    private final ProgressiveImageLoader mProgressiveLoader;
+
     public PhotoAdapter(Context context, List<ImgurPhoto> photos, ImgurBaseObject object, ImgurListener listener) {
         super(context, photos, true);
         mListener = listener;
         mImgurObject = object;
+        mProgressiveLoader = new ProgressiveImageLoader(ImageUtil.getImageLoader(context));
     }
 
     /**
@@ -56,6 +60,7 @@ public class PhotoAdapter extends BaseRecyclerAdapter<ImgurPhoto> {
     @Override
     public void onDestroy() {
         mListener = null;
+        mProgressiveLoader.clear();
         super.onDestroy();
     }
 
@@ -172,6 +177,7 @@ public class PhotoAdapter extends BaseRecyclerAdapter<ImgurPhoto> {
             //Linkify.addLinks(photoHolder.desc, Linkify.WEB_URLS);
             //Linkify.addLinks(photoHolder.desc, LinkUtils.USER_CALLOUT_PATTERN, null);
             displayImage(photoHolder.image, url);
+            mProgressiveLoader.displayPreview(photoHolder.image, photo, url);
         }
     }
 
@@ -316,6 +322,8 @@ public class PhotoAdapter extends BaseRecyclerAdapter<ImgurPhoto> {
 
         if (holder instanceof PhotoViewHolder) {
             PhotoViewHolder photoViewHolder = (PhotoViewHolder) holder;
+            cancelImage(photoViewHolder.image);
+            mProgressiveLoader.cancel(photoViewHolder.image);
 
             if (photoViewHolder.image.getDrawable() instanceof GifDrawable) {
                 GifDrawable gif = (GifDrawable) photoViewHolder.image.getDrawable();
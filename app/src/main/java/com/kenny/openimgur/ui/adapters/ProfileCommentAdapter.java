@@ -44,6 +44,12 @@ public class ProfileCommentAdapter extends BaseRecyclerAdapter<ImgurComment> {
         super.onDestroy();
     }
 
+    @Override
+    public void onViewRecycled(BaseViewHolder holder) {
+        super.onViewRecycled(holder);
+        if (holder instanceof CommentViewHolder) cancelImage(((CommentViewHolder) holder).image);
+    }
+
     @Override
     protected DisplayImageOptions getDisplayOptions() {
         return ImageUtil.getDisplayOptionsForComments().build();
@@ -120,6 +120,12 @@ public class ProfileInfoAdapter extends BaseRecyclerAdapter<ImgurTrophy> {
         super.onDestroy();
     }
 
+    @Override
+    public void onViewRecycled(BaseViewHolder holder) {
+        super.onViewRecycled(holder);
+        if (holder instanceof TrophyHolder) cancelImage(((TrophyHolder) holder).trophyImage);
+    }
+
     static class InfoHolder extends BaseViewHolder {
         @BindView(R.id.notoriety)
         TextView notoriety;
@@ -7,6 +7,7 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 
 import com.kenny.openimgur.R;
+import com.kenny.openimgur.classes.BitmapPool;
 import com.kenny.openimgur.classes.ImgurAlbum;
 import com.kenny.openimgur.classes.ImgurPhoto;
 import com.kenny.openimgur.util.DBContracts;
@@ -15,6 +16,8 @@ import com.kennyc.adapters.CursorRecyclerAdapter;
 import com.nostra13.universalimageloader.core.DisplayImageOptions;
 import com.nostra13.universalimageloader.core.ImageLoader;
 
+import java.util.WeakHashMap;
+
 import butterknife.BindView;
 
 /**
@@ -29,6 +32,9 @@ public class UploadAdapter extends CursorRecyclerAdapter<UploadAdapter.UploadHol
 
     private ImageLoader loader;
 
+    // Views images have been displayed in, so loads still running can be cancelled in onDestroy
+    private final WeakHashMap<ImageView, Boolean> imageViews = new WeakHashMap<>();
+
     public UploadAdapter(Context context, Cursor cursor, View.OnClickListener listener, View.OnLongClickListener longClickListener) {
         super(context, cursor);
         clickListener = listener;
@@ -40,6 +46,12 @@ public class UploadAdapter extends CursorRecyclerAdapter<UploadAdapter.UploadHol
     public void onDestroy() {
         clickListener = null;
         longClickListener = null;
+
+        for (ImageView imageView : imageViews.keySet()) {
+            ImageUtil.cancelDisplayTask(loader, imageView);
+        }
+
+        imageViews.clear();
     }
 
     @Override
@@ -68,10 +80,21 @@ public class UploadAdapter extends CursorRecyclerAdapter<UploadAdapter.UploadHol
             holder.albumIndicator.setVisibility(View.GONE);
         }
 
-        loader.displayImage(url, holder.image, options);
+        ImageUtil.cancelDisplayTask(loader, holder.image);
+        imageViews.put(holder.image, Boolean.TRUE);
+        ImageUtil.displayImage(loader, url, holder.image, options);
         // TODO Album count
     }
 
+    @Override
+    public void onViewRecycled(UploadHolder holder) {
+        super.onViewRecycled(holder);
+        ImageUtil.cancelDisplayTask(loader, holder.image);
+        // The gallery options decode into pooled bitmaps, let the thumbnail go back to the pool
+        holder.image.setImageDrawable(null);
+        BitmapPool.getInstance().onViewRecycled(holder.image);
+    }
+
     public Cursor getCursor() {
         return super.getCursor();
     }
@@ -41,6 +41,12 @@ public class UploadPhotoAdapter extends BaseRecyclerAdapter<Upload> {
         mListener = null;
     }
 
+    @Override
+    public void onViewRecycled(BaseViewHolder holder) {
+        super.onViewRecycled(holder);
+        if (holder instanceof UploadPhotoHolder) cancelImage(((UploadPhotoHolder) holder).image);
+    }
+
     public boolean onItemMove(int from, int to) {
         if (from != RecyclerView.NO_POSITION && to != RecyclerView.NO_POSITION) {
             int movement = Math.abs(from - to);
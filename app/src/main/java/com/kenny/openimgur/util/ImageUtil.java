@@ -22,23 +22,42 @@ import android.support.annotation.Nullable;
 import android.support.v4.content.res.ResourcesCompat;
 import android.text.TextUtils;
 import android.text.format.DateUtils;
+import android.util.DisplayMetrics;
 import android.util.Log;
+import android.view.View;
 import android.widget.ImageView;
 
 import com.kenny.openimgur.activities.SettingsActivity;
+import com.kenny.openimgur.classes.BitmapPool;
+import com.kenny.openimgur.classes.CompletingDiskCache;
+import com.kenny.openimgur.classes.ImageFetchController;
+import com.kenny.openimgur.classes.ImageMemoryCache;
+import com.kenny.openimgur.classes.ImagePipeline;
+import com.kenny.openimgur.classes.MediaCache;
+import com.kenny.openimgur.classes.MediaDiskCache;
+import com.kenny.openimgur.classes.MeteredImageDownloader;
 import com.kenny.openimgur.classes.OpengurApp;
+import com.kenny.openimgur.classes.PooledImageDecoder;
 import com.kenny.openimgur.classes.VideoCache;
 import com.kenny.openimgur.ui.CircleBitmapDisplayer;
+import com.kenny.openimgur.ui.PooledBitmapDisplayer;
 import com.nostra13.universalimageloader.cache.disc.DiskCache;
-import com.nostra13.universalimageloader.cache.disc.impl.UnlimitedDiskCache;
-import com.nostra13.universalimageloader.cache.disc.impl.ext.LruDiskCache;
-import com.nostra13.universalimageloader.cache.disc.naming.Md5FileNameGenerator;
 import com.nostra13.universalimageloader.core.DisplayImageOptions;
 import com.nostra13.universalimageloader.core.ImageLoader;
 import com.nostra13.universalimageloader.core.ImageLoaderConfiguration;
+import com.nostra13.universalimageloader.core.assist.FailReason;
 import com.nostra13.universalimageloader.core.assist.ImageScaleType;
+import com.nostra13.universalimageloader.core.assist.ImageSize;
+import com.nostra13.universalimageloader.core.assist.ViewScaleType;
 import com.nostra13.universalimageloader.core.display.FadeInBitmapDisplayer;
+import com.nostra13.universalimageloader.core.imageaware.ImageAware;
+import com.nostra13.universalimageloader.core.imageaware.ImageViewAware;
+import com.nostra13.universalimageloader.core.imageaware.NonViewAware;
+import com.nostra13.universalimageloader.core.listener.ImageLoadingListener;
+import com.nostra13.universalimageloader.core.listener.ImageLoadingProgressListener;
 import com.nostra13.universalimageloader.utils.DiskCacheUtils;
+import com.nostra13.universalimageloader.utils.ImageSizeUtils;
+import com.nostra13.universalimageloader.utils.MemoryCacheUtils;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -54,6 +73,8 @@ public class ImageUtil {
 
     private static ImageLoader imageLoader;
 
+    private static ImageMemoryCache sMemoryCache;
+
     /**
      * Converts a bitmap to grayscale
      *
@@ -159,89 +180,194 @@ public class ImageUtil {
     }
 
     /**
-     * Initializes the ImageLoader
+     * Loads an image without a view like {@link ImageLoader#loadImage(String, ImageSize, DisplayImageOptions, ImageLoadingListener, ImageLoadingProgressListener)},
+     * but returns what the image is loaded into so the load can be cancelled with {@link #cancelDisplayTask(ImageLoader, ImageAware)}
      *
-     * @param context App context
+     * @param imageLoader
+     * @param url
+     * @param size             The size to load the image at, null for the size of the screen
+     * @param options
+     * @param listener
+     * @param progressListener
+     * @return
      */
-    public static void initImageLoader(Context context) {
-        long discCacheSize = 1024 * 1024;
-        DiskCache discCache;
-        int threadPoolSize;
-        SharedPreferences pref = PreferenceManager.getDefaultSharedPreferences(context);
-        String discCacheAllowance = pref.getString(SettingsActivity.KEY_CACHE_SIZE, SettingsActivity.CACHE_SIZE_512MB);
-        String threadSize = pref.getString(SettingsActivity.KEY_THREAD_SIZE, SettingsActivity.THREAD_SIZE_5);
-        String cacheKey = pref.getString(SettingsActivity.KEY_CACHE_LOC, SettingsActivity.CACHE_LOC_INTERNAL);
-        File baseDir = getCacheDirectory(context, cacheKey);
-        checkForOldCache(pref, baseDir);
-        File dir = new File(baseDir, "image_cache");
+    @NonNull
+    public static ImageAware loadImage(@NonNull ImageLoader imageLoader, String url, @Nullable ImageSize size, @Nullable DisplayImageOptions options,
+                                       @Nullable ImageLoadingListener listener, @Nullable ImageLoadingProgressListener progressListener) {
+        if (size == null) {
+            DisplayMetrics metrics = Resources.getSystem().getDisplayMetrics();
+            size = new ImageSize(metrics.widthPixels, metrics.heightPixels);
+        }
 
+        ImageAware imageAware = new NonViewAware(url, size, ViewScaleType.CROP);
+        displayImage(imageLoader, url, imageAware, options, listener, progressListener);
+        return imageAware;
+    }
 
-        switch (discCacheAllowance) {
-            case SettingsActivity.CACHE_SIZE_256MB:
-                discCacheSize *= 256;
-                break;
+    /**
+     * Displays an image in the view like {@link ImageLoader#displayImage(String, ImageView, DisplayImageOptions)}
+     *
+     * @param imageLoader
+     * @param url
+     * @param imageView
+     * @param options
+     * @return If the image was displayed from the memory cache
+     * @see #displayImage(ImageLoader, String, ImageAware, DisplayImageOptions, ImageLoadingListener, ImageLoadingProgressListener)
+     */
+    public static boolean displayImage(@NonNull ImageLoader imageLoader, String url, @NonNull ImageView imageView, @Nullable DisplayImageOptions options) {
+        return displayImage(imageLoader, url, new ImageViewAware(imageView), options, null, null);
+    }
 
-            case SettingsActivity.CACHE_SIZE_1GB:
-                discCacheSize *= 1024;
-                break;
+    /**
+     * Displays an image in the view like {@link ImageLoader#displayImage(String, ImageView, DisplayImageOptions, ImageLoadingListener, ImageLoadingProgressListener)}
+     *
+     * @param imageLoader
+     * @param url
+     * @param imageView
+     * @param options
+     * @param listener
+     * @param progressListener
+     * @return If the image was displayed from the memory cache
+     * @see #displayImage(ImageLoader, String, ImageAware, DisplayImageOptions, ImageLoadingListener, ImageLoadingProgressListener)
+     */
+    public static boolean displayImage(@NonNull ImageLoader imageLoader, String url, @NonNull ImageView imageView, @Nullable DisplayImageOptions options,
+                                       @Nullable ImageLoadingListener listener, @Nullable ImageLoadingProgressListener progressListener) {
+        return displayImage(imageLoader, url, new ImageViewAware(imageView), options, listener, progressListener);
+    }
 
-            case SettingsActivity.CACHE_SIZE_2GB:
-                discCacheSize *= 2048;
-                break;
+    /**
+     * Displays an image like {@link ImageLoader#displayImage(String, ImageAware, DisplayImageOptions, ImageLoadingListener, ImageLoadingProgressListener)}.
+     * The image loader keeps the key of an image it displayed from the memory cache as if the image was still loading,
+     * here it is cleared so {@link ImageLoader#getLoadingUriForView(ImageAware)} only returns the keys of pending loads
+     *
+     * @param imageLoader
+     * @param url
+     * @param imageAware
+     * @param options
+     * @param listener
+     * @param progressListener
+     * @return If the image was displayed from the memory cache
+     */
+    public static boolean displayImage(@NonNull ImageLoader imageLoader, String url, @NonNull ImageAware imageAware, @Nullable DisplayImageOptions options,
+                                       @Nullable ImageLoadingListener listener, @Nullable ImageLoadingProgressListener progressListener) {
+        if (TextUtils.isEmpty(url) || (options != null && options.shouldPostProcess())) {
+            imageLoader.displayImage(url, imageAware, options, listener, progressListener);
+            return false;
+        }
 
-            case SettingsActivity.CACHE_SIZE_UNLIMITED:
-                discCacheSize = -1;
-                break;
+        String key = getMemoryCacheKey(url, imageAware);
+        boolean cached = isInMemoryCache(imageLoader, key);
+        DisplayTaskListener displayListener = new DisplayTaskListener(key, listener);
+        imageLoader.displayImage(url, imageAware, options, displayListener, progressListener);
+        displayListener.mAsync = true;
 
-            case SettingsActivity.CACHE_SIZE_512MB:
-            default:
-                discCacheSize *= 512;
-                break;
+        // It can only have been displayed from memory if it was there both before and after
+        if (cached && key.equals(imageLoader.getLoadingUriForView(imageAware)) && isInMemoryCache(imageLoader, key)) {
+            imageLoader.cancelDisplayTask(imageAware);
+            return true;
         }
 
-        switch (threadSize) {
-            case SettingsActivity.THREAD_SIZE_7:
-                threadPoolSize = 7;
-                break;
+        return false;
+    }
 
-            case SettingsActivity.THREAD_SIZE_10:
-                threadPoolSize = 10;
-                break;
+    /**
+     * Returns if the view is waiting on an image that isn't in the memory cache yet
+     *
+     * @param imageLoader
+     * @param imageAware
+     * @return
+     */
+    public static boolean isLoadPending(@NonNull ImageLoader imageLoader, @NonNull ImageAware imageAware) {
+        String key = imageLoader.getLoadingUriForView(imageAware);
+        return key != null && !isInMemoryCache(imageLoader, key);
+    }
 
-            case SettingsActivity.THREAD_SIZE_12:
-                threadPoolSize = 12;
-                break;
+    /**
+     * Cancels the image being loaded, if it hasn't finished. Any download that is nearly done is still finished into
+     * the disk cache, but the image won't be decoded
+     *
+     * @param imageLoader
+     * @param imageAware
+     * @return If a pending load was cancelled
+     */
+    public static boolean cancelDisplayTask(@NonNull ImageLoader imageLoader, @Nullable ImageAware imageAware) {
+        if (imageAware == null) return false;
+        String key = imageLoader.getLoadingUriForView(imageAware);
+        if (key == null) return false;
+        imageLoader.cancelDisplayTask(imageAware);
+
+        // Already decoded and only waiting to be displayed, there is nothing left to avoid
+        if (isInMemoryCache(imageLoader, key)) return false;
+        ImagePipeline.getInstance().onLoadCancelled(key);
+        return true;
+    }
 
-            case SettingsActivity.THREAD_SIZE_5:
-            default:
-                threadPoolSize = 5;
-                break;
-        }
+    /**
+     * Cancels the image being loaded into the view, if it hasn't finished
+     *
+     * @param imageLoader
+     * @param imageView
+     * @return If a pending load was cancelled
+     */
+    public static boolean cancelDisplayTask(@NonNull ImageLoader imageLoader, @Nullable ImageView imageView) {
+        return imageView != null && cancelDisplayTask(imageLoader, new ImageViewAware(imageView));
+    }
 
-        if (discCacheSize > 0) {
-            try {
-                discCache = new LruDiskCache(dir, new Md5FileNameGenerator(), discCacheSize);
-                LogUtil.v(TAG, "Disc cache set to " + FileUtil.humanReadableByteCount(discCacheSize, false));
-            } catch (IOException e) {
-                LogUtil.e(TAG, "Unable to set the disc cache, falling back to unlimited", e);
-                discCache = new UnlimitedDiskCache(dir);
-            }
-        } else {
-            LogUtil.v(TAG, "Disc cache set to unlimited");
-            discCache = new UnlimitedDiskCache(dir);
-        }
+    /**
+     * Returns the memory cache key the image loader uses for the image displayed in the view, the same way it does
+     * when asked to display it
+     */
+    private static String getMemoryCacheKey(String url, ImageAware imageAware) {
+        DisplayMetrics metrics = OpengurApp.getInstance().getResources().getDisplayMetrics();
+        ImageSize maxSize = new ImageSize(metrics.widthPixels, metrics.heightPixels);
+        return MemoryCacheUtils.generateKey(url, ImageSizeUtils.defineTargetSizeForView(imageAware, maxSize));
+    }
+
+    private static boolean isInMemoryCache(ImageLoader imageLoader, String key) {
+        // The image loader wraps our cache, which can be asked without counting a hit or miss
+        if (sMemoryCache != null) return sMemoryCache.contains(key);
+        Bitmap bitmap = imageLoader.getMemoryCache().get(key);
+        return bitmap != null && !bitmap.isRecycled();
+    }
+
+    /**
+     * Returns the memory cache of the image loader, null if it has not been initialized
+     *
+     * @return
+     */
+    @Nullable
+    public static ImageMemoryCache getMemoryCache() {
+        return sMemoryCache;
+    }
+
+    /**
+     * Initializes the ImageLoader
+     *
+     * @param context App context
+     */
+    public static void initImageLoader(Context context) {
+        SharedPreferences pref = PreferenceManager.getDefaultSharedPreferences(context);
+        String cacheKey = pref.getString(SettingsActivity.KEY_CACHE_LOC, SettingsActivity.CACHE_LOC_INTERNAL);
+        checkForOldCache(pref, getCacheDirectory(context, cacheKey));
+
+        // The media cache decides when images are evicted, along with videos and HTTP responses
+        DiskCache discCache = new MediaDiskCache(MediaCache.getInstance());
 
         final int memory = (int) (Runtime.getRuntime().maxMemory() / 8);
+        if (sMemoryCache == null) sMemoryCache = new ImageMemoryCache(memory);
         LogUtil.v(TAG, "Disc Cache located at " + discCache.getDirectory().getAbsolutePath());
         LogUtil.v(TAG, "Using " + FileUtil.humanReadableByteCount(memory, false) + "  for memory cache");
-        LogUtil.v(TAG, "Using " + threadPoolSize + " threads for image loader");
+        LogUtil.v(TAG, "Using " + ImageFetchController.getInstance().getThreads() + " fetch threads and " + ImagePipeline.getInstance().getDecodeThreads() + " decode threads for image loader");
 
         ImageLoaderConfiguration config = new ImageLoaderConfiguration.Builder(context)
-                .threadPoolSize(threadPoolSize)
+                .taskExecutor(ImageFetchController.getInstance().getExecutor())
                 .denyCacheImageMultipleSizesInMemory()
-                .diskCache(discCache)
+                .diskCache(new CompletingDiskCache(discCache))
                 .defaultDisplayImageOptions(getDefaultDisplayOptions().build())
-                .memoryCacheSize(memory)
+                .memoryCache(sMemoryCache)
+                .imageDownloader(new MeteredImageDownloader(context))
+                .imageDecoder(new PooledImageDecoder(false))
+                .taskExecutorForCachedImages(ImagePipeline.getInstance().getCachedImageExecutor())
                 .build();
 
         if (ImageLoader.getInstance().isInited()) {
@@ -271,13 +397,14 @@ public class ImageUtil {
 
     /**
      * Returns the display options for the image loader when loading for the gallery.
-     * Fades in the images when loaded from the network. Also uses Bitmap.Config.RGB_565 for less memory usage
+     * Fades in the images when loaded from the network. Also uses Bitmap.Config.RGB_565 for less memory usage, which
+     * has the images decoded into bitmaps from the {@link com.kenny.openimgur.classes.BitmapPool}
      *
      * @return
      */
     public static DisplayImageOptions.Builder getDisplayOptionsForGallery() {
         return getDefaultDisplayOptions()
-                .displayer(new FadeInBitmapDisplayer(250, true, false, false))
+                .displayer(new PooledBitmapDisplayer(new FadeInBitmapDisplayer(250, true, false, false)))
                 .bitmapConfig(Bitmap.Config.RGB_565)
                 .imageScaleType(ImageScaleType.EXACTLY);
     }
@@ -434,18 +561,6 @@ public class ImageUtil {
         return new int[]{options.outWidth, options.outHeight};
     }
 
-    /**
-     * Returns the entire size of the image cache, including videos
-     *
-     * @param context
-     * @return
-     */
-    public static long getTotalImageCacheSize(@NonNull Context context) {
-        long cacheSize = FileUtil.getDirectorySize(getImageLoader(context).getDiskCache().getDirectory());
-        cacheSize += VideoCache.getInstance().getCacheSize();
-        return cacheSize;
-    }
-
     /**
      * Checks if the user is using the new cache directory of images. If they are not, the old one will be deleted for updating.
      * <p/>
@@ -463,4 +578,45 @@ public class ImageUtil {
             }
         }
     }
+
+    /**
+     * Tells the {@link BitmapPool} once the display task of a load has run, so a bitmap is never pooled between being
+     * put in the memory cache and being displayed
+     */
+    private static class DisplayTaskListener implements ImageLoadingListener {
+        private final String mKey;
+
+        @Nullable
+        private final ImageLoadingListener mListener;
+
+        // Callbacks made before displayImage returns are for images shown straight from the memory cache
+        boolean mAsync = false;
+
+        DisplayTaskListener(String key, @Nullable ImageLoadingListener listener) {
+            mKey = key;
+            mListener = listener;
+        }
+
+        @Override
+        public void onLoadingStarted(String imageUri, View view) {
+            if (mListener != null) mListener.onLoadingStarted(imageUri, view);
+        }
+
+        @Override
+        public void onLoadingFailed(String imageUri, View view, FailReason failReason) {
+            if (mListener != null) mListener.onLoadingFailed(imageUri, view, failReason);
+        }
+
+        @Override
+        public void onLoadingComplete(String imageUri, View view, Bitmap loadedImage) {
+            if (mAsync) BitmapPool.getInstance().onDisplayTaskFinished(mKey, loadedImage);
+            if (mListener != null) mListener.onLoadingComplete(imageUri, view, loadedImage);
+        }
+
+        @Override
+        public void onLoadingCancelled(String imageUri, View view) {
+            if (mAsync) BitmapPool.getInstance().onDisplayTaskFinished(mKey, null);
+            if (mListener != null) mListener.onLoadingCancelled(imageUri, view);
+        }
+    }
 }
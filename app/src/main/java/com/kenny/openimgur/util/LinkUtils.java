@@ -1,5 +1,6 @@
 package com.kenny.openimgur.util;
 
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
 
@@ -14,34 +15,15 @@ import java.util.regex.Pattern;
 public class LinkUtils {
     private static final String TAG = LinkUtils.class.getSimpleName();
 
-    private static final String REGEX_IMAGE_URL = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://\\S+(.jpg|.jpeg|.gif|.png)$";
+    // Dots in the hosts and before extensions match any character on the line, as they did in the regular expressions
+    // links were previously matched with
+    private static final String[] IMGUR_HOSTS = {"m.imgur.com", "imgur.com", "i.imgur.com"};
 
-    private static final String REGEX_IMGUR_IMAGE = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://" +
-            "(m.imgur.com|imgur.com|i.imgur.com)/(?!=/)\\w+$";
+    private static final String[] IMAGE_EXTENSIONS = {"jpg", "jpeg", "gif", "png"};
 
-    private static final String REGEX_IMGUR_IMAGE_QUERY = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://(m.imgur.com|imgur.com|i.imgur.com)/(?!=/)\\w+\\?\\w+$";
+    private static final String[] DIRECT_LINK_EXTENSIONS = {"jpg", "jpeg", "gif", "png", "gifv", "mp4", "webm"};
 
-    private static final String REGEX_IMGUR_GALLERY = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://" +
-            "(m.imgur.com|imgur.com|i.imgur.com)/gallery/.+";
-
-    private static final String REGEX_IMGUR_USER = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://" +
-            "(m.imgur.com|imgur.com|i.imgur.com)/user/.+";
-
-
-    private static final String REGEX_IMGUR_ALBUM = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://" +
-            "(m.imgur.com|imgur.com|i.imgur.com)/a/.+";
-
-    private static final String REGEX_IMGUR_DIRECT_LINK = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://" +
-            "(m.imgur.com|imgur.com|i.imgur.com)/(?!=/)\\w+(.jpg|.jpeg|.gif|.png|.gifv|.mp4|.webm)$";
-
-    private static final String REGEX_IMGUR_USER_CALLOUT = "@\\w+";
-
-    private static final String REGEX_IMAGE_URL_QUERY = "([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://\\S+(.jpg|.jpeg|.gif|.png)\\?\\w+$";
-
-    private static final String REGEX_IMGUR_PHOTO_PNG = "([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://(m.imgur.com/|imgur.com/|i.imgur.com/)\\w+\\.png$";
-
-    private static final String REGEX_IMGUR_TOPIC = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://" +
-            "(m.imgur.com|imgur.com|i.imgur.com)/topic/.+";
+    private static final Pattern IMGUR_PHOTO_PNG_PATTERN = Pattern.compile("([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://(m.imgur.com/|imgur.com/|i.imgur.com/)\\w+\\.png$");
 
     // Patterns used to extract Imgur meta data from Urls
     private static final Pattern ID_PATTERN = Pattern.compile("(?<=.com/)\\w+$");
@@ -72,6 +54,38 @@ public class LinkUtils {
         NONE
     }
 
+    /**
+     * The type of an Imgur link along with the id it points to
+     */
+    public static class ImgurLink {
+        static final ImgurLink NONE = new ImgurLink(LinkMatch.NONE, null);
+
+        private final LinkMatch mMatch;
+
+        private final String mId;
+
+        ImgurLink(LinkMatch match, @Nullable String id) {
+            mMatch = match;
+            mId = id;
+        }
+
+        public LinkMatch getMatch() {
+            return mMatch;
+        }
+
+        /**
+         * Returns the id the link points to. This is the gallery id for {@link LinkMatch#GALLERY} and
+         * {@link LinkMatch#TOPIC} links, the username for {@link LinkMatch#USER} links, the album id for
+         * {@link LinkMatch#ALBUM} links and the image id for {@link LinkMatch#IMAGE} links. It is null for all others
+         *
+         * @return
+         */
+        @Nullable
+        public String getId() {
+            return mId;
+        }
+    }
+
     /**
      * Find the type of imgur link that belongs to the url
      *
@@ -79,33 +93,183 @@ public class LinkUtils {
      * @return
      */
     public static LinkMatch findImgurLinkMatch(String url) {
-        LinkMatch match = LinkMatch.NONE;
+        return parseImgurLink(url).getMatch();
+    }
 
-        if (!TextUtils.isEmpty(url)) {
-            if (url.matches(REGEX_IMGUR_DIRECT_LINK)) {
-                match = LinkMatch.DIRECT_LINK;
-            } else if (url.matches(REGEX_IMAGE_URL)) {
-                match = LinkMatch.IMAGE_URL;
-            } else if (url.matches(REGEX_IMGUR_IMAGE)) {
-                match = LinkMatch.IMAGE;
-            } else if (url.matches(REGEX_IMGUR_GALLERY)) {
-                match = LinkMatch.GALLERY;
-            } else if (url.matches(REGEX_IMGUR_USER)) {
-                match = LinkMatch.USER;
-            } else if (url.matches(REGEX_IMGUR_ALBUM)) {
-                match = LinkMatch.ALBUM;
-            } else if (url.matches(REGEX_IMGUR_USER_CALLOUT)) {
-                match = LinkMatch.USER_CALLOUT;
-            } else if (url.matches(REGEX_IMAGE_URL_QUERY)) {
-                match = LinkMatch.IMAGE_URL_QUERY;
-            } else if (url.matches(REGEX_IMGUR_IMAGE_QUERY)) {
-                match = LinkMatch.IMAGE_URL_QUERY;
-            } else if (url.matches(REGEX_IMGUR_TOPIC)) {
-                match = LinkMatch.TOPIC;
+    /**
+     * Finds the type of imgur link that belongs to the url and the id it points to. The url is only scanned once, the
+     * scheme and host are checked first and the path is then dispatched on its first segment
+     *
+     * @param url
+     * @return
+     */
+    @NonNull
+    public static ImgurLink parseImgurLink(@Nullable String url) {
+        if (TextUtils.isEmpty(url)) return ImgurLink.NONE;
+        int length = url.length();
+
+        if (url.charAt(0) == '@') {
+            return length > 1 && skipWord(url, 1) == length ? new ImgurLink(LinkMatch.USER_CALLOUT, null) : ImgurLink.NONE;
+        }
+
+        int start = getSchemeLength(url);
+        if (start < 0) return ImgurLink.NONE;
+
+        // Start of the path for Imgur links and the end of the word it starts with
+        int path = getImgurPathStart(url, start);
+        int word = path >= 0 ? skipWord(url, path) : -1;
+
+        if (word > path && isDirectLink(url, path)) return new ImgurLink(LinkMatch.DIRECT_LINK, null);
+        if (isImageUrl(url, start, length)) return new ImgurLink(LinkMatch.IMAGE_URL, null);
+
+        if (path >= 0) {
+            if (word > path && word == length) {
+                return new ImgurLink(LinkMatch.IMAGE, url.substring(path));
+            } else if (hasPathPrefix(url, path, "gallery/")) {
+                String id = getWord(url, path + 8);
+                return new ImgurLink(LinkMatch.GALLERY, id != null ? id : getGalleryId(url));
+            } else if (hasPathPrefix(url, path, "user/")) {
+                String username = getWord(url, path + 5);
+                return new ImgurLink(LinkMatch.USER, username != null ? username : getUsername(url));
+            } else if (hasPathPrefix(url, path, "a/")) {
+                String id = getWord(url, path + 2);
+                return new ImgurLink(LinkMatch.ALBUM, id != null ? id : getAlbumId(url));
+            }
+        }
+
+        // Queries are only allowed a single word, so the query starts at the last ?
+        int query = url.lastIndexOf('?');
+
+        if (query > start && query < length - 1 && skipWord(url, query + 1) == length) {
+            if (isImageUrl(url, start, query) || (word > path && word == query)) {
+                return new ImgurLink(LinkMatch.IMAGE_URL_QUERY, null);
             }
         }
 
-        return match;
+        if (path >= 0 && hasPathPrefix(url, path, "topic/")) {
+            // Topic links are /topic/{topic}/{id}
+            int topic = skipWord(url, path + 6);
+            int id = topic + 1;
+            boolean found = topic > path + 6 && topic < length && url.charAt(topic) == '/' && id < length && skipWord(url, id) == length;
+            return new ImgurLink(LinkMatch.TOPIC, found ? url.substring(id) : getTopicGalleryId(url));
+        }
+
+        return ImgurLink.NONE;
+    }
+
+    /**
+     * Returns the length of the http or https scheme at the start of the url, -1 if it has neither
+     */
+    private static int getSchemeLength(String url) {
+        int length = url.length();
+        if (length < 7 || !isLetter(url.charAt(0), 'h') || !isLetter(url.charAt(1), 't') || !isLetter(url.charAt(2), 't') || !isLetter(url.charAt(3), 'p')) {
+            return -1;
+        }
+
+        int index = 4;
+        if (isLetter(url.charAt(index), 's')) index++;
+        return url.startsWith("://", index) ? index + 3 : -1;
+    }
+
+    /**
+     * Returns where the path starts if the url is on an Imgur host, -1 if it is not
+     */
+    private static int getImgurPathStart(String url, int start) {
+        int length = url.length();
+
+        for (String host : IMGUR_HOSTS) {
+            int end = start + host.length();
+            if (end >= length || url.charAt(end) != '/') continue;
+            boolean matches = true;
+
+            for (int i = 0; i < host.length() && matches; i++) {
+                char c = url.charAt(start + i);
+                matches = host.charAt(i) == '.' ? !isLineTerminator(c) : host.charAt(i) == c;
+            }
+
+            if (matches) return end + 1;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns if the path is a single word followed by one of {@link #DIRECT_LINK_EXTENSIONS}
+     */
+    private static boolean isDirectLink(String url, int path) {
+        for (String extension : DIRECT_LINK_EXTENSIONS) {
+            if (!url.endsWith(extension)) continue;
+            int dot = url.length() - extension.length() - 1;
+            return dot > path && skipWord(url, path) >= dot && !isLineTerminator(url.charAt(dot));
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns if the url between start and end has no whitespace and ends in one of {@link #IMAGE_EXTENSIONS}
+     */
+    private static boolean isImageUrl(String url, int start, int end) {
+        for (String extension : IMAGE_EXTENSIONS) {
+            int dot = end - extension.length() - 1;
+            if (dot < 0 || !url.startsWith(extension, dot + 1)) continue;
+            if (dot <= start || isLineTerminator(url.charAt(dot))) return false;
+
+            for (int i = start; i < dot; i++) {
+                if (isWhitespace(url.charAt(i))) return false;
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns if the path starts with the prefix and is followed by anything on the same line
+     */
+    private static boolean hasPathPrefix(String url, int path, String prefix) {
+        int end = path + prefix.length();
+        if (end >= url.length() || !url.startsWith(prefix, path)) return false;
+
+        for (int i = end; i < url.length(); i++) {
+            if (isLineTerminator(url.charAt(i))) return false;
+        }
+
+        return true;
+    }
+
+    @Nullable
+    private static String getWord(String url, int start) {
+        int end = skipWord(url, start);
+        return end > start ? url.substring(start, end) : null;
+    }
+
+    /**
+     * Returns the index of the first character at or after start that is not a word character
+     */
+    private static int skipWord(String url, int start) {
+        int i = start;
+
+        while (i < url.length()) {
+            char c = url.charAt(i);
+            if ((c < 'a' || c > 'z') && (c < 'A' || c > 'Z') && (c < '0' || c > '9') && c != '_') break;
+            i++;
+        }
+
+        return i;
+    }
+
+    private static boolean isLetter(char c, char lowerCase) {
+        return c == lowerCase || c == Character.toUpperCase(lowerCase);
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 
     /**
@@ -271,7 +435,7 @@ public class LinkUtils {
     public static boolean isImgurPNG(@Nullable String url) {
         if (TextUtils.isEmpty(url)) return false;
 
-        return url.matches(REGEX_IMGUR_PHOTO_PNG);
+        return IMGUR_PHOTO_PNG_PATTERN.matcher(url).matches();
     }
 
     /**
@@ -0,0 +1,161 @@
+package com.kenny.openimgur.api;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.kenny.openimgur.classes.ImgurAlbum;
+import com.kenny.openimgur.classes.ImgurBaseObject;
+import com.kenny.openimgur.classes.ImgurPhoto;
+import com.kenny.openimgur.util.LogUtil;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Parses a synthetic gallery page with the streaming {@link ImgurSerializer} and with the tree based deserializer it
+ * replaced, printing the time and allocation per page. Run the main method on a desktop JVM, allocation is read from
+ * the HotSpot {@link com.sun.management.ThreadMXBean}.
+ */
+public class ImgurSerializerBenchmark {
+    static final int PAGE_SIZE = 60;
+
+    private static final int WARMUP = 3000;
+
+    private static final int ITERATIONS = 20000;
+
+    private static final int ROUNDS = 3;
+
+    static class Page {
+        List<ImgurBaseObject> data = new ArrayList<>();
+        boolean success;
+        int status;
+    }
+
+    public static void main(String[] args) {
+        LogUtil.onCreateApplication(false);
+        String json = page(PAGE_SIZE, new Random(42));
+        Gson tree = createGson(new TreeImgurSerializer());
+        Gson stream = ApiClient.getGson();
+        System.out.println("page bytes=" + json.length() + " items=" + PAGE_SIZE);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            run("tree  ", tree, json);
+            run("stream", stream, json);
+        }
+    }
+
+    static Gson createGson(Object serializer) {
+        return new GsonBuilder()
+                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+                .registerTypeAdapter(ImgurBaseObject.class, serializer)
+                .create();
+    }
+
+    private static void run(String name, Gson gson, String json) {
+        for (int i = 0; i < WARMUP; i++) {
+            gson.fromJson(new StringReader(json), Page.class);
+        }
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocated = bean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        int items = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            items += gson.fromJson(new StringReader(json), Page.class).data.size();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        allocated = bean.getThreadAllocatedBytes(threadId) - allocated;
+        System.out.println(String.format("%s %.1f us/page %.1f KB allocated/page (%d items)", name,
+                elapsed / 1000.0 / ITERATIONS, allocated / 1024.0 / ITERATIONS, items));
+    }
+
+    /**
+     * Builds a gallery page shaped like the API's, including the fields the app skips. About a third of the items are
+     * albums and a quarter of the photos are animated
+     *
+     * @param size   Number of items on the page
+     * @param random Source of the item values
+     * @return
+     */
+    static String page(int size, Random random) {
+        StringBuilder sb = new StringBuilder("{\"data\":[");
+
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(',');
+            String id = Long.toString(Math.abs(random.nextLong()), 36).substring(0, 7);
+            boolean album = random.nextInt(3) == 0;
+            boolean animated = !album && random.nextInt(4) == 0;
+
+            sb.append("{\"id\":\"").append(id).append("\",\"title\":\"Some gallery post title number ").append(i)
+                    .append("\",\"description\":").append(random.nextBoolean() ? "null" : "\"A longer description of the post with some words in it\"")
+                    .append(",\"datetime\":").append(1470000000 + random.nextInt(1000000))
+                    .append(",\"cover\":").append(album ? "\"" + id + "c\"" : "null")
+                    .append(",\"cover_width\":1024,\"cover_height\":768,\"account_url\":\"user").append(i)
+                    .append("\",\"account_id\":").append(1000 + i)
+                    .append(",\"privacy\":\"public\",\"layout\":\"blog\",\"views\":").append(random.nextInt(100000))
+                    .append(",\"link\":\"http://").append(album ? "imgur.com/a/" + id : "i.imgur.com/" + id + (animated ? ".gif" : ".jpg"))
+                    .append("\",\"ups\":").append(random.nextInt(5000)).append(",\"downs\":").append(random.nextInt(300))
+                    .append(",\"points\":").append(random.nextInt(5000)).append(",\"score\":").append(random.nextInt(5000))
+                    .append(",\"is_album\":").append(album).append(",\"vote\":null,\"favorite\":false,\"nsfw\":").append(random.nextInt(10) == 0)
+                    .append(",\"section\":\"funny\",\"comment_count\":").append(random.nextInt(500))
+                    .append(",\"topic\":\"No Topic\",\"topic_id\":29,\"in_most_viral\":true,\"is_ad\":false,\"in_gallery\":true")
+                    .append(",\"tags\":[{\"name\":\"funny\",\"display_name\":\"funny\",\"followers\":100,\"total_items\":5000}]");
+
+            if (album) {
+                sb.append(",\"images_count\":").append(1 + random.nextInt(20));
+            } else {
+                sb.append(",\"type\":\"").append(animated ? "image/gif" : "image/jpeg").append("\",\"animated\":").append(animated)
+                        .append(",\"width\":").append(400 + random.nextInt(2000)).append(",\"height\":").append(400 + random.nextInt(2000))
+                        .append(",\"size\":").append(random.nextInt(5000000)).append(",\"bandwidth\":").append(random.nextLong() & 0xffffffffL);
+
+                if (animated) {
+                    sb.append(",\"mp4\":\"http://i.imgur.com/").append(id).append(".mp4\",\"mp4_size\":").append(random.nextInt(3000000))
+                            .append(",\"gifv\":\"http://i.imgur.com/").append(id).append(".gifv\",\"looping\":true");
+                }
+            }
+
+            sb.append('}');
+        }
+
+        return sb.append("],\"success\":true,\"status\":200}").toString();
+    }
+
+    /**
+     * The deserializer {@link ImgurSerializer} replaced. Builds a JsonElement tree, then makes a second reflective pass
+     */
+    static class TreeImgurSerializer implements JsonDeserializer<ImgurBaseObject> {
+        private final Gson gson = new GsonBuilder().create();
+
+        @Override
+        public ImgurBaseObject deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
+            JsonObject object = json.getAsJsonObject();
+            boolean isAlbum = object.has("images_count") && object.get("images_count").getAsInt() > 0;
+            ImgurBaseObject obj = gson.fromJson(json, isAlbum ? ImgurAlbum.class : ImgurPhoto.class);
+
+            if (object.has("in_gallery")) {
+                obj.setIsListed(object.get("in_gallery").getAsBoolean());
+            } else if (object.has("ups") && object.has("downs")) {
+                boolean hasUpVotes = !object.get("ups").isJsonNull();
+                boolean hasDownVotes = !object.get("downs").isJsonNull();
+                obj.setIsListed(hasUpVotes && hasDownVotes);
+            } else {
+                obj.setIsListed(false);
+            }
+
+            obj.toHttps();
+            return obj;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.kenny.openimgur.api;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.kenny.openimgur.classes.ImgurAlbum;
+import com.kenny.openimgur.classes.ImgurBaseObject;
+import com.kenny.openimgur.classes.ImgurPhoto;
+import com.kenny.openimgur.classes.ImgurTag;
+import com.kenny.openimgur.util.LogUtil;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ImgurSerializerTest {
+    private static final Type ITEMS_TYPE = new TypeToken<List<ImgurBaseObject>>() {
+    }.getType();
+
+    @BeforeClass
+    public static void setUp() {
+        LogUtil.onCreateApplication(false);
+    }
+
+    @Test
+    public void matchesTreeDeserializer() {
+        String json = ImgurSerializerBenchmark.page(ImgurSerializerBenchmark.PAGE_SIZE, new Random(42));
+        Gson tree = ImgurSerializerBenchmark.createGson(new ImgurSerializerBenchmark.TreeImgurSerializer());
+        List<ImgurBaseObject> expected = tree.fromJson(json, ImgurSerializerBenchmark.Page.class).data;
+        List<ImgurBaseObject> actual = ApiClient.getGson().fromJson(json, ImgurSerializerBenchmark.Page.class).data;
+
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getClass(), actual.get(i).getClass());
+            assertEquals(describe(expected.get(i)), describe(actual.get(i)));
+        }
+    }
+
+    @Test
+    public void photoRoundTrip() {
+        ImgurPhoto photo = photo("abc", true);
+        photo.setTags(Collections.singletonList(new ImgurTag("funny", "someone", 10, 2)));
+        ImgurBaseObject restored = roundTrip(photo);
+
+        assertTrue(restored instanceof ImgurPhoto);
+        assertEquals(describe(photo), describe(restored));
+        assertEquals(describeTags(photo.getTags()), describeTags(restored.getTags()));
+    }
+
+    @Test
+    public void albumRoundTrip() {
+        // Built the way ViewActivity does for an album link, so the image count is never set
+        ImgurAlbum album = new ImgurAlbum("Xyz", null, "https://imgur.com/a/Xyz");
+        album.addPhotosToAlbum(new ArrayList<>(Arrays.asList(photo("abc", false), photo("def", true))));
+        album.setTags(Arrays.asList(new ImgurTag("funny", null, 1, 0), new ImgurTag("cats", "someone", 5, 3)));
+        ImgurBaseObject restored = roundTrip(album);
+
+        assertTrue(restored instanceof ImgurAlbum);
+        assertEquals(describe(album), describe(restored));
+        assertEquals(describeTags(album.getTags()), describeTags(restored.getTags()));
+
+        List<ImgurPhoto> photos = ((ImgurAlbum) restored).getAlbumPhotos();
+        assertNotNull(photos);
+        assertEquals(2, photos.size());
+
+        for (int i = 0; i < photos.size(); i++) {
+            assertEquals(describe(album.getAlbumPhotos().get(i)), describe(photos.get(i)));
+        }
+    }
+
+    @Test
+    public void emptyAlbumRoundTrip() {
+        ImgurAlbum album = new ImgurAlbum("Xyz", "title", "https://imgur.com/a/Xyz");
+        ImgurBaseObject restored = roundTrip(album);
+
+        assertTrue(restored instanceof ImgurAlbum);
+        assertEquals(describe(album), describe(restored));
+    }
+
+    private static ImgurBaseObject roundTrip(ImgurBaseObject obj) {
+        Gson gson = ApiClient.getGson();
+        String json = gson.toJson(Collections.singletonList(obj), ITEMS_TYPE);
+        List<ImgurBaseObject> items = gson.fromJson(json, ITEMS_TYPE);
+        assertEquals(1, items.size());
+        return items.get(0);
+    }
+
+    private static ImgurPhoto photo(String id, boolean animated) {
+        ImgurPhoto photo = new ImgurPhoto(id, "title " + id, "https://i.imgur.com/" + id + (animated ? ".gif" : ".jpg"), "hash" + id);
+        photo.setType(animated ? "image/gif" : "image/jpeg");
+        photo.setDimensions(640, 480);
+        photo.setIsAnimated(animated);
+        photo.setSize(12345);
+        if (animated) photo.setVideoLinks("https://i.imgur.com/" + id + ".mp4", 2048, null, 0);
+        photo.setDescription("description " + id);
+        photo.setAccount("someone");
+        photo.setDate(1470000000);
+        photo.setUpVotes(10);
+        photo.setDownVotes(2);
+        photo.setIsFavorite(true);
+        photo.setIsListed(true);
+        return photo;
+    }
+
+    private static String describe(ImgurBaseObject o) {
+        String s = o.getId() + "|" + o.getTitle() + "|" + o.getDescription() + "|" + o.getAccount() + "|" + o.getLink() + "|"
+                + o.getRedditLink() + "|" + o.getVote() + "|" + o.getDeleteHash() + "|" + o.getTopic() + "|" + o.getDate() + "|"
+                + o.getUpVotes() + "|" + o.getDownVotes() + "|" + o.isFavorited() + "|" + o.isNSFW() + "|" + o.isListed();
+
+        if (o instanceof ImgurAlbum) {
+            ImgurAlbum a = (ImgurAlbum) o;
+            s += "|" + a.getCoverId() + "|" + a.getAlbumImageCount();
+        } else {
+            ImgurPhoto p = (ImgurPhoto) o;
+            s += "|" + p.getType() + "|" + p.getMP4Link() + "|" + p.getWebMLink() + "|" + p.getWidth() + "|" + p.getHeight()
+                    + "|" + p.isAnimated() + "|" + p.getSize() + "|" + p.getMP4Size() + "|" + p.getWebMSize();
+        }
+
+        return s;
+    }
+
+    private static String describeTags(List<ImgurTag> tags) {
+        StringBuilder sb = new StringBuilder();
+
+        for (ImgurTag tag : tags) {
+            sb.append(tag.getName()).append('|').append(tag.getAuthor()).append('|')
+                    .append(tag.getUpVotes()).append('|').append(tag.getDownVotes()).append(';');
+        }
+
+        return sb.toString();
+    }
+}
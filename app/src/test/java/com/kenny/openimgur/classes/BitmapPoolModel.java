@@ -0,0 +1,172 @@
+package com.kenny.openimgur.classes;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts the thumbnail bitmaps allocated while scrolling the gallery grid, with and without pooling. {@link BitmapPool}
+ * needs real {@link android.graphics.Bitmap}s so it can't run on the JVM, this models its rules instead: a bitmap is
+ * pooled once it is out of the memory cache and no view shows it, a decode takes the smallest pooled bitmap of at most
+ * twice the size, and the largest pooled bitmaps are evicted over the pool's limit.
+ * <p>
+ * Run the main method with the memory cache size in MB as the argument, 32 if none is given.
+ */
+public class BitmapPoolModel {
+    private static final int ITEMS = 2000;
+
+    private static final int COLUMNS = 3;
+
+    // Cells on screen
+    private static final int VISIBLE = 45;
+
+    // 360x360 RGB_565 thumbnails, decoded EXACTLY to the square cells
+    private static final int BITMAP_SIZE = 360 * 360 * 2;
+
+    private static final int POOL_SIZE = 8 * 1024 * 1024;
+
+    private static final int MAX_WASTE = 2;
+
+    public static void main(String[] args) {
+        int cacheSize = (args.length > 0 ? Integer.parseInt(args[0]) : 32) * 1024 * 1024;
+        print("baseline", new BitmapPoolModel(cacheSize, false).scroll());
+        print("pooled  ", new BitmapPoolModel(cacheSize, true).scroll());
+    }
+
+    private static void print(String name, BitmapPoolModel model) {
+        System.out.println(name + " allocations=" + model.mAllocations + " allocated=" + model.mAllocated / 1024 / 1024
+                + " MB pool hits=" + model.mHits);
+    }
+
+    private static class Bitmap {
+        final int size;
+
+        // Number of cells showing the bitmap
+        int displays = 0;
+
+        boolean cached = false;
+
+        Bitmap(int size) {
+            this.size = size;
+        }
+    }
+
+    private final int mCacheLimit;
+
+    private final boolean mPooled;
+
+    // Access ordered like the image loader's LRU memory cache
+    private final LinkedHashMap<Integer, Bitmap> mCache = new LinkedHashMap<>(0, 0.75f, true);
+
+    private final TreeMap<Integer, ArrayDeque<Bitmap>> mPool = new TreeMap<>();
+
+    private final Bitmap[] mCells = new Bitmap[ITEMS];
+
+    private long mCacheSize = 0;
+
+    private long mPoolSize = 0;
+
+    int mAllocations = 0;
+
+    long mAllocated = 0;
+
+    int mHits = 0;
+
+    BitmapPoolModel(int cacheLimit, boolean pooled) {
+        mCacheLimit = cacheLimit;
+        mPooled = pooled;
+    }
+
+    /**
+     * Scrolls from the top of the grid to the bottom one row at a time
+     *
+     * @return
+     */
+    BitmapPoolModel scroll() {
+        for (int top = 0; top + VISIBLE <= ITEMS; top += COLUMNS) {
+            if (top >= COLUMNS) {
+                // The row that scrolled off is recycled
+                for (int i = top - COLUMNS; i < top; i++) {
+                    Bitmap bitmap = mCells[i];
+                    mCells[i] = null;
+                    bitmap.displays--;
+                    release(bitmap);
+                }
+            }
+
+            for (int i = top; i < top + VISIBLE; i++) {
+                if (mCells[i] == null) show(i);
+            }
+        }
+
+        return this;
+    }
+
+    private void show(int item) {
+        Bitmap bitmap = mCache.get(item);
+
+        if (bitmap == null) {
+            bitmap = decode(BITMAP_SIZE);
+            bitmap.cached = true;
+            mCache.put(item, bitmap);
+            mCacheSize += bitmap.size;
+            trimCache();
+        }
+
+        bitmap.displays++;
+        mCells[item] = bitmap;
+    }
+
+    private Bitmap decode(int size) {
+        if (mPooled) {
+            Map.Entry<Integer, ArrayDeque<Bitmap>> entry = mPool.ceilingEntry(size);
+
+            if (entry != null && entry.getKey() <= (long) size * MAX_WASTE) {
+                Bitmap bitmap = entry.getValue().poll();
+                if (entry.getValue().isEmpty()) mPool.remove(entry.getKey());
+                mPoolSize -= entry.getKey();
+                mHits++;
+                return bitmap;
+            }
+        }
+
+        mAllocations++;
+        mAllocated += size;
+        return new Bitmap(size);
+    }
+
+    private void trimCache() {
+        Iterator<Bitmap> iterator = mCache.values().iterator();
+
+        while (mCacheSize > mCacheLimit) {
+            Bitmap evicted = iterator.next();
+            iterator.remove();
+            mCacheSize -= evicted.size;
+            evicted.cached = false;
+            release(evicted);
+        }
+    }
+
+    private void release(Bitmap bitmap) {
+        if (!mPooled || bitmap.displays > 0 || bitmap.cached) return;
+
+        ArrayDeque<Bitmap> bucket = mPool.get(bitmap.size);
+
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            mPool.put(bitmap.size, bucket);
+        }
+
+        bucket.push(bitmap);
+        mPoolSize += bitmap.size;
+
+        while (mPoolSize > POOL_SIZE) {
+            Map.Entry<Integer, ArrayDeque<Bitmap>> largest = mPool.lastEntry();
+            largest.getValue().poll();
+            if (largest.getValue().isEmpty()) mPool.remove(largest.getKey());
+            mPoolSize -= largest.getKey();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.kenny.openimgur.collections;
+
+import com.google.gson.reflect.TypeToken;
+import com.kenny.openimgur.api.ApiClient;
+import com.kenny.openimgur.classes.ImgurComment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Expands and collapses every thread of synthetic 10k comment trees with {@link CommentTree} and with the list logic
+ * CommentAdapter used before it. Prints the best time of several runs, run the main method on a desktop JVM.
+ */
+public class CommentTreeBenchmark {
+    private static final int WARMUP = 20;
+
+    private static final int RUNS = 15;
+
+    // Comment count, top level comments, deepest nesting
+    private static final int[][] SHAPES = {{10000, 200, 8}, {10000, 20, 30}, {10000, 1, 50}};
+
+    public static void main(String[] args) {
+        for (int[] shape : SHAPES) {
+            List<ImgurComment> roots = comments(shape[0], shape[1], shape[2], new Random(42));
+            long old = Long.MAX_VALUE;
+            long tree = Long.MAX_VALUE;
+
+            for (int i = 0; i < WARMUP; i++) {
+                run(new ListRows(roots), new ArrayList<Integer>());
+                run(new TreeRows(roots), new ArrayList<Integer>());
+            }
+
+            for (int i = 0; i < RUNS; i++) {
+                List<Integer> oldSizes = new ArrayList<>();
+                List<Integer> treeSizes = new ArrayList<>();
+                old = Math.min(old, run(new ListRows(roots), oldSizes));
+                tree = Math.min(tree, run(new TreeRows(roots), treeSizes));
+                // The old logic can leave replies behind when the last thread is collapsed, only the first two passes match
+                if (!oldSizes.subList(0, 2).equals(treeSizes.subList(0, 2))) throw new AssertionError(oldSizes + " != " + treeSizes);
+            }
+
+            System.out.println(String.format("n=%d roots=%d maxDepth=%d old=%.2f ms tree=%.2f ms",
+                    shape[0], shape[1], shape[2], old / 1e6, tree / 1e6));
+        }
+    }
+
+    /**
+     * Expands every row top to bottom, collapses bottom up, then expands the top level again and collapses top down
+     */
+    private static long run(Rows rows, List<Integer> sizes) {
+        long start = System.nanoTime();
+
+        for (int row = 0; row < rows.size(); row++) {
+            rows.expand(row);
+        }
+
+        sizes.add(rows.size());
+
+        for (int row = rows.size() - 1; row >= 0; row--) {
+            if (rows.isExpanded(row)) rows.collapse(row);
+        }
+
+        sizes.add(rows.size());
+
+        for (int row = 0; row < rows.size(); row++) {
+            rows.expand(row);
+        }
+
+        for (int row = 0; row < rows.size(); row++) {
+            if (rows.isExpanded(row)) rows.collapse(row);
+        }
+
+        sizes.add(rows.size());
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Builds a comment tree through the API's JSON format. Replies are nested under random earlier comments, biased to
+     * the most recent ones to get long chains. Every reply list is parsed before returning so the timings only cover
+     * the row handling
+     *
+     * @param count    Total number of comments
+     * @param roots    Number of top level comments
+     * @param maxDepth Deepest a reply can be nested
+     * @param random
+     * @return
+     */
+    static List<ImgurComment> comments(int count, int roots, int maxDepth, Random random) {
+        List<Node> all = new ArrayList<>(count);
+        List<Node> top = new ArrayList<>(roots);
+
+        for (int i = 0; i < roots; i++) {
+            Node node = new Node(all.size() + 1, 0, 0);
+            top.add(node);
+            all.add(node);
+        }
+
+        while (all.size() < count) {
+            int parent = random.nextBoolean() ? all.size() - 1 - random.nextInt(Math.min(all.size(), 20)) : random.nextInt(all.size());
+            Node p = all.get(parent);
+            if (p.depth >= maxDepth) continue;
+
+            Node node = new Node(all.size() + 1, p.id, p.depth + 1);
+            p.children.add(node);
+            all.add(node);
+        }
+
+        StringBuilder json = new StringBuilder();
+        Node.write(top, json);
+        List<ImgurComment> comments = ApiClient.getGson().fromJson(json.toString(), new TypeToken<List<ImgurComment>>() {
+        }.getType());
+
+        materialize(comments);
+        return comments;
+    }
+
+    private static void materialize(List<ImgurComment> comments) {
+        for (ImgurComment comment : comments) {
+            if (comment.getReplyCount() > 0) materialize(comment.getReplies());
+        }
+    }
+
+    private static class Node {
+        final long id;
+        final long parentId;
+        final int depth;
+        final List<Node> children = new ArrayList<>();
+
+        Node(long id, long parentId, int depth) {
+            this.id = id;
+            this.parentId = parentId;
+            this.depth = depth;
+        }
+
+        static void write(List<Node> nodes, StringBuilder json) {
+            json.append('[');
+
+            for (int i = 0; i < nodes.size(); i++) {
+                Node node = nodes.get(i);
+                if (i > 0) json.append(',');
+                json.append("{\"id\":\"").append(node.id).append("\",\"parent_id\":").append(node.parentId)
+                        .append(",\"comment\":\"Comment ").append(node.id).append("\",\"children\":");
+                write(node.children, json);
+                json.append('}');
+            }
+
+            json.append(']');
+        }
+    }
+
+    interface Rows {
+        int size();
+
+        boolean isExpanded(int row);
+
+        void expand(int row);
+
+        void collapse(int row);
+    }
+
+    static class TreeRows implements Rows {
+        final CommentTree mTree;
+
+        final List<ImgurComment> mItems;
+
+        TreeRows(List<ImgurComment> roots) {
+            mTree = new CommentTree(roots);
+            mItems = mTree.getRows();
+        }
+
+        @Override
+        public int size() {
+            return mItems.size();
+        }
+
+        @Override
+        public boolean isExpanded(int row) {
+            return mTree.isExpanded(row);
+        }
+
+        @Override
+        public void expand(int row) {
+            if (mTree.hasReplies(row)) mItems.addAll(row + 1, mTree.expand(row));
+        }
+
+        @Override
+        public void collapse(int row) {
+            if (!mTree.hasReplies(row)) return;
+            int removed = mTree.collapse(row);
+            if (removed > 0) mItems.subList(row + 1, row + 1 + removed).clear();
+        }
+    }
+
+    /**
+     * The expand and collapse logic CommentAdapter had before {@link CommentTree}, on a flat list of comments
+     */
+    static class ListRows implements Rows {
+        final List<ImgurComment> mItems;
+
+        private final Set<ImgurComment> mExpanded = new HashSet<>();
+
+        private final Map<Long, Integer> mIndicatorMultiples = new HashMap<>();
+
+        ListRows(List<ImgurComment> roots) {
+            mItems = new ArrayList<>(roots);
+        }
+
+        @Override
+        public int size() {
+            return mItems.size();
+        }
+
+        @Override
+        public boolean isExpanded(int row) {
+            return mExpanded.contains(mItems.get(row));
+        }
+
+        @Override
+        public void expand(int position) {
+            ImgurComment comment = mItems.get(position);
+            if (comment.getReplyCount() <= 0) return;
+            mExpanded.add(comment);
+            Integer multiple = mIndicatorMultiples.get(comment.getParentId());
+
+            if (multiple == null) {
+                if (comment.getParentId() > 0) mIndicatorMultiples.put(comment.getParentId(), 1);
+                mIndicatorMultiples.put(Long.valueOf(comment.getId()), 1);
+            } else {
+                mIndicatorMultiples.put(Long.valueOf(comment.getId()), multiple + 1);
+            }
+
+            mItems.addAll(position + 1, comment.getReplies());
+        }
+
+        @Override
+        public void collapse(int position) {
+            ImgurComment comment = mItems.get(position);
+            if (comment.getReplyCount() <= 0) return;
+            position++;
+            mExpanded.remove(comment);
+            int endPosition = -1;
+
+            for (int i = position; i < mItems.size(); i++) {
+                ImgurComment c = mItems.get(i);
+
+                if (c.getParentId() == comment.getParentId()) {
+                    endPosition = i;
+                    break;
+                } else if (mExpanded.contains(c)) {
+                    mExpanded.remove(c);
+                }
+            }
+
+            if (endPosition == -1) {
+                for (int i = position - 2; i >= 0; i--) {
+                    ImgurComment previous = mItems.get(i);
+
+                    for (int x = position; x < mItems.size(); x++) {
+                        ImgurComment c = mItems.get(x);
+
+                        if (c.getParentId() == previous.getParentId()) {
+                            endPosition = x;
+                            break;
+                        } else if (mExpanded.contains(c)) {
+                            mExpanded.remove(c);
+                        }
+                    }
+
+                    if (endPosition != -1) break;
+                }
+            }
+
+            if (endPosition == -1) endPosition = position + comment.getReplyCount();
+            mItems.subList(position, Math.min(endPosition, mItems.size())).clear();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.kenny.openimgur.collections;
+
+import com.kenny.openimgur.classes.ImgurComment;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CommentTreeTest {
+
+    @Test
+    public void expandAndCollapse() {
+        List<ImgurComment> roots = CommentTreeBenchmark.comments(50, 3, 4, new Random(3));
+        CommentTree tree = new CommentTree(roots);
+        assertEquals(3, tree.getRowCount());
+
+        int row = firstWithReplies(tree);
+        ImgurComment comment = tree.getRow(row);
+        List<ImgurComment> shown = tree.expand(row);
+        assertEquals(comment.getReplies(), shown);
+        assertTrue(tree.isExpanded(row));
+        assertEquals(1, tree.getDepth(row + 1));
+        assertTrue(tree.expand(row).isEmpty());
+
+        assertEquals(shown.size(), tree.collapse(row));
+        assertFalse(tree.isExpanded(row));
+        assertEquals(0, tree.collapse(row));
+        assertEquals(roots, tree.getRows());
+    }
+
+    @Test
+    public void collapseHidesNestedReplies() {
+        CommentTree tree = new CommentTree(CommentTreeBenchmark.comments(2000, 1, 30, new Random(5)));
+
+        for (int row = 0; row < tree.getRowCount(); row++) {
+            if (tree.hasReplies(row)) tree.expand(row);
+        }
+
+        assertEquals(2000, tree.getRowCount());
+        assertEquals(1999, tree.collapse(0));
+        assertEquals(1, tree.getRowCount());
+
+        // Nested replies were collapsed along with the thread
+        tree.expand(0);
+        assertEquals(tree.getRow(0).getReplyCount() + 1, tree.getRowCount());
+
+        for (int row = 1; row < tree.getRowCount(); row++) {
+            assertFalse(tree.isExpanded(row));
+        }
+    }
+
+    @Test
+    public void appendKeepsExpandedThreads() {
+        List<ImgurComment> comments = CommentTreeBenchmark.comments(300, 20, 5, new Random(9));
+        CommentTree tree = new CommentTree(comments.subList(0, 10));
+        int row = firstWithReplies(tree);
+        int shown = tree.expand(row).size();
+
+        tree.append(comments.subList(10, 20));
+        assertEquals(20 + shown, tree.getRowCount());
+        assertSame(comments.get(19), tree.getRow(tree.getRowCount() - 1));
+        assertEquals(comments, tree.getRoots());
+    }
+
+    @Test
+    public void matchesReferenceRows() {
+        Random random = new Random(13);
+
+        for (int[] shape : new int[][]{{500, 20, 8}, {500, 1, 40}, {500, 100, 2}}) {
+            List<ImgurComment> roots = CommentTreeBenchmark.comments(shape[0], shape[1], shape[2], random);
+            CommentTree tree = new CommentTree(roots);
+            Set<ImgurComment> expanded = new HashSet<>();
+
+            for (int i = 0; i < 5000; i++) {
+                int row = random.nextInt(tree.getRowCount());
+                ImgurComment comment = tree.getRow(row);
+
+                if (tree.isExpanded(row)) {
+                    tree.collapse(row);
+                    collapse(comment, expanded);
+                } else if (tree.hasReplies(row)) {
+                    tree.expand(row);
+                    expanded.add(comment);
+                }
+
+                List<ImgurComment> rows = new ArrayList<>();
+                List<Integer> depths = new ArrayList<>();
+                walk(roots, 0, expanded, rows, depths);
+                assertEquals(rows, tree.getRows());
+
+                for (int r = 0; r < rows.size(); r++) {
+                    assertEquals(depths.get(r).intValue(), tree.getDepth(r));
+                    assertEquals(expanded.contains(rows.get(r)), tree.isExpanded(r));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void matchesListRows() {
+        for (int[] shape : new int[][]{{2000, 40, 8}, {2000, 4, 30}}) {
+            List<ImgurComment> roots = CommentTreeBenchmark.comments(shape[0], shape[1], shape[2], new Random(21));
+            CommentTreeBenchmark.TreeRows tree = new CommentTreeBenchmark.TreeRows(roots);
+            CommentTreeBenchmark.ListRows list = new CommentTreeBenchmark.ListRows(roots);
+
+            for (int row = 0; row < list.size(); row++) {
+                list.expand(row);
+                tree.expand(row);
+            }
+
+            assertEquals(list.mItems, tree.mItems);
+            assertEquals(tree.mItems, tree.mTree.getRows());
+
+            for (int row = list.size() - 1; row >= 0; row--) {
+                if (list.isExpanded(row)) list.collapse(row);
+                if (tree.isExpanded(row)) tree.collapse(row);
+            }
+
+            assertEquals(list.mItems, tree.mItems);
+            assertEquals(roots, tree.mTree.getRows());
+        }
+    }
+
+    private static int firstWithReplies(CommentTree tree) {
+        for (int row = 0; row < tree.getRowCount(); row++) {
+            if (tree.hasReplies(row)) return row;
+        }
+
+        throw new AssertionError("No comment has replies");
+    }
+
+    private static void collapse(ImgurComment comment, Set<ImgurComment> expanded) {
+        expanded.remove(comment);
+
+        if (comment.getReplyCount() > 0) {
+            for (ImgurComment reply : comment.getReplies()) {
+                collapse(reply, expanded);
+            }
+        }
+    }
+
+    private static void walk(List<ImgurComment> comments, int depth, Set<ImgurComment> expanded, List<ImgurComment> rows, List<Integer> depths) {
+        for (ImgurComment comment : comments) {
+            rows.add(comment);
+            depths.add(depth);
+            if (expanded.contains(comment)) walk(comment.getReplies(), depth + 1, expanded, rows, depths);
+        }
+    }
+}
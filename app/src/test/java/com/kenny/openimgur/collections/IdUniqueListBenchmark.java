@@ -0,0 +1,136 @@
+package com.kenny.openimgur.collections;
+
+import com.kenny.openimgur.classes.ImgurBaseObject;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Appends gallery pages to an {@link IdUniqueList} and to a list built the way the removed SetUniqueList was, then
+ * looks up random items with indexOf. Prints the best time of several runs, run the main method on a desktop JVM.
+ */
+public class IdUniqueListBenchmark {
+    static final int PAGE_SIZE = 60;
+
+    private static final int LOOKUPS = 200;
+
+    private static final int WARMUP = 20;
+
+    private static final int RUNS = 15;
+
+    private static final int[] SIZES = {5000, 10000, 20000};
+
+    public static void main(String[] args) {
+        for (int size : SIZES) {
+            List<List<ImgurBaseObject>> pages = pages(size, new Random(1));
+
+            for (int i = 0; i < WARMUP; i++) {
+                run(true, pages, new Random(i));
+                run(false, pages, new Random(i));
+            }
+
+            long id = Long.MAX_VALUE;
+            long set = Long.MAX_VALUE;
+
+            for (int i = 0; i < RUNS; i++) {
+                id = Math.min(id, run(true, pages, new Random(i)));
+                set = Math.min(set, run(false, pages, new Random(i)));
+            }
+
+            System.out.println(String.format("%d items: IdUniqueList %.2f ms, SetUniqueList %.2f ms", size, id / 1e6, set / 1e6));
+        }
+    }
+
+    /**
+     * Builds pages of {@link #PAGE_SIZE} items where about 5% of the items repeat one from an earlier page, like the
+     * viral gallery returns
+     *
+     * @param total  Number of unique items
+     * @param random
+     * @return
+     */
+    static List<List<ImgurBaseObject>> pages(int total, Random random) {
+        List<List<ImgurBaseObject>> pages = new ArrayList<>();
+        int id = 0;
+
+        while (id < total) {
+            List<ImgurBaseObject> page = new ArrayList<>(PAGE_SIZE);
+
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                if (id > 100 && random.nextInt(20) == 0) {
+                    page.add(item(Integer.toString(random.nextInt(id), 36)));
+                } else {
+                    page.add(item(Integer.toString(id++, 36)));
+                }
+            }
+
+            pages.add(page);
+        }
+
+        return pages;
+    }
+
+    static ImgurBaseObject item(String id) {
+        return new ImgurBaseObject(id, null, null);
+    }
+
+    private static long run(boolean idList, List<List<ImgurBaseObject>> pages, Random random) {
+        long start = System.nanoTime();
+        List<ImgurBaseObject> list = idList ? new IdUniqueList<>(pages.get(0)) : new SetBackedUniqueList(pages.get(0));
+
+        for (int i = 1; i < pages.size(); i++) {
+            list.addAll(pages.get(i));
+        }
+
+        long found = 0;
+        int size = list.size();
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            found += list.indexOf(item(list.get(random.nextInt(size)).getId()));
+        }
+
+        if (found < 0) throw new AssertionError();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * What SetUniqueList.decorate did: copies the given items into a list guarded by a HashSet, adds one at a time and
+     * finds items with the list's linear indexOf
+     */
+    static class SetBackedUniqueList extends AbstractList<ImgurBaseObject> {
+        private final List<ImgurBaseObject> mItems = new ArrayList<>();
+
+        private final Set<ImgurBaseObject> mSet = new HashSet<>();
+
+        SetBackedUniqueList(List<ImgurBaseObject> items) {
+            List<ImgurBaseObject> copy = new ArrayList<>(items);
+            addAll(copy);
+        }
+
+        @Override
+        public boolean add(ImgurBaseObject item) {
+            if (!mSet.add(item)) return false;
+            mItems.add(item);
+            return true;
+        }
+
+        @Override
+        public ImgurBaseObject get(int index) {
+            return mItems.get(index);
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return mItems.indexOf(o);
+        }
+
+        @Override
+        public int size() {
+            return mItems.size();
+        }
+    }
+}
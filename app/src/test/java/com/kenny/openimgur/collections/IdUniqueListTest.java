@@ -0,0 +1,106 @@
+package com.kenny.openimgur.collections;
+
+import com.kenny.openimgur.classes.ImgurBaseObject;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static com.kenny.openimgur.collections.IdUniqueListBenchmark.item;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IdUniqueListTest {
+
+    @Test
+    public void rejectsDuplicateIds() {
+        IdUniqueList<ImgurBaseObject> list = new IdUniqueList<>(Arrays.asList(item("a"), item("b"), item("a")));
+        assertEquals(2, list.size());
+        assertFalse(list.add(item("b")));
+        assertTrue(list.add(item("c")));
+        assertEquals(2, list.indexOf(item("c")));
+        assertEquals(1, list.indexOfId("b"));
+        assertTrue(list.containsId("a"));
+        assertEquals(-1, list.indexOfId("z"));
+    }
+
+    @Test
+    public void keepsItemsWithoutId() {
+        IdUniqueList<ImgurBaseObject> list = new IdUniqueList<>();
+        ImgurBaseObject a = item("a");
+        ImgurBaseObject b = item("b");
+        ImgurBaseObject n1 = item(null);
+        ImgurBaseObject n2 = item(null);
+        ImgurBaseObject n3 = item(null);
+
+        list.addAll(Arrays.asList(a, n1, a, n2));
+        list.add(0, b);
+        list.addAll(1, Arrays.asList(n3, b));
+        assertEquals(Arrays.asList(b, n3, a, n1, n2), list);
+        assertEquals(3, list.indexOf(n1));
+        assertEquals(2, list.indexOfId("a"));
+
+        assertTrue(list.remove(n1));
+        assertFalse(list.contains(n1));
+        assertEquals(3, list.indexOf(n2));
+        assertEquals(2, list.indexOfId("a"));
+    }
+
+    @Test
+    public void insertsAndRemovesKeepPositions() {
+        IdUniqueList<ImgurBaseObject> list = new IdUniqueList<>(Arrays.asList(item("a"), item("b"), item("c")));
+        list.addAll(1, Arrays.asList(item("x"), item("y"), item("x"), item("c")));
+        assertIds(list, "a", "x", "y", "b", "c");
+
+        list.remove(0);
+        list.subList(1, 3).clear();
+        assertIds(list, "x", "c");
+        assertEquals(1, list.indexOfId("c"));
+        assertEquals(-1, list.indexOfId("y"));
+    }
+
+    @Test
+    public void replaceKeepsPosition() {
+        IdUniqueList<ImgurBaseObject> list = new IdUniqueList<>(Arrays.asList(item("a"), item("b")));
+        ImgurBaseObject updated = item("b");
+        assertEquals(1, list.replace(updated));
+        assertSame(updated, list.get(1));
+        assertEquals(-1, list.replace(item("z")));
+
+        try {
+            list.set(0, item("b"));
+            fail("Duplicate id was set");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    @Test
+    public void matchesSetBackedList() {
+        List<List<ImgurBaseObject>> pages = IdUniqueListBenchmark.pages(2000, new Random(7));
+        IdUniqueList<ImgurBaseObject> list = new IdUniqueList<>(pages.get(0));
+        IdUniqueListBenchmark.SetBackedUniqueList expected = new IdUniqueListBenchmark.SetBackedUniqueList(pages.get(0));
+
+        for (int i = 1; i < pages.size(); i++) {
+            assertEquals(expected.addAll(pages.get(i)), list.addAll(pages.get(i)));
+        }
+
+        assertEquals(expected, list);
+
+        for (ImgurBaseObject item : expected) {
+            assertEquals(expected.indexOf(item), list.indexOf(item(item.getId())));
+        }
+    }
+
+    private static void assertIds(List<ImgurBaseObject> list, String... ids) {
+        assertEquals(ids.length, list.size());
+
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], list.get(i).getId());
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.kenny.openimgur.util;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks {@link LinkUtils#parseImgurLink(String)} against the regular expression chain it replaced. The old chain is
+ * kept below verbatim as the reference, every url must get the same match and id from both.
+ */
+public class LinkUtilsTest {
+    private static final int FUZZ_COUNT = 50000;
+
+    private static final String[] REAL_LINKS = {
+            "http://imgur.com/gallery/abc123",
+            "https://imgur.com/gallery/abc123/comment/12345",
+            "https://m.imgur.com/a/Xyz",
+            "https://imgur.com/a/ab/cd",
+            "https://i.imgur.com/abc.jpg",
+            "https://i.imgur.com/abc.gifv",
+            "https://i.imgur.com/abc.mp4",
+            "https://i.imgur.com/abc.webm",
+            "http://i.imgur.com/abc.png?1",
+            "https://imgur.com/abc",
+            "https://imgur.com/abc?r",
+            "https://imgur.com/user/someone",
+            "https://imgur.com/user/some-one/favorites",
+            "https://imgur.com/topic/Funny/abc12",
+            "https://imgur.com/topic/Funny",
+            "https://imgur.com/topic/x/topic/a/b",
+            "https://imgur.com/t/funny/abc",
+            "https://imgur.com/gallery/",
+            "https://imgur.com/gallery/?x",
+            "https://imgur.com/gallery/-/gallery/abc",
+            "http://imgur.com/",
+            "imgur.com/abc",
+            "HTTPS://IMGUR.COM/abc",
+            "@someone",
+            "@op",
+            "https://example.com/pic.jpeg",
+            "https://example.com/pic.png?width=100",
+            "https://www.google.com/",
+            "not a link",
+            "",
+            null
+    };
+
+    // Fragments the fuzzer glues together, heavy on the characters the old patterns treat specially
+    private static final String[] PIECES = {
+            "http://", "https://", "HTTP://", "hTtPs://", "ftp://", "m.imgur.com", "imgur.com", "i.imgur.com",
+            "mXimgurYcom", "i/imgur.com", "imgur\ncom", "example.com", "/", "/", "gallery/", "user/", "a/", "topic/",
+            "abc", "Xy_9", "123", ".jpg", ".jpeg", ".gif", ".png", ".gifv", ".mp4", ".webm", "jpg", "png", "?", "?",
+            "q1", "=", "-", " ", "\t", "\n", ".", "@", "@op", "\u00e9", "%20", "#", "&"
+    };
+
+    // Index in PIECES of the first fragment that can follow a host
+    private static final int PATH_PIECES = 12;
+
+    private static final String[] SCHEMES = {"http://", "https://", "HTTPS://"};
+
+    private static final String[] HOSTS = {"imgur.com", "i.imgur.com", "m.imgur.com", "mXimgurYcom", "example.com", "imgur.co"};
+
+    @BeforeClass
+    public static void setUp() {
+        LogUtil.onCreateApplication(false);
+    }
+
+    @Test
+    public void realLinks() {
+        for (String url : REAL_LINKS) {
+            assertSameAsRegex(url);
+        }
+    }
+
+    @Test
+    public void knownMatches() {
+        assertLink("https://imgur.com/gallery/abc123/comment/12345", LinkUtils.LinkMatch.GALLERY, "abc123");
+        assertLink("https://m.imgur.com/a/Xyz", LinkUtils.LinkMatch.ALBUM, "Xyz");
+        assertLink("https://imgur.com/user/someone", LinkUtils.LinkMatch.USER, "someone");
+        assertLink("https://imgur.com/topic/Funny/abc12", LinkUtils.LinkMatch.TOPIC, "abc12");
+        assertLink("https://imgur.com/abc", LinkUtils.LinkMatch.IMAGE, "abc");
+        assertLink("https://i.imgur.com/abc.gifv", LinkUtils.LinkMatch.DIRECT_LINK, null);
+        assertLink("https://example.com/pic.png?width", LinkUtils.LinkMatch.IMAGE_URL_QUERY, null);
+        assertLink("@op", LinkUtils.LinkMatch.USER_CALLOUT, null);
+        assertLink(null, LinkUtils.LinkMatch.NONE, null);
+        assertNull(LinkUtils.parseImgurLink("https://www.google.com/").getId());
+    }
+
+    @Test
+    public void randomFragments() {
+        Random random = new Random(16);
+
+        for (int i = 0; i < FUZZ_COUNT; i++) {
+            StringBuilder sb = new StringBuilder();
+            int pieces = 1 + random.nextInt(7);
+
+            for (int k = 0; k < pieces; k++) {
+                sb.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+
+            assertSameAsRegex(sb.toString());
+        }
+    }
+
+    @Test
+    public void randomPaths() {
+        Random random = new Random(61);
+
+        for (int i = 0; i < FUZZ_COUNT; i++) {
+            StringBuilder sb = new StringBuilder(SCHEMES[random.nextInt(SCHEMES.length)])
+                    .append(HOSTS[random.nextInt(HOSTS.length)])
+                    .append('/');
+
+            int pieces = random.nextInt(5);
+
+            for (int k = 0; k < pieces; k++) {
+                sb.append(PIECES[PATH_PIECES + random.nextInt(PIECES.length - PATH_PIECES)]);
+            }
+
+            assertSameAsRegex(sb.toString());
+        }
+    }
+
+    private static void assertLink(String url, LinkUtils.LinkMatch match, String id) {
+        LinkUtils.ImgurLink link = LinkUtils.parseImgurLink(url);
+        assertEquals(url, match, link.getMatch());
+        assertEquals(url, id, link.getId());
+    }
+
+    private static void assertSameAsRegex(String url) {
+        LinkUtils.ImgurLink link = LinkUtils.parseImgurLink(url);
+        LinkUtils.LinkMatch expected = RegexLinks.findImgurLinkMatch(url);
+        assertEquals(url, expected, link.getMatch());
+        assertEquals(url, RegexLinks.getId(url, expected), link.getId());
+        assertEquals(url, expected, LinkUtils.findImgurLinkMatch(url));
+    }
+
+    /**
+     * The link matching as it was before {@link LinkUtils#parseImgurLink(String)}
+     */
+    private static class RegexLinks {
+        private static final String REGEX_IMAGE_URL = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://\\S+(.jpg|.jpeg|.gif|.png)$";
+
+        private static final String REGEX_IMGUR_IMAGE = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://" +
+                "(m.imgur.com|imgur.com|i.imgur.com)/(?!=/)\\w+$";
+
+        private static final String REGEX_IMGUR_IMAGE_QUERY = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://(m.imgur.com|imgur.com|i.imgur.com)/(?!=/)\\w+\\?\\w+$";
+
+        private static final String REGEX_IMGUR_GALLERY = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://" +
+                "(m.imgur.com|imgur.com|i.imgur.com)/gallery/.+";
+
+        private static final String REGEX_IMGUR_USER = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://" +
+                "(m.imgur.com|imgur.com|i.imgur.com)/user/.+";
+
+        private static final String REGEX_IMGUR_ALBUM = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://" +
+                "(m.imgur.com|imgur.com|i.imgur.com)/a/.+";
+
+        private static final String REGEX_IMGUR_DIRECT_LINK = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://" +
+                "(m.imgur.com|imgur.com|i.imgur.com)/(?!=/)\\w+(.jpg|.jpeg|.gif|.png|.gifv|.mp4|.webm)$";
+
+        private static final String REGEX_IMGUR_USER_CALLOUT = "@\\w+";
+
+        private static final String REGEX_IMAGE_URL_QUERY = "([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://\\S+(.jpg|.jpeg|.gif|.png)\\?\\w+$";
+
+        private static final String REGEX_IMGUR_TOPIC = "^([hH][tT][tT][pP]|[hH][tT][tT][pP][sS])://" +
+                "(m.imgur.com|imgur.com|i.imgur.com)/topic/.+";
+
+        private static final Pattern ID_PATTERN = Pattern.compile("(?<=.com/)\\w+$");
+
+        private static final Pattern USER_PATTERN = Pattern.compile("(?<=/user/)(?!=/)\\w+");
+
+        private static final Pattern GALLERY_ID_PATTERN = Pattern.compile("(?<=/gallery/)(?!=/)\\w+");
+
+        private static final Pattern ALBUM_ID_PATTERN = Pattern.compile("(?<=/a/)(?!=/)\\w+");
+
+        private static final Pattern TOPIC_PATTERN = Pattern.compile("(?<=/topic/)\\w+/\\w+$");
+
+        static LinkUtils.LinkMatch findImgurLinkMatch(String url) {
+            LinkUtils.LinkMatch match = LinkUtils.LinkMatch.NONE;
+
+            if (url != null && !url.isEmpty()) {
+                if (url.matches(REGEX_IMGUR_DIRECT_LINK)) {
+                    match = LinkUtils.LinkMatch.DIRECT_LINK;
+                } else if (url.matches(REGEX_IMAGE_URL)) {
+                    match = LinkUtils.LinkMatch.IMAGE_URL;
+                } else if (url.matches(REGEX_IMGUR_IMAGE)) {
+                    match = LinkUtils.LinkMatch.IMAGE;
+                } else if (url.matches(REGEX_IMGUR_GALLERY)) {
+                    match = LinkUtils.LinkMatch.GALLERY;
+                } else if (url.matches(REGEX_IMGUR_USER)) {
+                    match = LinkUtils.LinkMatch.USER;
+                } else if (url.matches(REGEX_IMGUR_ALBUM)) {
+                    match = LinkUtils.LinkMatch.ALBUM;
+                } else if (url.matches(REGEX_IMGUR_USER_CALLOUT)) {
+                    match = LinkUtils.LinkMatch.USER_CALLOUT;
+                } else if (url.matches(REGEX_IMAGE_URL_QUERY)) {
+                    match = LinkUtils.LinkMatch.IMAGE_URL_QUERY;
+                } else if (url.matches(REGEX_IMGUR_IMAGE_QUERY)) {
+                    match = LinkUtils.LinkMatch.IMAGE_URL_QUERY;
+                } else if (url.matches(REGEX_IMGUR_TOPIC)) {
+                    match = LinkUtils.LinkMatch.TOPIC;
+                }
+            }
+
+            return match;
+        }
+
+        static String getId(String url, LinkUtils.LinkMatch match) {
+            switch (match) {
+                case GALLERY:
+                    return find(GALLERY_ID_PATTERN, url);
+
+                case USER:
+                    return find(USER_PATTERN, url);
+
+                case ALBUM:
+                    return find(ALBUM_ID_PATTERN, url);
+
+                case IMAGE:
+                    return find(ID_PATTERN, url);
+
+                case TOPIC:
+                    String topic = find(TOPIC_PATTERN, url);
+                    return topic != null ? topic.split("/")[1] : null;
+
+                default:
+                    return null;
+            }
+        }
+
+        private static String find(Pattern pattern, String url) {
+            Matcher matcher = pattern.matcher(url);
+            return matcher.find() ? matcher.group() : null;
+        }
+    }
+}